@@ -0,0 +1,205 @@
+package com.threadviz;
+
+import com.threadviz.core.EventBus;
+import com.threadviz.core.Simulation;
+import com.threadviz.metrics.ContentionTracker;
+import com.threadviz.metrics.MetricsServer;
+import com.threadviz.models.ResourceRegistry;
+import com.threadviz.models.ThreadEvent;
+import com.threadviz.simulations.DiningPhilosophersSimulation;
+import com.threadviz.simulations.ProducerConsumerSimulation;
+import com.threadviz.simulations.ReaderWriterSimulation;
+import com.threadviz.stream.EventStreamServer;
+import com.threadviz.stream.RemoteEventPublisher;
+import com.threadviz.stream.TraceFile;
+import com.threadviz.ui.FrameRecorder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Runs a simulation without a display and reports on it from the console.
+ */
+public class HeadlessRunner {
+    
+    private final Simulation simulation;
+    private final ContentionTracker contentionTracker;
+    private final ResourceRegistry resourceRegistry;
+    
+    public HeadlessRunner(Simulation simulation) {
+        this.simulation = simulation;
+        this.resourceRegistry = new ResourceRegistry();
+        this.contentionTracker = new ContentionTracker(resourceRegistry);
+    }
+    
+    /**
+     * Create a simulation from its command line name
+     * @param name One of producer-consumer, dining-philosophers or reader-writer
+     * @return the simulation, or null if the name is unknown
+     */
+    public static Simulation createSimulation(String name) {
+        switch (name.toLowerCase()) {
+            case "producer-consumer":
+                return new ProducerConsumerSimulation();
+            case "dining-philosophers":
+                return new DiningPhilosophersSimulation();
+            case "reader-writer":
+                return new ReaderWriterSimulation();
+            default:
+                return null;
+        }
+    }
+    
+    /**
+     * Run the simulation for the given duration, then stop it
+     */
+    public void run(long seconds) throws InterruptedException {
+        EventBus eventBus = EventBus.getInstance();
+        eventBus.addEventListener(resourceRegistry);
+        MetricsServer metricsServer = MetricsServer.startIfConfigured(() -> simulation, contentionTracker,
+                resourceRegistry);
+        EventStreamServer streamServer = EventStreamServer.startIfConfigured(() -> simulation);
+        RemoteEventPublisher publisher = RemoteEventPublisher.startIfConfigured();
+        try {
+            simulation.start();
+            Thread.sleep(seconds * 1000);
+            simulation.stop();
+            
+            // Give the dispatcher a moment to deliver the last events
+            Thread.sleep(200);
+        } finally {
+            eventBus.removeEventListener(resourceRegistry);
+            if (metricsServer != null) {
+                metricsServer.stop();
+            }
+            if (streamServer != null) {
+                streamServer.stop();
+            }
+            if (publisher != null) {
+                publisher.stop();
+            }
+        }
+    }
+    
+    /**
+     * @return the lock contention recorded during the run
+     */
+    public ContentionTracker getContentionTracker() {
+        return contentionTracker;
+    }
+    
+    /**
+     * Entry point for --headless mode.
+     * Usage: --headless &lt;simulation&gt; [seconds] [--frames &lt;dir&gt;] [--format png|raw]
+     * [--fps &lt;n&gt;] [--size &lt;width&gt;x&lt;height&gt;] [--encoders &lt;n&gt;],
+     * or --headless --trace &lt;file&gt; [frame options] to report on a trace file
+     */
+    public static void main(String[] args) {
+        String name = args.length > 0 ? args[0] : "producer-consumer";
+        boolean trace = name.equals("--trace") && args.length > 1;
+        long seconds = !trace && args.length > 1 && !args[1].startsWith("--") ? Long.parseLong(args[1]) : 10;
+        
+        // Optional rendering of the run into frames
+        Path framesDirectory = null;
+        FrameRecorder.Format format = FrameRecorder.Format.PNG;
+        int fps = 30;
+        int width = 1280;
+        int height = 720;
+        int encoders = Runtime.getRuntime().availableProcessors();
+        for (int i = 1; i < args.length - 1; i++) {
+            switch (args[i]) {
+                case "--frames":
+                    framesDirectory = Paths.get(args[++i]);
+                    break;
+                case "--format":
+                    format = FrameRecorder.Format.valueOf(args[++i].toUpperCase());
+                    break;
+                case "--fps":
+                    fps = Integer.parseInt(args[++i]);
+                    break;
+                case "--size":
+                    String[] size = args[++i].split("x");
+                    width = Integer.parseInt(size[0]);
+                    height = Integer.parseInt(size[1]);
+                    break;
+                case "--encoders":
+                    encoders = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    break;
+            }
+        }
+        
+        FrameRecorder recorder = framesDirectory != null
+                ? new FrameRecorder(width, height, fps, format, encoders) : null;
+        if (trace) {
+            reportTrace(Paths.get(args[1]), recorder, framesDirectory);
+            return;
+        }
+        
+        Simulation simulation = createSimulation(name);
+        if (simulation == null) {
+            System.err.println("Unknown simulation: " + name
+                    + " (expected producer-consumer, dining-philosophers or reader-writer)");
+            System.exit(1);
+        }
+        
+        HeadlessRunner runner = new HeadlessRunner(simulation);
+        try {
+            runner.run(seconds);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        
+        System.out.println(simulation.getName() + " - lock contention after " + seconds + "s");
+        System.out.print(runner.getContentionTracker().formatReport());
+        
+        if (recorder != null) {
+            renderFrames(recorder, framesDirectory, EventBus.getInstance().getEventHistory());
+        }
+    }
+    
+    /**
+     * Print the lock contention recorded in a trace file, e.g. one written
+     * by the agent, and optionally render it into frames
+     */
+    private static void reportTrace(Path file, FrameRecorder recorder, Path framesDirectory) {
+        TraceFile traceFile;
+        try {
+            traceFile = TraceFile.read(file);
+        } catch (IOException e) {
+            System.err.println("Error reading trace file: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        
+        ResourceRegistry registry = new ResourceRegistry();
+        ContentionTracker tracker = new ContentionTracker(registry);
+        for (ThreadEvent event : traceFile.getEvents()) {
+            registry.onEvent(event);
+        }
+        System.out.println(traceFile.getProcessName() + " - " + traceFile.getEvents().size()
+                + " events, lock contention");
+        System.out.print(tracker.formatReport());
+        
+        if (recorder != null) {
+            renderFrames(recorder, framesDirectory, traceFile.getEvents());
+        }
+    }
+    
+    private static void renderFrames(FrameRecorder recorder, Path directory, List<ThreadEvent> events) {
+        long start = System.nanoTime();
+        try {
+            int frames = recorder.record(events, directory);
+            System.out.printf("Rendered %d frames to %s in %.1fs%n", frames, directory,
+                    (System.nanoTime() - start) / 1e9);
+        } catch (IOException e) {
+            System.err.println("Error rendering frames: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+} 
\ No newline at end of file
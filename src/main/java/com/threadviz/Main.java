@@ -1,9 +1,11 @@
 package com.threadviz;
 
+import com.threadviz.ui.RenderBenchmark;
 import com.threadviz.ui.SimulationController;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.Arrays;
 
 /**
  * Main application class for ThreadViz.
@@ -12,9 +14,22 @@ public class Main {
     
     /**
      * Main entry point for the application.
-     * @param args Command line arguments (not used)
+     * @param args Command line arguments; pass --headless to run without a display,
+     *             or --benchmark to time canvas rendering
      */
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--headless")) {
+            // Frames are rendered offscreen, so no display is needed
+            System.setProperty("java.awt.headless", "true");
+            HeadlessRunner.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--benchmark")) {
+            System.setProperty("java.awt.headless", "true");
+            RenderBenchmark.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        
         SwingUtilities.invokeLater(() -> {
             try {
                 // Set system look and feel
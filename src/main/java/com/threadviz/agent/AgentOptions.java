@@ -0,0 +1,89 @@
+package com.threadviz.agent;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Options of the agent, given as comma-separated key=value pairs after the
+ * agent jar, e.g. {@code -javaagent:threadviz.jar=include=com.acme.orders,sample=8,address=7070}.
+ * <ul>
+ *   <li>{@code include}: class name prefix to instrument; repeat for more prefixes</li>
+ *   <li>{@code exclude}: class name prefix to leave alone even if included</li>
+ *   <li>{@code sample}: trace one in this many lock objects (default 1, all)</li>
+ *   <li>{@code monitors}: whether to trace synchronized blocks (default true)</li>
+ *   <li>{@code address}: collector port or socket path to stream events to</li>
+ *   <li>{@code file}: trace file to write instead</li>
+ *   <li>{@code name}: name of this process in ThreadViz (default pid-&lt;pid&gt;)</li>
+ * </ul>
+ */
+class AgentOptions {
+    final List<String> includes = new ArrayList<>();
+    final List<String> excludes = new ArrayList<>();
+    int sampleEvery = 1;
+    boolean monitors = true;
+    String address;
+    Path traceFile;
+    String processName = "pid-" + ProcessHandle.current().pid();
+    
+    static AgentOptions parse(String args) {
+        AgentOptions options = new AgentOptions();
+        if (args == null || args.isEmpty()) {
+            return options;
+        }
+        
+        for (String pair : args.split(",")) {
+            int eq = pair.indexOf('=');
+            String key = eq >= 0 ? pair.substring(0, eq).trim() : pair.trim();
+            String value = eq >= 0 ? pair.substring(eq + 1).trim() : "";
+            switch (key) {
+                case "include":
+                    options.includes.add(value.replace('.', '/'));
+                    break;
+                case "exclude":
+                    options.excludes.add(value.replace('.', '/'));
+                    break;
+                case "sample":
+                    options.sampleEvery = Math.max(1, Integer.parseInt(value));
+                    break;
+                case "monitors":
+                    options.monitors = Boolean.parseBoolean(value);
+                    break;
+                case "address":
+                    options.address = value;
+                    break;
+                case "file":
+                    options.traceFile = Paths.get(value);
+                    break;
+                case "name":
+                    options.processName = value;
+                    break;
+                default:
+                    System.err.println("ThreadViz agent: unknown option " + key);
+                    break;
+            }
+        }
+        return options;
+    }
+    
+    /**
+     * @param internalName Class name with slashes, as seen by transformers
+     */
+    boolean shouldInstrument(String internalName) {
+        if (internalName.startsWith("com/threadviz/")) {
+            return false;
+        }
+        for (String exclude : excludes) {
+            if (internalName.startsWith(exclude)) {
+                return false;
+            }
+        }
+        for (String include : includes) {
+            if (internalName.startsWith(include)) {
+                return true;
+            }
+        }
+        return false;
+    }
+} 
\ No newline at end of file
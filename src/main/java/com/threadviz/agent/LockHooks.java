@@ -0,0 +1,323 @@
+package com.threadviz.agent;
+
+import com.threadviz.models.ThreadEvent;
+
+import java.lang.ref.WeakReference;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Called by instrumented code in place of lock operations. Each hook
+ * performs the original operation and, if tracing is on and the lock is
+ * sampled, records it in {@link TraceBuffers}. With tracing off a hook
+ * costs one read of a volatile field on top of the lock operation; with
+ * tracing on, recording an event takes no lock. It allocates nothing,
+ * except for operations on a condition missing from the table of
+ * conditions created by instrumented code, which allocate a small record
+ * of the condition's identity each time.
+ * <p>
+ * A lock is sampled if its identity hash is a multiple of the sampling
+ * interval, so all operations on a sampled lock are reported and waits,
+ * acquisitions and releases stay paired. Reentrant acquisitions and
+ * releases of locks that know their holder (ReentrantLock, the write lock
+ * of ReentrantReadWriteLock and monitors) are not reported, so a thread
+ * is shown holding such a lock until its last release. A tryLock with a
+ * timeout reports its wait like lock() and, if it times out or is
+ * interrupted, ends it with EXECUTION. Hooks must be public for
+ * instrumented classes to call them, but are not meant to be called
+ * directly.
+ */
+public final class LockHooks {
+    
+    private static volatile boolean enabled;
+    private static int sampleEvery = 1;
+    private static TraceBuffers buffers;
+    
+    // Lock each condition was created from, to report waits against the lock.
+    // A direct-mapped table rather than a synchronized map, so awaiting and
+    // signalling never take a lock; a condition whose slot was taken by a
+    // newer condition is reported against itself.
+    private static final int CONDITION_SLOTS = 1024;
+    private static final ConditionOwner[] conditionOwners = new ConditionOwner[CONDITION_SLOTS];
+    
+    private LockHooks() {
+    }
+    
+    static void enable(TraceBuffers traceBuffers, int sampleInterval) {
+        buffers = traceBuffers;
+        sampleEvery = sampleInterval;
+        enabled = true;
+    }
+    
+    static void disable() {
+        enabled = false;
+    }
+    
+    // Lock
+    
+    public static void lock(Lock lock) {
+        if (!enabled) {
+            lock.lock();
+            return;
+        }
+        int hash = System.identityHashCode(lock);
+        if (!sampled(hash) || isHeldByCurrentThread(lock)) {
+            lock.lock();
+            return;
+        }
+        record(ThreadEvent.EventType.LOCK_WAITING, hash, lock);
+        lock.lock();
+        record(ThreadEvent.EventType.LOCK_ACQUIRED, hash, lock);
+    }
+    
+    public static void lockInterruptibly(Lock lock) throws InterruptedException {
+        if (!enabled) {
+            lock.lockInterruptibly();
+            return;
+        }
+        int hash = System.identityHashCode(lock);
+        if (!sampled(hash) || isHeldByCurrentThread(lock)) {
+            lock.lockInterruptibly();
+            return;
+        }
+        record(ThreadEvent.EventType.LOCK_WAITING, hash, lock);
+        try {
+            lock.lockInterruptibly();
+        } catch (InterruptedException e) {
+            // Balance the wait, or the thread would be shown waiting forever
+            record(ThreadEvent.EventType.EXECUTION, hash, lock);
+            throw e;
+        }
+        record(ThreadEvent.EventType.LOCK_ACQUIRED, hash, lock);
+    }
+    
+    public static boolean tryLock(Lock lock) {
+        if (!enabled) {
+            return lock.tryLock();
+        }
+        int hash = System.identityHashCode(lock);
+        boolean traced = sampled(hash) && !isHeldByCurrentThread(lock);
+        boolean acquired = lock.tryLock();
+        if (acquired && traced) {
+            record(ThreadEvent.EventType.LOCK_ACQUIRED, hash, lock);
+        }
+        return acquired;
+    }
+    
+    public static boolean tryLock(Lock lock, long time, TimeUnit unit) throws InterruptedException {
+        if (!enabled) {
+            return lock.tryLock(time, unit);
+        }
+        int hash = System.identityHashCode(lock);
+        if (!sampled(hash) || isHeldByCurrentThread(lock)) {
+            return lock.tryLock(time, unit);
+        }
+        record(ThreadEvent.EventType.LOCK_WAITING, hash, lock);
+        boolean acquired;
+        try {
+            acquired = lock.tryLock(time, unit);
+        } catch (InterruptedException e) {
+            record(ThreadEvent.EventType.EXECUTION, hash, lock);
+            throw e;
+        }
+        record(acquired ? ThreadEvent.EventType.LOCK_ACQUIRED : ThreadEvent.EventType.EXECUTION, hash, lock);
+        return acquired;
+    }
+    
+    public static void unlock(Lock lock) {
+        if (!enabled) {
+            lock.unlock();
+            return;
+        }
+        int hash = System.identityHashCode(lock);
+        lock.unlock();
+        if (sampled(hash) && !isHeldByCurrentThread(lock)) {
+            record(ThreadEvent.EventType.LOCK_RELEASED, hash, lock);
+        }
+    }
+    
+    public static Condition newCondition(Lock lock) {
+        Condition condition = lock.newCondition();
+        if (enabled) {
+            int slot = System.identityHashCode(condition) & (CONDITION_SLOTS - 1);
+            conditionOwners[slot] = new ConditionOwner(condition, System.identityHashCode(lock), lock.getClass());
+        }
+        return condition;
+    }
+    
+    // Condition
+    
+    public static void await(Condition condition) throws InterruptedException {
+        ConditionOwner owner = traced(condition);
+        if (owner == null) {
+            condition.await();
+            return;
+        }
+        owner.record(ThreadEvent.EventType.CONDITION_WAITING);
+        try {
+            condition.await();
+        } finally {
+            owner.record(ThreadEvent.EventType.LOCK_ACQUIRED);
+        }
+    }
+    
+    public static void awaitUninterruptibly(Condition condition) {
+        ConditionOwner owner = traced(condition);
+        if (owner == null) {
+            condition.awaitUninterruptibly();
+            return;
+        }
+        owner.record(ThreadEvent.EventType.CONDITION_WAITING);
+        condition.awaitUninterruptibly();
+        owner.record(ThreadEvent.EventType.LOCK_ACQUIRED);
+    }
+    
+    public static boolean await(Condition condition, long time, TimeUnit unit) throws InterruptedException {
+        ConditionOwner owner = traced(condition);
+        if (owner == null) {
+            return condition.await(time, unit);
+        }
+        owner.record(ThreadEvent.EventType.CONDITION_WAITING);
+        try {
+            return condition.await(time, unit);
+        } finally {
+            owner.record(ThreadEvent.EventType.LOCK_ACQUIRED);
+        }
+    }
+    
+    public static long awaitNanos(Condition condition, long nanos) throws InterruptedException {
+        ConditionOwner owner = traced(condition);
+        if (owner == null) {
+            return condition.awaitNanos(nanos);
+        }
+        owner.record(ThreadEvent.EventType.CONDITION_WAITING);
+        try {
+            return condition.awaitNanos(nanos);
+        } finally {
+            owner.record(ThreadEvent.EventType.LOCK_ACQUIRED);
+        }
+    }
+    
+    public static boolean awaitUntil(Condition condition, Date deadline) throws InterruptedException {
+        ConditionOwner owner = traced(condition);
+        if (owner == null) {
+            return condition.awaitUntil(deadline);
+        }
+        owner.record(ThreadEvent.EventType.CONDITION_WAITING);
+        try {
+            return condition.awaitUntil(deadline);
+        } finally {
+            owner.record(ThreadEvent.EventType.LOCK_ACQUIRED);
+        }
+    }
+    
+    public static void signal(Condition condition) {
+        condition.signal();
+        ConditionOwner owner = traced(condition);
+        if (owner != null) {
+            owner.record(ThreadEvent.EventType.CONDITION_SIGNALED);
+        }
+    }
+    
+    public static void signalAll(Condition condition) {
+        condition.signalAll();
+        ConditionOwner owner = traced(condition);
+        if (owner != null) {
+            owner.record(ThreadEvent.EventType.CONDITION_SIGNALED);
+        }
+    }
+    
+    // Monitors
+    
+    /**
+     * @return whether the entry is traced, to be passed on to {@link #monitorEntered}
+     */
+    public static boolean monitorEnter(Object monitor) {
+        if (!enabled) {
+            return false;
+        }
+        // A thread entering a monitor it already holds does not wait
+        int hash = System.identityHashCode(monitor);
+        if (!sampled(hash) || Thread.holdsLock(monitor)) {
+            return false;
+        }
+        record(ThreadEvent.EventType.LOCK_WAITING, hash, monitor);
+        return true;
+    }
+    
+    public static void monitorEntered(Object monitor, boolean traced) {
+        if (traced) {
+            record(ThreadEvent.EventType.LOCK_ACQUIRED, System.identityHashCode(monitor), monitor);
+        }
+    }
+    
+    public static void monitorExited(Object monitor) {
+        if (!enabled) {
+            return;
+        }
+        // Leaving a nested block on the same monitor does not release it
+        int hash = System.identityHashCode(monitor);
+        if (sampled(hash) && !Thread.holdsLock(monitor)) {
+            record(ThreadEvent.EventType.LOCK_RELEASED, hash, monitor);
+        }
+    }
+    
+    /**
+     * @return whether the current thread holds the lock, for locks that can tell
+     */
+    private static boolean isHeldByCurrentThread(Lock lock) {
+        if (lock instanceof ReentrantLock) {
+            return ((ReentrantLock) lock).isHeldByCurrentThread();
+        }
+        if (lock instanceof ReentrantReadWriteLock.WriteLock) {
+            return ((ReentrantReadWriteLock.WriteLock) lock).isHeldByCurrentThread();
+        }
+        return false;
+    }
+    
+    /**
+     * @return the lock to report a condition's events against, or null if it is not traced
+     */
+    private static ConditionOwner traced(Condition condition) {
+        if (!enabled) {
+            return null;
+        }
+        int hash = System.identityHashCode(condition);
+        ConditionOwner owner = conditionOwners[hash & (CONDITION_SLOTS - 1)];
+        if (owner == null || owner.get() != condition) {
+            // Created before the agent started, outside the traced classes or evicted
+            owner = new ConditionOwner(condition, hash, condition.getClass());
+        }
+        return sampled(owner.hash) ? owner : null;
+    }
+    
+    private static boolean sampled(int hash) {
+        return sampleEvery == 1 || hash % sampleEvery == 0;
+    }
+    
+    private static void record(ThreadEvent.EventType type, int hash, Object lock) {
+        buffers.record(type, hash, lock.getClass());
+    }
+    
+    /**
+     * A condition and the identity of the lock it belongs to
+     */
+    private static final class ConditionOwner extends WeakReference<Condition> {
+        final int hash;
+        final Class<?> lockClass;
+        
+        ConditionOwner(Condition condition, int hash, Class<?> lockClass) {
+            super(condition);
+            this.hash = hash;
+            this.lockClass = lockClass;
+        }
+        
+        void record(ThreadEvent.EventType type) {
+            buffers.record(type, hash, lockClass);
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,157 @@
+package com.threadviz.agent;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.lang.instrument.ClassFileTransformer;
+import java.security.ProtectionDomain;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Rewrites lock operations in the included classes to go through
+ * {@link LockHooks}. Calls to {@code Lock} and {@code Condition} methods,
+ * whether through the interfaces or on {@code ReentrantLock} and the read
+ * and write locks of {@code ReentrantReadWriteLock}, become static calls
+ * taking the receiver as the first argument. Since such a call consumes
+ * and returns exactly what the original did, the stack and frames of the
+ * method are unchanged. {@code monitorenter} and {@code monitorexit} get a
+ * hook call before and after them; the result of the hook before
+ * {@code monitorenter} stays on the stack until the hook after it.
+ * Synchronized methods are not traced.
+ */
+class LockTransformer implements ClassFileTransformer {
+    
+    private static final String HOOKS = "com/threadviz/agent/LockHooks";
+    private static final String LOCK = "java/util/concurrent/locks/Lock";
+    private static final String CONDITION = "java/util/concurrent/locks/Condition";
+    
+    // Owners whose calls are rewritten, and the interface the hooks take
+    private static final Map<String, String> RECEIVERS = new HashMap<>();
+    static {
+        RECEIVERS.put(LOCK, LOCK);
+        RECEIVERS.put("java/util/concurrent/locks/ReentrantLock", LOCK);
+        RECEIVERS.put("java/util/concurrent/locks/ReentrantReadWriteLock$ReadLock", LOCK);
+        RECEIVERS.put("java/util/concurrent/locks/ReentrantReadWriteLock$WriteLock", LOCK);
+        RECEIVERS.put(CONDITION, CONDITION);
+    }
+    
+    // Methods with a hook, keyed by receiver interface, name and descriptor
+    private static final Map<String, String> HOOKED_METHODS = new HashMap<>();
+    static {
+        hook(LOCK, "lock", "()V");
+        hook(LOCK, "lockInterruptibly", "()V");
+        hook(LOCK, "tryLock", "()Z");
+        hook(LOCK, "tryLock", "(JLjava/util/concurrent/TimeUnit;)Z");
+        hook(LOCK, "unlock", "()V");
+        hook(LOCK, "newCondition", "()Ljava/util/concurrent/locks/Condition;");
+        hook(CONDITION, "await", "()V");
+        hook(CONDITION, "awaitUninterruptibly", "()V");
+        hook(CONDITION, "await", "(JLjava/util/concurrent/TimeUnit;)Z");
+        hook(CONDITION, "awaitNanos", "(J)J");
+        hook(CONDITION, "awaitUntil", "(Ljava/util/Date;)Z");
+        hook(CONDITION, "signal", "()V");
+        hook(CONDITION, "signalAll", "()V");
+    }
+    
+    private static void hook(String receiver, String name, String descriptor) {
+        String hookDescriptor = "(L" + receiver + ";" + descriptor.substring(1);
+        HOOKED_METHODS.put(receiver + '.' + name + descriptor, hookDescriptor);
+    }
+    
+    private final AgentOptions options;
+    
+    LockTransformer(AgentOptions options) {
+        this.options = options;
+    }
+    
+    @Override
+    public byte[] transform(ClassLoader loader, String className, Class<?> classBeingRedefined,
+                            ProtectionDomain protectionDomain, byte[] classfileBuffer) {
+        if (className == null || !options.shouldInstrument(className)) {
+            return null;
+        }
+        
+        try {
+            return instrument(classfileBuffer, options.monitors);
+        } catch (RuntimeException e) {
+            System.err.println("ThreadViz agent: could not instrument " + className + ": " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Rewrite the lock operations of a class
+     * @param monitors Whether to trace synchronized blocks too
+     * @return the rewritten class, or null if it has no lock operations
+     */
+    static byte[] instrument(byte[] classfile, boolean monitors) {
+        ClassReader reader = new ClassReader(classfile);
+        // Only the maximum stack grows, so existing frames can be kept
+        ClassWriter writer = new ClassWriter(reader, ClassWriter.COMPUTE_MAXS);
+        LockClassVisitor visitor = new LockClassVisitor(writer, monitors);
+        reader.accept(visitor, 0);
+        return visitor.changed ? writer.toByteArray() : null;
+    }
+    
+    private static class LockClassVisitor extends ClassVisitor {
+        private final boolean monitors;
+        private boolean changed;
+        
+        LockClassVisitor(ClassVisitor next, boolean monitors) {
+            super(Opcodes.ASM9, next);
+            this.monitors = monitors;
+        }
+        
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature,
+                                         String[] exceptions) {
+            MethodVisitor next = super.visitMethod(access, name, descriptor, signature, exceptions);
+            return new MethodVisitor(Opcodes.ASM9, next) {
+                @Override
+                public void visitMethodInsn(int opcode, String owner, String methodName, String methodDescriptor,
+                                            boolean isInterface) {
+                    if (opcode == Opcodes.INVOKEVIRTUAL || opcode == Opcodes.INVOKEINTERFACE) {
+                        String receiver = RECEIVERS.get(owner);
+                        String hookDescriptor = receiver != null
+                                ? HOOKED_METHODS.get(receiver + '.' + methodName + methodDescriptor) : null;
+                        if (hookDescriptor != null) {
+                            super.visitMethodInsn(Opcodes.INVOKESTATIC, HOOKS, methodName, hookDescriptor, false);
+                            changed = true;
+                            return;
+                        }
+                    }
+                    super.visitMethodInsn(opcode, owner, methodName, methodDescriptor, isInterface);
+                }
+                
+                @Override
+                public void visitInsn(int opcode) {
+                    if (!monitors) {
+                        super.visitInsn(opcode);
+                        return;
+                    }
+                    if (opcode == Opcodes.MONITORENTER) {
+                        // m -> m m m -> m m traced -> m traced m -> m traced -> (empty)
+                        super.visitInsn(Opcodes.DUP);
+                        super.visitInsn(Opcodes.DUP);
+                        super.visitMethodInsn(Opcodes.INVOKESTATIC, HOOKS, "monitorEnter", "(Ljava/lang/Object;)Z", false);
+                        super.visitInsn(Opcodes.SWAP);
+                        super.visitInsn(Opcodes.MONITORENTER);
+                        super.visitMethodInsn(Opcodes.INVOKESTATIC, HOOKS, "monitorEntered", "(Ljava/lang/Object;Z)V", false);
+                        changed = true;
+                    } else if (opcode == Opcodes.MONITOREXIT) {
+                        super.visitInsn(Opcodes.DUP);
+                        super.visitInsn(Opcodes.MONITOREXIT);
+                        super.visitMethodInsn(Opcodes.INVOKESTATIC, HOOKS, "monitorExited", "(Ljava/lang/Object;)V", false);
+                        changed = true;
+                    } else {
+                        super.visitInsn(opcode);
+                    }
+                }
+            };
+        }
+    }
+} 
\ No newline at end of file
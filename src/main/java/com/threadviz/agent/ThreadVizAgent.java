@@ -0,0 +1,76 @@
+package com.threadviz.agent;
+
+import com.threadviz.stream.EventCollector;
+import com.threadviz.stream.RemoteEventPublisher;
+
+import java.lang.instrument.Instrumentation;
+
+/**
+ * Java agent that traces the locks of any application, so a real service
+ * can be watched in ThreadViz. Start it with
+ * {@code -javaagent:threadviz.jar=include=com.acme,address=7070} to stream
+ * to a ThreadViz running with {@code -Dthreadviz.collector.address=7070},
+ * or with {@code file=trace.tvz} to record a trace file instead. See
+ * {@link AgentOptions} for all options.
+ * <p>
+ * Only classes loaded after the agent starts are instrumented, and only
+ * those matching an {@code include} prefix.
+ */
+public final class ThreadVizAgent {
+    
+    private ThreadVizAgent() {
+    }
+    
+    public static void premain(String args, Instrumentation instrumentation) {
+        start(args, instrumentation);
+    }
+    
+    public static void agentmain(String args, Instrumentation instrumentation) {
+        start(args, instrumentation);
+    }
+    
+    private static void start(String args, Instrumentation instrumentation) {
+        AgentOptions options;
+        try {
+            options = AgentOptions.parse(args);
+        } catch (NumberFormatException e) {
+            System.err.println("ThreadViz agent: bad options " + args + ": " + e.getMessage());
+            return;
+        }
+        if (options.includes.isEmpty()) {
+            System.err.println("ThreadViz agent: no include= prefix given, nothing will be traced");
+            return;
+        }
+        
+        RemoteEventPublisher publisher;
+        if (options.traceFile != null) {
+            publisher = RemoteEventPublisher.toFile(options.traceFile, options.processName);
+        } else if (options.address != null) {
+            publisher = new RemoteEventPublisher(EventCollector.toAddress(options.address), options.processName);
+        } else {
+            System.err.println("ThreadViz agent: no address= or file= given, nothing will be traced");
+            return;
+        }
+        
+        publisher.startSending();
+        TraceBuffers buffers = new TraceBuffers(publisher);
+        buffers.start();
+        LockHooks.enable(buffers, options.sampleEvery);
+        instrumentation.addTransformer(new LockTransformer(options));
+        
+        // Send what is still buffered when the application exits
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            LockHooks.disable();
+            buffers.stop();
+            publisher.stop();
+            if (buffers.getDroppedCount() > 0) {
+                System.err.println("ThreadViz agent: dropped " + buffers.getDroppedCount()
+                        + " events because a thread recorded them faster than they were drained");
+            }
+            if (publisher.getDroppedCount() > 0) {
+                System.err.println("ThreadViz agent: dropped " + publisher.getDroppedCount()
+                        + " events because they could not be sent fast enough");
+            }
+        }, "ThreadViz-Agent-Shutdown"));
+    }
+} 
\ No newline at end of file
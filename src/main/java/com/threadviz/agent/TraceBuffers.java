@@ -0,0 +1,297 @@
+package com.threadviz.agent;
+
+import com.threadviz.core.EventBus;
+import com.threadviz.models.ThreadEvent;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Per-thread buffers of the events recorded by {@link LockHooks}. The
+ * hooks run inside the traced application's critical sections, so
+ * recording an event only writes a timestamp, the event type and the
+ * lock's identity hash and class into a ring owned by the current thread:
+ * no lock, no write shared with other threads and no allocation. Each
+ * ring takes about 68 KB and holds {@value #BUFFER_CAPACITY} events, enough
+ * for 400,000 events a second per thread at the drain interval. A thread
+ * that fills its ring faster wakes the drain thread and drops the events it
+ * records until the ring has room again, counting them in
+ * {@link #getDroppedCount()}: draining inline would take the drain lock
+ * inside the critical section being measured and add contention to it.
+ * <p>
+ * A drain thread turns buffered events into {@link ThreadEvent}s, building
+ * thread names, resource ids and timestamps there, and passes them to the
+ * sink merged in timestamp order across threads. Events younger than
+ * {@link #SETTLE_NANOS} are left for the next drain, so an event recorded
+ * just before a drain does not end up behind later events of other threads,
+ * except when a ring is full and has to be emptied at once.
+ */
+final class TraceBuffers {
+    static final int BUFFER_CAPACITY = 4096;
+    static final long DRAIN_INTERVAL_MS = 5;
+    static final long SETTLE_NANOS = 5_000_000L;
+    
+    private static final int MASK = BUFFER_CAPACITY - 1;
+    private static final int ID_CACHE_SIZE = 4096;
+    private static final ThreadEvent.EventType[] TYPES = ThreadEvent.EventType.values();
+    
+    private final EventBus.EventListener sink;
+    private final List<ThreadBuffer> buffers;
+    private final ThreadLocal<ThreadBuffer> localBuffer;
+    
+    // Wall clock time at a known nanoTime, to turn nanoTime stamps into instants
+    private final Instant origin;
+    private final long originNanos;
+    
+    // Drain thread only
+    private final PriorityQueue<ThreadBuffer> merge;
+    private final ResourceName[] resourceNames;
+    
+    private volatile Thread drainThread;
+    private volatile boolean running;
+    // Drops of the buffers of finished threads, which are no longer in the list
+    private volatile long finishedDropped;
+    
+    TraceBuffers(EventBus.EventListener sink) {
+        this.sink = sink;
+        this.buffers = new CopyOnWriteArrayList<>();
+        this.localBuffer = ThreadLocal.withInitial(this::register);
+        this.originNanos = System.nanoTime();
+        this.origin = Instant.now();
+        this.merge = new PriorityQueue<>(Comparator.comparingLong(ThreadBuffer::nextTime));
+        this.resourceNames = new ResourceName[ID_CACHE_SIZE];
+    }
+    
+    /**
+     * Record an event for the current thread
+     * @param hash Identity hash of the lock
+     * @param lockClass Class of the lock
+     */
+    void record(ThreadEvent.EventType type, int hash, Class<?> lockClass) {
+        ThreadBuffer buffer = localBuffer.get();
+        if (!buffer.add(System.nanoTime(), (byte) type.ordinal(), hash, lockClass)) {
+            buffer.dropped++;
+            // Wake the drain thread once per overflow rather than for every dropped event
+            if (!buffer.overflowing) {
+                buffer.overflowing = true;
+                Thread drainer = drainThread;
+                if (drainer != null) {
+                    LockSupport.unpark(drainer);
+                }
+            }
+        }
+    }
+    
+    /**
+     * @return the number of events dropped because their thread's ring was full
+     */
+    long getDroppedCount() {
+        long dropped = finishedDropped;
+        for (ThreadBuffer buffer : buffers) {
+            dropped += buffer.dropped;
+        }
+        return dropped;
+    }
+    
+    synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        drainThread = new Thread(this::runDrain, "ThreadViz-Agent-Drain");
+        drainThread.setDaemon(true);
+        drainThread.start();
+    }
+    
+    /**
+     * Stop the drain thread and pass on everything recorded so far
+     */
+    synchronized void stop() {
+        if (running) {
+            running = false;
+            drainThread.interrupt();
+            try {
+                drainThread.join(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+    
+    /**
+     * Pass on every event recorded so far, however recent
+     */
+    synchronized void flush() {
+        drain(System.nanoTime() + 1);
+    }
+    
+    private void runDrain() {
+        while (running) {
+            // Woken early by a thread whose ring is full, and by stop()
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(DRAIN_INTERVAL_MS));
+            if (!running) {
+                break;
+            }
+            synchronized (this) {
+                // A full ring cannot wait for its events to settle
+                long now = System.nanoTime();
+                drain(anyFull() ? now + 1 : now - SETTLE_NANOS);
+            }
+        }
+    }
+    
+    private boolean anyFull() {
+        for (ThreadBuffer buffer : buffers) {
+            if (buffer.tail - buffer.head >= BUFFER_CAPACITY) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private ThreadBuffer register() {
+        ThreadBuffer buffer = new ThreadBuffer(Thread.currentThread());
+        buffers.add(buffer);
+        return buffer;
+    }
+    
+    /**
+     * Pass on the events recorded before a time, oldest first
+     */
+    private void drain(long before) {
+        for (ThreadBuffer buffer : buffers) {
+            buffer.cursor = buffer.head;
+            buffer.limit = buffer.tail;
+            if (buffer.hasNextBefore(before)) {
+                merge.add(buffer);
+            }
+        }
+        
+        ThreadBuffer buffer;
+        while ((buffer = merge.poll()) != null) {
+            emit(buffer, (int) buffer.cursor & MASK);
+            buffer.cursor++;
+            if (buffer.hasNextBefore(before)) {
+                merge.add(buffer);
+            }
+        }
+        
+        for (ThreadBuffer b : buffers) {
+            b.head = b.cursor;
+            // A finished thread's buffer goes once everything in it is passed on
+            if (!b.thread.isAlive() && b.cursor == b.tail) {
+                buffers.remove(b);
+                finishedDropped += b.dropped;
+            }
+        }
+    }
+    
+    private void emit(ThreadBuffer buffer, int slot) {
+        Instant timestamp = origin.plusNanos(buffer.times[slot] - originNanos);
+        String resourceId = resourceId(buffer.hashes[slot], buffer.classes[slot]);
+        try {
+            sink.onEvent(new ThreadEvent(buffer.thread.getName(), TYPES[buffer.types[slot]], resourceId, null, timestamp));
+        } catch (RuntimeException e) {
+            System.err.println("ThreadViz agent: could not pass on event: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * @return the resource id of a lock, e.g. ReentrantLock@1b6d3586, cached by identity hash
+     */
+    private String resourceId(int hash, Class<?> lockClass) {
+        int slot = hash & (ID_CACHE_SIZE - 1);
+        ResourceName cached = resourceNames[slot];
+        if (cached != null && cached.hash == hash && cached.lockClass == lockClass) {
+            return cached.name;
+        }
+        String className = lockClass.getName();
+        String name = className.substring(className.lastIndexOf('.') + 1) + "@" + Integer.toHexString(hash);
+        resourceNames[slot] = new ResourceName(hash, lockClass, name);
+        return name;
+    }
+    
+    /**
+     * Ring written only by its thread and read only by the drain thread
+     */
+    private static final class ThreadBuffer {
+        private static final VarHandle TAIL;
+        static {
+            try {
+                TAIL = MethodHandles.lookup().findVarHandle(ThreadBuffer.class, "tail", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+        
+        final Thread thread;
+        final long[] times = new long[BUFFER_CAPACITY];
+        final byte[] types = new byte[BUFFER_CAPACITY];
+        final int[] hashes = new int[BUFFER_CAPACITY];
+        final Class<?>[] classes = new Class<?>[BUFFER_CAPACITY];
+        
+        // Next slot to write, published by the owning thread
+        volatile long tail;
+        // Next slot to read, published by the drain thread
+        volatile long head;
+        // Owning thread only, set while its events are being dropped
+        boolean overflowing;
+        // Written by the owning thread, summed by others
+        volatile long dropped;
+        // Drain thread only
+        long cursor;
+        long limit;
+        
+        ThreadBuffer(Thread thread) {
+            this.thread = thread;
+        }
+        
+        /**
+         * @return false if the ring is full and nothing was added
+         */
+        boolean add(long time, byte type, int hash, Class<?> lockClass) {
+            // Only this thread writes the tail, so it can be read without a barrier
+            long t = (long) TAIL.getOpaque(this);
+            if (t - head >= BUFFER_CAPACITY) {
+                return false;
+            }
+            overflowing = false;
+            int slot = (int) t & MASK;
+            times[slot] = time;
+            types[slot] = type;
+            hashes[slot] = hash;
+            classes[slot] = lockClass;
+            // Publish the slot without the full fence of a volatile write
+            TAIL.setRelease(this, t + 1);
+            return true;
+        }
+        
+        boolean hasNextBefore(long before) {
+            return cursor < limit && times[(int) cursor & MASK] - before < 0;
+        }
+        
+        long nextTime() {
+            return times[(int) cursor & MASK];
+        }
+    }
+    
+    private static final class ResourceName {
+        final int hash;
+        final Class<?> lockClass;
+        final String name;
+        
+        ResourceName(int hash, Class<?> lockClass, String name) {
+            this.hash = hash;
+            this.lockClass = lockClass;
+            this.name = name;
+        }
+    }
+} 
\ No newline at end of file
@@ -16,7 +16,7 @@ public class EventBus {
     private static EventBus instance;
     
     // Thread-safe event queue
-    private final BlockingQueue<ThreadEvent> eventQueue;
+    private final BlockingQueue<QueuedEvent> eventQueue;
     
     // Thread-safe list of event listeners
     private final List<EventListener> listeners;
@@ -24,6 +24,9 @@ public class EventBus {
     // For recording event history
     private final List<ThreadEvent> eventHistory;
     
+    // Self-instrumentation of the bus
+    private final EventBusStats stats;
+    
     private Thread dispatchThread;
     private volatile boolean running;
     
@@ -31,6 +34,7 @@ public class EventBus {
         this.eventQueue = new LinkedBlockingQueue<>();
         this.listeners = new CopyOnWriteArrayList<>();
         this.eventHistory = new ArrayList<>();
+        this.stats = new EventBusStats();
         startDispatcher();
     }
     
@@ -43,7 +47,8 @@ public class EventBus {
     
     public void publishEvent(ThreadEvent event) {
         try {
-            eventQueue.put(event);
+            eventQueue.put(new QueuedEvent(event, System.nanoTime()));
+            stats.recordPublish();
             synchronized (eventHistory) {
                 eventHistory.add(event);
             }
@@ -53,11 +58,13 @@ public class EventBus {
     }
     
     public void addEventListener(EventListener listener) {
+        stats.addListener(listener);
         listeners.add(listener);
     }
     
     public void removeEventListener(EventListener listener) {
         listeners.remove(listener);
+        stats.removeListener(listener);
     }
     
     public List<ThreadEvent> getEventHistory() {
@@ -66,6 +73,23 @@ public class EventBus {
         }
     }
     
+    /**
+     * @return the number of events published but not yet dispatched
+     */
+    public int getBacklog() {
+        return eventQueue.size();
+    }
+    
+    /**
+     * Capture the bus's own health counters: publish and dispatch counts,
+     * queue backlog, publish-to-dispatch lag and time spent per listener
+     */
+    public EventBusStats.Snapshot getStatsSnapshot() {
+        QueuedEvent oldest = eventQueue.peek();
+        long oldestAge = oldest != null ? System.nanoTime() - oldest.publishNanos : 0;
+        return stats.snapshot(eventQueue.size(), oldestAge);
+    }
+    
     public void clearHistory() {
         synchronized (eventHistory) {
             eventHistory.clear();
@@ -77,8 +101,9 @@ public class EventBus {
         dispatchThread = new Thread(() -> {
             while (running) {
                 try {
-                    ThreadEvent event = eventQueue.take();
-                    dispatchEvent(event);
+                    QueuedEvent queued = eventQueue.take();
+                    stats.recordDispatch(System.nanoTime() - queued.publishNanos);
+                    dispatchEvent(queued.event);
                 } catch (InterruptedException e) {
                     Thread.currentThread().interrupt();
                     running = false;
@@ -92,11 +117,13 @@ public class EventBus {
     
     private void dispatchEvent(ThreadEvent event) {
         for (EventListener listener : listeners) {
+            long start = System.nanoTime();
             try {
                 listener.onEvent(event);
             } catch (Exception e) {
                 System.err.println("Error dispatching event to listener: " + e.getMessage());
             }
+            stats.recordListener(listener, System.nanoTime() - start);
         }
     }
     
@@ -105,6 +132,19 @@ public class EventBus {
         dispatchThread.interrupt();
     }
     
+    /**
+     * An event together with the time it was published
+     */
+    private static class QueuedEvent {
+        private final ThreadEvent event;
+        private final long publishNanos;
+        
+        QueuedEvent(ThreadEvent event, long publishNanos) {
+            this.event = event;
+            this.publishNanos = publishNanos;
+        }
+    }
+    
     /**
      * Interface for event listeners
      */
@@ -0,0 +1,202 @@
+package com.threadviz.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Health counters for the {@link EventBus} itself: how many events were
+ * published and dispatched, how long they waited in the queue, and how much
+ * dispatcher time each listener consumed. All counters are striped
+ * {@link LongAdder}s, so publishers on many threads do not contend on them.
+ * Rates are derived by comparing two {@link Snapshot}s.
+ */
+public class EventBusStats {
+    
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder dispatchLagNanos = new LongAdder();
+    private final Map<EventBus.EventListener, ListenerStats> listenerStats = new ConcurrentHashMap<>();
+    private final AtomicInteger nextListenerId = new AtomicInteger();
+    
+    void recordPublish() {
+        published.increment();
+    }
+    
+    void recordDispatch(long lagNanos) {
+        dispatched.increment();
+        dispatchLagNanos.add(lagNanos);
+    }
+    
+    void recordListener(EventBus.EventListener listener, long nanos) {
+        ListenerStats stats = listenerStats.get(listener);
+        if (stats != null) {
+            stats.calls.increment();
+            stats.nanos.add(nanos);
+        }
+    }
+    
+    void addListener(EventBus.EventListener listener) {
+        listenerStats.put(listener, new ListenerStats(nextListenerId.incrementAndGet(), describe(listener)));
+    }
+    
+    void removeListener(EventBus.EventListener listener) {
+        listenerStats.remove(listener);
+    }
+    
+    /**
+     * Capture the current counter values
+     * @param backlog Events currently queued
+     * @param oldestPendingNanos Age of the oldest queued event, or 0 if the queue is empty
+     */
+    Snapshot snapshot(int backlog, long oldestPendingNanos) {
+        List<ListenerSnapshot> listeners = new ArrayList<>();
+        for (ListenerStats stats : listenerStats.values()) {
+            listeners.add(new ListenerSnapshot(stats.id, stats.name, stats.calls.sum(), stats.nanos.sum()));
+        }
+        return new Snapshot(System.nanoTime(), published.sum(), dispatched.sum(), dispatchLagNanos.sum(),
+                backlog, oldestPendingNanos, listeners);
+    }
+    
+    private static String describe(EventBus.EventListener listener) {
+        String name = listener.getClass().getSimpleName();
+        if (name.contains("$$Lambda")) {
+            // Lambdas are named after their enclosing class
+            name = name.substring(0, name.indexOf("$$Lambda")) + " (lambda)";
+        }
+        return name.isEmpty() ? listener.getClass().getName() : name;
+    }
+    
+    private static class ListenerStats {
+        private final int id;
+        private final String name;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        
+        ListenerStats(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+    
+    /**
+     * Point-in-time copy of the event bus counters
+     */
+    public static class Snapshot {
+        private final long timeNanos;
+        private final long published;
+        private final long dispatched;
+        private final long dispatchLagNanos;
+        private final int backlog;
+        private final long oldestPendingNanos;
+        private final List<ListenerSnapshot> listeners;
+        
+        Snapshot(long timeNanos, long published, long dispatched, long dispatchLagNanos,
+                 int backlog, long oldestPendingNanos, List<ListenerSnapshot> listeners) {
+            this.timeNanos = timeNanos;
+            this.published = published;
+            this.dispatched = dispatched;
+            this.dispatchLagNanos = dispatchLagNanos;
+            this.backlog = backlog;
+            this.oldestPendingNanos = oldestPendingNanos;
+            this.listeners = listeners;
+        }
+        
+        public long getTimeNanos() {
+            return timeNanos;
+        }
+        
+        public long getPublished() {
+            return published;
+        }
+        
+        public long getDispatched() {
+            return dispatched;
+        }
+        
+        public long getDispatchLagNanos() {
+            return dispatchLagNanos;
+        }
+        
+        public int getBacklog() {
+            return backlog;
+        }
+        
+        /**
+         * @return how long the oldest queued event has been waiting, in nanoseconds
+         */
+        public long getOldestPendingNanos() {
+            return oldestPendingNanos;
+        }
+        
+        public List<ListenerSnapshot> getListeners() {
+            return listeners;
+        }
+        
+        /**
+         * @return events published per second between an earlier snapshot and this one
+         */
+        public double publishRate(Snapshot earlier) {
+            return perSecond(published - earlier.published, earlier);
+        }
+        
+        /**
+         * @return events dispatched per second between an earlier snapshot and this one
+         */
+        public double dispatchRate(Snapshot earlier) {
+            return perSecond(dispatched - earlier.dispatched, earlier);
+        }
+        
+        /**
+         * @return mean publish-to-dispatch time in nanoseconds since an earlier snapshot
+         */
+        public double meanDispatchLagNanos(Snapshot earlier) {
+            long count = dispatched - earlier.dispatched;
+            return count == 0 ? 0 : (dispatchLagNanos - earlier.dispatchLagNanos) / (double) count;
+        }
+        
+        private double perSecond(long delta, Snapshot earlier) {
+            double seconds = (timeNanos - earlier.timeNanos) / 1e9;
+            return seconds <= 0 ? 0 : delta / seconds;
+        }
+    }
+    
+    /**
+     * Cumulative time spent in one listener's onEvent
+     */
+    public static class ListenerSnapshot {
+        private final int id;
+        private final String name;
+        private final long calls;
+        private final long nanos;
+        
+        ListenerSnapshot(int id, String name, long calls, long nanos) {
+            this.id = id;
+            this.name = name;
+            this.calls = calls;
+            this.nanos = nanos;
+        }
+        
+        /**
+         * @return an id that stays the same for a listener across snapshots
+         */
+        public int getId() {
+            return id;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public long getCalls() {
+            return calls;
+        }
+        
+        public long getNanos() {
+            return nanos;
+        }
+    }
+} 
\ No newline at end of file
@@ -2,6 +2,10 @@ package com.threadviz.core;
 
 import com.threadviz.models.ThreadEvent;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -18,11 +22,15 @@ public abstract class Simulation {
     protected final AtomicBoolean running;
     protected final AtomicBoolean paused;
     
+    // Threads created by the executor, so they can be observed from outside
+    private final Set<Thread> workerThreads;
+    
     public Simulation(String name) {
         this.name = name;
         this.eventBus = EventBus.getInstance();
         this.running = new AtomicBoolean(false);
         this.paused = new AtomicBoolean(false);
+        this.workerThreads = ConcurrentHashMap.newKeySet();
     }
     
     /**
@@ -31,6 +39,7 @@ public abstract class Simulation {
     public void start() {
         if (running.compareAndSet(false, true)) {
             eventBus.clearHistory();
+            workerThreads.clear();
             executor = createExecutorService();
             startSimulation();
         }
@@ -120,10 +129,19 @@ public abstract class Simulation {
         return Executors.newCachedThreadPool(r -> {
             Thread t = new Thread(r);
             t.setDaemon(true);
+            workerThreads.add(t);
             return t;
         });
     }
     
+    /**
+     * Get the live threads created by this simulation's executor
+     */
+    public List<Thread> getWorkerThreads() {
+        workerThreads.removeIf(t -> !t.isAlive());
+        return new ArrayList<>(workerThreads);
+    }
+    
     /**
      * Implementation-specific simulation logic
      */
@@ -0,0 +1,157 @@
+package com.threadviz.core;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples the real JVM state of a simulation's worker threads through
+ * {@link ThreadMXBean}. Only thread state and lock information are requested
+ * (no stack traces), and the sampling interval adapts to activity: it
+ * shortens while states are changing and backs off while they are stable.
+ */
+public class ThreadStateSampler {
+    private static final long MIN_INTERVAL_MS = 20;
+    private static final long MAX_INTERVAL_MS = 500;
+    
+    private final Simulation simulation;
+    private final ThreadMXBean threadMXBean;
+    private final List<SampleListener> listeners;
+    
+    // Last observed state per thread id, used to detect activity
+    private final Map<Long, Thread.State> lastStates;
+    
+    private ScheduledExecutorService scheduler;
+    private volatile long intervalMillis;
+    private volatile boolean running;
+    
+    public ThreadStateSampler(Simulation simulation) {
+        this.simulation = simulation;
+        this.threadMXBean = ManagementFactory.getThreadMXBean();
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.lastStates = new HashMap<>();
+        this.intervalMillis = MIN_INTERVAL_MS;
+    }
+    
+    /**
+     * Start sampling on a background daemon thread
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        intervalMillis = MIN_INTERVAL_MS;
+        lastStates.clear();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r);
+            t.setDaemon(true);
+            t.setName("ThreadState-Sampler");
+            return t;
+        });
+        scheduler.schedule(this::sampleAndReschedule, 0, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Stop sampling
+     */
+    public synchronized void stop() {
+        running = false;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+    
+    public void addSampleListener(SampleListener listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeSampleListener(SampleListener listener) {
+        listeners.remove(listener);
+    }
+    
+    /**
+     * @return the current sampling interval in milliseconds
+     */
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+    
+    private void sampleAndReschedule() {
+        if (!running) {
+            return;
+        }
+        
+        try {
+            boolean changed = sample();
+            
+            // Sample faster while threads are changing state, slower while idle
+            long next = changed ? intervalMillis / 2 : intervalMillis * 3 / 2;
+            intervalMillis = Math.max(MIN_INTERVAL_MS, Math.min(MAX_INTERVAL_MS, next));
+        } catch (Exception e) {
+            System.err.println("Error sampling thread states: " + e.getMessage());
+        }
+        
+        ScheduledExecutorService current = scheduler;
+        if (running && current != null && !current.isShutdown()) {
+            current.schedule(this::sampleAndReschedule, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    /**
+     * Take one sample of all worker threads and notify listeners.
+     * @return true if any thread changed state since the previous sample
+     */
+    private boolean sample() {
+        List<Thread> threads = simulation.getWorkerThreads();
+        if (threads.isEmpty()) {
+            return false;
+        }
+        
+        long[] ids = new long[threads.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = threads.get(i).getId();
+        }
+        
+        // A max depth of 0 skips stack walking, which keeps the call cheap
+        ThreadInfo[] infos = threadMXBean.getThreadInfo(ids, 0);
+        
+        List<ThreadInfo> sample = new ArrayList<>(infos.length);
+        boolean changed = false;
+        for (ThreadInfo info : infos) {
+            if (info == null) {
+                continue; // Thread died between listing and sampling
+            }
+            sample.add(info);
+            Thread.State previous = lastStates.put(info.getThreadId(), info.getThreadState());
+            if (previous != info.getThreadState()) {
+                changed = true;
+            }
+        }
+        
+        for (SampleListener listener : listeners) {
+            try {
+                listener.onSample(sample);
+            } catch (Exception e) {
+                System.err.println("Error delivering thread sample to listener: " + e.getMessage());
+            }
+        }
+        return changed;
+    }
+    
+    /**
+     * Interface for thread sample listeners
+     */
+    public interface SampleListener {
+        void onSample(List<ThreadInfo> infos);
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,204 @@
+package com.threadviz.instrument;
+
+import com.threadviz.models.ThreadEvent;
+
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BlockingQueue wrapper that reports its blocking operations as events on
+ * the {@link com.threadviz.core.EventBus}, with the queue as the resource.
+ * put, take and the timed offer and poll report LOCK_WAITING while they
+ * may block, then LOCK_ACQUIRED and LOCK_RELEASED once the element is in
+ * or out. An operation interrupted while waiting or timing out reports
+ * EXECUTION instead. The other operations never block and are not
+ * reported.
+ */
+public class TracedBlockingQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+    private final BlockingQueue<E> delegate;
+    private final String resourceId;
+    
+    public TracedBlockingQueue(BlockingQueue<E> delegate, String resourceId) {
+        this.delegate = delegate;
+        this.resourceId = resourceId;
+    }
+    
+    /**
+     * @return the resource id events are reported against
+     */
+    public String getResourceId() {
+        return resourceId;
+    }
+    
+    @Override
+    public void put(E e) throws InterruptedException {
+        if (!Tracing.enabled) {
+            delegate.put(e);
+            return;
+        }
+        Tracing.publish(ThreadEvent.EventType.LOCK_WAITING, resourceId,
+                "Waiting to add " + e + " to " + resourceId + " (" + describeSize() + ")");
+        try {
+            delegate.put(e);
+        } catch (InterruptedException interrupted) {
+            Tracing.publishInterrupted(resourceId);
+            throw interrupted;
+        }
+        added(e);
+    }
+    
+    @Override
+    public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+        if (!Tracing.enabled) {
+            return delegate.offer(e, timeout, unit);
+        }
+        Tracing.publish(ThreadEvent.EventType.LOCK_WAITING, resourceId,
+                "Waiting to add " + e + " to " + resourceId + " (" + describeSize() + ")");
+        boolean added;
+        try {
+            added = delegate.offer(e, timeout, unit);
+        } catch (InterruptedException interrupted) {
+            Tracing.publishInterrupted(resourceId);
+            throw interrupted;
+        }
+        if (added) {
+            added(e);
+        } else {
+            Tracing.publishTimedOut(resourceId);
+        }
+        return added;
+    }
+    
+    @Override
+    public E take() throws InterruptedException {
+        if (!Tracing.enabled) {
+            return delegate.take();
+        }
+        Tracing.publish(ThreadEvent.EventType.LOCK_WAITING, resourceId,
+                "Waiting to take from " + resourceId + " (" + describeSize() + ")");
+        E e;
+        try {
+            e = delegate.take();
+        } catch (InterruptedException interrupted) {
+            Tracing.publishInterrupted(resourceId);
+            throw interrupted;
+        }
+        taken(e);
+        return e;
+    }
+    
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        if (!Tracing.enabled) {
+            return delegate.poll(timeout, unit);
+        }
+        Tracing.publish(ThreadEvent.EventType.LOCK_WAITING, resourceId,
+                "Waiting to take from " + resourceId + " (" + describeSize() + ")");
+        E e;
+        try {
+            e = delegate.poll(timeout, unit);
+        } catch (InterruptedException interrupted) {
+            Tracing.publishInterrupted(resourceId);
+            throw interrupted;
+        }
+        if (e != null) {
+            taken(e);
+        } else {
+            Tracing.publishTimedOut(resourceId);
+        }
+        return e;
+    }
+    
+    private void added(E e) {
+        Tracing.publish(ThreadEvent.EventType.LOCK_ACQUIRED, resourceId,
+                "Added " + e + " to " + resourceId + " (" + describeSize() + ")");
+        Tracing.publish(ThreadEvent.EventType.LOCK_RELEASED, resourceId, "Released " + resourceId + " after adding");
+    }
+    
+    private void taken(E e) {
+        Tracing.publish(ThreadEvent.EventType.LOCK_ACQUIRED, resourceId,
+                "Took " + e + " from " + resourceId + " (" + describeSize() + ")");
+        Tracing.publish(ThreadEvent.EventType.LOCK_RELEASED, resourceId, "Released " + resourceId + " after taking");
+    }
+    
+    private String describeSize() {
+        int size = delegate.size();
+        int remaining = delegate.remainingCapacity();
+        return remaining == Integer.MAX_VALUE ? "size: " + size : "size: " + size + "/" + (size + remaining);
+    }
+    
+    // Non-blocking operations go straight to the wrapped queue
+    
+    @Override
+    public boolean offer(E e) {
+        return delegate.offer(e);
+    }
+    
+    @Override
+    public E poll() {
+        return delegate.poll();
+    }
+    
+    @Override
+    public E peek() {
+        return delegate.peek();
+    }
+    
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+    
+    @Override
+    public int remainingCapacity() {
+        return delegate.remainingCapacity();
+    }
+    
+    @Override
+    public Iterator<E> iterator() {
+        return delegate.iterator();
+    }
+    
+    @Override
+    public boolean contains(Object o) {
+        return delegate.contains(o);
+    }
+    
+    @Override
+    public boolean remove(Object o) {
+        return delegate.remove(o);
+    }
+    
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+    
+    @Override
+    public Object[] toArray() {
+        return delegate.toArray();
+    }
+    
+    @Override
+    public <T> T[] toArray(T[] a) {
+        return delegate.toArray(a);
+    }
+    
+    @Override
+    public int drainTo(Collection<? super E> c) {
+        return delegate.drainTo(c);
+    }
+    
+    @Override
+    public int drainTo(Collection<? super E> c, int maxElements) {
+        return delegate.drainTo(c, maxElements);
+    }
+    
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+} 
\ No newline at end of file
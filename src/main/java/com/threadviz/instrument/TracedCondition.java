@@ -0,0 +1,102 @@
+package com.threadviz.instrument;
+
+import com.threadviz.models.ThreadEvent;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+
+/**
+ * Condition of a traced lock. Waiting reports CONDITION_WAITING against the
+ * lock, which is released while waiting, and LOCK_ACQUIRED once the lock is
+ * held again; signalling reports CONDITION_SIGNALED.
+ */
+class TracedCondition implements Condition {
+    final Condition delegate;
+    private final String resourceId;
+    
+    TracedCondition(Condition delegate, String resourceId) {
+        this.delegate = delegate;
+        this.resourceId = resourceId;
+    }
+    
+    @Override
+    public void await() throws InterruptedException {
+        if (!Tracing.enabled) {
+            delegate.await();
+            return;
+        }
+        Tracing.publish(ThreadEvent.EventType.CONDITION_WAITING, resourceId, "Waiting on condition of " + resourceId);
+        try {
+            delegate.await();
+        } finally {
+            Tracing.publish(ThreadEvent.EventType.LOCK_ACQUIRED, resourceId, "Reacquired " + resourceId);
+        }
+    }
+    
+    @Override
+    public void awaitUninterruptibly() {
+        if (!Tracing.enabled) {
+            delegate.awaitUninterruptibly();
+            return;
+        }
+        Tracing.publish(ThreadEvent.EventType.CONDITION_WAITING, resourceId, "Waiting on condition of " + resourceId);
+        delegate.awaitUninterruptibly();
+        Tracing.publish(ThreadEvent.EventType.LOCK_ACQUIRED, resourceId, "Reacquired " + resourceId);
+    }
+    
+    @Override
+    public long awaitNanos(long nanosTimeout) throws InterruptedException {
+        if (!Tracing.enabled) {
+            return delegate.awaitNanos(nanosTimeout);
+        }
+        Tracing.publish(ThreadEvent.EventType.CONDITION_WAITING, resourceId, "Waiting on condition of " + resourceId);
+        try {
+            return delegate.awaitNanos(nanosTimeout);
+        } finally {
+            Tracing.publish(ThreadEvent.EventType.LOCK_ACQUIRED, resourceId, "Reacquired " + resourceId);
+        }
+    }
+    
+    @Override
+    public boolean await(long time, TimeUnit unit) throws InterruptedException {
+        if (!Tracing.enabled) {
+            return delegate.await(time, unit);
+        }
+        Tracing.publish(ThreadEvent.EventType.CONDITION_WAITING, resourceId, "Waiting on condition of " + resourceId);
+        try {
+            return delegate.await(time, unit);
+        } finally {
+            Tracing.publish(ThreadEvent.EventType.LOCK_ACQUIRED, resourceId, "Reacquired " + resourceId);
+        }
+    }
+    
+    @Override
+    public boolean awaitUntil(Date deadline) throws InterruptedException {
+        if (!Tracing.enabled) {
+            return delegate.awaitUntil(deadline);
+        }
+        Tracing.publish(ThreadEvent.EventType.CONDITION_WAITING, resourceId, "Waiting on condition of " + resourceId);
+        try {
+            return delegate.awaitUntil(deadline);
+        } finally {
+            Tracing.publish(ThreadEvent.EventType.LOCK_ACQUIRED, resourceId, "Reacquired " + resourceId);
+        }
+    }
+    
+    @Override
+    public void signal() {
+        delegate.signal();
+        if (Tracing.enabled) {
+            Tracing.publish(ThreadEvent.EventType.CONDITION_SIGNALED, resourceId, "Signaled one waiter on " + resourceId);
+        }
+    }
+    
+    @Override
+    public void signalAll() {
+        delegate.signalAll();
+        if (Tracing.enabled) {
+            Tracing.publish(ThreadEvent.EventType.CONDITION_SIGNALED, resourceId, "Signaled all waiters on " + resourceId);
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,161 @@
+package com.threadviz.instrument;
+
+import com.threadviz.models.ThreadEvent;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * ReadWriteLock backed by a ReentrantReadWriteLock that reports its use as
+ * events on the {@link com.threadviz.core.EventBus}. Both the read and the
+ * write lock report against the same resource, so concurrent readers show
+ * up as its owners. A thread's events cover the time from its first
+ * acquisition of either lock to its last release, including when it
+ * downgrades from the write to the read lock.
+ */
+public class TracedReadWriteLock implements ReadWriteLock {
+    private final String resourceId;
+    private final ReentrantReadWriteLock lock;
+    private final TracedLock readLock;
+    private final TracedLock writeLock;
+    
+    public TracedReadWriteLock(String resourceId) {
+        this(resourceId, false);
+    }
+    
+    public TracedReadWriteLock(String resourceId, boolean fair) {
+        this.resourceId = resourceId;
+        this.lock = new ReentrantReadWriteLock(fair);
+        this.readLock = new TracedLock(lock.readLock(), "read");
+        this.writeLock = new TracedLock(lock.writeLock(), "write");
+    }
+    
+    /**
+     * @return the resource id events are reported against
+     */
+    public String getResourceId() {
+        return resourceId;
+    }
+    
+    @Override
+    public Lock readLock() {
+        return readLock;
+    }
+    
+    @Override
+    public Lock writeLock() {
+        return writeLock;
+    }
+    
+    /**
+     * @return whether the current thread holds either lock
+     */
+    private boolean isHeldByCurrentThread() {
+        return lock.isWriteLockedByCurrentThread() || lock.getReadHoldCount() > 0;
+    }
+    
+    @Override
+    public String toString() {
+        return lock.toString() + "[" + resourceId + "]";
+    }
+    
+    /**
+     * The read or write half of the lock
+     */
+    private class TracedLock implements Lock {
+        private final Lock delegate;
+        private final String kind;
+        
+        TracedLock(Lock delegate, String kind) {
+            this.delegate = delegate;
+            this.kind = kind;
+        }
+        
+        @Override
+        public void lock() {
+            if (!Tracing.enabled || isHeldByCurrentThread()) {
+                delegate.lock();
+                return;
+            }
+            Tracing.publish(ThreadEvent.EventType.LOCK_WAITING, resourceId, "Waiting for " + kind + " access to " + resourceId);
+            delegate.lock();
+            Tracing.publish(ThreadEvent.EventType.LOCK_ACQUIRED, resourceId, "Acquired " + kind + " lock on " + resourceId);
+        }
+        
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            if (!Tracing.enabled || isHeldByCurrentThread()) {
+                delegate.lockInterruptibly();
+                return;
+            }
+            Tracing.publish(ThreadEvent.EventType.LOCK_WAITING, resourceId, "Waiting for " + kind + " access to " + resourceId);
+            try {
+                delegate.lockInterruptibly();
+            } catch (InterruptedException e) {
+                Tracing.publishInterrupted(resourceId);
+                throw e;
+            }
+            Tracing.publish(ThreadEvent.EventType.LOCK_ACQUIRED, resourceId, "Acquired " + kind + " lock on " + resourceId);
+        }
+        
+        @Override
+        public boolean tryLock() {
+            if (!Tracing.enabled) {
+                return delegate.tryLock();
+            }
+            boolean reentered = isHeldByCurrentThread();
+            boolean acquired = delegate.tryLock();
+            if (acquired && !reentered) {
+                Tracing.publish(ThreadEvent.EventType.LOCK_ACQUIRED, resourceId, "Acquired " + kind + " lock on " + resourceId);
+            }
+            return acquired;
+        }
+        
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            if (!Tracing.enabled || isHeldByCurrentThread()) {
+                return delegate.tryLock(time, unit);
+            }
+            Tracing.publish(ThreadEvent.EventType.LOCK_WAITING, resourceId, "Waiting for " + kind + " access to " + resourceId);
+            boolean acquired;
+            try {
+                acquired = delegate.tryLock(time, unit);
+            } catch (InterruptedException e) {
+                Tracing.publishInterrupted(resourceId);
+                throw e;
+            }
+            if (acquired) {
+                Tracing.publish(ThreadEvent.EventType.LOCK_ACQUIRED, resourceId, "Acquired " + kind + " lock on " + resourceId);
+            } else {
+                Tracing.publishTimedOut(resourceId);
+            }
+            return acquired;
+        }
+        
+        @Override
+        public void unlock() {
+            if (!Tracing.enabled) {
+                delegate.unlock();
+                return;
+            }
+            delegate.unlock();
+            if (!isHeldByCurrentThread()) {
+                Tracing.publish(ThreadEvent.EventType.LOCK_RELEASED, resourceId, "Released " + kind + " lock on " + resourceId);
+            }
+        }
+        
+        @Override
+        public Condition newCondition() {
+            // Only the write lock supports conditions; the read lock throws
+            return new TracedCondition(delegate.newCondition(), resourceId);
+        }
+        
+        @Override
+        public String toString() {
+            return delegate.toString() + "[" + resourceId + "]";
+        }
+    }
+} 
\ No newline at end of file
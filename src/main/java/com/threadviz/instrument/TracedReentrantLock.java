@@ -0,0 +1,141 @@
+package com.threadviz.instrument;
+
+import com.threadviz.models.ThreadEvent;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ReentrantLock that reports its use as events on the {@link com.threadviz.core.EventBus}.
+ * A blocking or timed acquisition reports LOCK_WAITING and then
+ * LOCK_ACQUIRED, a successful tryLock without a timeout only LOCK_ACQUIRED,
+ * and the final unlock LOCK_RELEASED. A wait ended by an interrupt or a
+ * timeout reports EXECUTION. Reentrant acquisitions and releases by the
+ * holding thread are not reported.
+ */
+public class TracedReentrantLock extends ReentrantLock {
+    private final String resourceId;
+    
+    public TracedReentrantLock(String resourceId) {
+        this(resourceId, false);
+    }
+    
+    public TracedReentrantLock(String resourceId, boolean fair) {
+        super(fair);
+        this.resourceId = resourceId;
+    }
+    
+    /**
+     * @return the resource id events are reported against
+     */
+    public String getResourceId() {
+        return resourceId;
+    }
+    
+    @Override
+    public void lock() {
+        if (!Tracing.enabled || isHeldByCurrentThread()) {
+            super.lock();
+            return;
+        }
+        Tracing.publish(ThreadEvent.EventType.LOCK_WAITING, resourceId, "Waiting for " + resourceId);
+        super.lock();
+        Tracing.publish(ThreadEvent.EventType.LOCK_ACQUIRED, resourceId, "Acquired " + resourceId);
+    }
+    
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        if (!Tracing.enabled || isHeldByCurrentThread()) {
+            super.lockInterruptibly();
+            return;
+        }
+        Tracing.publish(ThreadEvent.EventType.LOCK_WAITING, resourceId, "Waiting for " + resourceId);
+        try {
+            super.lockInterruptibly();
+        } catch (InterruptedException e) {
+            Tracing.publishInterrupted(resourceId);
+            throw e;
+        }
+        Tracing.publish(ThreadEvent.EventType.LOCK_ACQUIRED, resourceId, "Acquired " + resourceId);
+    }
+    
+    @Override
+    public boolean tryLock() {
+        if (!Tracing.enabled) {
+            return super.tryLock();
+        }
+        boolean reentered = isHeldByCurrentThread();
+        boolean acquired = super.tryLock();
+        if (acquired && !reentered) {
+            Tracing.publish(ThreadEvent.EventType.LOCK_ACQUIRED, resourceId, "Acquired " + resourceId);
+        }
+        return acquired;
+    }
+    
+    @Override
+    public boolean tryLock(long timeout, TimeUnit unit) throws InterruptedException {
+        if (!Tracing.enabled || isHeldByCurrentThread()) {
+            return super.tryLock(timeout, unit);
+        }
+        Tracing.publish(ThreadEvent.EventType.LOCK_WAITING, resourceId, "Waiting for " + resourceId);
+        boolean acquired;
+        try {
+            acquired = super.tryLock(timeout, unit);
+        } catch (InterruptedException e) {
+            Tracing.publishInterrupted(resourceId);
+            throw e;
+        }
+        if (acquired) {
+            Tracing.publish(ThreadEvent.EventType.LOCK_ACQUIRED, resourceId, "Acquired " + resourceId);
+        } else {
+            Tracing.publishTimedOut(resourceId);
+        }
+        return acquired;
+    }
+    
+    @Override
+    public void unlock() {
+        if (!Tracing.enabled) {
+            super.unlock();
+            return;
+        }
+        boolean last = getHoldCount() == 1;
+        super.unlock();
+        if (last) {
+            Tracing.publish(ThreadEvent.EventType.LOCK_RELEASED, resourceId, "Released " + resourceId);
+        }
+    }
+    
+    @Override
+    public Condition newCondition() {
+        return new TracedCondition(super.newCondition(), resourceId);
+    }
+    
+    // The inspection methods below take the conditions handed out above
+    
+    @Override
+    public boolean hasWaiters(Condition condition) {
+        return super.hasWaiters(unwrap(condition));
+    }
+    
+    @Override
+    public int getWaitQueueLength(Condition condition) {
+        return super.getWaitQueueLength(unwrap(condition));
+    }
+    
+    @Override
+    protected Collection<Thread> getWaitingThreads(Condition condition) {
+        return super.getWaitingThreads(unwrap(condition));
+    }
+    
+    private static Condition unwrap(Condition condition) {
+        return condition instanceof TracedCondition ? ((TracedCondition) condition).delegate : condition;
+    }
+    
+    @Override
+    public String toString() {
+        return super.toString() + "[" + resourceId + "]";
+    }
+} 
\ No newline at end of file
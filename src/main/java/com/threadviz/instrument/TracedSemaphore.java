@@ -0,0 +1,144 @@
+package com.threadviz.instrument;
+
+import com.threadviz.models.ThreadEvent;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Semaphore that reports its use as events on the {@link com.threadviz.core.EventBus}.
+ * A blocking or timed acquire reports LOCK_WAITING and then LOCK_ACQUIRED,
+ * or EXECUTION if it is interrupted or times out, a successful tryAcquire
+ * without a timeout only LOCK_ACQUIRED, and a release LOCK_RELEASED.
+ * Permits are not owned by threads, so hold times are only meaningful
+ * when permits are released by the thread that acquired them.
+ */
+public class TracedSemaphore extends Semaphore {
+    private final String resourceId;
+    
+    public TracedSemaphore(String resourceId, int permits) {
+        this(resourceId, permits, false);
+    }
+    
+    public TracedSemaphore(String resourceId, int permits, boolean fair) {
+        super(permits, fair);
+        this.resourceId = resourceId;
+    }
+    
+    /**
+     * @return the resource id events are reported against
+     */
+    public String getResourceId() {
+        return resourceId;
+    }
+    
+    @Override
+    public void acquire() throws InterruptedException {
+        acquire(1);
+    }
+    
+    @Override
+    public void acquire(int permits) throws InterruptedException {
+        if (!Tracing.enabled) {
+            super.acquire(permits);
+            return;
+        }
+        waiting(permits);
+        try {
+            super.acquire(permits);
+        } catch (InterruptedException e) {
+            Tracing.publishInterrupted(resourceId);
+            throw e;
+        }
+        acquired(permits);
+    }
+    
+    @Override
+    public void acquireUninterruptibly() {
+        acquireUninterruptibly(1);
+    }
+    
+    @Override
+    public void acquireUninterruptibly(int permits) {
+        if (!Tracing.enabled) {
+            super.acquireUninterruptibly(permits);
+            return;
+        }
+        waiting(permits);
+        super.acquireUninterruptibly(permits);
+        acquired(permits);
+    }
+    
+    @Override
+    public boolean tryAcquire() {
+        return tryAcquire(1);
+    }
+    
+    @Override
+    public boolean tryAcquire(int permits) {
+        boolean acquired = super.tryAcquire(permits);
+        if (acquired && Tracing.enabled) {
+            acquired(permits);
+        }
+        return acquired;
+    }
+    
+    @Override
+    public boolean tryAcquire(long timeout, TimeUnit unit) throws InterruptedException {
+        return tryAcquire(1, timeout, unit);
+    }
+    
+    @Override
+    public boolean tryAcquire(int permits, long timeout, TimeUnit unit) throws InterruptedException {
+        if (!Tracing.enabled) {
+            return super.tryAcquire(permits, timeout, unit);
+        }
+        waiting(permits);
+        boolean acquired;
+        try {
+            acquired = super.tryAcquire(permits, timeout, unit);
+        } catch (InterruptedException e) {
+            Tracing.publishInterrupted(resourceId);
+            throw e;
+        }
+        if (acquired) {
+            acquired(permits);
+        } else {
+            Tracing.publishTimedOut(resourceId);
+        }
+        return acquired;
+    }
+    
+    @Override
+    public void release() {
+        release(1);
+    }
+    
+    @Override
+    public void release(int permits) {
+        super.release(permits);
+        if (Tracing.enabled) {
+            Tracing.publish(ThreadEvent.EventType.LOCK_RELEASED, resourceId,
+                    "Released " + permits(permits) + " of " + resourceId + " (available: " + availablePermits() + ")");
+        }
+    }
+    
+    private void waiting(int permits) {
+        Tracing.publish(ThreadEvent.EventType.LOCK_WAITING, resourceId,
+                "Waiting for " + permits(permits) + " of " + resourceId + " (available: " + availablePermits() + ")");
+    }
+    
+    private void acquired(int permits) {
+        Tracing.publish(ThreadEvent.EventType.LOCK_ACQUIRED, resourceId,
+                "Acquired " + permits(permits) + " of " + resourceId + " (available: " + availablePermits() + ")");
+    }
+    
+    private static String permits(int permits) {
+        return permits == 1 ? "1 permit" : permits + " permits";
+    }
+    
+    @Override
+    public String toString() {
+        return super.toString() + "[" + resourceId + "]";
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.threadviz.instrument;
+
+import com.threadviz.core.EventBus;
+import com.threadviz.models.ThreadEvent;
+
+/**
+ * Switch shared by the traced locks and queues in this package. Tracing is
+ * on unless {@code -Dthreadviz.tracing=false} is set. With tracing off,
+ * every traced operation costs one read of a volatile field on top of the
+ * wrapped operation.
+ * <p>
+ * Operations with a timeout (tryLock, offer, poll and tryAcquire) report
+ * their wait like the blocking ones. A wait that times out ends with an
+ * EXECUTION event, as one ended by an interrupt does, so the thread is not
+ * shown waiting on the resource after it gave up.
+ */
+public final class Tracing {
+    public static final String ENABLED_PROPERTY = "threadviz.tracing";
+    
+    // Read directly by the wrappers, so the disabled path is a single volatile read
+    static volatile boolean enabled = !"false".equalsIgnoreCase(System.getProperty(ENABLED_PROPERTY));
+    
+    private static final EventBus eventBus = EventBus.getInstance();
+    
+    private Tracing() {
+    }
+    
+    public static boolean isEnabled() {
+        return enabled;
+    }
+    
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+    
+    /**
+     * Publish an event for the current thread
+     */
+    static void publish(ThreadEvent.EventType type, String resourceId, String message) {
+        eventBus.publishEvent(new ThreadEvent(Thread.currentThread().getName(), type, resourceId, message));
+    }
+    
+    /**
+     * Publish the end of a wait the current thread gave up because it was
+     * interrupted, so it is not shown waiting on the resource forever
+     */
+    static void publishInterrupted(String resourceId) {
+        publish(ThreadEvent.EventType.EXECUTION, resourceId, "Interrupted while waiting for " + resourceId);
+    }
+    
+    /**
+     * Publish the end of a wait that timed out
+     */
+    static void publishTimedOut(String resourceId) {
+        publish(ThreadEvent.EventType.EXECUTION, resourceId, "Gave up waiting for " + resourceId);
+    }
+} 
\ No newline at end of file
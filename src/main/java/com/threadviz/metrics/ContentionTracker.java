@@ -0,0 +1,143 @@
+package com.threadviz.metrics;
+
+import com.threadviz.models.ResourceRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tracks per-resource lock contention from a {@link ResourceRegistry}, which
+ * keeps when each thread started waiting for and acquired each resource.
+ * Wait time runs from LOCK_WAITING to LOCK_ACQUIRED, and hold time from
+ * LOCK_ACQUIRED until the thread releases the resource, awaits one of its
+ * conditions or terminates. Both are recorded in microseconds into
+ * {@link LogLinearHistogram}s, next to running totals.
+ */
+public class ContentionTracker implements ResourceRegistry.ContentionListener {
+    
+    private final Map<String, ResourceContention> resources;
+    
+    /**
+     * Create a tracker that records the waits and holds the registry reports
+     */
+    public ContentionTracker(ResourceRegistry registry) {
+        this.resources = new ConcurrentHashMap<>();
+        registry.addContentionListener(this);
+    }
+    
+    @Override
+    public void waitEnded(ResourceRegistry.Resource resource, String thread, long micros) {
+        ResourceContention contention = getOrCreate(resource.getName());
+        contention.waitTimes.record(micros);
+        contention.waitTotal.add(micros);
+    }
+    
+    @Override
+    public void holdEnded(ResourceRegistry.Resource resource, String thread, long micros) {
+        ResourceContention contention = getOrCreate(resource.getName());
+        contention.holdTimes.record(micros);
+        contention.holdTotal.add(micros);
+    }
+    
+    /**
+     * @return contention data for a resource, or null if it was never acquired
+     */
+    public ResourceContention getResource(String resourceId) {
+        return resources.get(resourceId);
+    }
+    
+    /**
+     * @return all tracked resources sorted by resource id
+     */
+    public List<ResourceContention> getResources() {
+        List<ResourceContention> list = new ArrayList<>(resources.values());
+        list.sort((a, b) -> a.getResourceId().compareTo(b.getResourceId()));
+        return list;
+    }
+    
+    /**
+     * Clear all recorded contention data
+     */
+    public void reset() {
+        resources.clear();
+    }
+    
+    /**
+     * Format a plain-text report of all resources, for headless use
+     */
+    public String formatReport() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-16s %-5s %10s %10s %10s %10s %10s%n",
+                "resource", "kind", "count", "p50(us)", "p99(us)", "p999(us)", "max(us)"));
+        for (ResourceContention resource : getResources()) {
+            appendRow(sb, resource.getResourceId(), "wait", resource.getWaitTimes().snapshot());
+            appendRow(sb, resource.getResourceId(), "hold", resource.getHoldTimes().snapshot());
+        }
+        return sb.toString();
+    }
+    
+    private void appendRow(StringBuilder sb, String resourceId, String kind, LogLinearHistogram.Snapshot s) {
+        sb.append(String.format("%-16s %-5s %10d %10d %10d %10d %10d%n",
+                resourceId, kind, s.getTotalCount(),
+                s.getValueAtPercentile(50), s.getValueAtPercentile(99),
+                s.getValueAtPercentile(99.9), s.getMax()));
+    }
+    
+    private ResourceContention getOrCreate(String resourceId) {
+        return resources.computeIfAbsent(resourceId, ResourceContention::new);
+    }
+    
+    /**
+     * Wait and hold time histograms for a single resource
+     */
+    public static class ResourceContention {
+        private final String resourceId;
+        private final LogLinearHistogram waitTimes;
+        private final LogLinearHistogram holdTimes;
+        private final LongAdder waitTotal;
+        private final LongAdder holdTotal;
+        
+        ResourceContention(String resourceId) {
+            this.resourceId = resourceId;
+            this.waitTimes = new LogLinearHistogram();
+            this.holdTimes = new LogLinearHistogram();
+            this.waitTotal = new LongAdder();
+            this.holdTotal = new LongAdder();
+        }
+        
+        public String getResourceId() {
+            return resourceId;
+        }
+        
+        /**
+         * @return wait times in microseconds
+         */
+        public LogLinearHistogram getWaitTimes() {
+            return waitTimes;
+        }
+        
+        /**
+         * @return hold times in microseconds
+         */
+        public LogLinearHistogram getHoldTimes() {
+            return holdTimes;
+        }
+        
+        /**
+         * @return the sum of all wait times in microseconds
+         */
+        public long getWaitTotalMicros() {
+            return waitTotal.sum();
+        }
+        
+        /**
+         * @return the sum of all hold times in microseconds
+         */
+        public long getHoldTotalMicros() {
+            return holdTotal.sum();
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.threadviz.metrics;
+
+import com.threadviz.core.EventBus;
+import com.threadviz.models.ThreadEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts published events by type. Counting uses striped {@link LongAdder}s,
+ * so reading the totals never contends with the dispatcher.
+ */
+public class EventCounter implements EventBus.EventListener {
+    
+    private final LongAdder[] counts;
+    
+    public EventCounter() {
+        ThreadEvent.EventType[] types = ThreadEvent.EventType.values();
+        this.counts = new LongAdder[types.length];
+        for (int i = 0; i < types.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+    
+    @Override
+    public void onEvent(ThreadEvent event) {
+        counts[event.getType().ordinal()].increment();
+    }
+    
+    /**
+     * @return the number of events of the given type seen so far
+     */
+    public long getCount(ThreadEvent.EventType type) {
+        return counts[type.ordinal()].sum();
+    }
+    
+    /**
+     * @return the number of events of all types seen so far
+     */
+    public long getTotalCount() {
+        long total = 0;
+        for (LongAdder count : counts) {
+            total += count.sum();
+        }
+        return total;
+    }
+} 
\ No newline at end of file
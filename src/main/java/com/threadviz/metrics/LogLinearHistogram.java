@@ -0,0 +1,137 @@
+package com.threadviz.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram with a fixed memory footprint.
+ * Values below 64 are counted exactly; above that every power of two is
+ * split into 32 linear sub-buckets, which bounds the relative error of a
+ * reported percentile to about 3%. Recording is a single atomic increment,
+ * so it can be called from any thread without locking.
+ */
+public class LogLinearHistogram {
+    private static final int LINEAR_BITS = 6;
+    private static final int LINEAR_BUCKETS = 1 << LINEAR_BITS;
+    private static final int SUB_BUCKETS = LINEAR_BUCKETS / 2;
+    
+    // Highest power of two tracked separately; larger values share the last bucket
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKET_COUNT =
+            LINEAR_BUCKETS + (MAX_EXPONENT - LINEAR_BITS + 1) * SUB_BUCKETS;
+    
+    private final AtomicLongArray counts;
+    private final AtomicLong max;
+    
+    public LogLinearHistogram() {
+        this.counts = new AtomicLongArray(BUCKET_COUNT);
+        this.max = new AtomicLong(0);
+    }
+    
+    /**
+     * Record a single value. Negative values are recorded as zero.
+     */
+    public void record(long value) {
+        long v = Math.max(0, value);
+        counts.incrementAndGet(bucketIndex(v));
+        
+        long currentMax = max.get();
+        while (v > currentMax && !max.compareAndSet(currentMax, v)) {
+            currentMax = max.get();
+        }
+    }
+    
+    /**
+     * Clear all recorded values
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        max.set(0);
+    }
+    
+    /**
+     * Take a point-in-time copy of the histogram for percentile queries
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            copy[i] = counts.get(i);
+            total += copy[i];
+        }
+        return new Snapshot(copy, total, max.get());
+    }
+    
+    static int bucketIndex(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        int highestBit = 63 - Long.numberOfLeadingZeros(value);
+        if (highestBit > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        // Keep the top LINEAR_BITS - 1 significant bits below the leading one
+        int top = (int) (value >>> (highestBit - (LINEAR_BITS - 1)));
+        return LINEAR_BUCKETS + (highestBit - LINEAR_BITS) * SUB_BUCKETS + (top - SUB_BUCKETS);
+    }
+    
+    /**
+     * @return the highest value that maps to the given bucket
+     */
+    static long bucketUpperBound(int index) {
+        if (index < LINEAR_BUCKETS) {
+            return index;
+        }
+        int offset = index - LINEAR_BUCKETS;
+        int highestBit = offset / SUB_BUCKETS + LINEAR_BITS;
+        long top = offset % SUB_BUCKETS + SUB_BUCKETS;
+        int shift = highestBit - (LINEAR_BITS - 1);
+        return (top << shift) + (1L << shift) - 1;
+    }
+    
+    /**
+     * Immutable copy of a histogram's counts
+     */
+    public static class Snapshot {
+        private final long[] counts;
+        private final long totalCount;
+        private final long max;
+        
+        private Snapshot(long[] counts, long totalCount, long max) {
+            this.counts = counts;
+            this.totalCount = totalCount;
+            this.max = max;
+        }
+        
+        public long getTotalCount() {
+            return totalCount;
+        }
+        
+        public long getMax() {
+            return max;
+        }
+        
+        /**
+         * @param percentile Percentile between 0 and 100
+         * @return the value at the percentile, or 0 if nothing was recorded
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (totalCount == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(totalCount * Math.min(100.0, Math.max(0.0, percentile)) / 100.0);
+            rank = Math.max(1, rank);
+            
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(bucketUpperBound(i), max);
+                }
+            }
+            return max;
+        }
+    }
+} 
\ No newline at end of file
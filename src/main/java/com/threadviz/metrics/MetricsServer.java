@@ -0,0 +1,286 @@
+package com.threadviz.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.threadviz.core.EventBus;
+import com.threadviz.core.EventBusStats;
+import com.threadviz.core.Simulation;
+import com.threadviz.models.ResourceRegistry;
+import com.threadviz.models.ThreadEvent;
+import com.threadviz.simulations.ProducerConsumerSimulation;
+import com.threadviz.simulations.ReaderWriterSimulation;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Optional HTTP endpoint exposing simulation metrics in the Prometheus text
+ * exposition format at {@code /metrics}. The server only binds to the
+ * loopback address and answers scrapes on its own thread; a scrape reads
+ * atomic counters only, so it never blocks the simulation threads.
+ * <p>
+ * Enable it by setting the {@value #PORT_PROPERTY} system property.
+ */
+public class MetricsServer {
+    public static final String PORT_PROPERTY = "threadviz.metrics.port";
+    
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    
+    private final int port;
+    private final Supplier<Simulation> simulationSupplier;
+    private final ContentionTracker contentionTracker;
+    private final ResourceRegistry resourceRegistry;
+    private final EventCounter eventCounter;
+    
+    private HttpServer server;
+    private ExecutorService executor;
+    
+    /**
+     * @param port Port to listen on, or 0 for any free port
+     * @param simulationSupplier Supplies the currently selected simulation, may return null
+     * @param contentionTracker Source of lock wait/hold percentiles, may be null
+     * @param resourceRegistry Source of current owners, waiters and hold totals, may be null
+     */
+    public MetricsServer(int port, Supplier<Simulation> simulationSupplier, ContentionTracker contentionTracker,
+                         ResourceRegistry resourceRegistry) {
+        this.port = port;
+        this.simulationSupplier = simulationSupplier;
+        this.contentionTracker = contentionTracker;
+        this.resourceRegistry = resourceRegistry;
+        this.eventCounter = new EventCounter();
+    }
+    
+    /**
+     * Start a server if the {@value #PORT_PROPERTY} system property is set.
+     * @return the started server, or null if metrics are disabled or could not be started
+     */
+    public static MetricsServer startIfConfigured(Supplier<Simulation> simulationSupplier,
+                                                  ContentionTracker contentionTracker,
+                                                  ResourceRegistry resourceRegistry) {
+        String value = System.getProperty(PORT_PROPERTY);
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        
+        try {
+            MetricsServer server = new MetricsServer(Integer.parseInt(value), simulationSupplier, contentionTracker,
+                    resourceRegistry);
+            server.start();
+            return server;
+        } catch (NumberFormatException | IOException e) {
+            System.err.println("Could not start metrics server on port " + value + ": " + e.getMessage());
+            return null;
+        }
+    }
+    
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            return;
+        }
+        
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r);
+            t.setDaemon(true);
+            t.setName("Metrics-Server");
+            return t;
+        });
+        server.setExecutor(executor);
+        server.createContext("/metrics", this::handleScrape);
+        
+        EventBus.getInstance().addEventListener(eventCounter);
+        server.start();
+    }
+    
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        EventBus.getInstance().removeEventListener(eventCounter);
+        server.stop(0);
+        executor.shutdownNow();
+        server = null;
+    }
+    
+    /**
+     * @return the port the server is listening on
+     */
+    public int getPort() {
+        return server != null ? server.getAddress().getPort() : port;
+    }
+    
+    private void handleScrape(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            
+            byte[] body = scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+    
+    /**
+     * Render all metrics in the text exposition format
+     */
+    String scrape() {
+        StringBuilder sb = new StringBuilder();
+        
+        // Rates are left to the scraper, e.g. rate(threadviz_events_total[1m]), so
+        // several scrapers or a missed scrape do not distort them
+        header(sb, "threadviz_events_total", "counter", "Events published, by event type.");
+        for (ThreadEvent.EventType type : ThreadEvent.EventType.values()) {
+            sb.append("threadviz_events_total{type=\"").append(type.name()).append("\"} ")
+                    .append(eventCounter.getCount(type)).append('\n');
+        }
+        
+        EventBusStats.Snapshot busStats = EventBus.getInstance().getStatsSnapshot();
+        header(sb, "threadviz_eventbus_backlog", "gauge", "Events published but not yet dispatched.");
+        sb.append("threadviz_eventbus_backlog ").append(busStats.getBacklog()).append('\n');
+        header(sb, "threadviz_eventbus_dispatch_lag_seconds", "summary", "Time from publish to dispatch.");
+        sb.append("threadviz_eventbus_dispatch_lag_seconds_sum ")
+                .append(formatDouble(busStats.getDispatchLagNanos() / 1e9)).append('\n');
+        sb.append("threadviz_eventbus_dispatch_lag_seconds_count ").append(busStats.getDispatched()).append('\n');
+        header(sb, "threadviz_eventbus_listener_seconds_total", "counter", "Dispatcher time spent in each listener.");
+        for (EventBusStats.ListenerSnapshot listener : busStats.getListeners()) {
+            sb.append("threadviz_eventbus_listener_seconds_total{listener=\"").append(escape(listener.getName()))
+                    .append("\",id=\"").append(listener.getId()).append("\"} ")
+                    .append(formatDouble(listener.getNanos() / 1e9)).append('\n');
+        }
+        
+        Simulation simulation = simulationSupplier.get();
+        if (simulation != null) {
+            appendSimulationMetrics(sb, simulation);
+        }
+        
+        if (contentionTracker != null) {
+            appendContentionMetrics(sb);
+        }
+        
+        if (resourceRegistry != null) {
+            appendResourceMetrics(sb);
+        }
+        return sb.toString();
+    }
+    
+    private void appendSimulationMetrics(StringBuilder sb, Simulation simulation) {
+        String label = "{simulation=\"" + escape(simulation.getName()) + "\"}";
+        
+        header(sb, "threadviz_simulation_running", "gauge", "Whether the simulation is running.");
+        sb.append("threadviz_simulation_running").append(label).append(' ')
+                .append(simulation.isRunning() ? 1 : 0).append('\n');
+        
+        if (simulation instanceof ProducerConsumerSimulation) {
+            ProducerConsumerSimulation pc = (ProducerConsumerSimulation) simulation;
+            header(sb, "threadviz_queue_depth", "gauge", "Items currently in the producer-consumer buffer.");
+            sb.append("threadviz_queue_depth").append(label).append(' ').append(pc.getCurrentBufferSize()).append('\n');
+            header(sb, "threadviz_queue_capacity", "gauge", "Capacity of the producer-consumer buffer.");
+            sb.append("threadviz_queue_capacity").append(label).append(' ').append(pc.getBufferSize()).append('\n');
+            header(sb, "threadviz_items_produced_total", "counter", "Items produced.");
+            sb.append("threadviz_items_produced_total").append(label).append(' ').append(pc.getItemsProduced()).append('\n');
+            header(sb, "threadviz_items_consumed_total", "counter", "Items consumed.");
+            sb.append("threadviz_items_consumed_total").append(label).append(' ').append(pc.getItemsConsumed()).append('\n');
+        } else if (simulation instanceof ReaderWriterSimulation) {
+            ReaderWriterSimulation rw = (ReaderWriterSimulation) simulation;
+            header(sb, "threadviz_reads_total", "counter", "Completed reads.");
+            sb.append("threadviz_reads_total").append(label).append(' ').append(rw.getTotalReads()).append('\n');
+            header(sb, "threadviz_writes_total", "counter", "Completed writes.");
+            sb.append("threadviz_writes_total").append(label).append(' ').append(rw.getTotalWrites()).append('\n');
+            header(sb, "threadviz_active_readers", "gauge", "Readers currently holding the read lock.");
+            sb.append("threadviz_active_readers").append(label).append(' ').append(rw.getActiveReaders()).append('\n');
+            header(sb, "threadviz_active_writers", "gauge", "Writers currently holding the write lock.");
+            sb.append("threadviz_active_writers").append(label).append(' ').append(rw.getActiveWriters()).append('\n');
+        }
+    }
+    
+    private void appendContentionMetrics(StringBuilder sb) {
+        header(sb, "threadviz_lock_wait_seconds", "summary", "Time from LOCK_WAITING to LOCK_ACQUIRED.");
+        for (ContentionTracker.ResourceContention resource : contentionTracker.getResources()) {
+            appendSummary(sb, "threadviz_lock_wait_seconds", resource.getResourceId(),
+                    resource.getWaitTimes().snapshot(), resource.getWaitTotalMicros());
+        }
+        
+        header(sb, "threadviz_lock_hold_seconds", "summary", "Time from LOCK_ACQUIRED to LOCK_RELEASED.");
+        for (ContentionTracker.ResourceContention resource : contentionTracker.getResources()) {
+            appendSummary(sb, "threadviz_lock_hold_seconds", resource.getResourceId(),
+                    resource.getHoldTimes().snapshot(), resource.getHoldTotalMicros());
+        }
+    }
+    
+    private void appendResourceMetrics(StringBuilder sb) {
+        List<ResourceRegistry.Resource> resources = resourceRegistry.getResources();
+        
+        // Read each resource's state once so its values are consistent with each other
+        List<ResourceRegistry.State> states = new ArrayList<>(resources.size());
+        for (ResourceRegistry.Resource resource : resources) {
+            states.add(resource.getState());
+        }
+        
+        header(sb, "threadviz_resource_owners", "gauge", "Threads currently holding the resource.");
+        for (int i = 0; i < resources.size(); i++) {
+            sb.append("threadviz_resource_owners{resource=\"").append(escape(resources.get(i).getName())).append("\"} ")
+                    .append(states.get(i).getOwnerCount()).append('\n');
+        }
+        header(sb, "threadviz_resource_waiters", "gauge", "Threads currently waiting for the resource.");
+        for (int i = 0; i < resources.size(); i++) {
+            sb.append("threadviz_resource_waiters{resource=\"").append(escape(resources.get(i).getName())).append("\"} ")
+                    .append(states.get(i).getWaiterCount()).append('\n');
+        }
+        header(sb, "threadviz_resource_acquisitions_total", "counter", "Times the resource was acquired.");
+        for (int i = 0; i < resources.size(); i++) {
+            sb.append("threadviz_resource_acquisitions_total{resource=\"").append(escape(resources.get(i).getName()))
+                    .append("\"} ").append(states.get(i).getAcquisitions()).append('\n');
+        }
+        header(sb, "threadviz_resource_hold_seconds_total", "counter", "Completed hold time over all threads.");
+        for (int i = 0; i < resources.size(); i++) {
+            sb.append("threadviz_resource_hold_seconds_total{resource=\"").append(escape(resources.get(i).getName()))
+                    .append("\"} ").append(formatDouble(states.get(i).getHoldMicros() / 1e6)).append('\n');
+        }
+    }
+    
+    /**
+     * Append the quantiles of a histogram of microseconds, in seconds
+     */
+    private void appendSummary(StringBuilder sb, String name, String resourceId, LogLinearHistogram.Snapshot s,
+            long totalMicros) {
+        String resource = escape(resourceId);
+        double[] quantiles = {0.5, 0.99, 0.999};
+        for (double q : quantiles) {
+            sb.append(name).append("{resource=\"").append(resource).append("\",quantile=\"").append(q).append("\"} ")
+                    .append(formatDouble(s.getValueAtPercentile(q * 100) / 1e6)).append('\n');
+        }
+        sb.append(name).append("_sum{resource=\"").append(resource).append("\"} ")
+                .append(formatDouble(totalMicros / 1e6)).append('\n');
+        sb.append(name).append("_count{resource=\"").append(resource).append("\"} ")
+                .append(s.getTotalCount()).append('\n');
+    }
+    
+    private static void header(StringBuilder sb, String name, String type, String help) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+    
+    private static String formatDouble(double value) {
+        return String.format(Locale.ROOT, "%.6f", value);
+    }
+    
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,432 @@
+package com.threadviz.models;
+
+import com.threadviz.core.EventBus;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * The lock state of every resource, kept up to date from the event stream
+ * so the canvas, analyzers and exporters can read one source instead of
+ * each rebuilding it. Each resource gets a dense int id the first time a
+ * lock event names it, and keeps it until the registry is cleared.
+ * <p>
+ * A resource's current owners, queue of waiters, acquisition count and
+ * cumulative hold time form one immutable {@link State}, replaced with a
+ * compare-and-set on each event. Readers on any thread therefore see a
+ * consistent state per resource without taking a lock; only registering a
+ * new resource is serialized.
+ * <p>
+ * {@link ContentionListener}s are told how long each lock wait and each
+ * hold lasted, measured against the state the event replaced, so they need
+ * no bookkeeping of their own.
+ */
+public class ResourceRegistry implements EventBus.EventListener {
+    public static final int NO_RESOURCE = -1;
+    
+    private final Map<String, Resource> byName;
+    private final List<Resource> byId;
+    
+    // Resource each thread is waiting for, so it can leave the queue when it terminates
+    private final Map<String, Resource> waitingOn;
+    
+    private final List<ContentionListener> listeners;
+    
+    public ResourceRegistry() {
+        this.byName = new ConcurrentHashMap<>();
+        this.byId = new CopyOnWriteArrayList<>();
+        this.waitingOn = new ConcurrentHashMap<>();
+        this.listeners = new CopyOnWriteArrayList<>();
+    }
+    
+    public void addContentionListener(ContentionListener listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeContentionListener(ContentionListener listener) {
+        listeners.remove(listener);
+    }
+    
+    @Override
+    public void onEvent(ThreadEvent event) {
+        String thread = event.getThreadName();
+        long micros = toMicros(event.getTimestamp());
+        
+        switch (event.getType()) {
+            case LOCK_WAITING:
+            case CONDITION_WAITING: {
+                Resource resource = register(event.getResourceId());
+                if (resource == null) {
+                    break;
+                }
+                stopWaiting(thread);
+                waitingOn.put(thread, resource);
+                
+                // Waiting on a condition gives up the lock until the thread is signalled
+                boolean releases = event.getType() == ThreadEvent.EventType.CONDITION_WAITING;
+                State before = resource.update(s -> s.withWaiter(thread, releases, micros));
+                if (releases) {
+                    holdEnded(resource, thread, before, micros);
+                }
+                break;
+            }
+            case LOCK_ACQUIRED: {
+                Resource resource = register(event.getResourceId());
+                if (resource == null) {
+                    break;
+                }
+                if (waitingOn.get(thread) == resource) {
+                    waitingOn.remove(thread);
+                } else {
+                    stopWaiting(thread);
+                }
+                State before = resource.update(s -> s.withOwner(thread, micros));
+                long waitingSince = before.getLockWaitStart(thread);
+                if (waitingSince >= 0) {
+                    for (ContentionListener listener : listeners) {
+                        listener.waitEnded(resource, thread, Math.max(0, micros - waitingSince));
+                    }
+                }
+                break;
+            }
+            case LOCK_RELEASED: {
+                Resource resource = get(event.getResourceId());
+                if (resource != null) {
+                    holdEnded(resource, thread, resource.update(s -> s.withoutOwner(thread, micros)), micros);
+                }
+                break;
+            }
+            case EXECUTION:
+                // A thread running again without the lock gave up waiting, e.g. when interrupted
+                stopWaiting(thread);
+                break;
+            case THREAD_TERMINATED:
+                stopWaiting(thread);
+                for (Resource resource : byId) {
+                    if (resource.getState().isOwner(thread)) {
+                        holdEnded(resource, thread, resource.update(s -> s.withoutOwner(thread, micros)), micros);
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+    }
+    
+    /**
+     * @return the resource with the given id, or null if no lock event named it
+     */
+    public Resource get(String name) {
+        return name != null ? byName.get(name) : null;
+    }
+    
+    /**
+     * @return the resource with the given int id
+     */
+    public Resource get(int id) {
+        return byId.get(id);
+    }
+    
+    /**
+     * @return the int id of the resource, or {@link #NO_RESOURCE} if no lock event named it
+     */
+    public int getId(String name) {
+        Resource resource = get(name);
+        return resource != null ? resource.id : NO_RESOURCE;
+    }
+    
+    /**
+     * @return the number of resources, which is one more than the highest id
+     */
+    public int size() {
+        return byId.size();
+    }
+    
+    /**
+     * @return all resources in id order
+     */
+    public List<Resource> getResources() {
+        return Collections.unmodifiableList(new ArrayList<>(byId));
+    }
+    
+    /**
+     * Forget all resources, e.g. when a new simulation starts
+     */
+    public synchronized void clear() {
+        byName.clear();
+        byId.clear();
+        waitingOn.clear();
+    }
+    
+    /**
+     * @return the resource, registering it if it is new, or null if there is no id
+     */
+    private Resource register(String name) {
+        if (name == null || name.isEmpty()) {
+            return null;
+        }
+        Resource resource = byName.get(name);
+        if (resource != null) {
+            return resource;
+        }
+        synchronized (this) {
+            resource = byName.get(name);
+            if (resource == null) {
+                resource = new Resource(byId.size(), name);
+                byId.add(resource);
+                byName.put(name, resource);
+            }
+            return resource;
+        }
+    }
+    
+    private void stopWaiting(String thread) {
+        Resource resource = waitingOn.remove(thread);
+        if (resource != null) {
+            resource.update(s -> s.withoutWaiter(thread));
+        }
+    }
+    
+    /**
+     * Tell the listeners about a hold the update from the given state ended, if it held the resource
+     */
+    private void holdEnded(Resource resource, String thread, State before, long micros) {
+        long acquired = before.getAcquiredMicros(thread);
+        if (acquired < 0) {
+            return;
+        }
+        for (ContentionListener listener : listeners) {
+            listener.holdEnded(resource, thread, Math.max(0, micros - acquired));
+        }
+    }
+    
+    private static long toMicros(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000L + instant.getNano() / 1_000;
+    }
+    
+    /**
+     * A registered resource. Its state is replaced as a whole on each change.
+     */
+    public static class Resource {
+        private final int id;
+        private final String name;
+        private final AtomicReference<State> state;
+        
+        Resource(int id, String name) {
+            this.id = id;
+            this.name = name;
+            this.state = new AtomicReference<>(State.EMPTY);
+        }
+        
+        public int getId() {
+            return id;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        /**
+         * @return the current state, which does not change after it is returned
+         */
+        public State getState() {
+            return state.get();
+        }
+        
+        /**
+         * @return the state the change was applied to
+         */
+        private State update(UnaryOperator<State> change) {
+            return state.getAndUpdate(change);
+        }
+    }
+    
+    /**
+     * Immutable lock state of one resource
+     */
+    public static final class State {
+        static final State EMPTY = new State(new String[0], new long[0], new String[0], new long[0], 0, 0);
+        
+        // Owners with the time each acquired the resource, in microseconds
+        private final String[] owners;
+        private final long[] acquiredMicros;
+        // Waiters with the time each started waiting for the lock, or -1 if awaiting a condition
+        private final String[] waiters;
+        private final long[] waitStarts;
+        private final long acquisitions;
+        private final long holdMicros;
+        
+        private State(String[] owners, long[] acquiredMicros, String[] waiters, long[] waitStarts,
+                      long acquisitions, long holdMicros) {
+            this.owners = owners;
+            this.acquiredMicros = acquiredMicros;
+            this.waiters = waiters;
+            this.waitStarts = waitStarts;
+            this.acquisitions = acquisitions;
+            this.holdMicros = holdMicros;
+        }
+        
+        /**
+         * @return the threads holding the resource, in the order they acquired it
+         */
+        public List<String> getOwners() {
+            return Collections.unmodifiableList(Arrays.asList(owners));
+        }
+        
+        /**
+         * @return the threads waiting for the resource, longest waiting first
+         */
+        public List<String> getWaiters() {
+            return Collections.unmodifiableList(Arrays.asList(waiters));
+        }
+        
+        public int getOwnerCount() {
+            return owners.length;
+        }
+        
+        public int getWaiterCount() {
+            return waiters.length;
+        }
+        
+        public boolean isOwner(String thread) {
+            return indexOf(owners, thread) >= 0;
+        }
+        
+        /**
+         * @return when the thread acquired the resource in microseconds, or -1 if it does not hold it
+         */
+        public long getAcquiredMicros(String thread) {
+            int index = indexOf(owners, thread);
+            return index >= 0 ? acquiredMicros[index] : -1;
+        }
+        
+        /**
+         * @return when the thread started waiting for the lock in microseconds,
+         *         or -1 if it is not waiting or is awaiting a condition
+         */
+        public long getLockWaitStart(String thread) {
+            int index = indexOf(waiters, thread);
+            return index >= 0 ? waitStarts[index] : -1;
+        }
+        
+        /**
+         * @return the number of times the resource was acquired
+         */
+        public long getAcquisitions() {
+            return acquisitions;
+        }
+        
+        /**
+         * @return the total time the resource was held by all threads, in
+         *         microseconds, counting only holds that have ended
+         */
+        public long getHoldMicros() {
+            return holdMicros;
+        }
+        
+        /**
+         * @return the total hold time including the current holds up to the given time
+         */
+        public long getHoldMicros(Instant now) {
+            long total = holdMicros;
+            long nowMicros = toMicros(now);
+            for (long acquired : acquiredMicros) {
+                total += Math.max(0, nowMicros - acquired);
+            }
+            return total;
+        }
+        
+        State withWaiter(String thread, boolean releaseFirst, long micros) {
+            State s = releaseFirst ? withoutOwner(thread, micros) : this;
+            if (indexOf(s.waiters, thread) >= 0) {
+                return s;
+            }
+            String[] newWaiters = Arrays.copyOf(s.waiters, s.waiters.length + 1);
+            newWaiters[s.waiters.length] = thread;
+            long[] newStarts = Arrays.copyOf(s.waitStarts, s.waitStarts.length + 1);
+            newStarts[s.waitStarts.length] = releaseFirst ? -1 : micros;
+            return new State(s.owners, s.acquiredMicros, newWaiters, newStarts, s.acquisitions, s.holdMicros);
+        }
+        
+        State withoutWaiter(String thread) {
+            int index = indexOf(waiters, thread);
+            if (index < 0) {
+                return this;
+            }
+            return new State(owners, acquiredMicros, remove(waiters, index), remove(waitStarts, index),
+                    acquisitions, holdMicros);
+        }
+        
+        State withOwner(String thread, long micros) {
+            State s = withoutWaiter(thread);
+            if (indexOf(s.owners, thread) >= 0) {
+                return s;
+            }
+            String[] newOwners = Arrays.copyOf(s.owners, s.owners.length + 1);
+            newOwners[s.owners.length] = thread;
+            long[] newAcquired = Arrays.copyOf(s.acquiredMicros, s.acquiredMicros.length + 1);
+            newAcquired[s.acquiredMicros.length] = micros;
+            return new State(newOwners, newAcquired, s.waiters, s.waitStarts, s.acquisitions + 1, s.holdMicros);
+        }
+        
+        State withoutOwner(String thread, long micros) {
+            int index = indexOf(owners, thread);
+            if (index < 0) {
+                return this;
+            }
+            long held = Math.max(0, micros - acquiredMicros[index]);
+            return new State(remove(owners, index), remove(acquiredMicros, index), waiters, waitStarts,
+                    acquisitions, holdMicros + held);
+        }
+        
+        private static int indexOf(String[] values, String value) {
+            for (int i = 0; i < values.length; i++) {
+                if (Objects.equals(values[i], value)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        
+        private static String[] remove(String[] values, int index) {
+            String[] result = new String[values.length - 1];
+            System.arraycopy(values, 0, result, 0, index);
+            System.arraycopy(values, index + 1, result, index, result.length - index);
+            return result;
+        }
+        
+        private static long[] remove(long[] values, int index) {
+            long[] result = new long[values.length - 1];
+            System.arraycopy(values, 0, result, 0, index);
+            System.arraycopy(values, index + 1, result, index, result.length - index);
+            return result;
+        }
+    }
+    
+    /**
+     * Told when a lock wait or hold ends, on the thread that applied the event
+     */
+    public interface ContentionListener {
+        
+        /**
+         * A thread acquired a lock it was waiting for; condition waits are not reported
+         * @param micros How long the thread waited
+         */
+        void waitEnded(Resource resource, String thread, long micros);
+        
+        /**
+         * A thread released a resource, started awaiting one of its conditions or terminated
+         * @param micros How long the thread held the resource
+         */
+        void holdEnded(Resource resource, String thread, long micros);
+    }
+} 
\ No newline at end of file
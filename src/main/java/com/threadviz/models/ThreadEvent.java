@@ -2,6 +2,7 @@ package com.threadviz.models;
 
 import java.time.Instant;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Represents an event generated by a thread during simulation.
@@ -32,14 +33,35 @@ public class ThreadEvent {
     private Object payload;
     
     public ThreadEvent(String threadName, EventType type, String resourceId, String message) {
-        this.id = UUID.randomUUID();
+        this(threadName, type, resourceId, message, Instant.now());
+    }
+    
+    /**
+     * Create an event that happened at the given time, e.g. one decoded from
+     * a stream or recorded by another process
+     */
+    public ThreadEvent(String threadName, EventType type, String resourceId, String message, Instant timestamp) {
+        this.id = newId();
         this.threadName = threadName;
         this.type = type;
         this.resourceId = resourceId;
-        this.timestamp = Instant.now();
+        this.timestamp = timestamp;
         this.message = message;
     }
     
+    /**
+     * A random version 4 UUID. Event ids only need to be unique, so they are
+     * drawn from a thread-local generator rather than the secure random
+     * number generator behind {@link UUID#randomUUID()}, which is much
+     * slower and shared by all threads.
+     */
+    private static UUID newId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long most = (random.nextLong() & ~0xF000L) | 0x4000L;
+        long least = (random.nextLong() & ~(0x3L << 62)) | (0x2L << 62);
+        return new UUID(most, least);
+    }
+    
     // Getters
     
     public UUID getId() {
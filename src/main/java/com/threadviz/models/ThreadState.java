@@ -0,0 +1,60 @@
+package com.threadviz.models;
+
+/**
+ * States a visualized thread can be in: the states the simulations claim
+ * through events (CREATED, RUNNING, ...) and the states the JVM reports.
+ * {@link ThreadStateStore} keeps them as one byte per thread.
+ */
+public enum ThreadState {
+    CREATED,
+    NEW,
+    RUNNING,
+    RUNNABLE,
+    WAITING,
+    TIMED_WAITING,
+    BLOCKED,
+    TERMINATED;
+    
+    private static final ThreadState[] VALUES = values();
+    
+    /**
+     * @return the state stored as the given byte
+     */
+    public static ThreadState of(byte code) {
+        return VALUES[code];
+    }
+    
+    /**
+     * @return the byte this state is stored as
+     */
+    public byte code() {
+        return (byte) ordinal();
+    }
+    
+    /**
+     * @return the state matching a state reported by the JVM
+     */
+    public static ThreadState of(Thread.State state) {
+        switch (state) {
+            case NEW:
+                return NEW;
+            case RUNNABLE:
+                return RUNNABLE;
+            case BLOCKED:
+                return BLOCKED;
+            case WAITING:
+                return WAITING;
+            case TIMED_WAITING:
+                return TIMED_WAITING;
+            default:
+                return TERMINATED;
+        }
+    }
+    
+    /**
+     * @return true for states in which the thread is executing rather than waiting
+     */
+    public boolean isActive() {
+        return this == RUNNING || this == RUNNABLE;
+    }
+} 
\ No newline at end of file
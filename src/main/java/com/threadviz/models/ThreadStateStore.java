@@ -0,0 +1,391 @@
+package com.threadviz.models;
+
+import java.lang.management.ThreadInfo;
+import java.util.Arrays;
+
+/**
+ * Visual state of all threads in the visualization, kept as parallel
+ * primitive arrays indexed by thread. A thread keeps its index until the
+ * store is cleared, so other structures refer to threads by index, and
+ * loops over positions or states walk contiguous arrays instead of
+ * following a reference per thread. Resources are interned to int ids.
+ * <p>
+ * Thread and resource names are only ever appended, so copies made with
+ * {@link #copyFrom} share the name tables of their source and copy only
+ * the primitive columns. The store is not thread-safe.
+ */
+public class ThreadStateStore {
+    public static final int NO_THREAD = -1;
+    public static final int NO_RESOURCE = -1;
+    
+    private static final byte SAMPLED = 1;
+    private static final byte HOLDING = 2;
+    
+    private int size;
+    private String[] names;
+    private byte[] states;
+    private byte[] flags;
+    private double[] x;
+    private double[] y;
+    private int[] resources;
+    private int[] lockOwners;
+    private int[] blockedCounts;
+    private int[] waitedCounts;
+    
+    private int resourceCount;
+    private String[] resourceNames;
+    
+    // Lookups by name, not filled in by copyFrom
+    private final NameIndex threadIndex;
+    private final NameIndex resourceIndex;
+    
+    public ThreadStateStore() {
+        this.threadIndex = new NameIndex();
+        this.resourceIndex = new NameIndex();
+        this.names = new String[64];
+        this.resourceNames = new String[16];
+        allocateColumns(64);
+    }
+    
+    /**
+     * Add a thread in the CREATED state
+     * @return the index of the new thread
+     */
+    public int add(String name, double x, double y) {
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+        }
+        if (size == states.length) {
+            allocateColumns(size * 2);
+        }
+        int i = size++;
+        names[i] = name;
+        states[i] = ThreadState.CREATED.code();
+        flags[i] = 0;
+        this.x[i] = x;
+        this.y[i] = y;
+        resources[i] = NO_RESOURCE;
+        lockOwners[i] = NO_THREAD;
+        blockedCounts[i] = 0;
+        waitedCounts[i] = 0;
+        threadIndex.put(names, i);
+        return i;
+    }
+    
+    /**
+     * @return the index of the named thread, or {@link #NO_THREAD}
+     */
+    public int indexOf(String name) {
+        return threadIndex.find(names, name);
+    }
+    
+    /**
+     * @return the number of threads, including terminated ones
+     */
+    public int size() {
+        return size;
+    }
+    
+    public String getName(int i) {
+        return names[i];
+    }
+    
+    public ThreadState getState(int i) {
+        return ThreadState.of(states[i]);
+    }
+    
+    public boolean isTerminated(int i) {
+        return states[i] == ThreadState.TERMINATED.code();
+    }
+    
+    public double getX(int i) {
+        return x[i];
+    }
+    
+    public double getY(int i) {
+        return y[i];
+    }
+    
+    public void setPosition(int i, double x, double y) {
+        this.x[i] = x;
+        this.y[i] = y;
+    }
+    
+    /**
+     * @return the id of the resource the thread holds or waits on, or {@link #NO_RESOURCE}
+     */
+    public int getResource(int i) {
+        return resources[i];
+    }
+    
+    /**
+     * @return the name of an interned resource id
+     */
+    public String getResourceName(int resource) {
+        return resourceNames[resource];
+    }
+    
+    /**
+     * @return the id of a resource, interning it if it is new, or {@link #NO_RESOURCE} for null
+     */
+    public int internResource(String resourceName) {
+        if (resourceName == null) {
+            return NO_RESOURCE;
+        }
+        int id = resourceIndex.find(resourceNames, resourceName);
+        if (id == NO_RESOURCE) {
+            if (resourceCount == resourceNames.length) {
+                resourceNames = Arrays.copyOf(resourceNames, resourceCount * 2);
+            }
+            id = resourceCount++;
+            resourceNames[id] = resourceName;
+            resourceIndex.put(resourceNames, id);
+        }
+        return id;
+    }
+    
+    /**
+     * @return the id of an interned resource, or {@link #NO_RESOURCE}
+     */
+    public int indexOfResource(String resourceName) {
+        return resourceIndex.find(resourceNames, resourceName);
+    }
+    
+    /**
+     * @return the number of interned resources; ids run from 0 to this count
+     */
+    public int getResourceCount() {
+        return resourceCount;
+    }
+    
+    /**
+     * @return the index of the thread owning the lock this thread is waiting on, or {@link #NO_THREAD}
+     */
+    public int getLockOwner(int i) {
+        return lockOwners[i];
+    }
+    
+    /**
+     * @return true once the JVM state of the thread has been sampled
+     */
+    public boolean isSampled(int i) {
+        return (flags[i] & SAMPLED) != 0;
+    }
+    
+    /**
+     * @return the number of times the JVM has seen this thread blocked on a monitor
+     */
+    public int getBlockedCount(int i) {
+        return blockedCounts[i];
+    }
+    
+    /**
+     * @return the number of times the JVM has seen this thread waiting
+     */
+    public int getWaitedCount(int i) {
+        return waitedCounts[i];
+    }
+    
+    /**
+     * Determines if the thread is holding a lock
+     * @return true if the thread holds the resource it last acquired or waited on
+     */
+    public boolean isLocked(int i) {
+        return (flags[i] & HOLDING) != 0;
+    }
+    
+    /**
+     * Record whether the thread holds its resource. The JVM state cannot tell,
+     * as a holder may sleep and a waiter may park with a timeout, so the scene
+     * model sets this from the holders in its resource index.
+     */
+    public void setHolding(int i, boolean holding) {
+        flags[i] = (byte) (holding ? flags[i] | HOLDING : flags[i] & ~HOLDING);
+    }
+    
+    /**
+     * Update the thread's state from a JVM thread sample
+     */
+    public void updateFromThreadInfo(int i, ThreadInfo info) {
+        if (isTerminated(i)) {
+            return;
+        }
+        flags[i] |= SAMPLED;
+        states[i] = ThreadState.of(info.getThreadState()).code();
+        String owner = info.getLockOwnerName();
+        lockOwners[i] = owner != null ? indexOf(owner) : NO_THREAD;
+        blockedCounts[i] = (int) info.getBlockedCount();
+        waitedCounts[i] = (int) info.getWaitedCount();
+    }
+    
+    /**
+     * Update the thread's state based on an event
+     */
+    public void updateFromEvent(int i, ThreadEvent event) {
+        switch (event.getType()) {
+            case THREAD_CREATED:
+                setClaimedState(i, ThreadState.CREATED);
+                break;
+            case THREAD_STARTED:
+            case CONDITION_SIGNALED:
+            case EXECUTION:
+                setClaimedState(i, ThreadState.RUNNING);
+                break;
+            case THREAD_TERMINATED:
+                setClaimedState(i, ThreadState.TERMINATED);
+                break;
+            case LOCK_WAITING:
+                setClaimedState(i, ThreadState.BLOCKED);
+                resources[i] = internResource(event.getResourceId());
+                break;
+            case LOCK_ACQUIRED:
+                setClaimedState(i, ThreadState.RUNNING);
+                resources[i] = internResource(event.getResourceId());
+                break;
+            case LOCK_RELEASED:
+                setClaimedState(i, ThreadState.RUNNING);
+                resources[i] = NO_RESOURCE;
+                break;
+            case CONDITION_WAITING:
+                setClaimedState(i, ThreadState.WAITING);
+                resources[i] = internResource(event.getResourceId());
+                break;
+            case DEADLOCK_DETECTED:
+                setClaimedState(i, ThreadState.BLOCKED);
+                break;
+        }
+    }
+    
+    /**
+     * Replace the contents with those of another store. Copies can be read
+     * by index but do not support {@link #indexOf(String)}, and must not be
+     * added to, as they share the other store's name tables.
+     */
+    public void copyFrom(ThreadStateStore other) {
+        if (states.length < other.size) {
+            allocateColumns(other.states.length);
+        }
+        size = other.size;
+        names = other.names;
+        System.arraycopy(other.states, 0, states, 0, size);
+        System.arraycopy(other.flags, 0, flags, 0, size);
+        System.arraycopy(other.x, 0, x, 0, size);
+        System.arraycopy(other.y, 0, y, 0, size);
+        System.arraycopy(other.resources, 0, resources, 0, size);
+        System.arraycopy(other.lockOwners, 0, lockOwners, 0, size);
+        System.arraycopy(other.blockedCounts, 0, blockedCounts, 0, size);
+        System.arraycopy(other.waitedCounts, 0, waitedCounts, 0, size);
+        
+        resourceCount = other.resourceCount;
+        resourceNames = other.resourceNames;
+    }
+    
+    /**
+     * Remove all threads and resources
+     */
+    public void clear() {
+        // New tables, as copies may still be reading the old ones
+        names = new String[64];
+        resourceNames = new String[16];
+        size = 0;
+        resourceCount = 0;
+        threadIndex.clear();
+        resourceIndex.clear();
+    }
+    
+    /**
+     * Apply a state the simulation claims for this thread. Once the JVM has
+     * been sampled its view takes precedence, except for termination.
+     */
+    private void setClaimedState(int i, ThreadState claimed) {
+        if (!isSampled(i) || claimed == ThreadState.TERMINATED) {
+            states[i] = claimed.code();
+        }
+    }
+    
+    private void allocateColumns(int capacity) {
+        states = states == null ? new byte[capacity] : Arrays.copyOf(states, capacity);
+        flags = flags == null ? new byte[capacity] : Arrays.copyOf(flags, capacity);
+        x = x == null ? new double[capacity] : Arrays.copyOf(x, capacity);
+        y = y == null ? new double[capacity] : Arrays.copyOf(y, capacity);
+        resources = resources == null ? new int[capacity] : Arrays.copyOf(resources, capacity);
+        lockOwners = lockOwners == null ? new int[capacity] : Arrays.copyOf(lockOwners, capacity);
+        blockedCounts = blockedCounts == null ? new int[capacity] : Arrays.copyOf(blockedCounts, capacity);
+        waitedCounts = waitedCounts == null ? new int[capacity] : Arrays.copyOf(waitedCounts, capacity);
+    }
+    
+    /**
+     * Open addressing table from names to their position in a name table.
+     * Slots hold positions plus one, so a lookup neither boxes nor follows
+     * an entry object; about 8 bytes per name at the maximum load of a half.
+     */
+    private static final class NameIndex {
+        private int[] slots;
+        private int shift;
+        private int count;
+        
+        NameIndex() {
+            clear();
+        }
+        
+        /**
+         * @return the position of the name in the table, or -1
+         */
+        int find(String[] table, String name) {
+            if (name == null) {
+                return -1;
+            }
+            int mask = slots.length - 1;
+            for (int slot = slotOf(name); ; slot = (slot + 1) & mask) {
+                int entry = slots[slot];
+                if (entry == 0) {
+                    return -1;
+                }
+                if (table[entry - 1].equals(name)) {
+                    return entry - 1;
+                }
+            }
+        }
+        
+        /**
+         * Index the name at a position of the table, which must not be indexed yet
+         */
+        void put(String[] table, int position) {
+            if (table[position] == null) {
+                return;
+            }
+            if ((count + 1) * 2 > slots.length) {
+                int[] old = slots;
+                slots = new int[old.length * 2];
+                shift--;
+                for (int entry : old) {
+                    if (entry != 0) {
+                        insert(table[entry - 1], entry);
+                    }
+                }
+            }
+            insert(table[position], position + 1);
+            count++;
+        }
+        
+        void clear() {
+            slots = new int[16];
+            shift = 32 - 4;
+            count = 0;
+        }
+        
+        private void insert(String name, int entry) {
+            int mask = slots.length - 1;
+            int slot = slotOf(name);
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = entry;
+        }
+        
+        private int slotOf(String name) {
+            // Fibonacci hashing spreads the similar hashes of names like worker-1, worker-2
+            return (name.hashCode() * 0x9E3779B9) >>> shift;
+        }
+    }
+} 
\ No newline at end of file
@@ -1,10 +1,11 @@
 package com.threadviz.simulations;
 
 import com.threadviz.core.Simulation;
+import com.threadviz.instrument.TracedReentrantLock;
 import com.threadviz.models.ThreadEvent;
 
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Implementation of the classic Dining Philosophers problem.
@@ -12,6 +13,9 @@ import java.util.concurrent.locks.ReentrantLock;
  * must coordinate to eat (critical section) without deadlocking.
  */
 public class DiningPhilosophersSimulation extends Simulation {
+    // How long a philosopher waits for a fork before putting the other one down
+    private static final long FORK_WAIT_MS = 100;
+    
     private int numPhilosophers;
     private int thinkingTime; // milliseconds
     private int eatingTime; // milliseconds
@@ -27,8 +31,9 @@ public class DiningPhilosophersSimulation extends Simulation {
         this.deadlockAvoidance = true;
         this.forks = new Lock[numPhilosophers];
         
+        // Forks report their own waits, acquisitions and releases
         for (int i = 0; i < numPhilosophers; i++) {
-            forks[i] = new ReentrantLock();
+            forks[i] = newFork(i);
         }
     }
     
@@ -37,7 +42,7 @@ public class DiningPhilosophersSimulation extends Simulation {
         // Reset forks if needed
         for (int i = 0; i < numPhilosophers; i++) {
             if (forks[i] == null) {
-                forks[i] = new ReentrantLock();
+                forks[i] = newFork(i);
             }
         }
         
@@ -90,31 +95,16 @@ public class DiningPhilosophersSimulation extends Simulation {
         }
         
         // Try to pick up first fork
-        publishEvent(ThreadEvent.EventType.LOCK_WAITING, 
-                "Waiting for fork " + leftFork, 
-                "fork-" + leftFork);
-        
-        if (forks[leftFork].tryLock() || forks[leftFork].tryLock()) {
-            publishEvent(ThreadEvent.EventType.LOCK_ACQUIRED, 
-                    "Acquired fork " + leftFork, 
-                    "fork-" + leftFork);
-            
+        if (forks[leftFork].tryLock(FORK_WAIT_MS, TimeUnit.MILLISECONDS)) {
             try {
                 // Try to pick up second fork
-                publishEvent(ThreadEvent.EventType.LOCK_WAITING, 
-                        "Waiting for fork " + rightFork, 
-                        "fork-" + rightFork);
-                
-                if (forks[rightFork].tryLock() || forks[rightFork].tryLock()) {
-                    publishEvent(ThreadEvent.EventType.LOCK_ACQUIRED, 
-                            "Acquired fork " + rightFork, 
-                            "fork-" + rightFork);
+                if (forks[rightFork].tryLock(FORK_WAIT_MS, TimeUnit.MILLISECONDS)) {
                     return true;
                 } else {
                     // Could not get second fork, release first and try again later
-                    publishEvent(ThreadEvent.EventType.LOCK_RELEASED, 
-                            "Could not get fork " + rightFork + ", releasing fork " + leftFork, 
-                            "fork-" + leftFork);
+                    publishEvent(ThreadEvent.EventType.EXECUTION, 
+                            "Could not get fork " + rightFork + ", putting down fork " + leftFork, 
+                            "philosopher-" + id);
                     forks[leftFork].unlock();
                     
                     // Adding a small delay to reduce contention
@@ -150,17 +140,14 @@ public class DiningPhilosophersSimulation extends Simulation {
         }
         
         // Release forks in reverse order of acquisition
-        publishEvent(ThreadEvent.EventType.LOCK_RELEASED, 
-                "Releasing fork " + rightFork, 
-                "fork-" + rightFork);
         forks[rightFork].unlock();
-        
-        publishEvent(ThreadEvent.EventType.LOCK_RELEASED, 
-                "Releasing fork " + leftFork, 
-                "fork-" + leftFork);
         forks[leftFork].unlock();
     }
     
+    private static Lock newFork(int index) {
+        return new TracedReentrantLock("fork-" + index);
+    }
+    
     // Getters and setters for simulation parameters
     
     public int getNumPhilosophers() {
@@ -177,7 +164,7 @@ public class DiningPhilosophersSimulation extends Simulation {
                 if (i < forks.length) {
                     newForks[i] = forks[i];
                 } else {
-                    newForks[i] = new ReentrantLock();
+                    newForks[i] = newFork(i);
                 }
             }
             this.forks = newForks;
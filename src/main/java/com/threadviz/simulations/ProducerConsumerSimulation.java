@@ -1,6 +1,7 @@
 package com.threadviz.simulations;
 
 import com.threadviz.core.Simulation;
+import com.threadviz.instrument.TracedBlockingQueue;
 import com.threadviz.models.ThreadEvent;
 
 import java.util.concurrent.BlockingQueue;
@@ -30,7 +31,8 @@ public class ProducerConsumerSimulation extends Simulation {
         this.bufferSize = 5;
         this.productionRate = 1000;
         this.consumptionRate = 1500;
-        this.buffer = new LinkedBlockingQueue<>(bufferSize);
+        // The buffer reports its own waits, adds and takes
+        this.buffer = new TracedBlockingQueue<>(new LinkedBlockingQueue<>(bufferSize), "buffer");
     }
     
     @Override
@@ -63,20 +65,8 @@ public class ProducerConsumerSimulation extends Simulation {
                 
                 int item = itemsProduced.incrementAndGet();
                 
-                // Try to put the item in the buffer
-                publishEvent(ThreadEvent.EventType.LOCK_WAITING, 
-                        "Waiting to add item " + item + " to buffer (buffer size: " + buffer.size() + "/" + bufferSize + ")", 
-                        "buffer");
-                
+                // Put the item in the buffer
                 buffer.put(item); // This will block if the buffer is full
-                
-                publishEvent(ThreadEvent.EventType.LOCK_ACQUIRED, 
-                        "Added item " + item + " to buffer (buffer size: " + buffer.size() + "/" + bufferSize + ")", 
-                        "buffer");
-                
-                publishEvent(ThreadEvent.EventType.LOCK_RELEASED, 
-                        "Released buffer after adding item", 
-                        "buffer");
             }
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
@@ -94,22 +84,10 @@ public class ProducerConsumerSimulation extends Simulation {
             while (running.get()) {
                 checkPaused();
                 
-                // Try to take an item from the buffer
-                publishEvent(ThreadEvent.EventType.LOCK_WAITING, 
-                        "Waiting to take item from buffer (buffer size: " + buffer.size() + "/" + bufferSize + ")", 
-                        "buffer");
-                
+                // Take an item from the buffer
                 int item = buffer.take(); // This will block if the buffer is empty
                 itemsConsumed.incrementAndGet();
                 
-                publishEvent(ThreadEvent.EventType.LOCK_ACQUIRED, 
-                        "Took item " + item + " from buffer (buffer size: " + buffer.size() + "/" + bufferSize + ")", 
-                        "buffer");
-                
-                publishEvent(ThreadEvent.EventType.LOCK_RELEASED, 
-                        "Released buffer after consuming item", 
-                        "buffer");
-                
                 // Simulate work to consume the item
                 publishEvent(ThreadEvent.EventType.EXECUTION, "Consuming item " + item, "consumer-" + id);
                 simulateWork(consumptionRate);
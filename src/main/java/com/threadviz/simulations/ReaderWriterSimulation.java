@@ -1,11 +1,11 @@
 package com.threadviz.simulations;
 
 import com.threadviz.core.Simulation;
+import com.threadviz.instrument.TracedReadWriteLock;
 import com.threadviz.models.ThreadEvent;
 
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Implementation of the Reader-Writer concurrency pattern.
@@ -33,7 +33,8 @@ public class ReaderWriterSimulation extends Simulation {
         this.writeTime = 2000;
         this.writerPriority = false;
         
-        this.rwLock = new ReentrantReadWriteLock(writerPriority);
+        // The lock reports its own waits, acquisitions and releases
+        this.rwLock = new TracedReadWriteLock("resource", writerPriority);
         this.activeReaders = new AtomicInteger(0);
         this.activeWriters = new AtomicInteger(0);
         this.totalReads = new AtomicInteger(0);
@@ -64,31 +65,21 @@ public class ReaderWriterSimulation extends Simulation {
             while (running.get()) {
                 checkPaused();
                 
-                // Try to acquire read lock
-                publishEvent(ThreadEvent.EventType.LOCK_WAITING, 
-                        "Waiting for read access", 
-                        "resource");
-                
+                // Acquire read lock
                 rwLock.readLock().lock();
                 try {
                     // Critical section - reading
                     int readerCount = activeReaders.incrementAndGet();
-                    publishEvent(ThreadEvent.EventType.LOCK_ACQUIRED, 
-                            "Acquired read lock (active readers: " + readerCount + ")", 
-                            "resource");
                     
                     // Read the resource
                     publishEvent(ThreadEvent.EventType.EXECUTION, 
-                            "Reading resource", 
+                            "Reading resource (active readers: " + readerCount + ")", 
                             "reader-" + id);
                     simulateWork(readTime);
                     
                     totalReads.incrementAndGet();
                 } finally {
-                    int readerCount = activeReaders.decrementAndGet();
-                    publishEvent(ThreadEvent.EventType.LOCK_RELEASED, 
-                            "Released read lock (active readers: " + readerCount + ")", 
-                            "resource");
+                    activeReaders.decrementAndGet();
                     rwLock.readLock().unlock();
                 }
                 
@@ -109,18 +100,11 @@ public class ReaderWriterSimulation extends Simulation {
             while (running.get()) {
                 checkPaused();
                 
-                // Try to acquire write lock
-                publishEvent(ThreadEvent.EventType.LOCK_WAITING, 
-                        "Waiting for write access", 
-                        "resource");
-                
+                // Acquire write lock
                 rwLock.writeLock().lock();
                 try {
                     // Critical section - writing
-                    int writerCount = activeWriters.incrementAndGet();
-                    publishEvent(ThreadEvent.EventType.LOCK_ACQUIRED, 
-                            "Acquired write lock (exclusive access)", 
-                            "resource");
+                    activeWriters.incrementAndGet();
                     
                     // Write to the resource
                     publishEvent(ThreadEvent.EventType.EXECUTION, 
@@ -131,9 +115,6 @@ public class ReaderWriterSimulation extends Simulation {
                     totalWrites.incrementAndGet();
                 } finally {
                     activeWriters.decrementAndGet();
-                    publishEvent(ThreadEvent.EventType.LOCK_RELEASED, 
-                            "Released write lock", 
-                            "resource");
                     rwLock.writeLock().unlock();
                 }
                 
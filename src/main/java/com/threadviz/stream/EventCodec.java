@@ -0,0 +1,273 @@
+package com.threadviz.stream;
+
+import com.threadviz.models.ThreadEvent;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary encoding of a stream of events. Thread names and resource
+ * ids are sent once and then referred to by a small number, the type takes
+ * one byte, and timestamps are sent as the difference in microseconds from
+ * the previous event. A typical event without its message takes four to six
+ * bytes. Because of the dictionaries an encoder and its decoder are
+ * stateful: a decoder must see every frame of the stream from the start.
+ * Event ids and payloads are not sent; decoded events get new ids.
+ * <p>
+ * Events are grouped into frames, each a 4-byte big-endian length followed
+ * by that many bytes of events. Each event is:
+ * <pre>
+ *   tag        1 byte: type ordinal in the low 4 bits, then the flags below
+ *   thread     varint dictionary index, 0 for none; if NEW_THREAD, followed by the name
+ *   resource   varint dictionary index, 0 for none; if NEW_RESOURCE, followed by the id
+ *   time       zigzag varint microseconds since the previous event
+ *   message    if HAS_MESSAGE, the text
+ * </pre>
+ * Strings are a varint byte length followed by UTF-8 bytes.
+ */
+public final class EventCodec {
+    
+    public static final int FRAME_HEADER_BYTES = 4;
+    
+    private static final int TYPE_MASK = 0x0F;
+    private static final int HAS_MESSAGE = 0x20;
+    private static final int NEW_THREAD = 0x40;
+    private static final int NEW_RESOURCE = 0x80;
+    
+    private static final ThreadEvent.EventType[] TYPES = ThreadEvent.EventType.values();
+    
+    private EventCodec() {
+    }
+    
+    /**
+     * Encodes events into frames. Not thread-safe.
+     */
+    public static class Encoder {
+        private final boolean includeMessages;
+        private final Map<String, Integer> threadIds;
+        private final Map<String, Integer> resourceIds;
+        private long lastMicros;
+        
+        // Frame being built, starting with room for its length
+        private byte[] buffer;
+        private int size;
+        private int eventCount;
+        
+        /**
+         * @param includeMessages Whether to send message text, which is most of the size of an event
+         */
+        public Encoder(boolean includeMessages) {
+            this.includeMessages = includeMessages;
+            this.threadIds = new HashMap<>();
+            this.resourceIds = new HashMap<>();
+            this.buffer = new byte[4096];
+            this.size = FRAME_HEADER_BYTES;
+        }
+        
+        /**
+         * Append an event to the current frame
+         */
+        public void encode(ThreadEvent event) {
+            int tag = event.getType().ordinal();
+            boolean hasMessage = includeMessages && event.getMessage() != null;
+            if (hasMessage) {
+                tag |= HAS_MESSAGE;
+            }
+            
+            String threadName = event.getThreadName();
+            int thread = threadName != null ? threadIds.getOrDefault(threadName, -1) : 0;
+            if (thread < 0) {
+                thread = threadIds.size() + 1;
+                threadIds.put(threadName, thread);
+                tag |= NEW_THREAD;
+            }
+            
+            String resourceId = event.getResourceId();
+            int resource = resourceId != null ? resourceIds.getOrDefault(resourceId, -1) : 0;
+            if (resource < 0) {
+                resource = resourceIds.size() + 1;
+                resourceIds.put(resourceId, resource);
+                tag |= NEW_RESOURCE;
+            }
+            
+            ensureCapacity(1);
+            buffer[size++] = (byte) tag;
+            writeVarint(thread);
+            if ((tag & NEW_THREAD) != 0) {
+                writeString(threadName);
+            }
+            writeVarint(resource);
+            if ((tag & NEW_RESOURCE) != 0) {
+                writeString(resourceId);
+            }
+            
+            long micros = toMicros(event.getTimestamp());
+            long delta = micros - lastMicros;
+            lastMicros = micros;
+            writeVarint((delta << 1) ^ (delta >> 63));
+            
+            if (hasMessage) {
+                writeString(event.getMessage());
+            }
+            eventCount++;
+        }
+        
+        /**
+         * @return the number of events in the current frame
+         */
+        public int getEventCount() {
+            return eventCount;
+        }
+        
+        /**
+         * @return the size of the current frame in bytes, including its length
+         */
+        public int getFrameSize() {
+            return size;
+        }
+        
+        /**
+         * Finish the current frame and start a new one
+         * @return the frame, ready to be written, or null if no events were encoded
+         */
+        public ByteBuffer takeFrame() {
+            if (eventCount == 0) {
+                return null;
+            }
+            int length = size - FRAME_HEADER_BYTES;
+            buffer[0] = (byte) (length >>> 24);
+            buffer[1] = (byte) (length >>> 16);
+            buffer[2] = (byte) (length >>> 8);
+            buffer[3] = (byte) length;
+            ByteBuffer frame = ByteBuffer.wrap(Arrays.copyOf(buffer, size));
+            size = FRAME_HEADER_BYTES;
+            eventCount = 0;
+            return frame;
+        }
+        
+        private void writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+        
+        private void writeVarint(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+        
+        private void ensureCapacity(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+    }
+    
+    /**
+     * Decodes the frames written by one {@link Encoder}. Not thread-safe.
+     */
+    public static class Decoder {
+        private final List<String> threadNames;
+        private final List<String> resourceIds;
+        private long lastMicros;
+        
+        public Decoder() {
+            this.threadNames = new ArrayList<>();
+            this.resourceIds = new ArrayList<>();
+        }
+        
+        /**
+         * Decode the events of one frame
+         * @param payload The bytes of the frame after its length
+         * @param events Receives the decoded events in order
+         * @throws IOException if the frame is malformed
+         */
+        public void decodeFrame(ByteBuffer payload, List<ThreadEvent> events) throws IOException {
+            try {
+                while (payload.hasRemaining()) {
+                    events.add(decodeEvent(payload));
+                }
+            } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+                throw new IOException("Truncated event frame", e);
+            }
+        }
+        
+        private ThreadEvent decodeEvent(ByteBuffer in) throws IOException {
+            int tag = in.get() & 0xFF;
+            int typeIndex = tag & TYPE_MASK;
+            if (typeIndex >= TYPES.length) {
+                throw new IOException("Unknown event type " + typeIndex);
+            }
+            
+            String threadName = readReference(in, threadNames, (tag & NEW_THREAD) != 0);
+            String resourceId = readReference(in, resourceIds, (tag & NEW_RESOURCE) != 0);
+            
+            long zigzag = readVarint(in);
+            lastMicros += (zigzag >>> 1) ^ -(zigzag & 1);
+            
+            String message = (tag & HAS_MESSAGE) != 0 ? readString(in) : null;
+            return new ThreadEvent(threadName, TYPES[typeIndex], resourceId, message, fromMicros(lastMicros));
+        }
+        
+        private static String readReference(ByteBuffer in, List<String> dictionary, boolean isNew) throws IOException {
+            int index = (int) readVarint(in);
+            if (isNew) {
+                if (index != dictionary.size() + 1) {
+                    throw new IOException("Out of order dictionary entry " + index);
+                }
+                dictionary.add(readString(in));
+            }
+            if (index == 0) {
+                return null;
+            }
+            if (index > dictionary.size()) {
+                throw new IOException("Unknown dictionary entry " + index);
+            }
+            return dictionary.get(index - 1);
+        }
+        
+        private static String readString(ByteBuffer in) throws IOException {
+            int length = (int) readVarint(in);
+            if (length < 0 || length > in.remaining()) {
+                throw new IOException("Bad string length " + length);
+            }
+            byte[] bytes = new byte[length];
+            in.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        
+        private static long readVarint(ByteBuffer in) throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = in.get();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Varint too long");
+        }
+    }
+    
+    private static long toMicros(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000L + instant.getNano() / 1000;
+    }
+    
+    private static Instant fromMicros(long micros) {
+        return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1000);
+    }
+} 
\ No newline at end of file
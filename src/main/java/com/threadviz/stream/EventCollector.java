@@ -0,0 +1,432 @@
+package com.threadviz.stream;
+
+import com.threadviz.core.EventBus;
+import com.threadviz.models.ThreadEvent;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects events streamed by other local JVMs through
+ * {@link RemoteEventPublisher} and publishes them on this process's event
+ * bus. All connections are served by one selector thread with non-blocking
+ * reads. Thread names and resource ids are prefixed with the name each
+ * process announces, e.g. {@code orders/pool-1-thread-3}, so processes
+ * never share threads or resources. When a process disconnects, each of its
+ * threads that has not terminated is reported as THREAD_TERMINATED, so it
+ * does not stay on screen holding or waiting for its locks.
+ * <p>
+ * Each process sends its events in order, so events from all processes are
+ * merged by timestamp: an event is published once every connected process
+ * has sent something at least as recent, or once it is
+ * {@value #MAX_REORDER_DELAY_MS} ms old so an idle process does not hold
+ * up the others.
+ * <p>
+ * Enable it by setting the {@value #ADDRESS_PROPERTY} system property to a
+ * port on the loopback address or to the path of a Unix domain socket.
+ */
+public class EventCollector {
+    public static final String ADDRESS_PROPERTY = "threadviz.collector.address";
+    
+    // First bytes a publisher sends, followed by its name
+    static final int STREAM_MAGIC = 0x54565A31;
+    
+    private static final int MAX_REORDER_DELAY_MS = 200;
+    private static final int SELECT_TIMEOUT_MS = 10;
+    private static final int READ_BUFFER_BYTES = 64 * 1024;
+    private static final int MAX_NAME_BYTES = 256;
+    private static final int MAX_FRAME_BYTES = 16 * 1024 * 1024;
+    
+    private final SocketAddress address;
+    private final PriorityQueue<Pending> pending;
+    private final List<Connection> connections;
+    private final AtomicLong eventsReceived;
+    private long sequence;
+    
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread selectorThread;
+    private volatile boolean running;
+    
+    /**
+     * @param address Loopback socket or Unix domain socket address to listen on
+     */
+    public EventCollector(SocketAddress address) {
+        this.address = address;
+        this.pending = new PriorityQueue<>();
+        this.connections = new ArrayList<>();
+        this.eventsReceived = new AtomicLong();
+    }
+    
+    /**
+     * Start a collector if the {@value #ADDRESS_PROPERTY} system property is set.
+     * @return the started collector, or null if collection is disabled or could not be started
+     */
+    public static EventCollector startIfConfigured() {
+        String value = System.getProperty(ADDRESS_PROPERTY);
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        
+        try {
+            EventCollector collector = new EventCollector(toAddress(value));
+            collector.start();
+            return collector;
+        } catch (IOException e) {
+            System.err.println("Could not start event collector on " + value + ": " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * @param value A port number for the loopback address, or a Unix domain socket path
+     */
+    public static SocketAddress toAddress(String value) {
+        try {
+            return new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(value));
+        } catch (NumberFormatException e) {
+            return UnixDomainSocketAddress.of(value);
+        }
+    }
+    
+    public synchronized void start() throws IOException {
+        if (running) {
+            return;
+        }
+        
+        if (address instanceof UnixDomainSocketAddress) {
+            // A socket file left behind by an earlier run would make bind fail
+            Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+            serverChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        } else {
+            serverChannel = ServerSocketChannel.open();
+        }
+        serverChannel.bind(address);
+        serverChannel.configureBlocking(false);
+        selector = Selector.open();
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        
+        running = true;
+        selectorThread = new Thread(this::runSelector, "Event-Collector");
+        selectorThread.setDaemon(true);
+        selectorThread.start();
+    }
+    
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        selector.wakeup();
+        try {
+            selectorThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (address instanceof UnixDomainSocketAddress) {
+            try {
+                Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+            } catch (IOException e) {
+                System.err.println("Could not remove socket file: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * @return the address the collector is listening on
+     */
+    public SocketAddress getAddress() {
+        try {
+            return serverChannel != null ? serverChannel.getLocalAddress() : address;
+        } catch (IOException e) {
+            return address;
+        }
+    }
+    
+    /**
+     * @return the number of events received from all processes so far
+     */
+    public long getEventsReceived() {
+        return eventsReceived.get();
+    }
+    
+    private void runSelector() {
+        try {
+            while (running) {
+                selector.select(SELECT_TIMEOUT_MS);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else if (key.isReadable()) {
+                        read(key);
+                    }
+                }
+                publishReady();
+            }
+        } catch (IOException e) {
+            System.err.println("Event collector stopped: " + e.getMessage());
+        } finally {
+            for (Connection connection : new ArrayList<>(connections)) {
+                close(connection);
+            }
+            
+            // Deliver what was already received
+            while (!pending.isEmpty()) {
+                EventBus.getInstance().publishEvent(pending.poll().event);
+            }
+            try {
+                selector.close();
+                serverChannel.close();
+            } catch (IOException e) {
+                System.err.println("Error closing event collector: " + e.getMessage());
+            }
+        }
+    }
+    
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        Connection connection = new Connection(channel);
+        connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        connections.add(connection);
+    }
+    
+    private void read(SelectionKey key) {
+        Connection connection = (Connection) key.attachment();
+        try {
+            int read = connection.channel.read(connection.buffer);
+            if (read < 0) {
+                close(connection);
+                return;
+            }
+            
+            connection.buffer.flip();
+            try {
+                connection.consume();
+            } finally {
+                connection.buffer.compact();
+            }
+        } catch (IOException e) {
+            System.err.println("Dropping event stream from " + connection.describe() + ": " + e.getMessage());
+            close(connection);
+        }
+    }
+    
+    private void close(Connection connection) {
+        connections.remove(connection);
+        if (connection.key != null) {
+            connection.key.cancel();
+        }
+        try {
+            connection.channel.close();
+        } catch (IOException e) {
+            // Already closed by the other side
+        }
+        
+        // The process will send nothing more, so its threads end now, after everything it sent
+        Instant now = Instant.now();
+        long micros = Math.max(connection.latestMicros, toMicros(now));
+        for (String thread : connection.liveThreads) {
+            ThreadEvent terminated = new ThreadEvent(thread, ThreadEvent.EventType.THREAD_TERMINATED, null,
+                    "Process " + connection.describe() + " disconnected", now);
+            pending.add(new Pending(terminated, micros, sequence++));
+        }
+        connection.liveThreads.clear();
+    }
+    
+    /**
+     * Publish the pending events that no connected process can still precede
+     */
+    private void publishReady() {
+        long watermark = Long.MAX_VALUE;
+        for (Connection connection : connections) {
+            if (connection.name != null) {
+                watermark = Math.min(watermark, connection.latestMicros);
+            }
+        }
+        long oldest = (System.currentTimeMillis() - MAX_REORDER_DELAY_MS) * 1000;
+        
+        EventBus eventBus = EventBus.getInstance();
+        while (!pending.isEmpty()) {
+            Pending next = pending.peek();
+            if (next.micros > watermark && next.micros > oldest) {
+                break;
+            }
+            pending.poll();
+            eventBus.publishEvent(next.event);
+        }
+    }
+    
+    private static long toMicros(ThreadEvent event) {
+        return toMicros(event.getTimestamp());
+    }
+    
+    private static long toMicros(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000L + instant.getNano() / 1000;
+    }
+    
+    /**
+     * An event waiting for the other processes to catch up
+     */
+    private static class Pending implements Comparable<Pending> {
+        private final ThreadEvent event;
+        private final long micros;
+        private final long sequence;
+        
+        Pending(ThreadEvent event, long micros, long sequence) {
+            this.event = event;
+            this.micros = micros;
+            this.sequence = sequence;
+        }
+        
+        @Override
+        public int compareTo(Pending other) {
+            // Events with the same timestamp keep their arrival order
+            int byTime = Long.compare(micros, other.micros);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+    
+    /**
+     * One publishing process: its socket, partly read data and decoder state
+     */
+    private class Connection {
+        private final SocketChannel channel;
+        private final EventCodec.Decoder decoder;
+        private final List<ThreadEvent> decoded;
+        // Qualified names of the threads seen and not yet terminated
+        private final Set<String> liveThreads;
+        private ByteBuffer buffer;
+        private SelectionKey key;
+        private String name;
+        private long latestMicros;
+        
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+            this.decoder = new EventCodec.Decoder();
+            this.decoded = new ArrayList<>();
+            this.liveThreads = new LinkedHashSet<>();
+            this.buffer = ByteBuffer.allocate(READ_BUFFER_BYTES);
+        }
+        
+        /**
+         * Handle the complete handshake and frames in the buffer, leaving a
+         * partial frame for the next read
+         */
+        void consume() throws IOException {
+            if (name == null && !readHandshake()) {
+                return;
+            }
+            
+            while (buffer.remaining() >= EventCodec.FRAME_HEADER_BYTES) {
+                int length = buffer.getInt(buffer.position());
+                if (length < 0 || length > MAX_FRAME_BYTES) {
+                    throw new IOException("Bad frame length " + length);
+                }
+                if (buffer.remaining() < EventCodec.FRAME_HEADER_BYTES + length) {
+                    growFor(EventCodec.FRAME_HEADER_BYTES + length);
+                    return;
+                }
+                
+                buffer.position(buffer.position() + EventCodec.FRAME_HEADER_BYTES);
+                ByteBuffer payload = buffer.slice();
+                payload.limit(length);
+                buffer.position(buffer.position() + length);
+                
+                decoded.clear();
+                decoder.decodeFrame(payload, decoded);
+                for (ThreadEvent event : decoded) {
+                    ThreadEvent namespaced = new ThreadEvent(
+                            qualify(event.getThreadName()),
+                            event.getType(),
+                            qualify(event.getResourceId()),
+                            event.getMessage(),
+                            event.getTimestamp());
+                    String thread = namespaced.getThreadName();
+                    if (event.getType() == ThreadEvent.EventType.THREAD_TERMINATED) {
+                        liveThreads.remove(thread);
+                    } else if (thread != null) {
+                        liveThreads.add(thread);
+                    }
+                    long micros = toMicros(event);
+                    latestMicros = Math.max(latestMicros, micros);
+                    pending.add(new Pending(namespaced, micros, sequence++));
+                }
+                eventsReceived.addAndGet(decoded.size());
+            }
+        }
+        
+        private boolean readHandshake() throws IOException {
+            if (buffer.remaining() < 6) {
+                return false;
+            }
+            int start = buffer.position();
+            if (buffer.getInt(start) != STREAM_MAGIC) {
+                throw new IOException("Not a ThreadViz event stream");
+            }
+            int length = buffer.getShort(start + 4) & 0xFFFF;
+            if (length > MAX_NAME_BYTES) {
+                throw new IOException("Process name too long");
+            }
+            if (buffer.remaining() < 6 + length) {
+                return false;
+            }
+            
+            byte[] bytes = new byte[length];
+            buffer.position(start + 6);
+            buffer.get(bytes);
+            name = new String(bytes, StandardCharsets.UTF_8);
+            return true;
+        }
+        
+        /**
+         * Make room for a frame larger than the buffer. The buffer is in
+         * read mode and is compacted after this returns.
+         */
+        private void growFor(int frameBytes) {
+            if (frameBytes <= buffer.capacity()) {
+                return;
+            }
+            ByteBuffer larger = ByteBuffer.allocate(Integer.highestOneBit(frameBytes) << 1);
+            larger.put(buffer);
+            larger.flip();
+            buffer = larger;
+        }
+        
+        private String qualify(String value) {
+            return value != null ? name + "/" + value : null;
+        }
+        
+        String describe() {
+            return name != null ? name : "unnamed process";
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,457 @@
+package com.threadviz.stream;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.threadviz.core.EventBus;
+import com.threadviz.core.Simulation;
+import com.threadviz.models.ThreadEvent;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Optional server-sent events endpoint streaming the event bus to browsers
+ * at {@code /events}, e.g. to drive the web front-end from the real
+ * simulations. The server only binds to the loopback address.
+ * <p>
+ * Events are collected per client and sent as one batch per frame. Each
+ * client buffers at most {@value #CLIENT_QUEUE_CAPACITY} events; when a
+ * client cannot keep up, its buffered events are dropped and the next batch
+ * carries the current state of every thread instead (its state, the
+ * resources it holds and the one it waits on), together with the number of
+ * events left out. The same snapshot is sent on connecting, so a browser
+ * never has to patch its state across a gap. The dispatcher thread never
+ * waits for a client and memory per client stays bounded however slow the
+ * tab is.
+ * <p>
+ * Enable it by setting the {@value #PORT_PROPERTY} system property.
+ */
+public class EventStreamServer implements EventBus.EventListener {
+    public static final String PORT_PROPERTY = "threadviz.stream.port";
+    
+    private static final int FRAME_INTERVAL_MS = 16;
+    private static final int CLIENT_QUEUE_CAPACITY = 4096;
+    private static final int MAX_CLIENTS = 8;
+    
+    // Send a comment line when idle so closed connections are noticed
+    private static final long KEEPALIVE_INTERVAL_MS = 1000;
+    
+    private final int port;
+    private final Supplier<Simulation> simulationSupplier;
+    private final List<Client> clients;
+    
+    // Guards itself and the order in which clients see events relative to it
+    private final ThreadStates threadStates;
+    
+    private HttpServer server;
+    private ExecutorService executor;
+    private volatile boolean running;
+    
+    /**
+     * @param port Port to listen on, or 0 for any free port
+     * @param simulationSupplier Supplies the currently selected simulation, may return null
+     */
+    public EventStreamServer(int port, Supplier<Simulation> simulationSupplier) {
+        this.port = port;
+        this.simulationSupplier = simulationSupplier;
+        this.clients = new CopyOnWriteArrayList<>();
+        this.threadStates = new ThreadStates();
+    }
+    
+    /**
+     * Start a server if the {@value #PORT_PROPERTY} system property is set.
+     * @return the started server, or null if streaming is disabled or could not be started
+     */
+    public static EventStreamServer startIfConfigured(Supplier<Simulation> simulationSupplier) {
+        String value = System.getProperty(PORT_PROPERTY);
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        
+        try {
+            EventStreamServer server = new EventStreamServer(Integer.parseInt(value), simulationSupplier);
+            server.start();
+            return server;
+        } catch (NumberFormatException | IOException e) {
+            System.err.println("Could not start event stream server on port " + value + ": " + e.getMessage());
+            return null;
+        }
+    }
+    
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            return;
+        }
+        
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        
+        // Each open stream keeps a thread for its lifetime, plus one to turn away extra clients
+        AtomicInteger count = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(MAX_CLIENTS + 1, r -> {
+            Thread t = new Thread(r);
+            t.setDaemon(true);
+            t.setName("Event-Stream-" + count.incrementAndGet());
+            return t;
+        });
+        server.setExecutor(executor);
+        server.createContext("/events", this::handleStream);
+        
+        running = true;
+        EventBus.getInstance().addEventListener(this);
+        server.start();
+    }
+    
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        running = false;
+        EventBus.getInstance().removeEventListener(this);
+        server.stop(0);
+        executor.shutdownNow();
+        clients.clear();
+        server = null;
+    }
+    
+    /**
+     * @return the port the server is listening on
+     */
+    public int getPort() {
+        return server != null ? server.getAddress().getPort() : port;
+    }
+    
+    /**
+     * @return the number of connected clients
+     */
+    public int getClientCount() {
+        return clients.size();
+    }
+    
+    @Override
+    public void onEvent(ThreadEvent event) {
+        // Each client then gets exactly the events after the last snapshot it was sent
+        synchronized (threadStates) {
+            threadStates.apply(event);
+            for (Client client : clients) {
+                client.add(event);
+            }
+        }
+    }
+    
+    private void handleStream(HttpExchange exchange) throws IOException {
+        Client client = null;
+        try {
+            String origin = exchange.getRequestHeaders().getFirst("Origin");
+            if (isLocalOrigin(origin)) {
+                exchange.getResponseHeaders().set("Access-Control-Allow-Origin", origin);
+            }
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            if (clients.size() >= MAX_CLIENTS) {
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+            
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            exchange.sendResponseHeaders(200, 0);
+            
+            Simulation simulation = simulationSupplier.get();
+            StringBuilder hello = new StringBuilder("{\"simulation\":");
+            appendString(hello, simulation != null ? simulation.getName() : null);
+            hello.append(",\"threads\":");
+            client = new Client();
+            synchronized (threadStates) {
+                threadStates.appendSnapshot(hello);
+                clients.add(client);
+            }
+            hello.append('}');
+            OutputStream out = exchange.getResponseBody();
+            send(out, "hello", hello);
+            
+            streamBatches(client, out);
+        } catch (IOException e) {
+            // The browser closed the connection
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (client != null) {
+                clients.remove(client);
+            }
+            exchange.close();
+        }
+    }
+    
+    /**
+     * Send the client's buffered events once per frame until the connection
+     * closes. A write only returns once the client has taken the data, so a
+     * slow client is paced by its own connection while its buffer coalesces.
+     */
+    private void streamBatches(Client client, OutputStream out) throws IOException, InterruptedException {
+        List<ThreadEvent> batch = new ArrayList<>();
+        StringBuilder snapshot = new StringBuilder();
+        StringBuilder sb = new StringBuilder();
+        long lastSend = System.currentTimeMillis();
+        long sequence = 0;
+        
+        while (running) {
+            Thread.sleep(FRAME_INTERVAL_MS);
+            
+            batch.clear();
+            snapshot.setLength(0);
+            int dropped;
+            synchronized (threadStates) {
+                dropped = client.drainTo(batch);
+                if (client.takeResync()) {
+                    threadStates.appendSnapshot(snapshot);
+                }
+            }
+            long now = System.currentTimeMillis();
+            if (batch.isEmpty() && dropped == 0 && snapshot.length() == 0) {
+                if (now - lastSend >= KEEPALIVE_INTERVAL_MS) {
+                    out.write(":\n\n".getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                    lastSend = now;
+                }
+                continue;
+            }
+            
+            sb.setLength(0);
+            sb.append("{\"seq\":").append(sequence++)
+                    .append(",\"dropped\":").append(dropped);
+            if (snapshot.length() > 0) {
+                sb.append(",\"threads\":").append(snapshot);
+            }
+            sb.append(",\"events\":[");
+            for (int i = 0; i < batch.size(); i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                appendEvent(sb, batch.get(i));
+            }
+            sb.append("]}");
+            send(out, "batch", sb);
+            lastSend = now;
+        }
+    }
+    
+    private static void send(OutputStream out, String eventName, CharSequence data) throws IOException {
+        String message = "event: " + eventName + "\ndata: " + data + "\n\n";
+        out.write(message.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+    
+    private static void appendEvent(StringBuilder sb, ThreadEvent event) {
+        sb.append("{\"id\":\"").append(event.getId()).append('"');
+        sb.append(",\"time\":").append(event.getTimestamp().toEpochMilli());
+        sb.append(",\"type\":\"").append(event.getType().name()).append('"');
+        sb.append(",\"thread\":");
+        appendString(sb, event.getThreadName());
+        sb.append(",\"resource\":");
+        appendString(sb, event.getResourceId());
+        sb.append(",\"message\":");
+        appendString(sb, event.getMessage());
+        sb.append('}');
+    }
+    
+    private static void appendString(StringBuilder sb, String value) {
+        if (value == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                    break;
+            }
+        }
+        sb.append('"');
+    }
+    
+    /**
+     * Only pages served from this machine may read the stream
+     */
+    private static boolean isLocalOrigin(String origin) {
+        if (origin == null) {
+            return false;
+        }
+        return origin.startsWith("http://localhost:") || origin.equals("http://localhost")
+                || origin.startsWith("http://127.0.0.1:") || origin.equals("http://127.0.0.1");
+    }
+    
+    /**
+     * Events waiting to be sent to one browser. While the client keeps up
+     * events are kept in order; once the buffer overflows, events are only
+     * counted until the next batch, which carries a snapshot instead.
+     */
+    private static class Client {
+        private final ArrayDeque<ThreadEvent> queue = new ArrayDeque<>();
+        private boolean resync;
+        private int dropped;
+        
+        synchronized void add(ThreadEvent event) {
+            if (resync) {
+                dropped++;
+                return;
+            }
+            if (queue.size() < CLIENT_QUEUE_CAPACITY) {
+                queue.add(event);
+                return;
+            }
+            resync = true;
+            dropped += queue.size() + 1;
+            queue.clear();
+        }
+        
+        /**
+         * Move the buffered events to the batch
+         * @return the number of events left out since the last batch
+         */
+        synchronized int drainTo(List<ThreadEvent> batch) {
+            batch.addAll(queue);
+            queue.clear();
+            int result = dropped;
+            dropped = 0;
+            return result;
+        }
+        
+        /**
+         * @return true if events were left out and the client needs a snapshot, once
+         */
+        synchronized boolean takeResync() {
+            boolean result = resync;
+            resync = false;
+            return result;
+        }
+    }
+    
+    /**
+     * The state of every live thread as the browser models it, built from
+     * the same events the browser is sent. Not thread-safe; the server
+     * guards it with its own monitor.
+     */
+    private static class ThreadStates {
+        private final Map<String, ThreadStatus> threads = new LinkedHashMap<>();
+        
+        void apply(ThreadEvent event) {
+            String name = event.getThreadName();
+            if (name == null) {
+                return;
+            }
+            if (event.getType() == ThreadEvent.EventType.THREAD_TERMINATED) {
+                // A thread missing from a snapshot has terminated
+                threads.remove(name);
+                return;
+            }
+            
+            ThreadStatus thread = threads.computeIfAbsent(name, n -> new ThreadStatus());
+            String resource = event.getResourceId();
+            switch (event.getType()) {
+                case THREAD_STARTED:
+                case EXECUTION:
+                    thread.state = "RUNNING";
+                    thread.waitingFor = null;
+                    break;
+                case LOCK_WAITING:
+                    thread.state = "BLOCKED";
+                    thread.waitingFor = resource;
+                    break;
+                case CONDITION_WAITING:
+                    // Awaiting a condition releases its lock until the thread reacquires it
+                    thread.state = "WAITING";
+                    thread.waitingFor = resource;
+                    thread.held.remove(resource);
+                    break;
+                case LOCK_ACQUIRED:
+                    thread.state = "RUNNING";
+                    thread.waitingFor = null;
+                    if (resource != null) {
+                        thread.held.add(resource);
+                    }
+                    break;
+                case LOCK_RELEASED:
+                    thread.held.remove(resource);
+                    break;
+                default:
+                    break;
+            }
+        }
+        
+        /**
+         * Append every live thread as a JSON array of
+         * {@code {"thread","state","held":[...],"waitingFor"}} objects
+         */
+        void appendSnapshot(StringBuilder sb) {
+            sb.append('[');
+            boolean first = true;
+            for (Map.Entry<String, ThreadStatus> entry : threads.entrySet()) {
+                if (!first) {
+                    sb.append(',');
+                }
+                first = false;
+                ThreadStatus thread = entry.getValue();
+                sb.append("{\"thread\":");
+                appendString(sb, entry.getKey());
+                sb.append(",\"state\":\"").append(thread.state).append('"');
+                sb.append(",\"held\":[");
+                boolean firstHeld = true;
+                for (String resource : thread.held) {
+                    if (!firstHeld) {
+                        sb.append(',');
+                    }
+                    firstHeld = false;
+                    appendString(sb, resource);
+                }
+                sb.append("],\"waitingFor\":");
+                appendString(sb, thread.waitingFor);
+                sb.append('}');
+            }
+            sb.append(']');
+        }
+    }
+    
+    private static class ThreadStatus {
+        String state = "NEW";
+        final Set<String> held = new LinkedHashSet<>();
+        String waitingFor;
+    }
+} 
\ No newline at end of file
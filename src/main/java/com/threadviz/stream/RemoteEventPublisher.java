@@ -0,0 +1,228 @@
+package com.threadviz.stream;
+
+import com.threadviz.core.EventBus;
+import com.threadviz.models.ThreadEvent;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streams this process's events to an {@link EventCollector} in another
+ * JVM, so several processes can be watched in one ThreadViz. Events are
+ * queued by the event bus dispatcher and sent in frames by a sender thread;
+ * if the collector cannot keep up and the queue fills, further events are
+ * dropped and counted rather than slowing down this process. A lost
+ * connection is retried every second. Instead of a collector, the same
+ * stream can be recorded to a trace file and read back with {@link TraceFile}.
+ * <p>
+ * Enable it by setting the {@value #ADDRESS_PROPERTY} system property to
+ * the collector's port or socket path, and optionally
+ * {@value #NAME_PROPERTY} to the name shown for this process.
+ */
+public class RemoteEventPublisher implements EventBus.EventListener {
+    public static final String ADDRESS_PROPERTY = "threadviz.publish.address";
+    public static final String NAME_PROPERTY = "threadviz.publish.name";
+    
+    private static final int QUEUE_CAPACITY = 65536;
+    private static final int MAX_EVENTS_PER_FRAME = 4096;
+    private static final long RECONNECT_DELAY_MS = 1000;
+    
+    private final SocketAddress address;
+    private final Path traceFile;
+    private final String processName;
+    private final BlockingQueue<ThreadEvent> queue;
+    private final AtomicLong dropped;
+    
+    private Thread senderThread;
+    private volatile boolean running;
+    private boolean listening;
+    
+    /**
+     * @param address Address of the collector
+     * @param processName Name the collector prefixes this process's threads and resources with
+     */
+    public RemoteEventPublisher(SocketAddress address, String processName) {
+        this(address, null, processName);
+    }
+    
+    private RemoteEventPublisher(SocketAddress address, Path traceFile, String processName) {
+        this.address = address;
+        this.traceFile = traceFile;
+        this.processName = processName;
+        this.queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        this.dropped = new AtomicLong();
+    }
+    
+    /**
+     * Start publishing if the {@value #ADDRESS_PROPERTY} system property is set.
+     * @return the started publisher, or null if publishing is disabled
+     */
+    public static RemoteEventPublisher startIfConfigured() {
+        String value = System.getProperty(ADDRESS_PROPERTY);
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        
+        String name = System.getProperty(NAME_PROPERTY, "pid-" + ProcessHandle.current().pid());
+        RemoteEventPublisher publisher = new RemoteEventPublisher(EventCollector.toAddress(value), name);
+        publisher.start();
+        return publisher;
+    }
+    
+    /**
+     * Create a publisher that records to a file instead of a collector
+     * @param traceFile File to write, replaced if it exists
+     * @param processName Name recorded for the process
+     */
+    public static RemoteEventPublisher toFile(Path traceFile, String processName) {
+        return new RemoteEventPublisher(null, traceFile, processName);
+    }
+    
+    /**
+     * Start sending and publish all events from the event bus
+     */
+    public synchronized void start() {
+        startSending();
+        if (!listening) {
+            EventBus.getInstance().addEventListener(this);
+            listening = true;
+        }
+    }
+    
+    /**
+     * Start sending only the events passed to {@link #onEvent}, without
+     * listening to the event bus, e.g. when events come from an agent
+     */
+    public synchronized void startSending() {
+        if (running) {
+            return;
+        }
+        running = true;
+        senderThread = new Thread(this::runSender, "Event-Publisher");
+        senderThread.setDaemon(true);
+        senderThread.start();
+    }
+    
+    /**
+     * Stop listening and send the events already queued before disconnecting
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        if (listening) {
+            EventBus.getInstance().removeEventListener(this);
+            listening = false;
+        }
+        running = false;
+        try {
+            senderThread.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        senderThread.interrupt();
+    }
+    
+    @Override
+    public void onEvent(ThreadEvent event) {
+        if (!queue.offer(event)) {
+            dropped.incrementAndGet();
+        }
+    }
+    
+    /**
+     * @return the number of events dropped because the queue was full
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+    
+    private void runSender() {
+        List<ThreadEvent> batch = new ArrayList<>(MAX_EVENTS_PER_FRAME);
+        while (running || !queue.isEmpty()) {
+            try (WritableByteChannel channel = connect()) {
+                sendHandshake(channel);
+                
+                // A new connection has a new decoder, so it needs a new encoder
+                EventCodec.Encoder encoder = new EventCodec.Encoder(true);
+                while (running || !queue.isEmpty()) {
+                    ThreadEvent first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.clear();
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_EVENTS_PER_FRAME - 1);
+                    for (ThreadEvent event : batch) {
+                        encoder.encode(event);
+                    }
+                    writeFully(channel, encoder.takeFrame());
+                }
+            } catch (IOException e) {
+                if (traceFile != null) {
+                    System.err.println("Could not write trace file " + traceFile + ": " + e.getMessage());
+                    return;
+                }
+                if (!running) {
+                    return;
+                }
+                System.err.println("Event publisher lost connection to " + address + ": " + e.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+    
+    private WritableByteChannel connect() throws IOException {
+        if (traceFile != null) {
+            return FileChannel.open(traceFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+        SocketChannel channel = address instanceof UnixDomainSocketAddress
+                ? SocketChannel.open(StandardProtocolFamily.UNIX)
+                : SocketChannel.open();
+        try {
+            channel.connect(address);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return channel;
+    }
+    
+    private void sendHandshake(WritableByteChannel channel) throws IOException {
+        byte[] name = processName.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer handshake = ByteBuffer.allocate(6 + name.length);
+        handshake.putInt(EventCollector.STREAM_MAGIC);
+        handshake.putShort((short) name.length);
+        handshake.put(name);
+        handshake.flip();
+        writeFully(channel, handshake);
+    }
+    
+    private static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,72 @@
+package com.threadviz.stream;
+
+import com.threadviz.models.ThreadEvent;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads trace files written by {@link RemoteEventPublisher#toFile}. A
+ * trace file holds exactly what a publisher sends to a collector: the
+ * stream header with the process name, then {@link EventCodec} frames.
+ */
+public final class TraceFile {
+    
+    private final String processName;
+    private final List<ThreadEvent> events;
+    
+    private TraceFile(String processName, List<ThreadEvent> events) {
+        this.processName = processName;
+        this.events = events;
+    }
+    
+    /**
+     * Read a whole trace file. A frame cut short at the end of the file,
+     * e.g. because the traced process was killed, is ignored.
+     * @throws IOException if the file cannot be read or is not a trace file
+     */
+    public static TraceFile read(Path path) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(path));
+        if (in.remaining() < 6 || in.getInt() != EventCollector.STREAM_MAGIC) {
+            throw new IOException("Not a ThreadViz trace file: " + path);
+        }
+        byte[] name = new byte[in.getShort() & 0xFFFF];
+        if (name.length > in.remaining()) {
+            throw new IOException("Truncated trace file: " + path);
+        }
+        in.get(name);
+        
+        EventCodec.Decoder decoder = new EventCodec.Decoder();
+        List<ThreadEvent> events = new ArrayList<>();
+        while (in.remaining() >= EventCodec.FRAME_HEADER_BYTES) {
+            int length = in.getInt();
+            if (length < 0 || length > in.remaining()) {
+                break;
+            }
+            ByteBuffer payload = in.slice();
+            payload.limit(length);
+            in.position(in.position() + length);
+            decoder.decodeFrame(payload, events);
+        }
+        return new TraceFile(new String(name, StandardCharsets.UTF_8), events);
+    }
+    
+    /**
+     * @return the name the traced process announced
+     */
+    public String getProcessName() {
+        return processName;
+    }
+    
+    /**
+     * @return the events in the order they were recorded
+     */
+    public List<ThreadEvent> getEvents() {
+        return events;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,127 @@
+package com.threadviz.ui;
+
+import java.awt.geom.AffineTransform;
+
+/**
+ * Maps world coordinates, in which the layout places nodes, to screen
+ * coordinates on the canvas. The camera is described by the world point
+ * shown at the center of the view and a zoom factor, so resizing the
+ * canvas keeps the same point centered.
+ */
+public class Camera {
+    public static final double MIN_ZOOM = 0.02;
+    public static final double MAX_ZOOM = 4.0;
+    
+    private double centerX;
+    private double centerY;
+    private double zoom = 1.0;
+    private int viewWidth;
+    private int viewHeight;
+    
+    public Camera(int viewWidth, int viewHeight) {
+        this.viewWidth = viewWidth;
+        this.viewHeight = viewHeight;
+    }
+    
+    public void setViewSize(int viewWidth, int viewHeight) {
+        this.viewWidth = viewWidth;
+        this.viewHeight = viewHeight;
+    }
+    
+    public double getZoom() {
+        return zoom;
+    }
+    
+    public double getCenterX() {
+        return centerX;
+    }
+    
+    public double getCenterY() {
+        return centerY;
+    }
+    
+    public double worldToScreenX(double worldX) {
+        return (worldX - centerX) * zoom + viewWidth / 2.0;
+    }
+    
+    public double worldToScreenY(double worldY) {
+        return (worldY - centerY) * zoom + viewHeight / 2.0;
+    }
+    
+    public double screenToWorldX(double screenX) {
+        return (screenX - viewWidth / 2.0) / zoom + centerX;
+    }
+    
+    public double screenToWorldY(double screenY) {
+        return (screenY - viewHeight / 2.0) / zoom + centerY;
+    }
+    
+    /**
+     * @return the left edge of the view in world coordinates
+     */
+    public double getViewMinX() {
+        return screenToWorldX(0);
+    }
+    
+    public double getViewMinY() {
+        return screenToWorldY(0);
+    }
+    
+    public double getViewMaxX() {
+        return screenToWorldX(viewWidth);
+    }
+    
+    public double getViewMaxY() {
+        return screenToWorldY(viewHeight);
+    }
+    
+    /**
+     * @return the transform from world to screen coordinates
+     */
+    public AffineTransform getTransform() {
+        AffineTransform transform = AffineTransform.getTranslateInstance(viewWidth / 2.0, viewHeight / 2.0);
+        transform.scale(zoom, zoom);
+        transform.translate(-centerX, -centerY);
+        return transform;
+    }
+    
+    /**
+     * Move the view by a distance in screen pixels
+     */
+    public void pan(double screenDx, double screenDy) {
+        centerX -= screenDx / zoom;
+        centerY -= screenDy / zoom;
+    }
+    
+    /**
+     * Zoom by a factor while keeping the world point under the given screen point fixed
+     */
+    public void zoomAt(double screenX, double screenY, double factor) {
+        double worldX = screenToWorldX(screenX);
+        double worldY = screenToWorldY(screenY);
+        zoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom * factor));
+        centerX = worldX - (screenX - viewWidth / 2.0) / zoom;
+        centerY = worldY - (screenY - viewHeight / 2.0) / zoom;
+    }
+    
+    /**
+     * Center the view on a world rectangle and zoom so that it fits, with a margin
+     */
+    public void fit(double minX, double minY, double maxX, double maxY, double margin) {
+        centerX = (minX + maxX) / 2;
+        centerY = (minY + maxY) / 2;
+        double w = maxX - minX + 2 * margin;
+        double h = maxY - minY + 2 * margin;
+        double fitZoom = Math.min(viewWidth / Math.max(1, w), viewHeight / Math.max(1, h));
+        zoom = Math.max(MIN_ZOOM, Math.min(1.0, fitZoom));
+    }
+    
+    /**
+     * Center the view on the world origin at zoom 1
+     */
+    public void reset() {
+        centerX = 0;
+        centerY = 0;
+        zoom = 1.0;
+    }
+} 
\ No newline at end of file
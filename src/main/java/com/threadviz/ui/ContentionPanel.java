@@ -0,0 +1,128 @@
+package com.threadviz.ui;
+
+import com.threadviz.metrics.ContentionTracker;
+import com.threadviz.metrics.LogLinearHistogram;
+
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Side panel showing live lock wait and hold time percentiles per resource.
+ */
+public class ContentionPanel extends JPanel {
+    
+    private static final int REFRESH_INTERVAL_MS = 250;
+    
+    private final ContentionTracker tracker;
+    private final ContentionTableModel tableModel;
+    private final Timer refreshTimer;
+    
+    public ContentionPanel(ContentionTracker tracker) {
+        super(new BorderLayout());
+        this.tracker = tracker;
+        this.tableModel = new ContentionTableModel();
+        
+        setBorder(new EmptyBorder(10, 10, 10, 10));
+        setBackground(new Color(51, 51, 51));
+        
+        JLabel titleLabel = new JLabel("Lock Contention (ms)");
+        titleLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
+        titleLabel.setForeground(new Color(232, 232, 232));
+        add(titleLabel, BorderLayout.NORTH);
+        
+        JTable table = new JTable(tableModel);
+        table.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        table.setBackground(new Color(51, 51, 51));
+        table.setForeground(new Color(232, 232, 232));
+        table.setGridColor(new Color(68, 68, 68));
+        table.setSelectionBackground(new Color(75, 110, 175));
+        table.setFillsViewportHeight(true);
+        table.getTableHeader().setBackground(new Color(60, 63, 65));
+        table.getTableHeader().setForeground(new Color(232, 232, 232));
+        
+        DefaultTableCellRenderer numberRenderer = new DefaultTableCellRenderer();
+        numberRenderer.setHorizontalAlignment(SwingConstants.RIGHT);
+        for (int i = 2; i < tableModel.getColumnCount(); i++) {
+            table.getColumnModel().getColumn(i).setCellRenderer(numberRenderer);
+        }
+        
+        JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.setBorder(BorderFactory.createLineBorder(new Color(68, 68, 68)));
+        scrollPane.getViewport().setBackground(new Color(51, 51, 51));
+        add(scrollPane, BorderLayout.CENTER);
+        
+        // Refresh periodically while the panel is visible
+        refreshTimer = new Timer(REFRESH_INTERVAL_MS, e -> {
+            if (isShowing()) {
+                refresh();
+            }
+        });
+        refreshTimer.start();
+    }
+    
+    /**
+     * Re-read the tracker's histograms into the table
+     */
+    public void refresh() {
+        List<Object[]> rows = new ArrayList<>();
+        for (ContentionTracker.ResourceContention resource : tracker.getResources()) {
+            rows.add(createRow(resource.getResourceId(), "wait", resource.getWaitTimes().snapshot()));
+            rows.add(createRow(resource.getResourceId(), "hold", resource.getHoldTimes().snapshot()));
+        }
+        tableModel.setRows(rows);
+    }
+    
+    private Object[] createRow(String resourceId, String kind, LogLinearHistogram.Snapshot s) {
+        return new Object[]{
+            resourceId,
+            kind,
+            s.getTotalCount(),
+            formatMillis(s.getValueAtPercentile(50)),
+            formatMillis(s.getValueAtPercentile(99)),
+            formatMillis(s.getValueAtPercentile(99.9)),
+            formatMillis(s.getMax())
+        };
+    }
+    
+    private String formatMillis(long micros) {
+        return String.format("%.1f", micros / 1000.0);
+    }
+    
+    /**
+     * Table model holding one row per resource and measurement kind
+     */
+    private static class ContentionTableModel extends AbstractTableModel {
+        private final String[] columns = {"Resource", "Kind", "Count", "p50", "p99", "p99.9", "Max"};
+        private List<Object[]> rows = new ArrayList<>();
+        
+        void setRows(List<Object[]> rows) {
+            this.rows = rows;
+            fireTableDataChanged();
+        }
+        
+        @Override
+        public int getRowCount() {
+            return rows.size();
+        }
+        
+        @Override
+        public int getColumnCount() {
+            return columns.length;
+        }
+        
+        @Override
+        public String getColumnName(int column) {
+            return columns[column];
+        }
+        
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            return rows.get(rowIndex)[columnIndex];
+        }
+    }
+} 
\ No newline at end of file
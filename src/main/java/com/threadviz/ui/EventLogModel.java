@@ -0,0 +1,166 @@
+package com.threadviz.ui;
+
+import com.threadviz.core.EventBus;
+import com.threadviz.models.ThreadEvent;
+
+import javax.swing.*;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * List model for the event log, newest event first. Events are kept in a
+ * fixed-size ring, so once it is full each new event overwrites the oldest
+ * one instead of shifting the list. Events arriving from the simulation
+ * threads are queued and only applied to the ring by {@link #flush()} on the
+ * event dispatch thread, which fires a single added and a single removed
+ * notification per batch. The rows of the list are the sequence numbers of
+ * the events matching the current filter, so changing the filter rescans the
+ * ring once without copying any events.
+ */
+public class EventLogModel extends AbstractListModel<ThreadEvent> implements EventBus.EventListener {
+    
+    private final int capacity;
+    private final Queue<ThreadEvent> pending;
+    
+    // Event with sequence number n is in events[n % capacity] while n >= total - capacity
+    private final ThreadEvent[] events;
+    private long total;
+    
+    // Sequence numbers of the matching events, oldest at rowStart
+    private final long[] rows;
+    private int rowStart;
+    private int rowCount;
+    
+    private String threadFilter;
+    private ThreadEvent.EventType typeFilter;
+    private String resourceFilter;
+    
+    public EventLogModel(int capacity) {
+        this.capacity = capacity;
+        this.pending = new ConcurrentLinkedQueue<>();
+        this.events = new ThreadEvent[capacity];
+        this.rows = new long[capacity];
+    }
+    
+    @Override
+    public void onEvent(ThreadEvent event) {
+        pending.add(event);
+    }
+    
+    /**
+     * Apply the events queued since the last call. Event dispatch thread only.
+     */
+    public void flush() {
+        int before = rowCount;
+        int oldRowsLeft = rowCount;
+        int added = 0;
+        
+        ThreadEvent event;
+        while ((event = pending.poll()) != null) {
+            long seq = total++;
+            
+            // The slot still holds the event from one full ring ago
+            long evicted = seq - capacity;
+            if (evicted >= 0 && rowCount > 0 && rows[rowStart] == evicted) {
+                rowStart = (rowStart + 1) % capacity;
+                rowCount--;
+                if (oldRowsLeft > 0) {
+                    oldRowsLeft--;
+                } else {
+                    added--;
+                }
+            }
+            events[(int) (seq % capacity)] = event;
+            
+            if (matches(event)) {
+                rows[(rowStart + rowCount) % capacity] = seq;
+                rowCount++;
+                added++;
+            }
+        }
+        
+        // Old rows are at the bottom of the list, new ones at the top
+        if (oldRowsLeft < before) {
+            fireIntervalRemoved(this, oldRowsLeft, before - 1);
+        }
+        if (added > 0) {
+            fireIntervalAdded(this, 0, added - 1);
+        }
+    }
+    
+    /**
+     * Show only events matching all given criteria. Thread and resource match
+     * if the name contains the given text; null or empty matches anything.
+     * Event dispatch thread only.
+     */
+    public void setFilter(String thread, ThreadEvent.EventType type, String resource) {
+        threadFilter = thread == null || thread.isEmpty() ? null : thread;
+        typeFilter = type;
+        resourceFilter = resource == null || resource.isEmpty() ? null : resource;
+        
+        int before = rowCount;
+        rowStart = 0;
+        rowCount = 0;
+        for (long seq = Math.max(0, total - capacity); seq < total; seq++) {
+            if (matches(events[(int) (seq % capacity)])) {
+                rows[rowCount++] = seq;
+            }
+        }
+        
+        if (before > 0) {
+            fireIntervalRemoved(this, 0, before - 1);
+        }
+        if (rowCount > 0) {
+            fireIntervalAdded(this, 0, rowCount - 1);
+        }
+    }
+    
+    /**
+     * Remove all events, including those not yet flushed. Event dispatch thread only.
+     */
+    public void clear() {
+        pending.clear();
+        Arrays.fill(events, null);
+        total = 0;
+        
+        int before = rowCount;
+        rowStart = 0;
+        rowCount = 0;
+        if (before > 0) {
+            fireIntervalRemoved(this, 0, before - 1);
+        }
+    }
+    
+    /**
+     * @return the number of events kept, whether or not they match the filter
+     */
+    public int getEventCount() {
+        return (int) Math.min(total, capacity);
+    }
+    
+    @Override
+    public int getSize() {
+        return rowCount;
+    }
+    
+    @Override
+    public ThreadEvent getElementAt(int index) {
+        long seq = rows[(rowStart + rowCount - 1 - index) % capacity];
+        return events[(int) (seq % capacity)];
+    }
+    
+    private boolean matches(ThreadEvent event) {
+        if (typeFilter != null && event.getType() != typeFilter) {
+            return false;
+        }
+        if (threadFilter != null && !contains(event.getThreadName(), threadFilter)) {
+            return false;
+        }
+        return resourceFilter == null || contains(event.getResourceId(), resourceFilter);
+    }
+    
+    private static boolean contains(String value, String text) {
+        return value != null && value.contains(text);
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,215 @@
+package com.threadviz.ui;
+
+import com.threadviz.models.ThreadEvent;
+
+import javax.swing.*;
+import javax.swing.border.Border;
+import javax.swing.border.EmptyBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.*;
+
+/**
+ * Side panel listing the most recent events, newest first, with filters by
+ * thread, event type and resource. Queued events are applied to the list
+ * model once per frame. Rows have a fixed height, so the list only lays out
+ * and renders the rows that are visible however many events it holds.
+ */
+public class EventLogPanel extends JPanel {
+    
+    private static final int FRAME_INTERVAL_MS = 16;
+    private static final int ROW_HEIGHT = 22;
+    
+    private static final Color BACKGROUND = new Color(51, 51, 51);
+    private static final Color FIELD_BACKGROUND = new Color(60, 63, 65);
+    private static final Color TEXT = new Color(232, 232, 232);
+    private static final Font FONT = new Font("Segoe UI", Font.PLAIN, 12);
+    
+    private final EventLogModel model;
+    private final JTextField threadField;
+    private final JComboBox<Object> typeBox;
+    private final JTextField resourceField;
+    private final JLabel countLabel;
+    
+    public EventLogPanel(EventLogModel model) {
+        super(new BorderLayout());
+        this.model = model;
+        
+        setBorder(new EmptyBorder(10, 10, 10, 10));
+        setBackground(BACKGROUND);
+        setPreferredSize(new Dimension(150, 0));
+        
+        JPanel header = new JPanel();
+        header.setLayout(new BoxLayout(header, BoxLayout.Y_AXIS));
+        header.setBackground(BACKGROUND);
+        
+        JPanel titleRow = new JPanel(new BorderLayout());
+        titleRow.setBackground(BACKGROUND);
+        titleRow.setAlignmentX(Component.LEFT_ALIGNMENT);
+        JLabel logLabel = new JLabel("Event Log");
+        logLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
+        logLabel.setForeground(TEXT);
+        titleRow.add(logLabel, BorderLayout.WEST);
+        countLabel = new JLabel();
+        countLabel.setFont(new Font("Segoe UI", Font.PLAIN, 11));
+        countLabel.setForeground(new Color(170, 170, 170));
+        titleRow.add(countLabel, BorderLayout.EAST);
+        header.add(titleRow);
+        header.add(Box.createVerticalStrut(5));
+        
+        // Filters
+        threadField = createFilterField("Show events of threads whose name contains this text");
+        typeBox = new JComboBox<>();
+        typeBox.addItem("All types");
+        for (ThreadEvent.EventType type : ThreadEvent.EventType.values()) {
+            typeBox.addItem(type);
+        }
+        typeBox.setFont(FONT);
+        typeBox.setBackground(FIELD_BACKGROUND);
+        typeBox.setForeground(TEXT);
+        typeBox.addActionListener(e -> applyFilter());
+        resourceField = createFilterField("Show events on resources whose id contains this text");
+        
+        header.add(createFilterRow("Thread", threadField));
+        header.add(createFilterRow("Type", typeBox));
+        header.add(createFilterRow("Resource", resourceField));
+        header.add(Box.createVerticalStrut(5));
+        add(header, BorderLayout.NORTH);
+        
+        JList<ThreadEvent> list = new JList<>(model);
+        list.setCellRenderer(new ThreadEventRenderer());
+        list.setFixedCellHeight(ROW_HEIGHT);
+        list.setBackground(BACKGROUND);
+        list.setForeground(TEXT);
+        list.setSelectionBackground(new Color(75, 110, 175));
+        
+        JScrollPane scrollPane = new JScrollPane(list);
+        scrollPane.setBorder(BorderFactory.createLineBorder(new Color(68, 68, 68)));
+        scrollPane.getViewport().setBackground(BACKGROUND);
+        add(scrollPane, BorderLayout.CENTER);
+        
+        // Apply queued events once per frame, whether or not the log is visible
+        new Timer(FRAME_INTERVAL_MS, e -> {
+            model.flush();
+            if (isShowing()) {
+                updateCount();
+            }
+        }).start();
+    }
+    
+    /**
+     * Remove all events from the log
+     */
+    public void clear() {
+        model.clear();
+        updateCount();
+    }
+    
+    private void applyFilter() {
+        Object type = typeBox.getSelectedItem();
+        model.setFilter(threadField.getText().trim(),
+                type instanceof ThreadEvent.EventType ? (ThreadEvent.EventType) type : null,
+                resourceField.getText().trim());
+        updateCount();
+    }
+    
+    private void updateCount() {
+        int shown = model.getSize();
+        int kept = model.getEventCount();
+        countLabel.setText(shown == kept ? Integer.toString(kept) : shown + " / " + kept);
+    }
+    
+    private JTextField createFilterField(String toolTip) {
+        JTextField field = new JTextField();
+        field.setFont(FONT);
+        field.setBackground(FIELD_BACKGROUND);
+        field.setForeground(TEXT);
+        field.setCaretColor(TEXT);
+        field.setToolTipText(toolTip);
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                applyFilter();
+            }
+            
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                applyFilter();
+            }
+            
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                applyFilter();
+            }
+        });
+        return field;
+    }
+    
+    private JPanel createFilterRow(String label, JComponent field) {
+        JPanel row = new JPanel(new BorderLayout(5, 0));
+        row.setBackground(BACKGROUND);
+        row.setAlignmentX(Component.LEFT_ALIGNMENT);
+        row.setBorder(new EmptyBorder(2, 0, 2, 0));
+        
+        JLabel rowLabel = new JLabel(label);
+        rowLabel.setFont(FONT);
+        rowLabel.setForeground(TEXT);
+        rowLabel.setPreferredSize(new Dimension(60, 20));
+        row.add(rowLabel, BorderLayout.WEST);
+        row.add(field, BorderLayout.CENTER);
+        row.setMaximumSize(new Dimension(Integer.MAX_VALUE, row.getPreferredSize().height));
+        return row;
+    }
+    
+    /**
+     * Custom cell renderer for displaying thread events in the log
+     */
+    private static class ThreadEventRenderer extends DefaultListCellRenderer {
+        private static final Color GREEN = new Color(106, 135, 89);
+        private static final Color ORANGE = new Color(204, 120, 50);
+        private static final Color BLUE = new Color(104, 151, 187);
+        private static final Color PURPLE = new Color(152, 118, 170);
+        private static final Color YELLOW = new Color(187, 181, 41);
+        private static final Border PADDING = BorderFactory.createEmptyBorder(4, 8, 4, 8);
+        
+        @Override
+        public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
+            super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+            
+            if (value instanceof ThreadEvent) {
+                ThreadEvent event = (ThreadEvent) value;
+                setText(event.getThreadName() + ": " + event.getType() + " - " + event.getMessage());
+                
+                if (!isSelected) {
+                    // Set colors based on event type
+                    switch (event.getType()) {
+                        case THREAD_CREATED:
+                        case THREAD_STARTED:
+                            setForeground(GREEN);
+                            break;
+                        case THREAD_TERMINATED:
+                        case DEADLOCK_DETECTED:
+                            setForeground(ORANGE);
+                            break;
+                        case LOCK_ACQUIRED:
+                            setForeground(BLUE);
+                            break;
+                        case LOCK_RELEASED:
+                            setForeground(PURPLE);
+                            break;
+                        case LOCK_WAITING:
+                            setForeground(YELLOW);
+                            break;
+                        default:
+                            setForeground(TEXT);
+                    }
+                    setBackground(BACKGROUND);
+                }
+            }
+            
+            setFont(FONT);
+            setBorder(PADDING);
+            return this;
+        }
+    }
+} 
\ No newline at end of file
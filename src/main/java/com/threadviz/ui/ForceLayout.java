@@ -0,0 +1,312 @@
+package com.threadviz.ui;
+
+import com.threadviz.models.ThreadStateStore;
+
+import java.util.Arrays;
+
+/**
+ * Force-directed layout of the thread nodes, advanced by the scene model at a
+ * fixed tick so its cost does not depend on the event rate. Each step applies
+ * <ul>
+ *   <li>repulsion between nearby nodes, found through a uniform grid so each
+ *       node only looks at the cells around it,</li>
+ *   <li>attraction of every holder and waiter towards its resource's centroid,</li>
+ *   <li>a weak pull towards the world origin,</li>
+ * </ul>
+ * and then moves the nodes by their damped velocity, each by at most the
+ * current temperature. The temperature cools every step and is reset when
+ * nodes come or go or their resources change, so a graph that stops
+ * changing settles and {@link #step()} reports it. Positions and
+ * velocities of the live nodes are kept in dense arrays and the positions
+ * written back to the {@link ThreadStateStore}. Like the rest of the
+ * scene model, the layout is only used from the scene model thread.
+ */
+public class ForceLayout {
+    private static final double REPULSION_RADIUS = 90;
+    private static final double REPULSION_STRENGTH = 1.5;
+    private static final double RESOURCE_ATTRACTION = 0.02;
+    private static final double CENTER_GRAVITY = 0.002;
+    private static final double DAMPING = 0.8;
+    private static final double MAX_STEP = 20;
+    
+    // Caps the work per node and cell when many nodes share a few cells
+    private static final int MAX_CELL_SAMPLES = 8;
+    private static final int MAX_GRID_CELLS = 1 << 16;
+    
+    // Displacement below which a step counts as settled
+    private static final double SETTLED_STEP = 0.05;
+    
+    // Factor the largest step shrinks by each tick; takes about 300 ticks from MAX_STEP to settled
+    private static final double COOLING = 0.98;
+    
+    private final ThreadStateStore threads;
+    private final ResourceIndex resourceIndex;
+    
+    // Thread index of each node, and node slot of each thread index or -1
+    private int[] nodes;
+    private int[] slotOf = new int[0];
+    private double[] x, y, vx, vy, fx, fy;
+    private int size;
+    private double temperature = MAX_STEP;
+    private int[] cellStart;
+    private int[] cellCursor;
+    private int[] cellItems;
+    
+    public ForceLayout(ThreadStateStore threads, ResourceIndex resourceIndex) {
+        this.threads = threads;
+        this.resourceIndex = resourceIndex;
+        allocate(64);
+    }
+    
+    /**
+     * Add a thread to the layout at its current position
+     */
+    public void add(int thread) {
+        if (thread >= slotOf.length) {
+            int old = slotOf.length;
+            slotOf = Arrays.copyOf(slotOf, Math.max(64, Math.max(thread + 1, old * 2)));
+            Arrays.fill(slotOf, old, slotOf.length, -1);
+        }
+        if (slotOf[thread] >= 0) {
+            return;
+        }
+        if (size == nodes.length) {
+            allocate(size * 2);
+        }
+        nodes[size] = thread;
+        x[size] = threads.getX(thread);
+        y[size] = threads.getY(thread);
+        vx[size] = 0;
+        vy[size] = 0;
+        slotOf[thread] = size;
+        size++;
+        reheat();
+    }
+    
+    /**
+     * Let the nodes move freely again, after a change to the forces between them
+     */
+    public void reheat() {
+        temperature = MAX_STEP;
+    }
+    
+    /**
+     * Remove all nodes
+     */
+    public void clear() {
+        Arrays.fill(slotOf, -1);
+        size = 0;
+    }
+    
+    /**
+     * Advance the layout by one tick and write the new positions to the nodes
+     * @return true if any node moved noticeably
+     */
+    public boolean step() {
+        removeTerminated();
+        if (size == 0) {
+            return false;
+        }
+        
+        Arrays.fill(fx, 0, size, 0);
+        Arrays.fill(fy, 0, size, 0);
+        applyRepulsion();
+        applyResourceAttraction();
+        double maxStep = integrate();
+        temperature = Math.max(temperature * COOLING, SETTLED_STEP / 2);
+        
+        resourceIndex.invalidateCentroids();
+        return maxStep >= SETTLED_STEP;
+    }
+    
+    private void removeTerminated() {
+        // Drop terminated threads by moving the last node into their slot
+        for (int i = size - 1; i >= 0; i--) {
+            if (threads.isTerminated(nodes[i])) {
+                slotOf[nodes[i]] = -1;
+                int last = --size;
+                if (i != last) {
+                    nodes[i] = nodes[last];
+                    x[i] = x[last];
+                    y[i] = y[last];
+                    vx[i] = vx[last];
+                    vy[i] = vy[last];
+                    slotOf[nodes[i]] = i;
+                }
+                reheat();
+            }
+        }
+    }
+    
+    private void allocate(int capacity) {
+        nodes = nodes == null ? new int[capacity] : Arrays.copyOf(nodes, capacity);
+        x = x == null ? new double[capacity] : Arrays.copyOf(x, capacity);
+        y = y == null ? new double[capacity] : Arrays.copyOf(y, capacity);
+        vx = vx == null ? new double[capacity] : Arrays.copyOf(vx, capacity);
+        vy = vy == null ? new double[capacity] : Arrays.copyOf(vy, capacity);
+        fx = new double[capacity];
+        fy = new double[capacity];
+        cellItems = new int[capacity];
+    }
+    
+    /**
+     * Push apart nodes closer than {@link #REPULSION_RADIUS}. Nodes are bucketed
+     * into a grid of radius-sized cells with a counting sort, so each node only
+     * compares itself with the nodes in its own and the eight adjacent cells.
+     */
+    private void applyRepulsion() {
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            minX = Math.min(minX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxX = Math.max(maxX, x[i]);
+            maxY = Math.max(maxY, y[i]);
+        }
+        
+        double cell = REPULSION_RADIUS;
+        int cols = (int) ((maxX - minX) / cell) + 1;
+        int rows = (int) ((maxY - minY) / cell) + 1;
+        while ((long) cols * rows > MAX_GRID_CELLS) {
+            // Very spread out layouts get coarser cells rather than a huge grid
+            cell *= 2;
+            cols = (int) ((maxX - minX) / cell) + 1;
+            rows = (int) ((maxY - minY) / cell) + 1;
+        }
+        
+        int cellCount = cols * rows;
+        if (cellStart == null || cellStart.length < cellCount + 1) {
+            cellStart = new int[Math.max(cellCount + 1, 1024)];
+            cellCursor = new int[cellStart.length];
+        }
+        Arrays.fill(cellStart, 0, cellCount + 1, 0);
+        for (int i = 0; i < size; i++) {
+            cellStart[cellOf(i, minX, minY, cell, cols) + 1]++;
+        }
+        for (int c = 0; c < cellCount; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        // cellStart[c] is now the first slot of cell c
+        System.arraycopy(cellStart, 0, cellCursor, 0, cellCount);
+        for (int i = 0; i < size; i++) {
+            cellItems[cellCursor[cellOf(i, minX, minY, cell, cols)]++] = i;
+        }
+        
+        double radiusSq = REPULSION_RADIUS * REPULSION_RADIUS;
+        for (int i = 0; i < size; i++) {
+            int col = (int) ((x[i] - minX) / cell);
+            int row = (int) ((y[i] - minY) / cell);
+            
+            for (int r = Math.max(0, row - 1); r <= Math.min(rows - 1, row + 1); r++) {
+                for (int c = Math.max(0, col - 1); c <= Math.min(cols - 1, col + 1); c++) {
+                    int cellIndex = r * cols + c;
+                    int first = cellStart[cellIndex];
+                    int count = cellStart[cellIndex + 1] - first;
+                    
+                    // Dense cells are sampled from an offset that differs per node, so the
+                    // estimate is not biased towards any direction, and the result scaled up.
+                    // The offset stays the same from tick to tick: a rotating one would give
+                    // a static graph a different force each tick and it would never settle.
+                    int samples = Math.min(count, MAX_CELL_SAMPLES);
+                    int offset = count > samples ? (int) (i * 7L % count) : 0;
+                    double cellFx = 0, cellFy = 0;
+                    int examined = 0;
+                    
+                    for (int s = 0; s < samples; s++) {
+                        int j = cellItems[first + (offset + s) % count];
+                        if (j == i) {
+                            continue;
+                        }
+                        examined++;
+                        
+                        double dx = x[i] - x[j];
+                        double dy = y[i] - y[j];
+                        double distSq = dx * dx + dy * dy;
+                        if (distSq >= radiusSq) {
+                            continue;
+                        }
+                        if (distSq < 1e-6) {
+                            // Coincident nodes: separate them in a direction derived from their indices
+                            double angle = (i * 31 + j * 17) % 360 * Math.PI / 180;
+                            dx = Math.cos(angle);
+                            dy = Math.sin(angle);
+                            distSq = 1;
+                        }
+                        double dist = Math.sqrt(distSq);
+                        double push = REPULSION_STRENGTH * (1 - dist / REPULSION_RADIUS);
+                        cellFx += dx / dist * push;
+                        cellFy += dy / dist * push;
+                    }
+                    
+                    if (examined > 0) {
+                        int others = r == row && c == col ? count - 1 : count;
+                        double scale = count > samples ? others / (double) examined : 1;
+                        fx[i] += cellFx * scale;
+                        fy[i] += cellFy * scale;
+                    }
+                }
+            }
+        }
+    }
+    
+    private int cellOf(int i, double minX, double minY, double cell, int cols) {
+        return (int) ((y[i] - minY) / cell) * cols + (int) ((x[i] - minX) / cell);
+    }
+    
+    /**
+     * Pull every holder and waiter of a resource towards the resource's centroid
+     */
+    private void applyResourceAttraction() {
+        resourceIndex.forEachResource(resource -> {
+            if (resource.getMemberCount() < 2) {
+                return;
+            }
+            double cx = resource.getCentroidX();
+            double cy = resource.getCentroidY();
+            for (int i = 0; i < resource.getHolderCount(); i++) {
+                attract(resource.getHolder(i), cx, cy);
+            }
+            for (int i = 0; i < resource.getWaiterCount(); i++) {
+                attract(resource.getWaiter(i), cx, cy);
+            }
+        });
+    }
+    
+    private void attract(int thread, double cx, double cy) {
+        int i = thread < slotOf.length ? slotOf[thread] : -1;
+        if (i >= 0) {
+            fx[i] += (cx - x[i]) * RESOURCE_ATTRACTION;
+            fy[i] += (cy - y[i]) * RESOURCE_ATTRACTION;
+        }
+    }
+    
+    /**
+     * Apply gravity towards the origin, update velocities and positions, and write them back
+     * @return the largest distance any node moved
+     */
+    private double integrate() {
+        double maxStep = 0;
+        
+        for (int i = 0; i < size; i++) {
+            fx[i] -= x[i] * CENTER_GRAVITY;
+            fy[i] -= y[i] * CENTER_GRAVITY;
+            
+            vx[i] = (vx[i] + fx[i]) * DAMPING;
+            vy[i] = (vy[i] + fy[i]) * DAMPING;
+            double speed = Math.sqrt(vx[i] * vx[i] + vy[i] * vy[i]);
+            if (speed > temperature) {
+                vx[i] *= temperature / speed;
+                vy[i] *= temperature / speed;
+            }
+            
+            double nx = x[i] + vx[i];
+            double ny = y[i] + vy[i];
+            maxStep = Math.max(maxStep, Math.abs(nx - x[i]) + Math.abs(ny - y[i]));
+            x[i] = nx;
+            y[i] = ny;
+            
+            threads.setPosition(nodes[i], nx, ny);
+        }
+        return maxStep;
+    }
+} 
\ No newline at end of file
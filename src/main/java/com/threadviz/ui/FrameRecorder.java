@@ -0,0 +1,216 @@
+package com.threadviz.ui;
+
+import com.threadviz.models.ThreadEvent;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Renders a recorded run into a sequence of frames without a display.
+ * Events are replayed into an offscreen {@link SimulationCanvas} on a
+ * simulated clock, so a frame is drawn for every 1/fps of the run however
+ * long drawing takes. The calling thread only draws; frames are encoded in
+ * parallel on a pool of encoder threads and written in order by a single
+ * writer thread. A fixed set of frame images is recycled between the
+ * drawing and the encoders, which bounds memory and makes drawing wait
+ * whenever encoding falls behind.
+ */
+public class FrameRecorder {
+    
+    public enum Format {
+        /** One PNG file per frame */
+        PNG,
+        /** All frames in one file as packed 24-bit RGB, e.g. for ffmpeg -f rawvideo -pix_fmt rgb24 */
+        RAW
+    }
+    
+    // Name of the file raw frames are written to
+    public static final String RAW_FILE_NAME = "frames.rgb";
+    
+    private final int width;
+    private final int height;
+    private final int fps;
+    private final Format format;
+    private final int encoderThreads;
+    
+    public FrameRecorder(int width, int height, int fps, Format format, int encoderThreads) {
+        this.width = width;
+        this.height = height;
+        this.fps = fps;
+        this.format = format;
+        this.encoderThreads = Math.max(1, encoderThreads);
+    }
+    
+    /**
+     * Render the events into frames in the given directory
+     * @param events Events in the order they were published
+     * @return the number of frames written
+     */
+    public int record(List<ThreadEvent> events, Path directory) throws IOException, InterruptedException {
+        Files.createDirectories(directory);
+        if (events.isEmpty()) {
+            return 0;
+        }
+        
+        SimulationCanvas canvas = SimulationCanvas.createOffscreen(width, height);
+        SceneModel model = canvas.getSceneModel();
+        
+        // Frame images are handed back by the encoders once they are done with them
+        BlockingQueue<BufferedImage> freeImages = new ArrayBlockingQueue<>(encoderThreads * 2);
+        for (int i = 0; i < encoderThreads * 2; i++) {
+            freeImages.add(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB));
+        }
+        
+        // Encoded frames in frame order; the writer takes them one by one
+        BlockingQueue<Future<byte[]>> encoded = new ArrayBlockingQueue<>(encoderThreads * 4);
+        
+        ExecutorService encoders = Executors.newFixedThreadPool(encoderThreads, daemonThreads("Frame-Encoder"));
+        ExecutorService writerThread = Executors.newSingleThreadExecutor(daemonThreads("Frame-Writer"));
+        Future<Integer> writer = writerThread.submit(() -> writeFrames(encoded, directory));
+        
+        try {
+            double frameMillis = 1000.0 / fps;
+            long start = events.get(0).getTimestamp().toEpochMilli();
+            double layoutDue = 0;
+            int next = 0;
+            
+            for (int frame = 0; next < events.size(); frame++) {
+                double frameEnd = start + (frame + 1) * frameMillis;
+                while (next < events.size() && events.get(next).getTimestamp().toEpochMilli() < frameEnd) {
+                    model.post(events.get(next++));
+                }
+                
+                // Run the layout at its usual rate in simulated time, and apply the events even if it is not due
+                layoutDue += frameMillis;
+                boolean stepped = false;
+                while (layoutDue >= SceneModel.LAYOUT_INTERVAL_MS) {
+                    layoutDue -= SceneModel.LAYOUT_INTERVAL_MS;
+                    model.step(true);
+                    stepped = true;
+                }
+                if (!stepped) {
+                    model.step(false);
+                }
+                
+                BufferedImage image = freeImages.take();
+                canvas.renderTo(image);
+                enqueue(encoded, encoders.submit(() -> {
+                    try {
+                        return encode(image);
+                    } finally {
+                        freeImages.add(image);
+                    }
+                }), writer);
+            }
+            
+            // An empty frame marks the end of the sequence
+            enqueue(encoded, CompletableFuture.completedFuture(null), writer);
+            return writer.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } finally {
+            encoders.shutdownNow();
+            writerThread.shutdownNow();
+        }
+    }
+    
+    /**
+     * Queue an encoded frame for the writer, giving up if the writer failed
+     */
+    private void enqueue(BlockingQueue<Future<byte[]>> encoded, Future<byte[]> frame, Future<Integer> writer)
+            throws InterruptedException, ExecutionException {
+        while (!encoded.offer(frame, 100, TimeUnit.MILLISECONDS)) {
+            if (writer.isDone()) {
+                writer.get();
+                throw new IllegalStateException("Frame writer stopped early");
+            }
+        }
+    }
+    
+    private int writeFrames(BlockingQueue<Future<byte[]>> encoded, Path directory) throws Exception {
+        int count = 0;
+        OutputStream raw = format == Format.RAW
+                ? new BufferedOutputStream(Files.newOutputStream(directory.resolve(RAW_FILE_NAME)), 1 << 20)
+                : null;
+        try {
+            while (true) {
+                byte[] frame = encoded.take().get();
+                if (frame == null) {
+                    return count;
+                }
+                if (raw != null) {
+                    raw.write(frame);
+                } else {
+                    Files.write(directory.resolve(String.format("frame-%06d.png", count)), frame);
+                }
+                count++;
+            }
+        } finally {
+            if (raw != null) {
+                raw.close();
+            }
+        }
+    }
+    
+    private byte[] encode(BufferedImage image) {
+        if (format == Format.PNG) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(width * height / 2);
+            try {
+                ImageIO.write(image, "png", out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out.toByteArray();
+        }
+        
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        byte[] rgb = new byte[pixels.length * 3];
+        for (int i = 0, j = 0; i < pixels.length; i++) {
+            int pixel = pixels[i];
+            rgb[j++] = (byte) (pixel >> 16);
+            rgb[j++] = (byte) (pixel >> 8);
+            rgb[j++] = (byte) pixel;
+        }
+        return rgb;
+    }
+    
+    private static IOException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof ExecutionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof UncheckedIOException) {
+            return ((UncheckedIOException) cause).getCause();
+        }
+        return cause instanceof IOException ? (IOException) cause : new IOException(cause);
+    }
+    
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r);
+            t.setDaemon(true);
+            t.setName(name + "-" + count.incrementAndGet());
+            return t;
+        };
+    }
+} 
\ No newline at end of file
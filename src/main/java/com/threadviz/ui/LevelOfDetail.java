@@ -0,0 +1,95 @@
+package com.threadviz.ui;
+
+/**
+ * Chooses how much detail the canvas draws per thread. Full sprites are
+ * used while there are few threads, plain colored dots at medium density and
+ * a state-density heatmap beyond that. The level also steps down when the
+ * smoothed frame time exceeds the budget, and only steps back up once the
+ * node count has dropped well below the count at which it stepped down, so
+ * it does not flip back and forth between frames.
+ */
+public class LevelOfDetail {
+    
+    public enum Level {
+        FULL,
+        DOTS,
+        HEATMAP
+    }
+    
+    private static final int FULL_MAX_NODES = 300;
+    private static final int DOTS_MAX_NODES = 5000;
+    private static final long FRAME_BUDGET_NANOS = 12_000_000L;
+    
+    // A finer level is only restored below this fraction of the limit
+    private static final double HYSTERESIS = 0.75;
+    private static final double EMA_WEIGHT = 0.1;
+    private static final int WARMUP_FRAMES = 3;
+    
+    private Level level = Level.FULL;
+    private double frameNanos;
+    private int frames;
+    
+    // Node count at which each level was last given up, indexed by ordinal
+    private final int[] coarsenedAt = {Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE};
+    
+    /**
+     * Pick the level for the next frame
+     * @param nodeCount Number of live threads to draw
+     */
+    public Level update(int nodeCount) {
+        boolean overBudget = frames >= WARMUP_FRAMES + 10 && frameNanos > FRAME_BUDGET_NANOS;
+        
+        if (level != Level.HEATMAP && (nodeCount > maxNodes(level) || overBudget)) {
+            coarsenedAt[level.ordinal()] = nodeCount;
+            setLevel(Level.values()[level.ordinal() + 1]);
+        } else if (level != Level.FULL) {
+            Level finer = Level.values()[level.ordinal() - 1];
+            int limit = Math.min(maxNodes(finer), coarsenedAt[finer.ordinal()]);
+            if (nodeCount < limit * HYSTERESIS) {
+                setLevel(finer);
+            }
+        }
+        return level;
+    }
+    
+    /**
+     * Record how long the last frame took to draw
+     */
+    public void recordFrame(long nanos) {
+        // The first frames after a switch include one-off costs such as building caches
+        if (frames >= WARMUP_FRAMES) {
+            frameNanos = frames == WARMUP_FRAMES ? nanos : frameNanos * (1 - EMA_WEIGHT) + nanos * EMA_WEIGHT;
+        }
+        frames++;
+    }
+    
+    public Level getLevel() {
+        return level;
+    }
+    
+    /**
+     * @return the smoothed frame draw time in nanoseconds
+     */
+    public double getFrameNanos() {
+        return frameNanos;
+    }
+    
+    private void setLevel(Level level) {
+        this.level = level;
+        
+        // Start measuring the new level from scratch
+        frameNanos = 0;
+        frames = 0;
+    }
+    
+    private static int maxNodes(Level level) {
+        switch (level) {
+            case FULL:
+                return FULL_MAX_NODES;
+            case DOTS:
+                return DOTS_MAX_NODES;
+            default:
+                return Integer.MAX_VALUE;
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,334 @@
+package com.threadviz.ui;
+
+import com.threadviz.models.ThreadState;
+import com.threadviz.models.ThreadStateStore;
+
+import java.awt.*;
+import java.awt.geom.Area;
+import java.awt.geom.Ellipse2D;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Pre-rendered images of thread and resource nodes. A thread node only
+ * depends on its label, its state and whether it shows a lock or an arrow,
+ * so each combination is painted once (glow, gradient fill, highlight,
+ * border, label and state tag) and afterwards drawn with a single blit.
+ * Least recently used sprites are evicted once the cache is full. The cache
+ * is not thread-safe and only used by the thread that draws the canvas.
+ */
+public class NodeSpriteCache {
+    
+    public static final int INDICATOR_NONE = 0;
+    public static final int INDICATOR_LOCK = 1;
+    public static final int INDICATOR_ARROW = 2;
+    
+    private static final int NODE_SIZE = 44;
+    private static final int MAX_ENTRIES = 1024;
+    
+    private static final int STATE_COUNT = ThreadState.values().length;
+    
+    private static final Font LABEL_FONT = new Font("Segoe UI", Font.BOLD, 13);
+    private static final Font STATE_FONT = new Font("Segoe UI", Font.PLAIN, 11);
+    private static final Font RESOURCE_FONT = new Font("Segoe UI", Font.BOLD, 14);
+    
+    static final Color RUNNABLE_COLOR = new Color(76, 175, 80); // Material Green
+    static final Color BLOCKED_COLOR = new Color(244, 67, 54);  // Material Red
+    static final Color WAITING_COLOR = new Color(255, 193, 7);  // Material Amber
+    static final Color OTHER_COLOR = new Color(33, 150, 243);   // Material Blue
+    
+    private static final Color TEXT_SHADOW = new Color(0, 0, 0, 120);
+    private static final Color AMBER = new Color(255, 193, 7);
+    
+    private final Map<String, Sprite[]> threadSprites;
+    private final Map<String, Sprite> resourceSprites;
+    
+    private final FontMetrics labelMetrics;
+    private final FontMetrics stateMetrics;
+    private final FontMetrics resourceMetrics;
+    
+    public NodeSpriteCache() {
+        this.threadSprites = new LruMap<>();
+        this.resourceSprites = new LruMap<>();
+        
+        // Text metrics never change for a font, so measure once
+        Graphics2D g = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+        this.labelMetrics = g.getFontMetrics(LABEL_FONT);
+        this.stateMetrics = g.getFontMetrics(STATE_FONT);
+        this.resourceMetrics = g.getFontMetrics(RESOURCE_FONT);
+        g.dispose();
+    }
+    
+    /**
+     * Get the sprite for a thread node in its current state
+     */
+    public Sprite getThreadSprite(ThreadStateStore threads, int thread) {
+        String name = threads.getName(thread);
+        ThreadState state = threads.getState(thread);
+        int indicator = threads.getResource(thread) == ThreadStateStore.NO_RESOURCE ? INDICATOR_NONE
+                : threads.isLocked(thread) ? INDICATOR_LOCK : INDICATOR_ARROW;
+        
+        Sprite[] sprites = threadSprites.computeIfAbsent(name, k -> new Sprite[STATE_COUNT * 3]);
+        int slot = state.ordinal() * 3 + indicator;
+        Sprite sprite = sprites[slot];
+        if (sprite == null) {
+            sprite = renderThread(name, state, indicator);
+            sprites[slot] = sprite;
+        }
+        return sprite;
+    }
+    
+    /**
+     * Get the sprite for a shared resource
+     */
+    public Sprite getResourceSprite(String resourceId) {
+        return resourceSprites.computeIfAbsent(resourceId, this::renderResource);
+    }
+    
+    /**
+     * Drop all sprites, e.g. when a new simulation brings new thread names
+     */
+    public void clear() {
+        threadSprites.clear();
+        resourceSprites.clear();
+    }
+    
+    private Sprite renderThread(String threadId, ThreadState state, int indicator) {
+        int size = NODE_SIZE;
+        
+        String label = threadId;
+        if (label.length() > 10) {
+            label = label.substring(0, 9) + "…"; // Truncate long names
+        }
+        
+        // Shorten common state names
+        String stateText = state.name().replace("RUNNABLE", "RUNNING")
+                .replace("WAITING", "WAIT")
+                .replace("TIMED_WAITING", "T_WAIT");
+        int stateTextWidth = stateMetrics.stringWidth(stateText);
+        int stateWidth = stateTextWidth + 10;
+        int stateHeight = 18;
+        
+        // The node is centered on the anchor; the lock icon sits above it, the state tag below
+        int halfWidth = Math.max((size + 14) / 2, Math.max(stateWidth, labelMetrics.stringWidth(label)) / 2) + 2;
+        int top = size / 2 + 20 + 3 + 2;
+        int bottom = size / 2 + 6 + stateHeight + 2;
+        Sprite sprite = new Sprite(2 * halfWidth, top + bottom, halfWidth, top);
+        
+        Graphics2D g = sprite.image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        int x = halfWidth;
+        int y = top;
+        
+        // Draw shadow/glow effect
+        Color glowColor = getGlowColor(state, indicator == INDICATOR_LOCK);
+        RadialGradientPaint glow = new RadialGradientPaint(
+            x, y, size + 14,
+            new float[]{0.0f, 0.7f, 1.0f},
+            new Color[]{
+                new Color(glowColor.getRed(), glowColor.getGreen(), glowColor.getBlue(), 90),
+                new Color(glowColor.getRed(), glowColor.getGreen(), glowColor.getBlue(), 40),
+                new Color(glowColor.getRed(), glowColor.getGreen(), glowColor.getBlue(), 0)
+            }
+        );
+        g.setPaint(glow);
+        g.fillOval(x - (size + 14) / 2, y - (size + 14) / 2, size + 14, size + 14);
+        
+        // Fill the thread circle with a gradient
+        Color threadColor = getThreadColor(state);
+        g.setPaint(new GradientPaint(
+            x - size / 2, y - size / 2, lighter(threadColor, 1.2f),
+            x + size / 2, y + size / 2, threadColor
+        ));
+        g.fillOval(x - size / 2, y - size / 2, size, size);
+        
+        // Draw a glossy highlight (top left quadrant slightly lighter)
+        Area highlight = new Area(new Ellipse2D.Float(x - size / 2, y - size / 2, size, size / 2));
+        highlight.intersect(new Area(new Ellipse2D.Float(x - size / 2, y - size / 2, size / 2, size)));
+        g.setColor(new Color(255, 255, 255, 60)); // Semi-transparent white
+        g.fill(highlight);
+        
+        // Draw a border
+        g.setStroke(new BasicStroke(2.0f));
+        g.setColor(darker(threadColor, 0.8f));
+        g.drawOval(x - size / 2, y - size / 2, size, size);
+        
+        // Draw thread ID with a shadow
+        g.setFont(LABEL_FONT);
+        int textWidth = labelMetrics.stringWidth(label);
+        g.setColor(TEXT_SHADOW);
+        g.drawString(label, x - textWidth / 2 + 1, y + 5 + 1);
+        g.setColor(Color.WHITE);
+        g.drawString(label, x - textWidth / 2, y + 5);
+        
+        // Draw state tag with rounded rectangle background
+        int stateX = x - stateWidth / 2;
+        int stateY = y + size / 2 + 6;
+        g.setColor(darker(threadColor, 0.8f));
+        g.fillRoundRect(stateX, stateY, stateWidth, stateHeight, 8, 8);
+        g.setFont(STATE_FONT);
+        g.setColor(Color.WHITE);
+        g.drawString(stateText, x - stateTextWidth / 2, stateY + 13);
+        
+        if (indicator == INDICATOR_LOCK) {
+            // Draw a lock icon
+            int lockSize = 20;
+            int lockX = x - lockSize / 2;
+            int lockY = y - size / 2 - lockSize - 3;
+            g.setColor(AMBER);
+            g.fillRoundRect(lockX, lockY + lockSize / 2, lockSize, lockSize / 2, 4, 4);
+            g.setStroke(new BasicStroke(3.0f));
+            g.drawArc(lockX + 4, lockY, lockSize - 8, lockSize / 2, 0, 180);
+        } else if (indicator == INDICATOR_ARROW) {
+            // Draw an arrow
+            int arrowSize = 12;
+            int[] xPoints = {x, x + arrowSize / 2, x - arrowSize / 2};
+            int[] yPoints = {y - size / 2 - 10, y - size / 2 - 2, y - size / 2 - 2};
+            g.setColor(AMBER);
+            g.fillPolygon(xPoints, yPoints, 3);
+        }
+        
+        g.dispose();
+        return sprite;
+    }
+    
+    private Sprite renderResource(String resourceId) {
+        int textWidth = resourceMetrics.stringWidth(resourceId);
+        int textHeight = resourceMetrics.getHeight();
+        int halfWidth = Math.max(50, textWidth / 2 + 2);
+        Sprite sprite = new Sprite(2 * halfWidth, 100, halfWidth, 50);
+        
+        Graphics2D g = sprite.image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        int x = halfWidth;
+        int y = 50;
+        
+        // Draw outer glow effect
+        g.setPaint(new RadialGradientPaint(
+            x, y, 50f,
+            new float[]{0.7f, 1.0f},
+            new Color[]{
+                new Color(33, 150, 243, 40),  // Light blue, low opacity
+                new Color(33, 150, 243, 0)    // Fully transparent at edges
+            }
+        ));
+        g.fillOval(x - 50, y - 50, 100, 100);
+        
+        // Draw inner glow
+        g.setPaint(new RadialGradientPaint(
+            x, y, 35f,
+            new float[]{0.0f, 0.8f},
+            new Color[]{
+                new Color(33, 150, 243, 70),  // Material blue, higher opacity at center
+                new Color(33, 150, 243, 20)   // Lower opacity at edge
+            }
+        ));
+        g.fillOval(x - 35, y - 35, 70, 70);
+        
+        // Draw resource circle border
+        g.setStroke(new BasicStroke(2.2f));
+        g.setColor(new Color(3, 169, 244)); // Material light blue
+        g.drawOval(x - 26, y - 26, 52, 52);
+        
+        // Draw resource ID with a shadow
+        g.setFont(RESOURCE_FONT);
+        g.setColor(TEXT_SHADOW);
+        g.drawString(resourceId, x - textWidth / 2 + 1, y + textHeight / 4 + 1);
+        g.setColor(Color.WHITE);
+        g.drawString(resourceId, x - textWidth / 2, y + textHeight / 4);
+        
+        g.dispose();
+        return sprite;
+    }
+    
+    /**
+     * @return the fill color of a thread node in the given state
+     */
+    static Color getThreadColor(ThreadState state) {
+        switch (state) {
+            case RUNNABLE:
+                return RUNNABLE_COLOR;
+            case BLOCKED:
+                return BLOCKED_COLOR;
+            case WAITING:
+            case TIMED_WAITING:
+                return WAITING_COLOR;
+            default:
+                return OTHER_COLOR;
+        }
+    }
+    
+    private static Color getGlowColor(ThreadState state, boolean locked) {
+        if (locked) {
+            return new Color(255, 193, 7, 180); // Semi-transparent amber for locked threads
+        } else if (state == ThreadState.BLOCKED) {
+            return new Color(244, 67, 54, 180);  // Semi-transparent red for blocked threads
+        } else if (state == ThreadState.RUNNABLE) {
+            return new Color(76, 175, 80, 180); // Semi-transparent green for running threads
+        } else {
+            return new Color(33, 150, 243, 180); // Semi-transparent blue for other states
+        }
+    }
+    
+    private static Color darker(Color c, float factor) {
+        return new Color(
+            Math.max((int) (c.getRed() * factor), 0),
+            Math.max((int) (c.getGreen() * factor), 0),
+            Math.max((int) (c.getBlue() * factor), 0),
+            c.getAlpha()
+        );
+    }
+    
+    private static Color lighter(Color c, float factor) {
+        return new Color(
+            Math.min((int) (c.getRed() * factor), 255),
+            Math.min((int) (c.getGreen() * factor), 255),
+            Math.min((int) (c.getBlue() * factor), 255),
+            c.getAlpha()
+        );
+    }
+    
+    /**
+     * A pre-rendered node image and the offset of the node center within it
+     */
+    public static class Sprite {
+        private final BufferedImage image;
+        private final int anchorX;
+        private final int anchorY;
+        
+        Sprite(int width, int height, int anchorX, int anchorY) {
+            this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+            this.anchorX = anchorX;
+            this.anchorY = anchorY;
+        }
+        
+        /**
+         * Draw the sprite centered on the given point
+         */
+        public void draw(Graphics2D g, int x, int y) {
+            g.drawImage(image, x - anchorX, y - anchorY, null);
+        }
+        
+        public int getWidth() {
+            return image.getWidth();
+        }
+        
+        public int getHeight() {
+            return image.getHeight();
+        }
+    }
+    
+    private static class LruMap<K, V> extends LinkedHashMap<K, V> {
+        LruMap() {
+            super(64, 0.75f, true);
+        }
+        
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,212 @@
+package com.threadviz.ui;
+
+import com.threadviz.models.ThreadEvent;
+
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Headless benchmark of the canvas draw path. For each population size it
+ * builds a synthetic scene in an offscreen {@link SimulationCanvas}: threads
+ * in varied states, sharing resources as holders and waiters, spread out by
+ * the layout. It then times full repaints into an image and reports the mean
+ * and 99th percentile frame time and the bytes allocated per frame, so
+ * rendering changes can be compared between builds.
+ * Usage: [--sizes 10,100,1000,10000,50000] [--frames 200] [--size 1280x720] [--seed 1]
+ */
+public class RenderBenchmark {
+    
+    private static final int WARMUP_FRAMES = 30;
+    private static final int LAYOUT_STEPS = 40;
+    
+    // Roughly this many threads share each resource
+    private static final int THREADS_PER_RESOURCE = 6;
+    
+    private final int width;
+    private final int height;
+    private final int frames;
+    private final long seed;
+    
+    public RenderBenchmark(int width, int height, int frames, long seed) {
+        this.width = width;
+        this.height = height;
+        this.frames = frames;
+        this.seed = seed;
+    }
+    
+    /**
+     * Build a scene of the given size and time repaints of it
+     */
+    public Result run(int threadCount) {
+        SimulationCanvas canvas = SimulationCanvas.createOffscreen(width, height);
+        populate(canvas.getSceneModel(), threadCount);
+        
+        // The first frame takes the populated snapshot, which fitting the view relies on
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        canvas.renderTo(image);
+        canvas.fitToThreads();
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            canvas.markDirty();
+            canvas.renderTo(image);
+        }
+        
+        com.sun.management.ThreadMXBean threadMXBean = allocationCounter();
+        long threadId = Thread.currentThread().getId();
+        long[] frameNanos = new long[frames];
+        long allocated = 0;
+        for (int i = 0; i < frames; i++) {
+            canvas.markDirty();
+            long bytesBefore = threadMXBean != null ? threadMXBean.getThreadAllocatedBytes(threadId) : 0;
+            long start = System.nanoTime();
+            canvas.renderTo(image);
+            frameNanos[i] = System.nanoTime() - start;
+            if (threadMXBean != null) {
+                allocated += threadMXBean.getThreadAllocatedBytes(threadId) - bytesBefore;
+            }
+        }
+        
+        return new Result(threadCount, canvas.getDetailLevel(), frameNanos,
+                threadMXBean != null ? allocated / frames : -1);
+    }
+    
+    /**
+     * Feed creation and lock events for a synthetic population to the model
+     * and let the layout spread the threads out
+     */
+    private void populate(SceneModel model, int threadCount) {
+        Random random = new Random(seed);
+        int resourceCount = Math.max(1, threadCount / THREADS_PER_RESOURCE);
+        
+        for (int i = 0; i < threadCount; i++) {
+            String name = "Worker-" + i;
+            String resource = "resource-" + random.nextInt(resourceCount);
+            model.post(new ThreadEvent(name, ThreadEvent.EventType.THREAD_CREATED, name, "Created"));
+            model.post(new ThreadEvent(name, ThreadEvent.EventType.THREAD_STARTED, name, "Started"));
+            
+            // A mix of running, holding, blocked, waiting and terminated threads
+            int kind = random.nextInt(10);
+            if (kind < 3) {
+                model.post(new ThreadEvent(name, ThreadEvent.EventType.EXECUTION, name, "Working"));
+            } else if (kind < 5) {
+                model.post(new ThreadEvent(name, ThreadEvent.EventType.LOCK_ACQUIRED, resource, "Acquired"));
+            } else if (kind < 8) {
+                model.post(new ThreadEvent(name, ThreadEvent.EventType.LOCK_WAITING, resource, "Waiting"));
+            } else if (kind < 9) {
+                model.post(new ThreadEvent(name, ThreadEvent.EventType.CONDITION_WAITING, resource, "Waiting"));
+            } else {
+                model.post(new ThreadEvent(name, ThreadEvent.EventType.THREAD_TERMINATED, name, "Terminated"));
+            }
+        }
+        
+        for (int i = 0; i < LAYOUT_STEPS; i++) {
+            model.step(true);
+        }
+    }
+    
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!bean.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        bean.setThreadAllocatedMemoryEnabled(true);
+        return bean;
+    }
+    
+    /**
+     * Frame times and allocation for one population size
+     */
+    public static class Result {
+        private final int threadCount;
+        private final LevelOfDetail.Level level;
+        private final long[] sortedFrameNanos;
+        private final long bytesPerFrame;
+        
+        Result(int threadCount, LevelOfDetail.Level level, long[] frameNanos, long bytesPerFrame) {
+            this.threadCount = threadCount;
+            this.level = level;
+            this.sortedFrameNanos = frameNanos.clone();
+            Arrays.sort(sortedFrameNanos);
+            this.bytesPerFrame = bytesPerFrame;
+        }
+        
+        public int getThreadCount() {
+            return threadCount;
+        }
+        
+        public LevelOfDetail.Level getLevel() {
+            return level;
+        }
+        
+        public double getMeanMillis() {
+            return Arrays.stream(sortedFrameNanos).average().orElse(0) / 1e6;
+        }
+        
+        public double getPercentileMillis(double percentile) {
+            int index = (int) Math.ceil(percentile / 100 * sortedFrameNanos.length) - 1;
+            return sortedFrameNanos[Math.max(0, Math.min(sortedFrameNanos.length - 1, index))] / 1e6;
+        }
+        
+        /**
+         * @return the mean number of bytes allocated per frame, or -1 if the JVM cannot tell
+         */
+        public long getBytesPerFrame() {
+            return bytesPerFrame;
+        }
+    }
+    
+    public static void main(String[] args) {
+        int[] sizes = {10, 100, 1000, 10000, 50000};
+        int frames = 200;
+        int width = 1280;
+        int height = 720;
+        long seed = 1;
+        for (int i = 0; i < args.length - 1; i++) {
+            switch (args[i]) {
+                case "--sizes":
+                    sizes = Arrays.stream(args[++i].split(",")).mapToInt(Integer::parseInt).toArray();
+                    break;
+                case "--frames":
+                    frames = Integer.parseInt(args[++i]);
+                    break;
+                case "--size":
+                    String[] size = args[++i].split("x");
+                    width = Integer.parseInt(size[0]);
+                    height = Integer.parseInt(size[1]);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                default:
+                    break;
+            }
+        }
+        
+        RenderBenchmark benchmark = new RenderBenchmark(width, height, frames, seed);
+        System.out.printf("Full repaints at %dx%d, %d frames per size%n", width, height, frames);
+        System.out.printf("%-8s %-8s %10s %10s %14s%n", "Threads", "Detail", "Mean ms", "p99 ms", "Alloc/frame");
+        for (int threadCount : sizes) {
+            Result result = benchmark.run(threadCount);
+            System.out.printf("%-8d %-8s %10.2f %10.2f %14s%n",
+                    result.getThreadCount(),
+                    result.getLevel(),
+                    result.getMeanMillis(),
+                    result.getPercentileMillis(99),
+                    result.getBytesPerFrame() >= 0 ? formatBytes(result.getBytesPerFrame()) : "n/a");
+        }
+    }
+    
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format("%.1f KB", bytes / 1024.0);
+        }
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+} 
\ No newline at end of file
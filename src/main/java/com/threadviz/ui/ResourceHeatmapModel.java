@@ -0,0 +1,272 @@
+package com.threadviz.ui;
+
+import com.threadviz.core.EventBus;
+import com.threadviz.models.ThreadEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Contention per resource over time, accumulated into a fixed grid of
+ * cells with one row per resource and one column per time bucket. Each cell
+ * holds the thread-milliseconds spent waiting on and holding the resource
+ * during its bucket. When the run outgrows the last column, neighbouring
+ * columns are merged pairwise and the bucket doubles in length, so memory
+ * and the cost of reading the grid stay the same however long the run is.
+ */
+public class ResourceHeatmapModel implements EventBus.EventListener {
+    
+    public static final int COLUMNS = 256;
+    public static final int MAX_ROWS = 64;
+    
+    private static final long INITIAL_BUCKET_MS = 50;
+    
+    // Thread-milliseconds per cell, row-major
+    private final float[] waitMillis;
+    private final float[] holdMillis;
+    
+    private final Map<String, Row> rowsByResource;
+    private final List<Row> rows;
+    
+    // Resource each thread is currently waiting on
+    private final Map<String, Row> waitingOn;
+    
+    private long startMillis;
+    private long bucketMillis;
+    
+    // Latest time accumulated, relative to the start
+    private long now;
+    
+    // First column changed since the last copy
+    private int dirtyColumn;
+    
+    public ResourceHeatmapModel() {
+        this.waitMillis = new float[MAX_ROWS * COLUMNS];
+        this.holdMillis = new float[MAX_ROWS * COLUMNS];
+        this.rowsByResource = new HashMap<>();
+        this.rows = new ArrayList<>();
+        this.waitingOn = new HashMap<>();
+        clear();
+    }
+    
+    @Override
+    public synchronized void onEvent(ThreadEvent event) {
+        String threadName = event.getThreadName();
+        long time = advance(event.getTimestamp().toEpochMilli());
+        
+        switch (event.getType()) {
+            case LOCK_WAITING:
+                stopWaiting(threadName, time);
+                Row row = getOrCreate(event.getResourceId());
+                if (row != null) {
+                    accumulate(row, time);
+                    row.waiting++;
+                    waitingOn.put(threadName, row);
+                }
+                break;
+            case LOCK_ACQUIRED:
+                stopWaiting(threadName, time);
+                row = getOrCreate(event.getResourceId());
+                if (row != null) {
+                    accumulate(row, time);
+                    row.holders.add(threadName);
+                }
+                break;
+            case LOCK_RELEASED:
+                row = rowsByResource.get(event.getResourceId());
+                if (row != null) {
+                    accumulate(row, time);
+                    row.holders.remove(threadName);
+                }
+                break;
+            case THREAD_TERMINATED:
+                stopWaiting(threadName, time);
+                for (Row r : rows) {
+                    if (r.holders.contains(threadName)) {
+                        accumulate(r, time);
+                        r.holders.remove(threadName);
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+    }
+    
+    /**
+     * Accumulate the current waiting and holding counts of all resources up
+     * to the current time, so the open column keeps filling between events.
+     */
+    public synchronized void advanceToNow() {
+        long time = advance(System.currentTimeMillis());
+        for (Row row : rows) {
+            accumulate(row, time);
+        }
+    }
+    
+    /**
+     * Copy the cells of all columns changed since the last call, as the
+     * average number of waiting threads and the average number of holders
+     * over the part of the bucket that has elapsed. Arrays are row-major
+     * with {@link #COLUMNS} cells per row.
+     * @return the first column copied, or {@link #COLUMNS} if nothing changed
+     */
+    public synchronized int copyChangedCells(float[] waiting, float[] holding) {
+        int from = dirtyColumn;
+        int current = getCurrentColumn();
+        for (int r = 0; r < rows.size(); r++) {
+            int base = r * COLUMNS;
+            for (int c = from; c < COLUMNS; c++) {
+                long elapsed = c < current ? bucketMillis : c == current ? now - c * bucketMillis : 0;
+                float scale = elapsed > 0 ? 1f / elapsed : 0;
+                waiting[base + c] = waitMillis[base + c] * scale;
+                holding[base + c] = holdMillis[base + c] * scale;
+            }
+        }
+        dirtyColumn = Math.min(COLUMNS, current);
+        return from;
+    }
+    
+    /**
+     * @return the number of resources with a row
+     */
+    public synchronized int getRowCount() {
+        return rows.size();
+    }
+    
+    public synchronized String getResourceId(int row) {
+        return rows.get(row).resourceId;
+    }
+    
+    /**
+     * @return the length of one column in milliseconds
+     */
+    public synchronized long getBucketMillis() {
+        return bucketMillis;
+    }
+    
+    /**
+     * @return the column the current time falls in
+     */
+    public synchronized int getCurrentColumn() {
+        return (int) Math.min(COLUMNS - 1, now / bucketMillis);
+    }
+    
+    /**
+     * Remove all resources and restart the clock
+     */
+    public synchronized void clear() {
+        Arrays.fill(waitMillis, 0);
+        Arrays.fill(holdMillis, 0);
+        rowsByResource.clear();
+        rows.clear();
+        waitingOn.clear();
+        startMillis = System.currentTimeMillis();
+        bucketMillis = INITIAL_BUCKET_MS;
+        now = 0;
+        dirtyColumn = 0;
+    }
+    
+    /**
+     * Move the clock to the given wall time, merging columns if it no longer fits
+     * @return the time relative to the start
+     */
+    private long advance(long epochMillis) {
+        // Keep time monotonic even if events were published slightly out of order
+        long time = Math.max(now, epochMillis - startMillis);
+        while (time >= COLUMNS * bucketMillis) {
+            downsample();
+        }
+        now = time;
+        return time;
+    }
+    
+    /**
+     * Merge each pair of columns into one, doubling the bucket length
+     */
+    private void downsample() {
+        for (int r = 0; r < rows.size(); r++) {
+            int base = r * COLUMNS;
+            for (int c = 0; c < COLUMNS / 2; c++) {
+                waitMillis[base + c] = waitMillis[base + 2 * c] + waitMillis[base + 2 * c + 1];
+                holdMillis[base + c] = holdMillis[base + 2 * c] + holdMillis[base + 2 * c + 1];
+            }
+            Arrays.fill(waitMillis, base + COLUMNS / 2, base + COLUMNS, 0);
+            Arrays.fill(holdMillis, base + COLUMNS / 2, base + COLUMNS, 0);
+        }
+        bucketMillis *= 2;
+        dirtyColumn = 0;
+    }
+    
+    /**
+     * Add the row's waiting and holding counts since its last change up to
+     * the given time to the columns that interval covers
+     */
+    private void accumulate(Row row, long until) {
+        long time = row.lastChange;
+        row.lastChange = Math.max(time, until);
+        int holding = row.holders.size();
+        if (until <= time || (row.waiting == 0 && holding == 0)) {
+            return;
+        }
+        
+        int base = row.index * COLUMNS;
+        int column = (int) (time / bucketMillis);
+        dirtyColumn = Math.min(dirtyColumn, column);
+        while (time < until) {
+            long end = Math.min(until, (column + 1) * bucketMillis);
+            long duration = end - time;
+            waitMillis[base + column] += row.waiting * duration;
+            holdMillis[base + column] += holding * duration;
+            time = end;
+            column++;
+        }
+    }
+    
+    private void stopWaiting(String threadName, long time) {
+        Row row = waitingOn.remove(threadName);
+        if (row != null) {
+            accumulate(row, time);
+            row.waiting--;
+        }
+    }
+    
+    /**
+     * @return the row of the resource, or null if there is no id or no free row
+     */
+    private Row getOrCreate(String resourceId) {
+        if (resourceId == null || resourceId.isEmpty()) {
+            return null;
+        }
+        Row row = rowsByResource.get(resourceId);
+        if (row == null && rows.size() < MAX_ROWS) {
+            row = new Row(rows.size(), resourceId, now);
+            rows.add(row);
+            rowsByResource.put(resourceId, row);
+        }
+        return row;
+    }
+    
+    /**
+     * Current waiters and holders of one resource
+     */
+    private static class Row {
+        private final int index;
+        private final String resourceId;
+        private final Set<String> holders;
+        private int waiting;
+        private long lastChange;
+        
+        Row(int index, String resourceId, long lastChange) {
+            this.index = index;
+            this.resourceId = resourceId;
+            this.holders = new HashSet<>();
+            this.lastChange = lastChange;
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,192 @@
+package com.threadviz.ui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/**
+ * Heatmap of contention per resource over time: one row per resource, time
+ * running left to right since the start of the run. Cells show either the
+ * average number of threads waiting on the resource or the share of time
+ * it was held. The model's cells are kept in a raster image one pixel per
+ * cell; each frame only the columns that changed are recolored, and the
+ * image is scaled to the panel when painted.
+ */
+public class ResourceHeatmapPanel extends JPanel {
+    
+    private static final int FRAME_INTERVAL_MS = 100;
+    private static final int LABEL_WIDTH = 110;
+    private static final int AXIS_HEIGHT = 18;
+    
+    private static final Color BACKGROUND = new Color(43, 43, 43);
+    private static final Color PANEL_BACKGROUND = new Color(51, 51, 51);
+    private static final Color TEXT = new Color(200, 200, 200);
+    
+    // Gradient from idle to hot
+    private static final Color[] GRADIENT = {
+        new Color(43, 43, 43),
+        new Color(33, 90, 160),
+        new Color(156, 39, 176),
+        new Color(244, 67, 54),
+        new Color(255, 193, 7)
+    };
+    private static final int PALETTE_SIZE = 256;
+    
+    private final ResourceHeatmapModel model;
+    private final float[] waiting;
+    private final float[] holding;
+    private final BufferedImage raster;
+    private final int[] pixels;
+    private final int[] palette;
+    
+    private final JComboBox<String> modeBox;
+    private final JComponent plot;
+    private boolean showHoldRatio;
+    
+    public ResourceHeatmapPanel(ResourceHeatmapModel model) {
+        super(new BorderLayout());
+        this.model = model;
+        this.waiting = new float[ResourceHeatmapModel.MAX_ROWS * ResourceHeatmapModel.COLUMNS];
+        this.holding = new float[ResourceHeatmapModel.MAX_ROWS * ResourceHeatmapModel.COLUMNS];
+        this.raster = new BufferedImage(ResourceHeatmapModel.COLUMNS, ResourceHeatmapModel.MAX_ROWS,
+                BufferedImage.TYPE_INT_RGB);
+        this.pixels = ((DataBufferInt) raster.getRaster().getDataBuffer()).getData();
+        this.palette = createPalette();
+        
+        setBackground(PANEL_BACKGROUND);
+        
+        plot = new JComponent() {
+            @Override
+            protected void paintComponent(Graphics g) {
+                paintHeatmap((Graphics2D) g, getWidth(), getHeight());
+            }
+        };
+        plot.setPreferredSize(new Dimension(600, 180));
+        plot.setToolTipText("Contention per resource over the whole run; columns merge as the run grows");
+        add(plot, BorderLayout.CENTER);
+        
+        JPanel controls = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 2));
+        controls.setBackground(PANEL_BACKGROUND);
+        JLabel showLabel = new JLabel("Show:");
+        showLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        showLabel.setForeground(new Color(232, 232, 232));
+        controls.add(showLabel);
+        modeBox = new JComboBox<>(new String[]{"Waiting threads", "Hold ratio"});
+        modeBox.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        modeBox.setBackground(new Color(60, 63, 65));
+        modeBox.setForeground(new Color(232, 232, 232));
+        modeBox.addActionListener(e -> {
+            showHoldRatio = modeBox.getSelectedIndex() == 1;
+            recolor(0);
+            plot.repaint();
+        });
+        controls.add(modeBox);
+        add(controls, BorderLayout.NORTH);
+        
+        // Frame timer: fold the elapsed time into the model and recolor changed columns
+        new Timer(FRAME_INTERVAL_MS, e -> {
+            model.advanceToNow();
+            if (isShowing()) {
+                int from = model.copyChangedCells(waiting, holding);
+                recolor(from);
+                plot.repaint();
+            }
+        }).start();
+    }
+    
+    /**
+     * Forget all cells, e.g. after the model was cleared
+     */
+    public void reset() {
+        Arrays.fill(waiting, 0);
+        Arrays.fill(holding, 0);
+        recolor(0);
+        plot.repaint();
+    }
+    
+    /**
+     * Recolor the raster from the given column to the end
+     */
+    private void recolor(int fromColumn) {
+        float[] values = showHoldRatio ? holding : waiting;
+        int columns = ResourceHeatmapModel.COLUMNS;
+        for (int r = 0; r < ResourceHeatmapModel.MAX_ROWS; r++) {
+            int base = r * columns;
+            for (int c = fromColumn; c < columns; c++) {
+                float value = values[base + c];
+                // Hold ratios are already 0..1; waiting counts are squashed so one waiter is half way
+                float level = showHoldRatio ? Math.min(1f, value) : value / (value + 1f);
+                pixels[base + c] = palette[(int) (level * (PALETTE_SIZE - 1))];
+            }
+        }
+    }
+    
+    private void paintHeatmap(Graphics2D g, int width, int height) {
+        g.setColor(BACKGROUND);
+        g.fillRect(0, 0, width, height);
+        
+        int rowCount = model.getRowCount();
+        long bucketMillis = model.getBucketMillis();
+        int plotWidth = Math.max(1, width - LABEL_WIDTH);
+        int plotHeight = Math.max(1, height - AXIS_HEIGHT);
+        
+        // Show at least half the columns so the scale only halves when columns merge
+        int shownColumns = Math.max(ResourceHeatmapModel.COLUMNS / 2, model.getCurrentColumn() + 1);
+        
+        if (rowCount > 0) {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+            g.drawImage(raster, LABEL_WIDTH, AXIS_HEIGHT, LABEL_WIDTH + plotWidth, AXIS_HEIGHT + plotHeight,
+                    0, 0, shownColumns, rowCount, null);
+        }
+        
+        // Time axis
+        g.setColor(PANEL_BACKGROUND);
+        g.fillRect(0, 0, width, AXIS_HEIGHT);
+        g.setFont(new Font("Segoe UI", Font.PLAIN, 10));
+        long spanMillis = shownColumns * bucketMillis;
+        long tickMs = TimelinePanel.niceStep(spanMillis * 100 / plotWidth);
+        for (long t = tickMs; t < spanMillis; t += tickMs) {
+            int x = LABEL_WIDTH + (int) (t * plotWidth / spanMillis);
+            g.setColor(new Color(68, 68, 68));
+            g.drawLine(x, AXIS_HEIGHT - 4, x, AXIS_HEIGHT);
+            g.setColor(new Color(170, 170, 170));
+            g.drawString(TimelinePanel.formatTime(t), x + 2, AXIS_HEIGHT - 5);
+        }
+        String bucket = bucketMillis < 1000 ? bucketMillis + "ms" : TimelinePanel.formatTime(bucketMillis);
+        g.drawString(bucket + " / column", 4, AXIS_HEIGHT - 5);
+        
+        // Resource labels, skipping rows when they are too thin to label
+        g.setColor(PANEL_BACKGROUND);
+        g.fillRect(0, AXIS_HEIGHT, LABEL_WIDTH, plotHeight);
+        if (rowCount == 0) {
+            return;
+        }
+        g.setFont(new Font("Segoe UI", Font.PLAIN, 9));
+        g.setColor(TEXT);
+        double rowHeight = plotHeight / (double) rowCount;
+        int every = (int) Math.ceil(12 / rowHeight);
+        for (int r = 0; r < rowCount; r += every) {
+            int y = AXIS_HEIGHT + (int) ((r + 0.5) * rowHeight) + 4;
+            g.drawString(model.getResourceId(r), 4, y);
+        }
+    }
+    
+    private static int[] createPalette() {
+        int[] palette = new int[PALETTE_SIZE];
+        int segments = GRADIENT.length - 1;
+        for (int i = 0; i < PALETTE_SIZE; i++) {
+            double position = i / (double) (PALETTE_SIZE - 1) * segments;
+            int segment = Math.min(segments - 1, (int) position);
+            double t = position - segment;
+            Color from = GRADIENT[segment];
+            Color to = GRADIENT[segment + 1];
+            int red = (int) (from.getRed() + (to.getRed() - from.getRed()) * t);
+            int green = (int) (from.getGreen() + (to.getGreen() - from.getGreen()) * t);
+            int blue = (int) (from.getBlue() + (to.getBlue() - from.getBlue()) * t);
+            palette[i] = (red << 16) | (green << 8) | blue;
+        }
+        return palette;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,465 @@
+package com.threadviz.ui;
+
+import com.threadviz.models.ThreadEvent;
+import com.threadviz.models.ThreadStateStore;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+
+/**
+ * Index of which threads currently hold or wait on each resource.
+ * Membership is updated incrementally from events: a LOCK_WAITING or
+ * CONDITION_WAITING event makes a thread a waiter, LOCK_ACQUIRED turns it
+ * into a holder and LOCK_RELEASED or termination removes it. Awaiting a
+ * condition releases its lock, so CONDITION_WAITING also ends the thread's
+ * hold on the resource. A thread waits on at most one resource at a time,
+ * so any other event from it ends its wait. Resource centroids are cached
+ * and only recomputed after membership changes or after
+ * {@link #invalidateCentroids()} when threads have moved.
+ * <p>
+ * Threads are referred to by their index in the {@link ThreadStateStore}
+ * and resources by the store's interned resource ids, so membership is kept
+ * in int arrays: per thread the resource it waits on and a list of the
+ * resources it holds, threaded through a shared pool of entries, and per
+ * resource arrays of holders and waiters. The index belongs to the scene
+ * model and is only used from its thread.
+ */
+public class ResourceIndex {
+    
+    private static final int NONE = -1;
+    
+    private final ThreadStateStore threads;
+    
+    // By resource id; resources without members stay allocated for reuse
+    private Resource[] resources;
+    // Ids of the resources that have members
+    private int[] active;
+    private int activeCount;
+    
+    // By thread index
+    private int[] waitingOn;
+    private int[] waiterSlot;
+    private int[] firstHeld;
+    
+    // Pool of held-resource entries, each linking to the thread's next one or the next free one
+    private int[] entryResource;
+    private int[] entryNext;
+    private int entryCount;
+    private int freeEntry;
+    
+    public ResourceIndex(ThreadStateStore threads) {
+        this.threads = threads;
+        this.resources = new Resource[16];
+        this.active = new int[16];
+        this.waitingOn = new int[0];
+        this.waiterSlot = new int[0];
+        this.firstHeld = new int[0];
+        this.entryResource = new int[64];
+        this.entryNext = new int[64];
+        this.freeEntry = NONE;
+    }
+    
+    /**
+     * Update the membership of the thread the event belongs to
+     */
+    public void apply(int thread, ThreadEvent event) {
+        ensureThread(thread);
+        String resourceId = event.getResourceId();
+        
+        switch (event.getType()) {
+            case CONDITION_WAITING:
+                stopWaiting(thread);
+                if (resourceId != null && !resourceId.isEmpty()) {
+                    Resource resource = getOrCreate(resourceId);
+                    release(thread, resource);
+                    startWaiting(thread, resource);
+                }
+                break;
+            case LOCK_WAITING:
+                stopWaiting(thread);
+                if (resourceId != null && !resourceId.isEmpty()) {
+                    startWaiting(thread, getOrCreate(resourceId));
+                }
+                break;
+            case LOCK_ACQUIRED:
+                stopWaiting(thread);
+                if (resourceId != null && !resourceId.isEmpty()) {
+                    hold(thread, getOrCreate(resourceId));
+                }
+                break;
+            case LOCK_RELEASED:
+                stopWaiting(thread);
+                if (resourceId != null) {
+                    Resource resource = get(threads.indexOfResource(resourceId));
+                    if (resource != null) {
+                        release(thread, resource);
+                    }
+                }
+                break;
+            case THREAD_TERMINATED:
+                remove(thread);
+                break;
+            case DEADLOCK_DETECTED:
+                // Still waiting on whatever it was waiting on
+                break;
+            default:
+                stopWaiting(thread);
+                break;
+        }
+    }
+    
+    /**
+     * Remove a thread from every resource it holds or waits on
+     */
+    public void remove(int thread) {
+        if (thread >= firstHeld.length) {
+            return;
+        }
+        stopWaiting(thread);
+        while (firstHeld[thread] != NONE) {
+            release(thread, resources[entryResource[firstHeld[thread]]]);
+        }
+    }
+    
+    /**
+     * @return true if the thread holds the resource with the given interned id
+     */
+    public boolean isHolding(int thread, int resource) {
+        if (thread >= firstHeld.length) {
+            return false;
+        }
+        for (int entry = firstHeld[thread]; entry != NONE; entry = entryNext[entry]) {
+            if (entryResource[entry] == resource) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Mark all centroids stale, e.g. after the layout moved threads
+     */
+    public void invalidateCentroids() {
+        for (int i = 0; i < activeCount; i++) {
+            resources[active[i]].centroidValid = false;
+        }
+    }
+    
+    /**
+     * @return the centroid of the holders and waiters of a resource, or null if it has none
+     */
+    public Point2D getCentroid(String resourceId) {
+        Resource resource = get(threads.indexOfResource(resourceId));
+        if (resource == null || resource.getMemberCount() == 0) {
+            return null;
+        }
+        resource.updateCentroid();
+        return new Point2D.Double(resource.centroidX, resource.centroidY);
+    }
+    
+    /**
+     * @return the bounding box of the members of every resource the thread
+     *         holds or waits on, or null if it is not a member of any
+     */
+    public Rectangle2D getBounds(int thread) {
+        if (thread >= firstHeld.length) {
+            return null;
+        }
+        Rectangle2D bounds = null;
+        for (int entry = firstHeld[thread]; entry != NONE; entry = entryNext[entry]) {
+            bounds = union(bounds, resources[entryResource[entry]]);
+        }
+        if (waitingOn[thread] != NONE) {
+            bounds = union(bounds, resources[waitingOn[thread]]);
+        }
+        return bounds;
+    }
+    
+    /**
+     * Visit every resource that currently has a holder or a waiter
+     */
+    public void forEachResource(ResourceVisitor visitor) {
+        for (int i = 0; i < activeCount; i++) {
+            Resource resource = resources[active[i]];
+            resource.updateCentroid();
+            visitor.visit(resource);
+        }
+    }
+    
+    /**
+     * Forget all resources and memberships
+     */
+    public void clear() {
+        Arrays.fill(resources, null);
+        activeCount = 0;
+        waitingOn = new int[0];
+        waiterSlot = new int[0];
+        firstHeld = new int[0];
+        entryCount = 0;
+        freeEntry = NONE;
+    }
+    
+    private static Rectangle2D union(Rectangle2D bounds, Resource resource) {
+        resource.updateCentroid();
+        Rectangle2D.Double area = new Rectangle2D.Double(resource.boundsMinX, resource.boundsMinY,
+                resource.boundsMaxX - resource.boundsMinX, resource.boundsMaxY - resource.boundsMinY);
+        if (bounds != null) {
+            area.add(bounds);
+        }
+        return area;
+    }
+    
+    private void ensureThread(int thread) {
+        if (thread < firstHeld.length) {
+            return;
+        }
+        int capacity = Math.max(64, Math.max(thread + 1, firstHeld.length * 2));
+        int from = firstHeld.length;
+        waitingOn = Arrays.copyOf(waitingOn, capacity);
+        waiterSlot = Arrays.copyOf(waiterSlot, capacity);
+        firstHeld = Arrays.copyOf(firstHeld, capacity);
+        Arrays.fill(waitingOn, from, capacity, NONE);
+        Arrays.fill(firstHeld, from, capacity, NONE);
+    }
+    
+    private Resource get(int id) {
+        return id >= 0 && id < resources.length ? resources[id] : null;
+    }
+    
+    private Resource getOrCreate(String resourceId) {
+        int id = threads.internResource(resourceId);
+        if (id >= resources.length) {
+            resources = Arrays.copyOf(resources, Math.max(id + 1, resources.length * 2));
+        }
+        Resource resource = resources[id];
+        if (resource == null) {
+            resource = new Resource(id, resourceId, threads);
+            resources[id] = resource;
+        }
+        return resource;
+    }
+    
+    private void startWaiting(int thread, Resource resource) {
+        waiterSlot[thread] = resource.waiterCount;
+        resource.waiters = append(resource.waiters, resource.waiterCount++, thread);
+        resource.centroidValid = false;
+        waitingOn[thread] = resource.index;
+        activate(resource);
+    }
+    
+    private void stopWaiting(int thread) {
+        int id = waitingOn[thread];
+        if (id == NONE) {
+            return;
+        }
+        waitingOn[thread] = NONE;
+        Resource resource = resources[id];
+        
+        // Move the last waiter into the leaving thread's slot
+        int slot = waiterSlot[thread];
+        int last = resource.waiters[--resource.waiterCount];
+        resource.waiters[slot] = last;
+        waiterSlot[last] = slot;
+        resource.centroidValid = false;
+        deactivateIfEmpty(resource);
+    }
+    
+    private void hold(int thread, Resource resource) {
+        for (int i = 0; i < resource.holderCount; i++) {
+            if (resource.holders[i] == thread) {
+                return;
+            }
+        }
+        resource.holders = append(resource.holders, resource.holderCount++, thread);
+        resource.centroidValid = false;
+        activate(resource);
+        
+        int entry = freeEntry;
+        if (entry != NONE) {
+            freeEntry = entryNext[entry];
+        } else {
+            if (entryCount == entryResource.length) {
+                entryResource = Arrays.copyOf(entryResource, entryCount * 2);
+                entryNext = Arrays.copyOf(entryNext, entryCount * 2);
+            }
+            entry = entryCount++;
+        }
+        entryResource[entry] = resource.index;
+        entryNext[entry] = firstHeld[thread];
+        firstHeld[thread] = entry;
+    }
+    
+    private void release(int thread, Resource resource) {
+        int found = NONE;
+        for (int i = 0; i < resource.holderCount; i++) {
+            if (resource.holders[i] == thread) {
+                found = i;
+                break;
+            }
+        }
+        if (found == NONE) {
+            return;
+        }
+        // Holders are few, so keep them in order of acquisition
+        System.arraycopy(resource.holders, found + 1, resource.holders, found, resource.holderCount - found - 1);
+        resource.holderCount--;
+        resource.centroidValid = false;
+        
+        int previous = NONE;
+        for (int entry = firstHeld[thread]; entry != NONE; previous = entry, entry = entryNext[entry]) {
+            if (entryResource[entry] == resource.index) {
+                if (previous == NONE) {
+                    firstHeld[thread] = entryNext[entry];
+                } else {
+                    entryNext[previous] = entryNext[entry];
+                }
+                entryNext[entry] = freeEntry;
+                freeEntry = entry;
+                break;
+            }
+        }
+        deactivateIfEmpty(resource);
+    }
+    
+    private void activate(Resource resource) {
+        if (resource.activeSlot != NONE) {
+            return;
+        }
+        if (activeCount == active.length) {
+            active = Arrays.copyOf(active, activeCount * 2);
+        }
+        resource.activeSlot = activeCount;
+        active[activeCount++] = resource.index;
+    }
+    
+    private void deactivateIfEmpty(Resource resource) {
+        if (resource.getMemberCount() > 0 || resource.activeSlot == NONE) {
+            return;
+        }
+        int last = active[--activeCount];
+        active[resource.activeSlot] = last;
+        resources[last].activeSlot = resource.activeSlot;
+        resource.activeSlot = NONE;
+    }
+    
+    private static int[] append(int[] array, int count, int value) {
+        if (count == array.length) {
+            array = Arrays.copyOf(array, Math.max(4, count * 2));
+        }
+        array[count] = value;
+        return array;
+    }
+    
+    /**
+     * Current holders and waiters of one resource. Only valid inside a visitor.
+     */
+    public static class Resource {
+        private final int index;
+        private final String id;
+        private final ThreadStateStore threads;
+        private int[] holders = new int[2];
+        private int holderCount;
+        private int[] waiters = new int[0];
+        private int waiterCount;
+        private int activeSlot = NONE;
+        
+        private boolean centroidValid;
+        private double centroidX;
+        private double centroidY;
+        
+        // Bounding box of the members, computed together with the centroid
+        private double boundsMinX, boundsMinY, boundsMaxX, boundsMaxY;
+        
+        Resource(int index, String id, ThreadStateStore threads) {
+            this.index = index;
+            this.id = id;
+            this.threads = threads;
+        }
+        
+        public String getId() {
+            return id;
+        }
+        
+        public int getHolderCount() {
+            return holderCount;
+        }
+        
+        /**
+         * @return the index of a thread holding the resource, in order of acquisition
+         */
+        public int getHolder(int i) {
+            return holders[i];
+        }
+        
+        public int getWaiterCount() {
+            return waiterCount;
+        }
+        
+        /**
+         * @return the index of a thread waiting on the resource
+         */
+        public int getWaiter(int i) {
+            return waiters[i];
+        }
+        
+        public int getMemberCount() {
+            return holderCount + waiterCount;
+        }
+        
+        /**
+         * @return the mean x position of the holders and waiters
+         */
+        public double getCentroidX() {
+            updateCentroid();
+            return centroidX;
+        }
+        
+        /**
+         * @return the mean y position of the holders and waiters
+         */
+        public double getCentroidY() {
+            updateCentroid();
+            return centroidY;
+        }
+        
+        private void updateCentroid() {
+            if (centroidValid) {
+                return;
+            }
+            double sumX = 0, sumY = 0;
+            boundsMinX = boundsMinY = Double.MAX_VALUE;
+            boundsMaxX = boundsMaxY = -Double.MAX_VALUE;
+            for (int i = 0; i < holderCount; i++) {
+                sumX += threads.getX(holders[i]);
+                sumY += threads.getY(holders[i]);
+                include(holders[i]);
+            }
+            for (int i = 0; i < waiterCount; i++) {
+                sumX += threads.getX(waiters[i]);
+                sumY += threads.getY(waiters[i]);
+                include(waiters[i]);
+            }
+            int count = getMemberCount();
+            if (count > 0) {
+                centroidX = sumX / count;
+                centroidY = sumY / count;
+            }
+            centroidValid = true;
+        }
+        
+        private void include(int thread) {
+            boundsMinX = Math.min(boundsMinX, threads.getX(thread));
+            boundsMinY = Math.min(boundsMinY, threads.getY(thread));
+            boundsMaxX = Math.max(boundsMaxX, threads.getX(thread));
+            boundsMaxY = Math.max(boundsMaxY, threads.getY(thread));
+        }
+    }
+    
+    /**
+     * Callback for resources visited in the index
+     */
+    public interface ResourceVisitor {
+        void visit(Resource resource);
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,286 @@
+package com.threadviz.ui;
+
+import com.threadviz.models.ThreadEvent;
+import com.threadviz.models.ThreadStateStore;
+
+import java.awt.geom.Rectangle2D;
+import java.lang.management.ThreadInfo;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Owns the thread state store, the resource index and the layout, and is the only
+ * thread that changes them. Events and JVM samples are queued from any thread
+ * and applied on the next tick; after each tick that changed something, the
+ * model copies its state into a {@link SceneSnapshot} and publishes it through
+ * a {@link TripleBuffer}, so the renderer never takes a lock and never sees a
+ * half-applied update. Listeners are told which world area changed.
+ */
+public class SceneModel {
+    private static final long TICK_MS = 16;
+    
+    // The layout is tuned for this interval, so it advances every other tick
+    public static final long LAYOUT_INTERVAL_MS = 32;
+    private static final int LAYOUT_EVERY_TICKS = (int) (LAYOUT_INTERVAL_MS / TICK_MS);
+    
+    // New threads appear within this distance of the world origin
+    private static final double SPAWN_RADIUS = 150;
+    
+    // Lower bound for the half size of a node with its label and state tag, in world units
+    private static final double NODE_EXTENT = 64;
+    private static final double GRID_CELL = 128;
+    
+    private final Queue<Object> inbox;
+    private final List<SceneListener> listeners;
+    private final TripleBuffer<SceneSnapshot> snapshots;
+    private volatile boolean clearRequested;
+    
+    // Scene model thread only
+    private final ThreadStateStore threads;
+    private final ResourceIndex resourceIndex;
+    private final ForceLayout layout;
+    private Rectangle2D damagedArea;
+    private boolean everythingChanged;
+    private long tickCount;
+    
+    private ScheduledExecutorService scheduler;
+    
+    public SceneModel() {
+        this.inbox = new ConcurrentLinkedQueue<>();
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.snapshots = new TripleBuffer<>(SceneSnapshot::new);
+        this.threads = new ThreadStateStore();
+        this.resourceIndex = new ResourceIndex(threads);
+        this.layout = new ForceLayout(threads, resourceIndex);
+    }
+    
+    /**
+     * Start ticking on a background daemon thread
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r);
+            t.setDaemon(true);
+            t.setName("Scene-Model");
+            return t;
+        });
+        scheduler.scheduleAtFixedRate(this::tick, 0, TICK_MS, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Stop ticking
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+    
+    /**
+     * Queue an event for the next tick. Safe to call from any thread.
+     */
+    public void post(ThreadEvent event) {
+        inbox.add(event);
+    }
+    
+    /**
+     * Queue a JVM sample for the next tick. Safe to call from any thread.
+     */
+    public void post(List<ThreadInfo> sample) {
+        inbox.add(sample);
+    }
+    
+    /**
+     * Remove all threads and resources on the next tick. Safe to call from any thread.
+     */
+    public void clear() {
+        clearRequested = true;
+    }
+    
+    /**
+     * Take the latest published snapshot. It stays unchanged until the next
+     * call, and only one thread may call this.
+     */
+    public SceneSnapshot acquireSnapshot() {
+        return snapshots.acquire();
+    }
+    
+    /**
+     * @return the snapshot returned by the last {@link #acquireSnapshot()}
+     */
+    public SceneSnapshot getSnapshot() {
+        return snapshots.getFront();
+    }
+    
+    public void addSceneListener(SceneListener listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeSceneListener(SceneListener listener) {
+        listeners.remove(listener);
+    }
+    
+    /**
+     * Apply all queued input, advance the layout by one tick and publish a
+     * snapshot if anything changed. Called by the model thread once started;
+     * before that it may be called from a single other thread to drive the
+     * model synchronously.
+     */
+    public void step() {
+        step(true);
+    }
+    
+    private void tick() {
+        try {
+            step(++tickCount % LAYOUT_EVERY_TICKS == 0);
+        } catch (Exception e) {
+            System.err.println("Error in scene model tick: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Apply all queued input and publish a snapshot if anything changed, like
+     * {@link #step()}, but only advance the layout if asked to. Lets a caller
+     * driving the model synchronously run the layout at its own rate.
+     */
+    @SuppressWarnings("unchecked")
+    public void step(boolean advanceLayout) {
+        if (clearRequested) {
+            clearRequested = false;
+            threads.clear();
+            resourceIndex.clear();
+            layout.clear();
+            everythingChanged = true;
+        }
+        
+        Object input;
+        while ((input = inbox.poll()) != null) {
+            if (input instanceof ThreadEvent) {
+                apply((ThreadEvent) input);
+            } else {
+                apply((List<ThreadInfo>) input);
+            }
+        }
+        
+        if (advanceLayout && layout.step()) {
+            everythingChanged = true;
+        }
+        
+        if (!everythingChanged && damagedArea == null) {
+            return;
+        }
+        
+        snapshots.getBack().fill(threads, resourceIndex, GRID_CELL);
+        snapshots.publish();
+        
+        // Only announced after publishing, so a reader that hears of a change always finds it
+        Rectangle2D area = everythingChanged ? null : damagedArea;
+        everythingChanged = false;
+        damagedArea = null;
+        for (SceneListener listener : listeners) {
+            listener.onSceneChanged(area);
+        }
+    }
+    
+    private void apply(ThreadEvent event) {
+        int thread = threads.indexOf(event.getThreadName());
+        
+        if (thread == ThreadStateStore.NO_THREAD && event.getType() == ThreadEvent.EventType.THREAD_CREATED) {
+            // Create a thread in a circular area around the world origin, which the layout pulls towards
+            double angle = Math.random() * 2 * Math.PI; // Random angle
+            double distance = Math.sqrt(Math.random()) * SPAWN_RADIUS; // Square root for better radial distribution
+            
+            thread = threads.add(event.getThreadName(), Math.cos(angle) * distance, Math.sin(angle) * distance);
+            layout.add(thread);
+        }
+        
+        if (thread == ThreadStateStore.NO_THREAD) {
+            return;
+        }
+        
+        // Connection lines of the event's resource change with its membership,
+        // so the area the members of the thread's resources cover before and
+        // after the update changes
+        Rectangle2D area = nodeArea(thread);
+        Rectangle2D before = resourceIndex.getBounds(thread);
+        
+        threads.updateFromEvent(thread, event);
+        resourceIndex.apply(thread, event);
+        threads.setHolding(thread, resourceIndex.isHolding(thread, threads.getResource(thread)));
+        if (event.getResourceId() != null) {
+            // Holders and waiters are pulled together, so the layout has to move again
+            layout.reheat();
+        }
+        
+        Rectangle2D after = resourceIndex.getBounds(thread);
+        for (Rectangle2D bounds : new Rectangle2D[]{before, after}) {
+            if (bounds != null) {
+                area.add(new Rectangle2D.Double(bounds.getX() - NODE_EXTENT, bounds.getY() - NODE_EXTENT,
+                        bounds.getWidth() + 2 * NODE_EXTENT, bounds.getHeight() + 2 * NODE_EXTENT));
+            }
+        }
+        damage(area);
+    }
+    
+    private void apply(List<ThreadInfo> sample) {
+        for (ThreadInfo info : sample) {
+            int thread = threads.indexOf(info.getThreadName());
+            if (thread == ThreadStateStore.NO_THREAD) continue;
+            
+            byte oldState = threads.getState(thread).code();
+            int oldOwner = threads.getLockOwner(thread);
+            threads.updateFromThreadInfo(thread, info);
+            if (oldState == threads.getState(thread).code() && oldOwner == threads.getLockOwner(thread)) {
+                continue;
+            }
+            
+            // The node changed, and so did any line to the old or new lock owner
+            Rectangle2D changed = nodeArea(thread);
+            for (int owner : new int[]{oldOwner, threads.getLockOwner(thread)}) {
+                if (owner != ThreadStateStore.NO_THREAD) {
+                    changed.add(nodeArea(owner));
+                }
+            }
+            damage(changed);
+        }
+    }
+    
+    private void damage(Rectangle2D area) {
+        if (damagedArea == null) {
+            damagedArea = area;
+        } else {
+            damagedArea.add(area);
+        }
+    }
+    
+    /**
+     * @return the world area covered by a thread node, its label and state tag
+     */
+    private Rectangle2D nodeArea(int thread) {
+        // Labels are drawn in a 13 pt bold font, which is rarely wider than 9 px per character
+        double extent = Math.max(NODE_EXTENT, 5 * threads.getName(thread).length() + 8);
+        double x = threads.getX(thread);
+        double y = threads.getY(thread);
+        return new Rectangle2D.Double(x - extent, y - extent, 2 * extent, 2 * extent);
+    }
+    
+    /**
+     * Interface for scene listeners, notified after each published snapshot
+     */
+    public interface SceneListener {
+        /**
+         * @param damagedArea World area that changed since the previous snapshot,
+         *                    or null if everything may have changed
+         */
+        void onSceneChanged(Rectangle2D damagedArea);
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,172 @@
+package com.threadviz.ui;
+
+import com.threadviz.models.ThreadStateStore;
+
+import java.util.Arrays;
+
+/**
+ * Everything the canvas needs to draw one frame: a copy of the thread state
+ * store, a spatial index over the live threads and the resources with their
+ * members. A snapshot is filled by the scene model thread and then handed to
+ * the renderer through a {@link TripleBuffer}, so while the renderer holds it
+ * nothing changes it. The arrays are reused when the buffer is filled again.
+ */
+public class SceneSnapshot {
+    
+    private final ThreadStateStore threads = new ThreadStateStore();
+    private int[] live = new int[0];
+    private double[] liveX = new double[0];
+    private double[] liveY = new double[0];
+    private int liveCount;
+    private final SpatialGrid grid = new SpatialGrid();
+    
+    private ResourceSnapshot[] resources = new ResourceSnapshot[0];
+    private int resourceCount;
+    
+    /**
+     * @return the state of all threads, by the same indices as in the model
+     */
+    public ThreadStateStore getThreads() {
+        return threads;
+    }
+    
+    /**
+     * @return the number of threads that have not terminated
+     */
+    public int getLiveCount() {
+        return liveCount;
+    }
+    
+    /**
+     * @return an index of the live threads by position
+     */
+    public SpatialGrid getGrid() {
+        return grid;
+    }
+    
+    public int getResourceCount() {
+        return resourceCount;
+    }
+    
+    public ResourceSnapshot getResource(int index) {
+        return resources[index];
+    }
+    
+    /**
+     * Replace the contents with the threads of the model and the current
+     * resource memberships. Scene model thread only.
+     */
+    void fill(ThreadStateStore source, ResourceIndex resourceIndex, double gridCell) {
+        threads.copyFrom(source);
+        
+        int size = threads.size();
+        if (live.length < size) {
+            int capacity = Math.max(64, Math.max(size, live.length * 2));
+            live = new int[capacity];
+            liveX = new double[capacity];
+            liveY = new double[capacity];
+        }
+        liveCount = 0;
+        for (int i = 0; i < size; i++) {
+            if (threads.isTerminated(i)) continue;
+            
+            live[liveCount] = i;
+            liveX[liveCount] = threads.getX(i);
+            liveY[liveCount] = threads.getY(i);
+            liveCount++;
+        }
+        grid.rebuild(live, liveX, liveY, liveCount, gridCell);
+        
+        resourceCount = 0;
+        resourceIndex.forEachResource(resource -> {
+            if (resourceCount == resources.length) {
+                resources = Arrays.copyOf(resources, Math.max(16, resourceCount * 2));
+            }
+            ResourceSnapshot copy = resources[resourceCount];
+            if (copy == null) {
+                copy = new ResourceSnapshot();
+                resources[resourceCount] = copy;
+            }
+            copy.fill(resource, threads);
+            resourceCount++;
+        });
+    }
+    
+    /**
+     * Holders and waiters of one resource at the time of the snapshot
+     */
+    public static class ResourceSnapshot {
+        private String id;
+        private double centroidX;
+        private double centroidY;
+        private double minX, minY, maxX, maxY;
+        private int[] members = new int[4];
+        private int holderCount;
+        private int memberCount;
+        
+        public String getId() {
+            return id;
+        }
+        
+        public double getCentroidX() {
+            return centroidX;
+        }
+        
+        public double getCentroidY() {
+            return centroidY;
+        }
+        
+        public int getHolderCount() {
+            return holderCount;
+        }
+        
+        public int getWaiterCount() {
+            return memberCount - holderCount;
+        }
+        
+        public int getMemberCount() {
+            return memberCount;
+        }
+        
+        /**
+         * @return the thread index of a holder or waiter; holders come first
+         */
+        public int getMember(int index) {
+            return members[index];
+        }
+        
+        /**
+         * @return true if no member lies inside the given world rectangle's bounding box
+         */
+        public boolean isOutside(double fromX, double fromY, double toX, double toY) {
+            return maxX < fromX || minX > toX || maxY < fromY || minY > toY;
+        }
+        
+        private void fill(ResourceIndex.Resource resource, ThreadStateStore threads) {
+            id = resource.getId();
+            centroidX = resource.getCentroidX();
+            centroidY = resource.getCentroidY();
+            minX = minY = Double.MAX_VALUE;
+            maxX = maxY = -Double.MAX_VALUE;
+            memberCount = 0;
+            for (int i = 0; i < resource.getHolderCount(); i++) {
+                add(resource.getHolder(i), threads);
+            }
+            holderCount = memberCount;
+            for (int i = 0; i < resource.getWaiterCount(); i++) {
+                add(resource.getWaiter(i), threads);
+            }
+        }
+        
+        private void add(int member, ThreadStateStore threads) {
+            if (memberCount == members.length) {
+                members = Arrays.copyOf(members, memberCount * 2);
+            }
+            members[memberCount++] = member;
+            minX = Math.min(minX, threads.getX(member));
+            minY = Math.min(minY, threads.getY(member));
+            maxX = Math.max(maxX, threads.getX(member));
+            maxY = Math.max(maxY, threads.getY(member));
+        }
+    }
+} 
\ No newline at end of file
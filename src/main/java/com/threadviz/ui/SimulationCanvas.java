@@ -1,46 +1,159 @@
 package com.threadviz.ui;
 
 import com.threadviz.core.EventBus;
+import com.threadviz.core.EventBusStats;
+import com.threadviz.core.ThreadStateSampler;
 import com.threadviz.models.ThreadEvent;
-import com.threadviz.models.ThreadVisual;
+import com.threadviz.models.ThreadStateStore;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ComponentAdapter;
 import java.awt.event.ComponentEvent;
-import java.awt.geom.Area;
-import java.awt.geom.Ellipse2D;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferStrategy;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.lang.management.ThreadInfo;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Canvas for visualizing thread simulations in real-time.
  */
-public class SimulationCanvas extends Canvas implements EventBus.EventListener {
+public class SimulationCanvas extends Canvas implements EventBus.EventListener, ThreadStateSampler.SampleListener {
     
-    private final Map<String, ThreadVisual> threadVisuals;
-    private final Map<String, List<ThreadVisual>> resourceMapping;
-    private final List<ThreadEvent> recentEvents;
-    private final int maxRecentEvents = 10;
+    private final SceneModel model;
+    private final Camera camera;
     
     private int width;
     private int height;
     
+    // Frame loop: events only mark the canvas dirty, the frame timer paints
+    private static final int DEFAULT_TARGET_FPS = 60;
+    private final Timer frameTimer;
+    private volatile boolean dirty;
+    
+    // Background and grid, rendered once per canvas size and zoom level
+    private static final int GRID_SIZE = 50;
+    private BufferedImage staticLayer;
+    private BufferedImage centerMarker;
+    
+    // Visible world rectangle of the frame being drawn, including a margin
+    private double viewMinX, viewMinY, viewMaxX, viewMaxY;
+    
+    // Paint used every frame, so drawing allocates no colors, strokes or fonts
+    private static final Color CONNECTION_LOCKED_COLOR = new Color(255, 193, 7, 180); // Amber
+    private static final Color CONNECTION_COLOR = new Color(33, 150, 243, 180);       // Blue
+    private static final BasicStroke CONNECTION_STROKE = new BasicStroke(1.8f, BasicStroke.CAP_ROUND,
+            BasicStroke.JOIN_ROUND, 0, new float[]{8.0f, 4.0f}, 0);
+    private static final Color LOCK_OWNER_COLOR = new Color(244, 67, 54, 160);        // Semi-transparent red
+    private static final Color CLUSTER_COLOR = new Color(3, 169, 244);                // Material light blue
+    private static final Color HOVER_COLOR = new Color(255, 255, 255, 200);
+    private static final Color BOX_BACKGROUND = new Color(30, 30, 30, 220);
+    private static final Color DIAGNOSTICS_BACKGROUND = new Color(30, 30, 30, 210);
+    private static final Color BOX_BORDER = new Color(68, 68, 68);
+    private static final Color BOX_TEXT = new Color(232, 232, 232);
+    private static final Color WARNING_COLOR = new Color(183, 28, 28, 220);           // Dark red
+    private static final BasicStroke THIN_STROKE = new BasicStroke(1.5f);
+    private static final BasicStroke HOVER_STROKE = new BasicStroke(2.0f);
+    private static final Font WARNING_FONT = new Font("Segoe UI", Font.BOLD, 13);
+    private static final Font DIAGNOSTICS_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 11);
+    
+    // Connection lines of the frame being drawn, one path per color
+    private final Path2D.Float lockedConnections = new Path2D.Float();
+    private final Path2D.Float connections = new Path2D.Float();
+    
+    // Level of detail, chosen per frame from thread count and frame time
+    private static final int DOT_SIZE = 6;
+    private static final int HEATMAP_CELL = 8;
+    private static final Font CLUSTER_FONT = new Font("Segoe UI", Font.PLAIN, 11);
+    private final LevelOfDetail levelOfDetail = new LevelOfDetail();
+    private BufferedImage heatmapImage;
+    private int[] heatmapCounts;
+    
+    // Scene buffer that survives between frames, so only damaged areas need redrawing
+    private final AtomicReference<Rectangle2D> damagedArea = new AtomicReference<>();
+    private final AtomicBoolean fullRepaint = new AtomicBoolean(true);
+    private BufferedImage scene;
+    
+    // Margin around the viewport, in world units, so partly visible nodes are still drawn
+    private static final double VIEW_MARGIN = 60;
+    
+    // Hit-testing: the thread under the mouse gets an info box
+    private static final double HIT_RADIUS = 22;
+    private volatile int hoveredThread = ThreadStateStore.NO_THREAD;
+    private volatile Point hoverPoint;
+    
+    // Pre-rendered thread and resource nodes, only used while drawing
+    private final NodeSpriteCache sprites;
+    private volatile boolean spritesStale;
+    
+    // EventBus health overlay
+    private static final int STATS_INTERVAL_MS = 500;
+    private final Timer statsTimer;
+    private volatile boolean diagnosticsVisible;
+    private volatile long lagWarningThresholdMillis;
+    private volatile EventBusStats.Snapshot previousStats;
+    private volatile EventBusStats.Snapshot currentStats;
+    
+    // False for an offscreen canvas, which is driven by the caller instead of the event bus and timers
+    private final boolean live;
+    
     public SimulationCanvas(int width, int height) {
+        this(width, height, true);
+    }
+    
+    private SimulationCanvas(int width, int height, boolean live) {
+        this.live = live;
         this.width = width;
         this.height = height;
-        this.threadVisuals = new ConcurrentHashMap<>();
-        this.resourceMapping = new HashMap<>();
-        this.recentEvents = new ArrayList<>();
+        this.model = new SceneModel();
+        this.camera = new Camera(width, height);
+        this.sprites = new NodeSpriteCache();
         
         // Set the canvas size
         setSize(width, height);
         
-        // Register as event listener
-        EventBus.getInstance().addEventListener(this);
+        // Redraw what each published snapshot changed
+        model.addSceneListener(area -> {
+            if (area == null) {
+                markDirty();
+            } else {
+                markDirty(area);
+            }
+        });
+        
+        frameTimer = new Timer(1000 / DEFAULT_TARGET_FPS, e -> {
+            if (dirty) {
+                dirty = false;
+                render();
+            }
+        });
+        frameTimer.setCoalesce(true);
+        
+        // Sample EventBus health periodically for rates and lag
+        statsTimer = new Timer(STATS_INTERVAL_MS, e -> {
+            previousStats = currentStats;
+            currentStats = EventBus.getInstance().getStatsSnapshot();
+            if (diagnosticsVisible || lagWarningThresholdMillis > 0) {
+                markOverlayDirty();
+            }
+        });
+        
+        // The rest of the setup only applies to a canvas on screen
+        if (!live) {
+            return;
+        }
         
         // Set up resize handling
         addComponentListener(new ComponentAdapter() {
@@ -48,582 +161,847 @@ public class SimulationCanvas extends Canvas implements EventBus.EventListener {
             public void componentResized(ComponentEvent e) {
                 SimulationCanvas.this.width = getWidth();
                 SimulationCanvas.this.height = getHeight();
-                repaint();
+                camera.setViewSize(getWidth(), getHeight());
+                markDirty();
+            }
+        });
+        
+        // D toggles the diagnostics overlay, F fits all threads in view, 0 resets the view
+        setFocusable(true);
+        addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (e.getKeyCode() == KeyEvent.VK_D) {
+                    setDiagnosticsVisible(!diagnosticsVisible);
+                } else if (e.getKeyCode() == KeyEvent.VK_F) {
+                    fitToThreads();
+                } else if (e.getKeyCode() == KeyEvent.VK_0) {
+                    camera.reset();
+                    markDirty();
+                }
             }
         });
+        
+        // Drag to pan, wheel to zoom around the cursor, hover to inspect a thread
+        MouseAdapter mouseHandler = new MouseAdapter() {
+            private Point dragStart;
+            
+            @Override
+            public void mousePressed(MouseEvent e) {
+                dragStart = e.getPoint();
+                requestFocusInWindow();
+            }
+            
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (dragStart != null) {
+                    camera.pan(e.getX() - dragStart.x, e.getY() - dragStart.y);
+                    dragStart = e.getPoint();
+                    markDirty();
+                }
+            }
+            
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                dragStart = null;
+            }
+            
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                camera.zoomAt(e.getX(), e.getY(), Math.pow(1.15, -e.getPreciseWheelRotation()));
+                markDirty();
+            }
+            
+            @Override
+            public void mouseMoved(MouseEvent e) {
+                updateHover(e.getX(), e.getY());
+            }
+            
+            @Override
+            public void mouseExited(MouseEvent e) {
+                hoverPoint = null;
+                if (hoveredThread != ThreadStateStore.NO_THREAD) {
+                    hoveredThread = ThreadStateStore.NO_THREAD;
+                    markOverlayDirty();
+                }
+            }
+        };
+        addMouseListener(mouseHandler);
+        addMouseMotionListener(mouseHandler);
+        addMouseWheelListener(mouseHandler);
     }
     
-    @Override
-    public void paint(Graphics g) {
-        super.paint(g);
-        draw((Graphics2D) g);
+    /**
+     * Create a canvas that is not shown on screen. It does not listen to the
+     * event bus and has no timers or model thread: the caller posts events
+     * to its {@link #getSceneModel() scene model}, steps the model and draws
+     * frames with {@link #renderTo(BufferedImage)}, all from one thread.
+     */
+    public static SimulationCanvas createOffscreen(int width, int height) {
+        return new SimulationCanvas(width, height, false);
     }
     
     /**
-     * Called when new thread events occur
+     * @return the model holding the visualized threads
      */
-    @Override
-    public void onEvent(ThreadEvent event) {
-        // Add to recent events
-        synchronized (recentEvents) {
-            recentEvents.add(0, event);
-            if (recentEvents.size() > maxRecentEvents) {
-                recentEvents.remove(recentEvents.size() - 1);
+    public SceneModel getSceneModel() {
+        return model;
+    }
+    
+    /**
+     * Draw the latest scene and overlays into an image the size of the canvas
+     */
+    public void renderTo(BufferedImage target) {
+        Graphics2D g = target.createGraphics();
+        try {
+            draw(g);
+        } finally {
+            g.dispose();
+        }
+    }
+    
+    /**
+     * @return the level of detail used for the last full repaint
+     */
+    LevelOfDetail.Level getDetailLevel() {
+        return levelOfDetail.getLevel();
+    }
+    
+    /**
+     * Set the maximum number of frames painted per second
+     */
+    public void setTargetFps(int fps) {
+        int delay = Math.max(1, 1000 / Math.max(1, fps));
+        frameTimer.setDelay(delay);
+        frameTimer.setInitialDelay(delay);
+    }
+    
+    /**
+     * Request a full repaint on the next frame, e.g. after the layout moved
+     * threads or the view changed. Safe to call from any thread.
+     */
+    void markDirty() {
+        fullRepaint.set(true);
+        dirty = true;
+    }
+    
+    /**
+     * Request that an area of the scene, in world coordinates, is redrawn on
+     * the next frame. Areas marked between two frames are merged into one
+     * rectangle. Safe to call from any thread.
+     */
+    private void markDirty(Rectangle2D worldArea) {
+        damagedArea.accumulateAndGet(worldArea, (current, area) -> {
+            if (current == null) {
+                return area;
             }
+            Rectangle2D union = new Rectangle2D.Double();
+            Rectangle2D.union(current, area, union);
+            return union;
+        });
+        dirty = true;
+    }
+    
+    /**
+     * Request a new frame in which only the overlays changed. The scene is
+     * reused as it is.
+     */
+    private void markOverlayDirty() {
+        dirty = true;
+    }
+    
+    /**
+     * Zoom and center the view so that every thread is visible
+     */
+    public void fitToThreads() {
+        SpatialGrid grid = model.getSnapshot().getGrid();
+        if (grid.size() > 0) {
+            camera.fit(grid.getMinX(), grid.getMinY(), grid.getMaxX(), grid.getMaxY(), VIEW_MARGIN);
+        } else {
+            camera.reset();
+        }
+        markDirty();
+    }
+    
+    /**
+     * @return the camera mapping layout coordinates to the canvas
+     */
+    public Camera getCamera() {
+        return camera;
+    }
+    
+    private void updateHover(int x, int y) {
+        hoverPoint = new Point(x, y);
+        int hit = model.getSnapshot().getGrid().nearest(
+                camera.screenToWorldX(x), camera.screenToWorldY(y), HIT_RADIUS);
+        if (hit != ThreadStateStore.NO_THREAD || hoveredThread != ThreadStateStore.NO_THREAD) {
+            hoveredThread = hit;
+            markOverlayDirty();
         }
+    }
+    
+    /**
+     * Show or hide the EventBus health overlay
+     */
+    public void setDiagnosticsVisible(boolean visible) {
+        this.diagnosticsVisible = visible;
+        markOverlayDirty();
+    }
+    
+    public boolean isDiagnosticsVisible() {
+        return diagnosticsVisible;
+    }
+    
+    /**
+     * Show a warning banner when events wait longer than this before dispatch.
+     * @param millis Threshold in milliseconds, or 0 to disable the warning
+     */
+    public void setLagWarningThresholdMillis(long millis) {
+        this.lagWarningThresholdMillis = millis;
+    }
+    
+    @Override
+    public void addNotify() {
+        super.addNotify();
         
-        // Get or create thread visual
-        String threadId = event.getThreadName();
-        ThreadVisual visual = threadVisuals.get(threadId);
+        // Paint actively through a back buffer instead of through the AWT repaint cycle
+        createBufferStrategy(2);
+        setIgnoreRepaint(true);
+        markDirty();
         
-        if (visual == null && event.getType() == ThreadEvent.EventType.THREAD_CREATED) {
-            // Calculate center point
-            double centerX = getWidth() / 2.0;
-            double centerY = getHeight() / 2.0;
+        // A canvas on screen listens and paints while it is displayable
+        if (live) {
+            EventBus.getInstance().addEventListener(this);
             
-            // Create a thread in a circular area around the center
-            double radius = Math.min(getWidth(), getHeight()) * 0.3; // 30% of the smaller dimension
-            double angle = Math.random() * 2 * Math.PI; // Random angle
-            double distance = Math.sqrt(Math.random()) * radius; // Square root for better radial distribution
+            // Events, samples and the layout are applied on the scene model thread,
+            // which publishes a snapshot for each frame
+            model.start();
             
-            // Position new thread
-            double x = centerX + Math.cos(angle) * distance;
-            double y = centerY + Math.sin(angle) * distance;
-            
-            // Create visual
-            visual = new ThreadVisual(threadId, x, y);
-            threadVisuals.put(threadId, visual);
+            // Paint at most once per frame, however fast events arrive
+            frameTimer.start();
+            statsTimer.start();
         }
-        
-        if (visual != null) {
-            // Update thread visual based on event
-            updateThreadVisual(visual, event);
+    }
+    
+    @Override
+    public void removeNotify() {
+        if (live) {
+            frameTimer.stop();
+            statsTimer.stop();
+            EventBus.getInstance().removeEventListener(this);
+            model.stop();
+        }
+        super.removeNotify();
+    }
+    
+    @Override
+    public void update(Graphics g) {
+        // Skip the default background clear; every frame covers the whole canvas
+        paint(g);
+    }
+    
+    @Override
+    public void paint(Graphics g) {
+        if (getBufferStrategy() != null) {
+            render();
+        } else {
+            draw((Graphics2D) g);
         }
-        
-        // Redraw canvas
-        SwingUtilities.invokeLater(this::repaint);
     }
     
     /**
-     * Update thread visual position and state based on event
+     * Render one frame into the back buffer and show it
      */
-    private void updateThreadVisual(ThreadVisual visual, ThreadEvent event) {
-        // Update visual state
-        visual.updateFromEvent(event);
-        
-        // Update resource mappings
-        String resourceId = visual.getResourceId();
-        if (resourceId != null) {
-            resourceMapping.computeIfAbsent(resourceId, k -> new ArrayList<>())
-                    .add(visual);
-        }
-        
-        // Calculate center point of canvas
-        double centerX = width / 2.0;
-        double centerY = height / 2.0;
-        
-        // Calculate gravitational factor based on distance from center
-        // Further away = stronger pull toward center
-        double dx = centerX - visual.getX();
-        double dy = centerY - visual.getY();
-        double distance = Math.sqrt(dx * dx + dy * dy);
-        
-        // Base attraction to center - the further away, the stronger the pull
-        double centerAttractionFactor = 0.005 * (distance / 100.0);
-        
-        // Position update based on multiple factors
-        double newX = visual.getX();
-        double newY = visual.getY();
-        
-        // First apply center attraction
-        newX += dx * centerAttractionFactor;
-        newY += dy * centerAttractionFactor;
-        
-        // Then apply resource affinity if applicable
-        if (resourceId != null) {
-            List<ThreadVisual> resourceUsers = resourceMapping.get(resourceId);
-            if (resourceUsers != null && resourceUsers.size() > 1) {
-                // Position threads using the same resource close to each other
-                double avgX = 0, avgY = 0;
-                int count = 0;
-                for (ThreadVisual other : resourceUsers) {
-                    if (other != visual && !other.getState().equals("TERMINATED")) {
-                        avgX += other.getX();
-                        avgY += other.getY();
-                        count++;
-                    }
-                }
-                
-                if (count > 0) {
-                    avgX /= count;
-                    avgY /= count;
-                    
-                    // Resource affinity is stronger than center attraction
-                    double resourceAttractionFactor = 0.1;
-                    newX = newX * (1 - resourceAttractionFactor) + avgX * resourceAttractionFactor;
-                    newY = newY * (1 - resourceAttractionFactor) + avgY * resourceAttractionFactor;
+    private void render() {
+        BufferStrategy strategy = getBufferStrategy();
+        if (strategy == null || !isDisplayable() || getWidth() <= 0 || getHeight() <= 0) {
+            return;
+        }
+        
+        // The buffer contents can be lost (e.g. display mode change), in which case redraw
+        do {
+            do {
+                Graphics2D g = (Graphics2D) strategy.getDrawGraphics();
+                try {
+                    draw(g);
+                } finally {
+                    g.dispose();
                 }
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+        
+        Toolkit.getDefaultToolkit().sync();
+    }
+    
+    /**
+     * Called when new thread events occur
+     */
+    @Override
+    public void onEvent(ThreadEvent event) {
+        // Applied on the scene model thread
+        model.post(event);
+    }
+    
+    /**
+     * Called with the JVM's view of the simulation threads
+     */
+    @Override
+    public void onSample(List<ThreadInfo> infos) {
+        model.post(infos);
+    }
+    
+    /**
+     * Draw the current thread state. The scene is kept in a buffer between
+     * frames: after a layout tick, a resize or a view change it is redrawn
+     * entirely, otherwise only the area damaged by events since the last
+     * frame is redrawn. Overlays are drawn over a copy of the scene.
+     */
+    private void draw(Graphics2D g) {
+        int w = Math.max(1, getWidth());
+        int h = Math.max(1, getHeight());
+        
+        // Changes are announced after their snapshot is published, so taking the
+        // damage before the snapshot never misses the snapshot that caused it
+        boolean full = fullRepaint.getAndSet(false);
+        Rectangle2D worldDamage = damagedArea.getAndSet(null);
+        SceneSnapshot snapshot = model.acquireSnapshot();
+        if (spritesStale) {
+            spritesStale = false;
+            sprites.clear();
+        }
+        
+        // The heatmap blurs across cells, so it cannot be redrawn piecewise
+        boolean resized = scene == null || scene.getWidth() != w || scene.getHeight() != h;
+        if (resized || (worldDamage != null && levelOfDetail.getLevel() == LevelOfDetail.Level.HEATMAP)) {
+            full = true;
+        }
+        
+        if (full) {
+            if (resized) {
+                GraphicsConfiguration gc = getGraphicsConfiguration();
+                scene = gc != null
+                        ? gc.createCompatibleImage(w, h, Transparency.OPAQUE)
+                        : new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+            }
+            drawScene(snapshot, new Rectangle(0, 0, w, h), true);
+        } else if (worldDamage != null) {
+            // Convert the damaged world area to whole screen pixels
+            int x0 = (int) Math.floor(camera.worldToScreenX(worldDamage.getMinX()));
+            int y0 = (int) Math.floor(camera.worldToScreenY(worldDamage.getMinY()));
+            int x1 = (int) Math.ceil(camera.worldToScreenX(worldDamage.getMaxX()));
+            int y1 = (int) Math.ceil(camera.worldToScreenY(worldDamage.getMaxY()));
+            Rectangle clip = new Rectangle(x0, y0, x1 - x0, y1 - y0).intersection(new Rectangle(0, 0, w, h));
+            if (!clip.isEmpty()) {
+                drawScene(snapshot, clip, false);
             }
         }
         
-        // Add a tiny bit of random movement to prevent static clusters
-        double randomMovement = 0.5;
-        newX += (Math.random() - 0.5) * randomMovement;
-        newY += (Math.random() - 0.5) * randomMovement;
+        g.drawImage(scene, 0, 0, null);
         
-        // Ensure threads stay within canvas bounds with padding
-        double padding = 50;
-        newX = Math.max(padding, Math.min(width - padding, newX));
-        newY = Math.max(padding, Math.min(height - padding, newY));
+        // Overlays are not part of the scene
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        drawHover(g, snapshot);
         
-        // Update position
-        visual.setX(newX);
-        visual.setY(newY);
+        // Draw EventBus health on top
+        drawDiagnostics(g);
+        
+        // Note: We no longer draw the event log directly on the canvas
+        // as it will be rendered in a separate panel below the canvas
     }
     
     /**
-     * Draw the current thread state
+     * Redraw the part of the scene buffer inside the clip rectangle
+     * @param full Whether the clip covers the whole canvas
      */
-    private void draw(Graphics2D g) {
+    private void drawScene(SceneSnapshot snapshot, Rectangle clip, boolean full) {
+        Graphics2D g = scene.createGraphics();
+        g.setClip(clip);
+        
         // Enable anti-aliasing for smoother graphics
         g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
         
-        // Clear background with dark color
-        g.setColor(new Color(43, 43, 43));
-        g.fillRect(0, 0, getWidth(), getHeight());
+        long start = System.nanoTime();
         
-        // Draw grid lines for better visual orientation
-        drawGrid(g);
+        // Background and grid come from a cached image, shifted to follow the camera
+        drawBackground(g);
+        
+        // Only threads inside the clip are drawn
+        viewMinX = camera.screenToWorldX(clip.getMinX()) - VIEW_MARGIN;
+        viewMinY = camera.screenToWorldY(clip.getMinY()) - VIEW_MARGIN;
+        viewMaxX = camera.screenToWorldX(clip.getMaxX()) + VIEW_MARGIN;
+        viewMaxY = camera.screenToWorldY(clip.getMaxY()) + VIEW_MARGIN;
+        SpatialGrid grid = snapshot.getGrid();
+        
+        // The level of detail only changes on full repaints, so a partial repaint matches the rest
+        LevelOfDetail.Level level = full
+                ? levelOfDetail.update(grid.countIn(viewMinX, viewMinY, viewMaxX, viewMaxY))
+                : levelOfDetail.getLevel();
+        
+        Graphics2D world = (Graphics2D) g.create();
+        world.transform(camera.getTransform());
+        if (camera.getZoom() != 1.0) {
+            world.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        }
         
         // Draw center attraction point
-        drawCenterPoint(g);
+        drawCenterPoint(world);
         
-        // Draw resources as circles
-        drawResources(g);
+        // Draw less per thread as the number of visible threads or the frame time grows
+        switch (level) {
+            case FULL:
+                // Draw resources as circles
+                drawResources(world, snapshot);
+                
+                // Draw connection lines between threads that share resources
+                drawConnections(world, snapshot);
+                
+                // Draw lines from waiting threads to the JVM-reported lock owner
+                drawLockOwners(world, snapshot);
+                
+                // Draw threads
+                drawThreads(world, snapshot);
+                break;
+            case DOTS:
+                drawResources(world, snapshot);
+                drawThreadDots(g, snapshot);
+                break;
+            case HEATMAP:
+                drawHeatmap(g, snapshot);
+                break;
+        }
+        world.dispose();
+        g.dispose();
         
-        // Draw connection lines between threads that share resources
-        drawConnections(g);
+        // Partial repaints are much cheaper and would hide a slow full frame. Offscreen
+        // frames are not shown live, so their detail only depends on the thread count.
+        if (full && live) {
+            levelOfDetail.recordFrame(System.nanoTime() - start);
+        }
+    }
+    
+    private boolean inView(double x, double y) {
+        return x >= viewMinX && x <= viewMaxX && y >= viewMinY && y <= viewMaxY;
+    }
+    
+    private boolean segmentInView(double x1, double y1, double x2, double y2) {
+        return Math.max(x1, x2) >= viewMinX && Math.min(x1, x2) <= viewMaxX
+                && Math.max(y1, y2) >= viewMinY && Math.min(y1, y2) <= viewMaxY;
+    }
+    
+    /**
+     * Blit the cached background and grid. The image is one grid step larger
+     * than the canvas, so panning only changes the offset it is drawn at.
+     */
+    private void drawBackground(Graphics2D g) {
+        // Grid lines stay at least 16 px apart when zoomed out
+        double step = GRID_SIZE * camera.getZoom();
+        while (step < 16) {
+            step *= 2;
+        }
         
-        // Draw threads
-        drawThreads(g);
+        int w = Math.max(1, getWidth());
+        int h = Math.max(1, getHeight());
+        int stepPx = (int) Math.round(step);
+        if (staticLayer == null || staticLayer.getWidth() != w + stepPx || staticLayer.getHeight() != h + stepPx) {
+            staticLayer = createStaticLayer(w + stepPx, h + stepPx, stepPx);
+        }
         
-        // Note: We no longer draw the event log directly on the canvas
-        // as it will be rendered in a separate panel below the canvas
+        // Offset so that a grid line passes through the world origin
+        int offsetX = Math.floorMod((int) Math.round(camera.worldToScreenX(0)), stepPx) - stepPx;
+        int offsetY = Math.floorMod((int) Math.round(camera.worldToScreenY(0)), stepPx) - stepPx;
+        g.drawImage(staticLayer, offsetX, offsetY, null);
     }
     
-    private void drawGrid(Graphics2D g) {
-        int gridSize = 50;
+    private BufferedImage createStaticLayer(int w, int h, int gridStep) {
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        BufferedImage image = gc != null
+                ? gc.createCompatibleImage(w, h, Transparency.OPAQUE)
+                : new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        
+        Graphics2D g = image.createGraphics();
+        
+        // Clear background with dark color
+        g.setColor(new Color(43, 43, 43));
+        g.fillRect(0, 0, w, h);
+        
+        // Draw grid lines for better visual orientation
+        drawGrid(g, w, h, gridStep);
+        g.dispose();
+        return image;
+    }
+    
+    private void drawGrid(Graphics2D g, int w, int h, int gridSize) {
         g.setColor(new Color(55, 55, 55));
         
         // Draw horizontal grid lines
-        for (int y = 0; y < getHeight(); y += gridSize) {
-            g.drawLine(0, y, getWidth(), y);
+        for (int y = 0; y < h; y += gridSize) {
+            g.drawLine(0, y, w, y);
         }
         
         // Draw vertical grid lines
-        for (int x = 0; x < getWidth(); x += gridSize) {
-            g.drawLine(x, 0, x, getHeight());
+        for (int x = 0; x < w; x += gridSize) {
+            g.drawLine(x, 0, x, h);
         }
     }
     
     /**
-     * Draw a subtle marker at the center of the canvas
+     * Draw a subtle marker at the world origin, which the layout pulls threads towards
      */
     private void drawCenterPoint(Graphics2D g) {
-        int centerX = getWidth() / 2;
-        int centerY = getHeight() / 2;
-        
-        // Draw a subtle circular gradient at the center
-        RadialGradientPaint centerGlow = new RadialGradientPaint(
-            centerX, centerY, 60f,
-            new float[]{0.0f, 0.5f, 1.0f},
-            new Color[]{
-                new Color(95, 125, 155, 25),  // Light blue-gray, very subtle
-                new Color(75, 105, 135, 10),  // Fading
-                new Color(65, 95, 125, 0)     // Transparent at edges
-            }
-        );
-        g.setPaint(centerGlow);
-        g.fillOval(centerX - 60, centerY - 60, 120, 120);
-        
-        // Draw concentric circles
-        g.setColor(new Color(95, 125, 155, 15));
-        g.setStroke(new BasicStroke(0.8f));
-        g.drawOval(centerX - 40, centerY - 40, 80, 80);
-        
-        g.setColor(new Color(95, 125, 155, 10));
-        g.setStroke(new BasicStroke(0.5f));
-        g.drawOval(centerX - 20, centerY - 20, 40, 40);
-        
-        g.setColor(new Color(95, 125, 155, 20));
-        g.setStroke(new BasicStroke(1.0f));
-        g.drawOval(centerX - 5, centerY - 5, 10, 10);
+        if (!inView(0, 0)) return;
+        
+        if (centerMarker == null) {
+            centerMarker = new BufferedImage(120, 120, BufferedImage.TYPE_INT_ARGB_PRE);
+            Graphics2D mg = centerMarker.createGraphics();
+            mg.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            int centerX = 60;
+            int centerY = 60;
+            
+            // Draw a subtle circular gradient at the center
+            RadialGradientPaint centerGlow = new RadialGradientPaint(
+                centerX, centerY, 60f,
+                new float[]{0.0f, 0.5f, 1.0f},
+                new Color[]{
+                    new Color(95, 125, 155, 25),  // Light blue-gray, very subtle
+                    new Color(75, 105, 135, 10),  // Fading
+                    new Color(65, 95, 125, 0)     // Transparent at edges
+                }
+            );
+            mg.setPaint(centerGlow);
+            mg.fillOval(centerX - 60, centerY - 60, 120, 120);
+            
+            // Draw concentric circles
+            mg.setColor(new Color(95, 125, 155, 15));
+            mg.setStroke(new BasicStroke(0.8f));
+            mg.drawOval(centerX - 40, centerY - 40, 80, 80);
+            
+            mg.setColor(new Color(95, 125, 155, 10));
+            mg.setStroke(new BasicStroke(0.5f));
+            mg.drawOval(centerX - 20, centerY - 20, 40, 40);
+            
+            mg.setColor(new Color(95, 125, 155, 20));
+            mg.setStroke(new BasicStroke(1.0f));
+            mg.drawOval(centerX - 5, centerY - 5, 10, 10);
+            mg.dispose();
+        }
+        g.drawImage(centerMarker, -60, -60, null);
     }
     
-    private void drawConnections(Graphics2D g) {
-        // Draw lines between threads that share resources
-        for (Map.Entry<String, List<ThreadVisual>> entry : resourceMapping.entrySet()) {
-            List<ThreadVisual> users = entry.getValue();
-            
-            if (users.size() < 2) continue;
-            
-            // Use dashed stroke for connections
-            float[] dashPattern = {8.0f, 4.0f};
-            g.setStroke(new BasicStroke(1.8f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND, 
-                    0, dashPattern, 0));
-            
-            for (int i = 0; i < users.size(); i++) {
-                ThreadVisual v1 = users.get(i);
-                if (v1.getState().equals("TERMINATED")) continue;
-                
-                for (int j = i + 1; j < users.size(); j++) {
-                    ThreadVisual v2 = users.get(j);
-                    if (v2.getState().equals("TERMINATED")) continue;
+    private void drawConnections(Graphics2D g, SceneSnapshot snapshot) {
+        // Draw lines between threads that currently hold or wait on the same resource,
+        // collected into one path per color so each color is a single draw call
+        lockedConnections.reset();
+        connections.reset();
+        
+        ThreadStateStore threads = snapshot.getThreads();
+        for (int r = 0; r < snapshot.getResourceCount(); r++) {
+            SceneSnapshot.ResourceSnapshot resource = snapshot.getResource(r);
+            if (resource.isOutside(viewMinX, viewMinY, viewMaxX, viewMaxY)) continue;
+            
+            for (int i = 0; i < resource.getMemberCount(); i++) {
+                int t1 = resource.getMember(i);
+                double x1 = threads.getX(t1), y1 = threads.getY(t1);
+                for (int j = i + 1; j < resource.getMemberCount(); j++) {
+                    int t2 = resource.getMember(j);
+                    double x2 = threads.getX(t2), y2 = threads.getY(t2);
+                    if (!segmentInView(x1, y1, x2, y2)) continue;
                     
                     // Different colors based on lock state
-                    if (v1.isLocked() || v2.isLocked()) {
-                        // Create gradient for connection line
-                        GradientPaint gradient = new GradientPaint(
-                            (float)v1.getX(), (float)v1.getY(), new Color(255, 193, 7, 180), // Amber
-                            (float)v2.getX(), (float)v2.getY(), new Color(255, 152, 0, 180)  // Darker amber
-                        );
-                        g.setPaint(gradient);
-                    } else {
-                        // Create gradient for connection line
-                        GradientPaint gradient = new GradientPaint(
-                            (float)v1.getX(), (float)v1.getY(), new Color(33, 150, 243, 180), // Blue
-                            (float)v2.getX(), (float)v2.getY(), new Color(13, 71, 161, 180)   // Darker blue
-                        );
-                        g.setPaint(gradient);
-                    }
-                    
-                    g.drawLine((int)v1.getX(), (int)v1.getY(), (int)v2.getX(), (int)v2.getY());
+                    Path2D.Float path = threads.isLocked(t1) || threads.isLocked(t2) ? lockedConnections : connections;
+                    path.moveTo((int) x1, (int) y1);
+                    path.lineTo((int) x2, (int) y2);
                 }
             }
         }
+        
+        g.setStroke(CONNECTION_STROKE);
+        g.setColor(CONNECTION_COLOR);
+        g.draw(connections);
+        g.setColor(CONNECTION_LOCKED_COLOR);
+        g.draw(lockedConnections);
     }
     
-    private void drawResources(Graphics2D g) {
-        Map<String, Double[]> resourcePositions = new HashMap<>();
-        
-        // Calculate resource positions based on threads using them
-        for (Map.Entry<String, List<ThreadVisual>> entry : resourceMapping.entrySet()) {
-            String resourceId = entry.getKey();
-            List<ThreadVisual> users = entry.getValue();
-            
-            if (users.isEmpty()) continue;
-            
-            // Calculate center position
-            double avgX = 0, avgY = 0;
-            int activeCount = 0;
-            
-            for (ThreadVisual visual : users) {
-                if (!visual.getState().equals("TERMINATED")) {
-                    avgX += visual.getX();
-                    avgY += visual.getY();
-                    activeCount++;
-                }
-            }
-            
-            if (activeCount > 0) {
-                avgX /= activeCount;
-                avgY /= activeCount;
-                resourcePositions.put(resourceId, new Double[]{avgX, avgY});
+    private void drawLockOwners(Graphics2D g, SceneSnapshot snapshot) {
+        g.setStroke(THIN_STROKE);
+        g.setColor(LOCK_OWNER_COLOR);
+        
+        // Lines start at visible waiters; the owner itself may be off screen
+        ThreadStateStore threads = snapshot.getThreads();
+        snapshot.getGrid().forEachIn(viewMinX, viewMinY, viewMaxX, viewMaxY, waiter -> {
+            int holder = threads.getLockOwner(waiter);
+            if (holder == ThreadStateStore.NO_THREAD || holder == waiter || threads.isTerminated(holder)) return;
+            
+            g.drawLine((int) threads.getX(waiter), (int) threads.getY(waiter),
+                    (int) threads.getX(holder), (int) threads.getY(holder));
+        });
+    }
+    
+    private void drawResources(Graphics2D g, SceneSnapshot snapshot) {
+        // Draw each resource at the center of its holders and waiters
+        for (int r = 0; r < snapshot.getResourceCount(); r++) {
+            SceneSnapshot.ResourceSnapshot resource = snapshot.getResource(r);
+            double x = resource.getCentroidX();
+            double y = resource.getCentroidY();
+            if (inView(x, y)) {
+                sprites.getResourceSprite(resource.getId()).draw(g, (int) x, (int) y);
             }
         }
-        
-        // Draw resources
-        for (Map.Entry<String, Double[]> entry : resourcePositions.entrySet()) {
-            String resourceId = entry.getKey();
-            Double[] pos = entry.getValue();
-            
-            // Draw outer glow effect
-            RadialGradientPaint outerGlow = new RadialGradientPaint(
-                pos[0].floatValue(), 
-                pos[1].floatValue(), 
-                50f,
-                new float[]{0.7f, 1.0f},
-                new Color[]{
-                    new Color(33, 150, 243, 40),  // Light blue, low opacity
-                    new Color(33, 150, 243, 0)    // Fully transparent at edges
-                }
-            );
-            g.setPaint(outerGlow);
-            g.fillOval(pos[0].intValue() - 50, pos[1].intValue() - 50, 100, 100);
-            
-            // Draw inner glow
-            RadialGradientPaint innerGlow = new RadialGradientPaint(
-                pos[0].floatValue(), 
-                pos[1].floatValue(), 
-                35f,
-                new float[]{0.0f, 0.8f},
-                new Color[]{
-                    new Color(33, 150, 243, 70),  // Material blue, higher opacity at center
-                    new Color(33, 150, 243, 20)   // Lower opacity at edge
-                }
-            );
-            g.setPaint(innerGlow);
-            g.fillOval(pos[0].intValue() - 35, pos[1].intValue() - 35, 70, 70);
-            
-            // Draw resource circle border
-            g.setStroke(new BasicStroke(2.2f));
-            g.setColor(new Color(3, 169, 244)); // Material light blue
-            g.drawOval(pos[0].intValue() - 26, pos[1].intValue() - 26, 52, 52);
-            
-            // Draw resource ID with better font and shadow effect
-            g.setFont(new Font("Segoe UI", Font.BOLD, 14));
-            
-            // Draw text shadow
-            g.setColor(new Color(0, 0, 0, 120));
-            FontMetrics fm = g.getFontMetrics();
-            int textWidth = fm.stringWidth(resourceId);
-            int textHeight = fm.getHeight();
-            g.drawString(resourceId, 
-                    pos[0].intValue() - textWidth / 2 + 1, 
-                    pos[1].intValue() + textHeight / 4 + 1);
-            
-            // Draw actual text
-            g.setColor(new Color(255, 255, 255)); // White text
-            g.drawString(resourceId, 
-                    pos[0].intValue() - textWidth / 2, 
-                    pos[1].intValue() + textHeight / 4);
-        }
     }
     
-    private void drawThreads(Graphics2D g) {
-        // Draw thread visuals
-        for (ThreadVisual visual : threadVisuals.values()) {
-            if (visual.getState().equals("TERMINATED")) {
-                continue; // Skip terminated threads
+    private void drawThreads(Graphics2D g, SceneSnapshot snapshot) {
+        // Each node is a single blit of a sprite pre-rendered for its label, state and indicator.
+        // The grid only holds live threads, so there is no need to skip terminated ones.
+        ThreadStateStore threads = snapshot.getThreads();
+        snapshot.getGrid().forEachIn(viewMinX, viewMinY, viewMaxX, viewMaxY, thread ->
+                sprites.getThreadSprite(threads, thread).draw(g, (int) threads.getX(thread), (int) threads.getY(thread)));
+    }
+    
+    /**
+     * Medium density: one small dot per thread, colored by state
+     */
+    private void drawThreadDots(Graphics2D g, SceneSnapshot snapshot) {
+        ThreadStateStore threads = snapshot.getThreads();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+        snapshot.getGrid().forEachIn(viewMinX, viewMinY, viewMaxX, viewMaxY, thread -> {
+            g.setColor(NodeSpriteCache.getThreadColor(threads.getState(thread)));
+            g.fillRect((int) camera.worldToScreenX(threads.getX(thread)) - DOT_SIZE / 2,
+                    (int) camera.worldToScreenY(threads.getY(thread)) - DOT_SIZE / 2, DOT_SIZE, DOT_SIZE);
+        });
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+    }
+    
+    /**
+     * High density: bin visible threads into screen cells, color each cell by
+     * the mix of states in it and its opacity by how many threads it holds,
+     * then label each resource cluster with its holder and waiter counts
+     */
+    private void drawHeatmap(Graphics2D g, SceneSnapshot snapshot) {
+        int cols = Math.max(1, getWidth() / HEATMAP_CELL + 1);
+        int rows = Math.max(1, getHeight() / HEATMAP_CELL + 1);
+        if (heatmapImage == null || heatmapImage.getWidth() != cols || heatmapImage.getHeight() != rows) {
+            heatmapImage = new BufferedImage(cols, rows, BufferedImage.TYPE_INT_ARGB);
+            heatmapCounts = new int[cols * rows * 4];
+        }
+        int[] counts = heatmapCounts;
+        Arrays.fill(counts, 0);
+        
+        // Count threads per cell and state: running, blocked, waiting, other
+        ThreadStateStore threads = snapshot.getThreads();
+        snapshot.getGrid().forEachIn(viewMinX, viewMinY, viewMaxX, viewMaxY, thread -> {
+            int col = (int) camera.worldToScreenX(threads.getX(thread)) / HEATMAP_CELL;
+            int row = (int) camera.worldToScreenY(threads.getY(thread)) / HEATMAP_CELL;
+            if (col < 0 || row < 0 || col >= cols || row >= rows) return;
+            
+            int category;
+            switch (threads.getState(thread)) {
+                case RUNNABLE:
+                case RUNNING:
+                    category = 0;
+                    break;
+                case BLOCKED:
+                    category = 1;
+                    break;
+                case WAITING:
+                case TIMED_WAITING:
+                    category = 2;
+                    break;
+                default:
+                    category = 3;
+                    break;
             }
-            
-            int x = (int) visual.getX();
-            int y = (int) visual.getY();
-            int size = 44; // Thread node size
-            
-            // Draw shadow/glow effect
-            Color glowColor = getThreadGlowColor(visual);
-            RadialGradientPaint glow = new RadialGradientPaint(
-                x, y, size + 14,
-                new float[]{0.0f, 0.7f, 1.0f},
-                new Color[]{
-                    new Color(glowColor.getRed(), glowColor.getGreen(), glowColor.getBlue(), 90),
-                    new Color(glowColor.getRed(), glowColor.getGreen(), glowColor.getBlue(), 40),
-                    new Color(glowColor.getRed(), glowColor.getGreen(), glowColor.getBlue(), 0)
+            counts[(row * cols + col) * 4 + category]++;
+        });
+        
+        Color[] colors = {NodeSpriteCache.RUNNABLE_COLOR, NodeSpriteCache.BLOCKED_COLOR,
+                NodeSpriteCache.WAITING_COLOR, NodeSpriteCache.OTHER_COLOR};
+        int[] pixels = ((DataBufferInt) heatmapImage.getRaster().getDataBuffer()).getData();
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                // Blur over the 3x3 neighbourhood on the coarse grid, which is far cheaper
+                // than smoothing with bilinear scaling at full resolution
+                double total = 0, r = 0, gr = 0, b = 0;
+                for (int nr = Math.max(0, row - 1); nr <= Math.min(rows - 1, row + 1); nr++) {
+                    for (int nc = Math.max(0, col - 1); nc <= Math.min(cols - 1, col + 1); nc++) {
+                        double weight = nr == row && nc == col ? 1.0 : 0.5;
+                        int base = (nr * cols + nc) * 4;
+                        for (int c = 0; c < 4; c++) {
+                            double n = counts[base + c] * weight;
+                            total += n;
+                            r += n * colors[c].getRed();
+                            gr += n * colors[c].getGreen();
+                            b += n * colors[c].getBlue();
+                        }
+                    }
                 }
-            );
-            g.setPaint(glow);
-            g.fillOval(x - (size + 14) / 2, y - (size + 14) / 2, size + 14, size + 14);
-            
-            // Draw the thread circle with fancy fill
-            Color threadColor = getThreadColor(visual);
-            
-            // Fill with a gradient
-            GradientPaint gradient = new GradientPaint(
-                x - size/2, y - size/2, lighter(threadColor, 1.2f),
-                x + size/2, y + size/2, threadColor
-            );
-            g.setPaint(gradient);
-            
-            // Use a smoother circle
-            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-            g.fillOval(x - size / 2, y - size / 2, size, size);
-            
-            // Draw a glossy highlight (top left quadrant slightly lighter)
-            Area circle = new Area(new Ellipse2D.Float(x - size / 2, y - size / 2, size, size));
-            Area highlight = new Area(new Ellipse2D.Float(x - size / 2, y - size / 2, size, size/2));
-            highlight.intersect(new Area(new Ellipse2D.Float(x - size / 2, y - size / 2, size/2, size)));
-            
-            g.setColor(new Color(255, 255, 255, 60)); // Semi-transparent white
-            g.fill(highlight);
-            
-            // Draw a border
-            g.setStroke(new BasicStroke(2.0f));
-            g.setColor(darker(threadColor, 0.8f));
-            g.drawOval(x - size / 2, y - size / 2, size, size);
-            
-            // Draw thread ID
-            g.setFont(new Font("Segoe UI", Font.BOLD, 13));
-            
-            // Center text
-            FontMetrics fm = g.getFontMetrics();
-            String threadId = visual.getId();
-            if (threadId.length() > 10) {
-                threadId = threadId.substring(0, 9) + "…"; // Truncate long names
-            }
-            int textWidth = fm.stringWidth(threadId);
-            
-            // Draw text shadow
-            g.setColor(new Color(0, 0, 0, 120));
-            g.drawString(threadId, x - textWidth / 2 + 1, y + 5 + 1);
-            
-            // Draw actual text
-            g.setColor(new Color(255, 255, 255)); // White text
-            g.drawString(threadId, x - textWidth / 2, y + 5);
-            
-            // Draw thread state below the circle with nicer styling
-            String stateText = visual.getState();
-            // Shorten common state names
-            stateText = stateText.replace("RUNNABLE", "RUNNING")
-                               .replace("WAITING", "WAIT")
-                               .replace("TIMED_WAITING", "T_WAIT")
-                               .replace("BLOCKED", "BLOCKED");
-            
-            g.setFont(new Font("Segoe UI", Font.PLAIN, 11));
-            textWidth = fm.stringWidth(stateText);
-            
-            // Draw state tag with rounded rectangle background
-            int stateWidth = textWidth + 10;
-            int stateHeight = 18;
-            int stateX = x - stateWidth / 2;
-            int stateY = y + size / 2 + 6;
-            
-            // State background
-            g.setColor(darker(threadColor, 0.8f));
-            g.fillRoundRect(stateX, stateY, stateWidth, stateHeight, 8, 8);
-            
-            // State text
-            g.setColor(new Color(255, 255, 255));
-            g.drawString(stateText, x - textWidth / 2, stateY + 13);
-            
-            // If thread is accessing a resource, draw an indicator
-            if (visual.getResourceId() != null) {
-                if (visual.isLocked()) {
-                    // Draw a lock icon
-                    int lockSize = 20;
-                    int lockX = x - lockSize / 2;
-                    int lockY = y - size / 2 - lockSize - 3;
-                    
-                    // Lock body
-                    g.setColor(new Color(255, 193, 7)); // Amber
-                    g.fillRoundRect(lockX, lockY + lockSize/2, lockSize, lockSize/2, 4, 4);
-                    
-                    // Lock shackle
-                    g.setStroke(new BasicStroke(3.0f));
-                    g.drawArc(lockX + 4, lockY, lockSize - 8, lockSize/2, 0, 180);
-                } else {
-                    // Draw an arrow
-                    int arrowSize = 12;
-                    int[] xPoints = {x, x + arrowSize/2, x - arrowSize/2};
-                    int[] yPoints = {y - size / 2 - 10, y - size / 2 - 2, y - size / 2 - 2};
-                    
-                    g.setColor(new Color(255, 193, 7)); // Amber
-                    g.fillPolygon(xPoints, yPoints, 3);
+                if (total == 0) {
+                    pixels[row * cols + col] = 0;
+                    continue;
                 }
+                int alpha = (int) Math.min(255, 60 + 40 * Math.log(1 + total) / Math.log(2));
+                pixels[row * cols + col] = alpha << 24 | (int) (r / total) << 16 | (int) (gr / total) << 8 | (int) (b / total);
             }
         }
+        g.drawImage(heatmapImage, 0, 0, cols * HEATMAP_CELL, rows * HEATMAP_CELL, null);
+        
+        // Outline each resource cluster and show how many threads hold and wait on it
+        g.setFont(CLUSTER_FONT);
+        FontMetrics fm = g.getFontMetrics();
+        g.setStroke(THIN_STROKE);
+        for (int r = 0; r < snapshot.getResourceCount(); r++) {
+            SceneSnapshot.ResourceSnapshot resource = snapshot.getResource(r);
+            if (!inView(resource.getCentroidX(), resource.getCentroidY())) continue;
+            
+            int x = (int) camera.worldToScreenX(resource.getCentroidX());
+            int y = (int) camera.worldToScreenY(resource.getCentroidY());
+            int radius = 12 + (int) (4 * Math.sqrt(resource.getMemberCount()) * Math.min(1.0, camera.getZoom()));
+            g.setColor(CLUSTER_COLOR);
+            g.drawOval(x - radius, y - radius, 2 * radius, 2 * radius);
+            
+            String label = resource.getId() + "  " + resource.getHolderCount() + " held / "
+                    + resource.getWaiterCount() + " waiting";
+            g.setColor(Color.WHITE);
+            g.drawString(label, x - fm.stringWidth(label) / 2, y - radius - 4);
+        }
     }
     
-    private Color getThreadColor(ThreadVisual visual) {
-        // Return different colors based on thread state
-        switch (visual.getState()) {
-            case "RUNNABLE":
-                return new Color(76, 175, 80); // Material Green
-            case "BLOCKED":
-                return new Color(244, 67, 54);  // Material Red
-            case "WAITING":
-            case "TIMED_WAITING":
-                return new Color(255, 193, 7); // Material Amber
-            default:
-                return new Color(33, 150, 243); // Material Blue
+    /**
+     * Highlight the thread under the mouse and show its details next to the cursor
+     */
+    private void drawHover(Graphics2D g, SceneSnapshot snapshot) {
+        int thread = hoveredThread;
+        Point point = hoverPoint;
+        ThreadStateStore threads = snapshot.getThreads();
+        if (thread == ThreadStateStore.NO_THREAD || point == null) return;
+        if (thread >= threads.size() || threads.isTerminated(thread)) return;
+        
+        int x = (int) camera.worldToScreenX(threads.getX(thread));
+        int y = (int) camera.worldToScreenY(threads.getY(thread));
+        int radius = Math.max(4, (int) (26 * camera.getZoom()));
+        g.setStroke(HOVER_STROKE);
+        g.setColor(HOVER_COLOR);
+        g.drawOval(x - radius, y - radius, 2 * radius, 2 * radius);
+        
+        List<String> lines = new ArrayList<>();
+        lines.add(threads.getName(thread));
+        lines.add("State: " + threads.getState(thread));
+        if (threads.getResource(thread) != ThreadStateStore.NO_RESOURCE) {
+            lines.add("Resource: " + threads.getResourceName(threads.getResource(thread)));
+        }
+        if (threads.getLockOwner(thread) != ThreadStateStore.NO_THREAD) {
+            lines.add("Lock owner: " + threads.getName(threads.getLockOwner(thread)));
+        }
+        if (threads.isSampled(thread)) {
+            lines.add("Blocked " + threads.getBlockedCount(thread) + "x, waited " + threads.getWaitedCount(thread) + "x");
+        }
+        
+        g.setFont(CLUSTER_FONT);
+        FontMetrics fm = g.getFontMetrics();
+        int boxWidth = 0;
+        for (String line : lines) {
+            boxWidth = Math.max(boxWidth, fm.stringWidth(line));
+        }
+        int lineHeight = fm.getHeight();
+        int boxX = Math.min(point.x + 14, getWidth() - boxWidth - 20);
+        int boxY = Math.min(point.y + 14, getHeight() - lines.size() * lineHeight - 16);
+        
+        g.setColor(BOX_BACKGROUND);
+        g.fillRoundRect(boxX, boxY, boxWidth + 16, lines.size() * lineHeight + 10, 8, 8);
+        g.setColor(BOX_TEXT);
+        int textY = boxY + 5 + fm.getAscent();
+        for (String line : lines) {
+            g.drawString(line, boxX + 8, textY);
+            textY += lineHeight;
         }
     }
     
-    private Color getThreadGlowColor(ThreadVisual visual) {
-        // Return different glow colors based on activity
-        if (visual.isLocked()) {
-            return new Color(255, 193, 7, 180); // Semi-transparent amber for locked threads
-        } else if (visual.getState().equals("BLOCKED")) {
-            return new Color(244, 67, 54, 180);  // Semi-transparent red for blocked threads
-        } else if (visual.getState().equals("RUNNABLE")) {
-            return new Color(76, 175, 80, 180); // Semi-transparent green for running threads
-        } else {
-            return new Color(33, 150, 243, 180); // Semi-transparent blue for other states
-        }
-    }
-    
-    private Color darker(Color c, float factor) {
-        return new Color(
-            Math.max((int)(c.getRed() * factor), 0),
-            Math.max((int)(c.getGreen() * factor), 0),
-            Math.max((int)(c.getBlue() * factor), 0),
-            c.getAlpha()
-        );
-    }
-    
-    private Color lighter(Color c, float factor) {
-        return new Color(
-            Math.min((int)(c.getRed() * factor), 255),
-            Math.min((int)(c.getGreen() * factor), 255),
-            Math.min((int)(c.getBlue() * factor), 255),
-            c.getAlpha()
-        );
-    }
-    
-    private void drawEventLog(Graphics2D g) {
-        // This method is now only used when rendering to an external component
-        // It's kept for compatibility but not called from draw()
-        // Draw recent events in the corner of the canvas
-        g.setFont(new Font("Segoe UI", Font.PLAIN, 12));
-        
-        // Background for event log
-        g.setColor(new Color(43, 43, 43, 200)); // Semi-transparent black
-        g.fillRect(10, 10, 350, Math.min(recentEvents.size(), 5) * 20 + 10);
-        g.setColor(new Color(68, 68, 68));
-        g.drawRect(10, 10, 350, Math.min(recentEvents.size(), 5) * 20 + 10);
-        
-        // Draw recent events
-        synchronized (recentEvents) {
-            int y = 25;
-            int count = 0;
-            for (ThreadEvent event : recentEvents) {
-                if (count++ >= 5) break; // Show only 5 most recent events
-                
-                // Choose color based on event type
-                switch (event.getType()) {
-                    case THREAD_CREATED:
-                    case THREAD_STARTED:
-                        g.setColor(new Color(106, 135, 89)); // Green
-                        break;
-                    case THREAD_TERMINATED:
-                        g.setColor(new Color(204, 120, 50)); // Orange
-                        break;
-                    case LOCK_ACQUIRED:
-                        g.setColor(new Color(104, 151, 187)); // Blue
-                        break;
-                    case LOCK_RELEASED:
-                        g.setColor(new Color(152, 118, 170)); // Purple
-                        break;
-                    case LOCK_WAITING:
-                        g.setColor(new Color(187, 181, 41)); // Yellow
-                        break;
-                    default:
-                        g.setColor(new Color(232, 232, 232)); // Default light text
+    /**
+     * Draw the EventBus health overlay and the dispatch lag warning
+     */
+    private void drawDiagnostics(Graphics2D g) {
+        EventBusStats.Snapshot current = currentStats;
+        EventBusStats.Snapshot previous = previousStats;
+        if (current == null || previous == null) return;
+        
+        double meanLagMs = current.meanDispatchLagNanos(previous) / 1e6;
+        double oldestMs = current.getOldestPendingNanos() / 1e6;
+        double lagMs = Math.max(meanLagMs, oldestMs);
+        
+        long threshold = lagWarningThresholdMillis;
+        if (threshold > 0 && lagMs > threshold) {
+            String warning = String.format("Visualizer falling behind: dispatch lag %.0f ms, backlog %d",
+                    lagMs, current.getBacklog());
+            g.setFont(WARNING_FONT);
+            int textWidth = g.getFontMetrics().stringWidth(warning);
+            g.setColor(WARNING_COLOR);
+            g.fillRoundRect(getWidth() / 2 - textWidth / 2 - 10, 8, textWidth + 20, 24, 8, 8);
+            g.setColor(Color.WHITE);
+            g.drawString(warning, getWidth() / 2 - textWidth / 2, 25);
+        }
+        
+        if (!diagnosticsVisible) return;
+        
+        List<String> lines = new ArrayList<>();
+        lines.add("EventBus");
+        lines.add(String.format("  publish   %8.0f /s", current.publishRate(previous)));
+        lines.add(String.format("  dispatch  %8.0f /s", current.dispatchRate(previous)));
+        lines.add(String.format("  backlog   %8d", current.getBacklog()));
+        lines.add(String.format("  lag       %8.2f ms (oldest %.2f ms)", meanLagMs, oldestMs));
+        lines.add(String.format("Render %s, %.2f ms/frame",
+                levelOfDetail.getLevel(), levelOfDetail.getFrameNanos() / 1e6));
+        lines.add("Listeners   us/event  busy");
+        
+        double windowNanos = Math.max(1, current.getTimeNanos() - previous.getTimeNanos());
+        for (EventBusStats.ListenerSnapshot listener : current.getListeners()) {
+            EventBusStats.ListenerSnapshot before = null;
+            for (EventBusStats.ListenerSnapshot candidate : previous.getListeners()) {
+                if (candidate.getId() == listener.getId()) {
+                    before = candidate;
+                    break;
                 }
-                
-                g.drawString(formatEvent(event), 15, y);
-                y += 20;
             }
+            long calls = listener.getCalls() - (before != null ? before.getCalls() : 0);
+            long nanos = listener.getNanos() - (before != null ? before.getNanos() : 0);
+            String name = listener.getName();
+            if (name.length() > 22) {
+                name = name.substring(0, 21) + "…";
+            }
+            lines.add(String.format("  %-22s %7.1f %4.0f%%",
+                    name, calls == 0 ? 0.0 : nanos / 1e3 / calls, 100.0 * nanos / windowNanos));
+        }
+        
+        g.setFont(DIAGNOSTICS_FONT);
+        FontMetrics fm = g.getFontMetrics();
+        int boxWidth = 0;
+        for (String line : lines) {
+            boxWidth = Math.max(boxWidth, fm.stringWidth(line));
+        }
+        int lineHeight = fm.getHeight();
+        int boxX = 10;
+        int boxY = 40;
+        
+        g.setColor(DIAGNOSTICS_BACKGROUND);
+        g.fillRoundRect(boxX, boxY, boxWidth + 16, lines.size() * lineHeight + 12, 8, 8);
+        g.setColor(BOX_BORDER);
+        g.drawRoundRect(boxX, boxY, boxWidth + 16, lines.size() * lineHeight + 12, 8, 8);
+        
+        g.setColor(BOX_TEXT);
+        int y = boxY + 6 + fm.getAscent();
+        for (String line : lines) {
+            g.drawString(line, boxX + 8, y);
+            y += lineHeight;
         }
-    }
-    
-    private String formatEvent(ThreadEvent event) {
-        return String.format("%s: %s - %s", 
-                event.getThreadName(), 
-                event.getType().toString(), 
-                event.getMessage());
     }
     
     /**
      * Reset the visualization
      */
     public void reset() {
-        threadVisuals.clear();
-        resourceMapping.clear();
-        synchronized (recentEvents) {
-            recentEvents.clear();
-        }
-        repaint();
+        model.clear();
+        hoveredThread = ThreadStateStore.NO_THREAD;
+        spritesStale = true;
+        markDirty();
     }
 } 
\ No newline at end of file
@@ -2,10 +2,15 @@ package com.threadviz.ui;
 
 import com.threadviz.core.EventBus;
 import com.threadviz.core.Simulation;
-import com.threadviz.models.ThreadEvent;
+import com.threadviz.core.ThreadStateSampler;
+import com.threadviz.metrics.ContentionTracker;
+import com.threadviz.metrics.MetricsServer;
+import com.threadviz.models.ResourceRegistry;
 import com.threadviz.simulations.DiningPhilosophersSimulation;
 import com.threadviz.simulations.ProducerConsumerSimulation;
 import com.threadviz.simulations.ReaderWriterSimulation;
+import com.threadviz.stream.EventCollector;
+import com.threadviz.stream.EventStreamServer;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
@@ -21,6 +26,15 @@ import java.util.Vector;
  */
 public class SimulationController {
     
+    // Dispatch lag (ms) above which the canvas shows a warning; unset disables it
+    private static final String LAG_WARNING_PROPERTY = "threadviz.lag.warning.ms";
+    
+    // Maximum canvas frame rate
+    private static final String FPS_PROPERTY = "threadviz.fps";
+    
+    // Number of most recent events kept in the event log
+    private static final String EVENT_LOG_CAPACITY_PROPERTY = "threadviz.eventlog.capacity";
+    
     // UI Components
     private JPanel mainPanel;
     private JComboBox<String> simulationSelector;
@@ -29,11 +43,20 @@ public class SimulationController {
     private JButton stopButton;
     private JButton resetButton;
     private JSlider speedSlider;
+    private JCheckBox diagnosticsBox;
     private JPanel controlsPanel;
-    private JList<ThreadEvent> eventLogList;
+    private EventLogPanel eventLogPanel;
     
     private SimulationCanvas canvas;
-    private Simulation currentSimulation;
+    private TimelinePanel timelinePanel;
+    private ResourceHeatmapPanel heatmapPanel;
+    private volatile Simulation currentSimulation;
+    private ThreadStateSampler sampler;
+    private final ContentionTracker contentionTracker;
+    private final ResourceRegistry resourceRegistry;
+    private final TimelineModel timelineModel;
+    private final ResourceHeatmapModel heatmapModel;
+    private final EventLogModel eventLogModel;
     private final List<Simulation> simulations;
     
     private boolean running = false;
@@ -45,6 +68,34 @@ public class SimulationController {
         simulations.add(new ProducerConsumerSimulation());
         simulations.add(new DiningPhilosophersSimulation());
         simulations.add(new ReaderWriterSimulation());
+        
+        // Current owners and waiters of every resource, shared by the views and exporters
+        resourceRegistry = new ResourceRegistry();
+        EventBus.getInstance().addEventListener(resourceRegistry);
+        
+        // Track lock contention for the side panel
+        contentionTracker = new ContentionTracker(resourceRegistry);
+        
+        // Record per-thread activity for the timeline
+        timelineModel = new TimelineModel();
+        EventBus.getInstance().addEventListener(timelineModel);
+        
+        // Accumulate contention per resource over time for the heatmap
+        heatmapModel = new ResourceHeatmapModel();
+        EventBus.getInstance().addEventListener(heatmapModel);
+        
+        // Keep recent events for the event log
+        eventLogModel = new EventLogModel(Math.max(1, Integer.getInteger(EVENT_LOG_CAPACITY_PROPERTY, 100_000)));
+        EventBus.getInstance().addEventListener(eventLogModel);
+        
+        // Optional local metrics endpoint, enabled by system property
+        MetricsServer.startIfConfigured(() -> currentSimulation, contentionTracker, resourceRegistry);
+        
+        // Optional event stream for the web front-end, enabled by system property
+        EventStreamServer.startIfConfigured(() -> currentSimulation);
+        
+        // Optional collection of events from other local processes, enabled by system property
+        EventCollector.startIfConfigured();
     }
     
     public JPanel createMainPanel() {
@@ -159,6 +210,18 @@ public class SimulationController {
         
         controlsRow.add(speedPanel);
         
+        // Add separator
+        controlsRow.add(createVerticalSeparator());
+        
+        // Toggle for the EventBus health overlay
+        diagnosticsBox = new JCheckBox("Diagnostics");
+        diagnosticsBox.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        diagnosticsBox.setForeground(new Color(232, 232, 232));
+        diagnosticsBox.setBackground(new Color(51, 51, 51));
+        diagnosticsBox.setToolTipText("Show EventBus health on the canvas (D)");
+        diagnosticsBox.addActionListener(e -> canvas.setDiagnosticsVisible(diagnosticsBox.isSelected()));
+        controlsRow.add(diagnosticsBox);
+        
         panel.add(controlsRow);
         panel.add(createHorizontalSeparator());
         
@@ -199,48 +262,45 @@ public class SimulationController {
         // Create canvas panel (middle component)
         canvas = new SimulationCanvas(600, 400);
         canvas.setBackground(new Color(43, 43, 43));
+        canvas.setLagWarningThresholdMillis(Long.getLong(LAG_WARNING_PROPERTY, 0));
+        canvas.setTargetFps(Integer.getInteger(FPS_PROPERTY, 60));
+        
+        // Timeline of per-thread activity and contention heatmap below the canvas
+        timelinePanel = new TimelinePanel(timelineModel);
+        heatmapPanel = new ResourceHeatmapPanel(heatmapModel);
+        
+        JTabbedPane bottomTabs = new JTabbedPane();
+        bottomTabs.setBackground(new Color(51, 51, 51));
+        bottomTabs.setForeground(new Color(232, 232, 232));
+        bottomTabs.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        bottomTabs.addTab("Timeline", timelinePanel);
+        bottomTabs.addTab("Contention Heatmap", heatmapPanel);
+        
+        JSplitPane canvasSplitPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT, canvas, bottomTabs);
+        canvasSplitPane.setResizeWeight(0.7);
+        canvasSplitPane.setBackground(new Color(43, 43, 43));
+        canvasSplitPane.setBorder(null);
+        canvasSplitPane.setDividerSize(5);
         
         // Canvas panel with visualization area
         JPanel canvasPanel = new JPanel(new BorderLayout());
         canvasPanel.setBackground(new Color(43, 43, 43));
-        canvasPanel.add(canvas, BorderLayout.CENTER);
+        canvasPanel.add(canvasSplitPane, BorderLayout.CENTER);
         
         // Create right panel (event log)
-        JPanel logPanel = new JPanel(new BorderLayout());
-        logPanel.setBorder(new EmptyBorder(10, 10, 10, 10));
-        logPanel.setBackground(new Color(51, 51, 51));
-        logPanel.setPreferredSize(new Dimension(150, 0));
-        
-        JLabel logLabel = new JLabel("Event Log");
-        logLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
-        logLabel.setForeground(new Color(232, 232, 232));
-        logPanel.add(logLabel, BorderLayout.NORTH);
-        
-        eventLogList = new JList<>(new DefaultListModel<>());
-        eventLogList.setCellRenderer(new ThreadEventRenderer());
-        eventLogList.setBackground(new Color(51, 51, 51));
-        eventLogList.setForeground(new Color(232, 232, 232));
-        eventLogList.setSelectionBackground(new Color(75, 110, 175));
-        
-        JScrollPane scrollPane = new JScrollPane(eventLogList);
-        scrollPane.setBorder(BorderFactory.createLineBorder(new Color(68, 68, 68)));
-        scrollPane.getViewport().setBackground(new Color(51, 51, 51));
-        logPanel.add(scrollPane, BorderLayout.CENTER);
-        
-        // Listen for events to update log
-        EventBus.getInstance().addEventListener(event -> {
-            SwingUtilities.invokeLater(() -> {
-                DefaultListModel<ThreadEvent> model = (DefaultListModel<ThreadEvent>) eventLogList.getModel();
-                model.add(0, event);
-                if (model.getSize() > 100) {
-                    model.remove(100);
-                }
-            });
-        });
+        eventLogPanel = new EventLogPanel(eventLogModel);
+        
+        // Right side tabs: event log and lock contention
+        JTabbedPane sideTabs = new JTabbedPane();
+        sideTabs.setBackground(new Color(51, 51, 51));
+        sideTabs.setForeground(new Color(232, 232, 232));
+        sideTabs.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        sideTabs.addTab("Event Log", eventLogPanel);
+        sideTabs.addTab("Contention", new ContentionPanel(contentionTracker));
         
         // Add components to split panes
         rightSplitPane.setLeftComponent(canvasPanel);
-        rightSplitPane.setRightComponent(logPanel);
+        rightSplitPane.setRightComponent(sideTabs);
         
         mainSplitPane.setLeftComponent(controlsPanel);
         mainSplitPane.setRightComponent(rightSplitPane);
@@ -267,11 +327,17 @@ public class SimulationController {
             
             // Clear previous state
             canvas.reset();
-            DefaultListModel<ThreadEvent> model = (DefaultListModel<ThreadEvent>) eventLogList.getModel();
-            model.clear();
+            contentionTracker.reset();
+            resourceRegistry.clear();
+            timelineModel.clear();
+            timelinePanel.reset();
+            heatmapModel.clear();
+            heatmapPanel.reset();
+            eventLogPanel.clear();
             
             // Start simulation
             currentSimulation.start();
+            startSampler();
             running = true;
             paused = false;
             updateButtonStates();
@@ -294,6 +360,7 @@ public class SimulationController {
     private void stopSimulation(ActionEvent e) {
         if (currentSimulation != null && currentSimulation.isRunning()) {
             currentSimulation.stop();
+            stopSampler();
             running = false;
             paused = false;
             updateButtonStates();
@@ -307,13 +374,19 @@ public class SimulationController {
             running = false;
             paused = false;
         }
+        stopSampler();
         
         // Clear the visualization
         canvas.reset();
+        contentionTracker.reset();
+        resourceRegistry.clear();
+        timelineModel.clear();
+        timelinePanel.reset();
+        heatmapModel.clear();
+        heatmapPanel.reset();
         
         // Clear the event log
-        DefaultListModel<ThreadEvent> model = (DefaultListModel<ThreadEvent>) eventLogList.getModel();
-        model.clear();
+        eventLogPanel.clear();
         
         // Reset simulation controls to default values
         updateSimulationControls();
@@ -322,6 +395,24 @@ public class SimulationController {
         updateButtonStates();
     }
     
+    /**
+     * Start sampling the JVM state of the current simulation's threads
+     */
+    private void startSampler() {
+        stopSampler();
+        sampler = new ThreadStateSampler(currentSimulation);
+        sampler.addSampleListener(canvas);
+        sampler.start();
+    }
+    
+    private void stopSampler() {
+        if (sampler != null) {
+            sampler.stop();
+            sampler.removeSampleListener(canvas);
+            sampler = null;
+        }
+    }
+    
     private void updateButtonStates() {
         startButton.setEnabled(!running);
         pauseButton.setEnabled(running);
@@ -548,56 +639,6 @@ public class SimulationController {
         return slider;
     }
     
-    /**
-     * Custom cell renderer for displaying thread events in the log
-     */
-    private static class ThreadEventRenderer extends DefaultListCellRenderer {
-        @Override
-        public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
-            super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
-            
-            if (value instanceof ThreadEvent) {
-                ThreadEvent event = (ThreadEvent) value;
-                setText(String.format("%s: %s - %s", 
-                        event.getThreadName(), 
-                        event.getType().toString(), 
-                        event.getMessage()));
-                
-                if (!isSelected) {
-                    // Set colors based on event type
-                    switch (event.getType()) {
-                        case THREAD_CREATED:
-                        case THREAD_STARTED:
-                            setForeground(new Color(106, 135, 89)); // Green
-                            break;
-                        case THREAD_TERMINATED:
-                            setForeground(new Color(204, 120, 50)); // Orange
-                            break;
-                        case LOCK_ACQUIRED:
-                            setForeground(new Color(104, 151, 187)); // Blue
-                            break;
-                        case LOCK_RELEASED:
-                            setForeground(new Color(152, 118, 170)); // Purple
-                            break;
-                        case LOCK_WAITING:
-                            setForeground(new Color(187, 181, 41)); // Yellow
-                            break;
-                        case DEADLOCK_DETECTED:
-                            setForeground(new Color(204, 120, 50)); // Orange
-                            break;
-                        default:
-                            setForeground(new Color(232, 232, 232)); // Default light text
-                    }
-                    setBackground(new Color(51, 51, 51));
-                }
-            }
-            
-            setFont(new Font("Segoe UI", Font.PLAIN, 12));
-            setBorder(BorderFactory.createEmptyBorder(4, 8, 4, 8));
-            return this;
-        }
-    }
-    
     // Helper methods for creating styled components
     private JButton createButton(String text, Color bgColor) {
         JButton button = new JButton(text);
@@ -0,0 +1,213 @@
+package com.threadviz.ui;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Uniform grid over thread positions, used to find the nodes in the
+ * viewport and the node under the mouse without looking at every node.
+ * Each scene snapshot owns a grid and rebuilds it when the snapshot is
+ * filled, reusing its arrays while they are large enough, so publishing a
+ * snapshot allocates nothing once the scene stops growing. A grid is only
+ * rebuilt while no reader holds its snapshot. Nodes are thread indices into
+ * a {@link com.threadviz.models.ThreadStateStore}.
+ */
+public class SpatialGrid {
+    private static final int MAX_CELLS = 1 << 16;
+    
+    private double minX;
+    private double minY;
+    private double maxX;
+    private double maxY;
+    private double cellSize = 1;
+    private int cols = 1;
+    private int rows = 1;
+    private int size;
+    
+    // Nodes sorted by cell; cell c holds items[cellStart[c]] .. items[cellStart[c + 1] - 1]
+    private int[] cellStart = new int[2];
+    private int[] items = new int[0];
+    private double[] itemX = new double[0];
+    private double[] itemY = new double[0];
+    
+    // Scratch space for the counting sort
+    private int[] cellOf = new int[0];
+    private int[] cursor = new int[1];
+    
+    /**
+     * Create an empty grid
+     */
+    public SpatialGrid() {
+    }
+    
+    /**
+     * Replace the grid's contents with the first {@code size} nodes, at the given positions
+     * @param cellSize Preferred cell size in world units; grown if the nodes are very spread out
+     */
+    public void rebuild(int[] nodes, double[] x, double[] y, int size, double cellSize) {
+        double lowX = Double.MAX_VALUE, lowY = Double.MAX_VALUE;
+        double highX = -Double.MAX_VALUE, highY = -Double.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            lowX = Math.min(lowX, x[i]);
+            lowY = Math.min(lowY, y[i]);
+            highX = Math.max(highX, x[i]);
+            highY = Math.max(highY, y[i]);
+        }
+        if (size == 0) {
+            lowX = lowY = highX = highY = 0;
+        }
+        
+        int c = (int) ((highX - lowX) / cellSize) + 1;
+        int r = (int) ((highY - lowY) / cellSize) + 1;
+        while ((long) c * r > MAX_CELLS) {
+            cellSize *= 2;
+            c = (int) ((highX - lowX) / cellSize) + 1;
+            r = (int) ((highY - lowY) / cellSize) + 1;
+        }
+        
+        this.minX = lowX;
+        this.minY = lowY;
+        this.maxX = highX;
+        this.maxY = highY;
+        this.cellSize = cellSize;
+        this.cols = c;
+        this.rows = r;
+        this.size = size;
+        int cellCount = c * r;
+        if (cellStart.length < cellCount + 1) {
+            cellStart = new int[Math.max(cellCount + 1, cellStart.length * 2)];
+            cursor = new int[cellStart.length];
+        }
+        if (items.length < size) {
+            int capacity = Math.max(size, items.length * 2);
+            items = new int[capacity];
+            itemX = new double[capacity];
+            itemY = new double[capacity];
+            cellOf = new int[capacity];
+        }
+        
+        // Counting sort of the nodes by cell
+        Arrays.fill(cellStart, 0, cellCount + 1, 0);
+        for (int i = 0; i < size; i++) {
+            cellOf[i] = cellIndex(x[i], y[i]);
+            cellStart[cellOf[i] + 1]++;
+        }
+        for (int i = 0; i < cellCount; i++) {
+            cellStart[i + 1] += cellStart[i];
+        }
+        System.arraycopy(cellStart, 0, cursor, 0, cellCount);
+        for (int i = 0; i < size; i++) {
+            int slot = cursor[cellOf[i]]++;
+            items[slot] = nodes[i];
+            itemX[slot] = x[i];
+            itemY[slot] = y[i];
+        }
+    }
+    
+    /**
+     * @return the number of nodes in the grid
+     */
+    public int size() {
+        return size;
+    }
+    
+    public double getMinX() {
+        return minX;
+    }
+    
+    public double getMinY() {
+        return minY;
+    }
+    
+    public double getMaxX() {
+        return maxX;
+    }
+    
+    public double getMaxY() {
+        return maxY;
+    }
+    
+    /**
+     * Visit every node inside the given world rectangle
+     */
+    public void forEachIn(double fromX, double fromY, double toX, double toY, IntConsumer visitor) {
+        if (size == 0 || fromX > maxX || fromY > maxY || toX < minX || toY < minY) {
+            return;
+        }
+        int firstCol = clampCol(fromX), lastCol = clampCol(toX);
+        int firstRow = clampRow(fromY), lastRow = clampRow(toY);
+        for (int r = firstRow; r <= lastRow; r++) {
+            for (int c = firstCol; c <= lastCol; c++) {
+                int cell = r * cols + c;
+                for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                    if (itemX[k] >= fromX && itemX[k] <= toX && itemY[k] >= fromY && itemY[k] <= toY) {
+                        visitor.accept(items[k]);
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * @return the number of nodes inside the given world rectangle
+     */
+    public int countIn(double fromX, double fromY, double toX, double toY) {
+        if (size == 0 || fromX > maxX || fromY > maxY || toX < minX || toY < minY) {
+            return 0;
+        }
+        if (fromX <= minX && fromY <= minY && toX >= maxX && toY >= maxY) {
+            return size;
+        }
+        int count = 0;
+        int firstCol = clampCol(fromX), lastCol = clampCol(toX);
+        int firstRow = clampRow(fromY), lastRow = clampRow(toY);
+        for (int r = firstRow; r <= lastRow; r++) {
+            for (int c = firstCol; c <= lastCol; c++) {
+                int cell = r * cols + c;
+                for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                    if (itemX[k] >= fromX && itemX[k] <= toX && itemY[k] >= fromY && itemY[k] <= toY) {
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * @return the node closest to the given world point within the radius, or -1
+     */
+    public int nearest(double worldX, double worldY, double radius) {
+        int best = -1;
+        double bestDistSq = radius * radius;
+        int firstCol = clampCol(worldX - radius), lastCol = clampCol(worldX + radius);
+        int firstRow = clampRow(worldY - radius), lastRow = clampRow(worldY + radius);
+        for (int r = firstRow; r <= lastRow; r++) {
+            for (int c = firstCol; c <= lastCol; c++) {
+                int cell = r * cols + c;
+                for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                    double dx = itemX[k] - worldX;
+                    double dy = itemY[k] - worldY;
+                    double distSq = dx * dx + dy * dy;
+                    if (distSq <= bestDistSq) {
+                        bestDistSq = distSq;
+                        best = items[k];
+                    }
+                }
+            }
+        }
+        return best;
+    }
+    
+    private int cellIndex(double x, double y) {
+        return clampRow(y) * cols + clampCol(x);
+    }
+    
+    private int clampCol(double x) {
+        return Math.max(0, Math.min(cols - 1, (int) ((x - minX) / cellSize)));
+    }
+    
+    private int clampRow(double y) {
+        return Math.max(0, Math.min(rows - 1, (int) ((y - minY) / cellSize)));
+    }
+} 
\ No newline at end of file
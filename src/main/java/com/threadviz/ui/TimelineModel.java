@@ -0,0 +1,282 @@
+package com.threadviz.ui;
+
+import com.threadviz.core.EventBus;
+import com.threadviz.models.ThreadEvent;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Per-thread history of activity segments for the timeline view.
+ * Each thread gets a lane holding the times at which its activity changed;
+ * a segment runs from one change to the next, and the last segment of a
+ * live thread stays open until now. Whenever a segment is closed it is
+ * queued so the view can redraw only the tiles that cover it.
+ */
+public class TimelineModel implements EventBus.EventListener {
+    
+    public static final byte RUNNING = 0;
+    public static final byte BLOCKED = 1;
+    public static final byte WAITING = 2;
+    public static final byte HOLDING = 3;
+    public static final byte TERMINATED = 4;
+    
+    private final Map<String, Lane> lanesByThread;
+    private final Queue<ClosedSegment> closedSegments;
+    
+    // Lanes in order of creation; replaced by a larger copy when full
+    private volatile Lane[] lanes;
+    private volatile int laneCount;
+    private volatile long startMillis;
+    
+    public TimelineModel() {
+        this.lanesByThread = new ConcurrentHashMap<>();
+        this.closedSegments = new ConcurrentLinkedQueue<>();
+        this.lanes = new Lane[64];
+        this.startMillis = System.currentTimeMillis();
+    }
+    
+    @Override
+    public void onEvent(ThreadEvent event) {
+        String threadName = event.getThreadName();
+        Lane lane = lanesByThread.get(threadName);
+        if (lane == null) {
+            // Only simulation threads get a lane, not whoever paused the simulation
+            if (event.getType() != ThreadEvent.EventType.THREAD_CREATED
+                    && event.getType() != ThreadEvent.EventType.THREAD_STARTED) {
+                return;
+            }
+            lane = addLane(threadName);
+        }
+        
+        long time = event.getTimestamp().toEpochMilli() - startMillis;
+        lane.apply(event.getType(), Math.max(0, time));
+    }
+    
+    private synchronized Lane addLane(String threadName) {
+        Lane lane = lanesByThread.get(threadName);
+        if (lane != null) {
+            return lane;
+        }
+        if (laneCount == lanes.length) {
+            lanes = Arrays.copyOf(lanes, lanes.length * 2);
+        }
+        lane = new Lane(laneCount, threadName);
+        lanes[laneCount] = lane;
+        lanesByThread.put(threadName, lane);
+        laneCount++;
+        return lane;
+    }
+    
+    /**
+     * @return the number of lanes (threads) recorded so far
+     */
+    public int getLaneCount() {
+        return laneCount;
+    }
+    
+    /**
+     * @return the lane at the given index, in order of thread creation
+     */
+    public Lane getLane(int index) {
+        return lanes[index];
+    }
+    
+    /**
+     * @return milliseconds elapsed since the model was started or cleared
+     */
+    public long now() {
+        return System.currentTimeMillis() - startMillis;
+    }
+    
+    /**
+     * Take the next segment closed since the last call, or null if none
+     */
+    public ClosedSegment pollClosedSegment() {
+        return closedSegments.poll();
+    }
+    
+    /**
+     * Remove all lanes and restart the clock
+     */
+    public synchronized void clear() {
+        lanesByThread.clear();
+        closedSegments.clear();
+        lanes = new Lane[64];
+        laneCount = 0;
+        startMillis = System.currentTimeMillis();
+    }
+    
+    /**
+     * Activity history of a single thread
+     */
+    public class Lane {
+        private final int index;
+        private final String threadName;
+        
+        private long[] times;
+        private byte[] states;
+        private int size;
+        private int holdCount;
+        
+        Lane(int index, String threadName) {
+            this.index = index;
+            this.threadName = threadName;
+            this.times = new long[16];
+            this.states = new byte[16];
+        }
+        
+        public int getIndex() {
+            return index;
+        }
+        
+        public String getThreadName() {
+            return threadName;
+        }
+        
+        synchronized void apply(ThreadEvent.EventType type, long time) {
+            if (size > 0 && states[size - 1] == TERMINATED) {
+                return;
+            }
+            
+            byte state;
+            switch (type) {
+                case LOCK_WAITING:
+                case DEADLOCK_DETECTED:
+                    state = BLOCKED;
+                    break;
+                case CONDITION_WAITING:
+                    state = WAITING;
+                    break;
+                case LOCK_ACQUIRED:
+                    holdCount++;
+                    state = HOLDING;
+                    break;
+                case LOCK_RELEASED:
+                    holdCount = Math.max(0, holdCount - 1);
+                    state = holdCount > 0 ? HOLDING : RUNNING;
+                    break;
+                case THREAD_TERMINATED:
+                    state = TERMINATED;
+                    break;
+                default:
+                    state = holdCount > 0 ? HOLDING : RUNNING;
+                    break;
+            }
+            
+            if (size > 0) {
+                if (states[size - 1] == state) {
+                    return;
+                }
+                // Keep times monotonic even if events were published slightly out of order
+                time = Math.max(time, times[size - 1]);
+                closedSegments.add(new ClosedSegment(index, times[size - 1], time));
+            }
+            
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                states = Arrays.copyOf(states, size * 2);
+            }
+            times[size] = time;
+            states[size] = state;
+            size++;
+        }
+        
+        /**
+         * Copy the segments overlapping [from, to) into the given visitor.
+         * Segments shorter than {@code resolution} that fall inside an already
+         * visited interval are skipped, so the cost is bounded by the number
+         * of pixels rather than the number of segments.
+         * @param includeOpen Whether to include the still-open last segment
+         */
+        public synchronized void visitSegments(long from, long to, long resolution, long now,
+                                               boolean includeOpen, SegmentVisitor visitor) {
+            if (size == 0) {
+                return;
+            }
+            
+            int i = findSegment(from);
+            while (i < size) {
+                long start = times[i];
+                if (start >= to) {
+                    break;
+                }
+                
+                boolean open = i == size - 1;
+                if (open && (!includeOpen || states[i] == TERMINATED)) {
+                    break;
+                }
+                long end = open ? Math.max(start, now) : times[i + 1];
+                
+                visitor.visit(start, end, states[i]);
+                
+                // Jump to the segment covering the next resolution step
+                long next = Math.max(end, start + resolution);
+                int skipTo = findSegment(next);
+                i = Math.max(i + 1, skipTo);
+            }
+        }
+        
+        /**
+         * @return the start time of the open segment, or -1 if there is none
+         */
+        public synchronized long getOpenSegmentStart() {
+            if (size == 0 || states[size - 1] == TERMINATED) {
+                return -1;
+            }
+            return times[size - 1];
+        }
+        
+        /**
+         * @return the state of the open segment
+         */
+        public synchronized byte getCurrentState() {
+            return size == 0 ? RUNNING : states[size - 1];
+        }
+        
+        private int findSegment(long time) {
+            int idx = Arrays.binarySearch(times, 0, size, time);
+            if (idx < 0) {
+                idx = -idx - 2; // Segment starting before the time
+            }
+            return Math.max(0, idx);
+        }
+    }
+    
+    /**
+     * Callback for segments visited in a lane
+     */
+    public interface SegmentVisitor {
+        void visit(long start, long end, byte state);
+    }
+    
+    /**
+     * A segment that was closed by a state change and will not change again
+     */
+    public static class ClosedSegment {
+        private final int lane;
+        private final long start;
+        private final long end;
+        
+        ClosedSegment(int lane, long start, long end) {
+            this.lane = lane;
+            this.start = start;
+            this.end = end;
+        }
+        
+        public int getLane() {
+            return lane;
+        }
+        
+        public long getStart() {
+            return start;
+        }
+        
+        public long getEnd() {
+            return end;
+        }
+    }
+} 
\ No newline at end of file
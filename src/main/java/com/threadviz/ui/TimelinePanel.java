@@ -0,0 +1,372 @@
+package com.threadviz.ui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Scrolling Gantt-style timeline with one lane per thread.
+ * Closed segments are drawn into fixed-size offscreen tiles that are cached
+ * per zoom level; a tile is only redrawn when a segment closing inside its
+ * time range invalidates it. The still-open segment of each visible lane is
+ * drawn live on top, so panning and zooming are mostly image blits.
+ */
+public class TimelinePanel extends JComponent {
+    
+    private static final int TILE_WIDTH = 256;
+    private static final int LANE_HEIGHT = 8;
+    private static final int LANES_PER_TILE = 32;
+    private static final int TILE_HEIGHT = LANE_HEIGHT * LANES_PER_TILE;
+    private static final int MAX_CACHED_TILES = 96;
+    
+    private static final int LABEL_WIDTH = 110;
+    private static final int AXIS_HEIGHT = 18;
+    private static final int MIN_ZOOM = 0;   // 1 ms per pixel
+    private static final int MAX_ZOOM = 24;  // about 4.6 hours per pixel
+    private static final int FRAME_INTERVAL_MS = 16;
+    
+    private static final Color BACKGROUND = new Color(43, 43, 43);
+    private static final Font AXIS_FONT = new Font("Segoe UI", Font.PLAIN, 10);
+    private static final Font LABEL_FONT = new Font("Segoe UI", Font.PLAIN, 9);
+    private static final Color[] STATE_COLORS = {
+        new Color(76, 175, 80),   // Running - Material Green
+        new Color(244, 67, 54),   // Blocked - Material Red
+        new Color(33, 150, 243),  // Waiting - Material Blue
+        new Color(255, 193, 7),   // Holding a resource - Material Amber
+        BACKGROUND                // Terminated
+    };
+    
+    private final TimelineModel model;
+    private final Timer frameTimer;
+    
+    // Tile cache keyed by zoom, tile row and tile column, in LRU order
+    private final LinkedHashMap<Long, BufferedImage> tiles;
+    private final Set<Integer> cachedZooms;
+    
+    private int zoom = 4;
+    private double viewStartPx;
+    private int scrollY;
+    private boolean followLive = true;
+    
+    private Point dragStart;
+    private double dragViewStartPx;
+    private int dragScrollY;
+    
+    public TimelinePanel(TimelineModel model) {
+        this.model = model;
+        this.tiles = new LinkedHashMap<>(MAX_CACHED_TILES, 0.75f, true);
+        this.cachedZooms = new HashSet<>();
+        
+        setPreferredSize(new Dimension(600, 180));
+        setBackground(BACKGROUND);
+        setOpaque(true);
+        setToolTipText("Drag to pan, wheel to zoom, shift+wheel to scroll, double-click to follow live");
+        
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                dragStart = e.getPoint();
+                dragViewStartPx = viewStartPx;
+                dragScrollY = scrollY;
+            }
+            
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (dragStart == null) return;
+                followLive = false;
+                viewStartPx = Math.max(0, dragViewStartPx - (e.getX() - dragStart.x));
+                scrollY = clampScroll(dragScrollY - (e.getY() - dragStart.y));
+                repaint();
+            }
+            
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                dragStart = null;
+            }
+            
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    followLive = true;
+                    repaint();
+                }
+            }
+            
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                if (e.isShiftDown()) {
+                    scrollY = clampScroll(scrollY + e.getWheelRotation() * LANE_HEIGHT * 3);
+                } else {
+                    zoomAt(e.getX() - LABEL_WIDTH, e.getWheelRotation());
+                }
+                repaint();
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+        addMouseWheelListener(mouse);
+        
+        // Frame timer: invalidate tiles touched by new segments and keep the live edge moving
+        frameTimer = new Timer(FRAME_INTERVAL_MS, e -> {
+            boolean dirty = invalidateClosedSegments();
+            if (isShowing() && (dirty || followLive)) {
+                repaint();
+            }
+        });
+        frameTimer.setCoalesce(true);
+    }
+    
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        // Segments that closed while the panel was hidden are picked up on the first tick
+        frameTimer.start();
+    }
+    
+    @Override
+    public void removeNotify() {
+        frameTimer.stop();
+        super.removeNotify();
+    }
+    
+    /**
+     * Drop all cached tiles, e.g. after the model was cleared
+     */
+    public void reset() {
+        tiles.clear();
+        cachedZooms.clear();
+        viewStartPx = 0;
+        scrollY = 0;
+        followLive = true;
+        repaint();
+    }
+    
+    private void zoomAt(int screenX, int rotation) {
+        int newZoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom + rotation));
+        if (newZoom == zoom) return;
+        
+        // Keep the time under the cursor fixed
+        double time = (viewStartPx + screenX) * msPerPixel(zoom);
+        zoom = newZoom;
+        viewStartPx = Math.max(0, time / msPerPixel(zoom) - screenX);
+    }
+    
+    private int clampScroll(int value) {
+        int contentHeight = model.getLaneCount() * LANE_HEIGHT;
+        int visible = Math.max(0, getHeight() - AXIS_HEIGHT);
+        return Math.max(0, Math.min(value, Math.max(0, contentHeight - visible)));
+    }
+    
+    private static long msPerPixel(int zoom) {
+        return 1L << zoom;
+    }
+    
+    private static long tileKey(int zoom, int row, long col) {
+        return ((long) zoom << 58) | ((long) row << 36) | col;
+    }
+    
+    /**
+     * Remove cached tiles that overlap segments closed since the last frame
+     * @return true if anything changed
+     */
+    private boolean invalidateClosedSegments() {
+        boolean changed = false;
+        TimelineModel.ClosedSegment segment;
+        while ((segment = model.pollClosedSegment()) != null) {
+            changed = true;
+            int row = segment.getLane() / LANES_PER_TILE;
+            for (int z : cachedZooms) {
+                long tileMs = TILE_WIDTH * msPerPixel(z);
+                long firstCol = segment.getStart() / tileMs;
+                long lastCol = segment.getEnd() / tileMs;
+                if (lastCol - firstCol > MAX_CACHED_TILES) {
+                    // Long segment: cheaper to scan the cache than every column
+                    Iterator<Map.Entry<Long, BufferedImage>> it = tiles.entrySet().iterator();
+                    while (it.hasNext()) {
+                        long key = it.next().getKey();
+                        long col = key & ((1L << 36) - 1);
+                        if ((int) (key >>> 58) == z && (int) ((key >>> 36) & ((1 << 22) - 1)) == row
+                                && col >= firstCol && col <= lastCol) {
+                            it.remove();
+                        }
+                    }
+                } else {
+                    for (long col = firstCol; col <= lastCol; col++) {
+                        tiles.remove(tileKey(z, row, col));
+                    }
+                }
+            }
+        }
+        return changed;
+    }
+    
+    @Override
+    protected void paintComponent(Graphics graphics) {
+        Graphics2D g = (Graphics2D) graphics;
+        int width = getWidth();
+        int height = getHeight();
+        
+        g.setColor(BACKGROUND);
+        g.fillRect(0, 0, width, height);
+        
+        long now = model.now();
+        long msPerPx = msPerPixel(zoom);
+        int plotWidth = Math.max(1, width - LABEL_WIDTH);
+        
+        if (followLive) {
+            viewStartPx = Math.max(0, now / (double) msPerPx - plotWidth * 0.9);
+        }
+        scrollY = clampScroll(scrollY);
+        
+        int laneCount = model.getLaneCount();
+        int firstLane = scrollY / LANE_HEIGHT;
+        int lastLane = Math.min(laneCount - 1, (scrollY + height - AXIS_HEIGHT) / LANE_HEIGHT);
+        
+        // Tiled closed segments
+        Graphics2D plot = (Graphics2D) g.create(LABEL_WIDTH, AXIS_HEIGHT, plotWidth, height - AXIS_HEIGHT);
+        long viewStart = (long) viewStartPx;
+        long firstCol = viewStart / TILE_WIDTH;
+        long lastCol = (viewStart + plotWidth) / TILE_WIDTH;
+        int firstRow = firstLane / LANES_PER_TILE;
+        int lastRow = lastLane < 0 ? -1 : lastLane / LANES_PER_TILE;
+        
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (long col = firstCol; col <= lastCol; col++) {
+                BufferedImage tile = getTile(row, col, now);
+                int x = (int) (col * TILE_WIDTH - viewStart);
+                int y = row * TILE_HEIGHT - scrollY;
+                plot.drawImage(tile, x, y, null);
+            }
+        }
+        
+        // Open segments are drawn live on top of the tiles
+        for (int laneIndex = firstLane; laneIndex <= lastLane; laneIndex++) {
+            TimelineModel.Lane lane = model.getLane(laneIndex);
+            long openStart = lane.getOpenSegmentStart();
+            if (openStart < 0) continue;
+            
+            int x1 = (int) (openStart / msPerPx - viewStart);
+            int x2 = (int) (now / msPerPx - viewStart);
+            if (x2 < 0 || x1 > plotWidth) continue;
+            
+            plot.setColor(STATE_COLORS[lane.getCurrentState()]);
+            plot.fillRect(x1, laneIndex * LANE_HEIGHT - scrollY + 1, Math.max(1, x2 - x1), LANE_HEIGHT - 2);
+        }
+        plot.dispose();
+        
+        drawAxis(g, viewStart, msPerPx, plotWidth);
+        drawLabels(g, firstLane, lastLane);
+    }
+    
+    private BufferedImage getTile(int row, long col, long now) {
+        long key = tileKey(zoom, row, col);
+        BufferedImage tile = tiles.get(key);
+        if (tile != null) {
+            return tile;
+        }
+        
+        tile = renderTile(row, col, now);
+        tiles.put(key, tile);
+        cachedZooms.add(zoom);
+        
+        // Evict least recently used tiles
+        Iterator<Long> it = tiles.keySet().iterator();
+        while (tiles.size() > MAX_CACHED_TILES && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+        return tile;
+    }
+    
+    private BufferedImage renderTile(int row, long col, long now) {
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        BufferedImage tile = gc != null
+                ? gc.createCompatibleImage(TILE_WIDTH, TILE_HEIGHT, Transparency.OPAQUE)
+                : new BufferedImage(TILE_WIDTH, TILE_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        
+        Graphics2D g = tile.createGraphics();
+        g.setColor(BACKGROUND);
+        g.fillRect(0, 0, TILE_WIDTH, TILE_HEIGHT);
+        
+        long msPerPx = msPerPixel(zoom);
+        long tileStart = col * TILE_WIDTH * msPerPx;
+        long tileEnd = tileStart + TILE_WIDTH * msPerPx;
+        
+        int firstLane = row * LANES_PER_TILE;
+        int lastLane = Math.min(model.getLaneCount(), firstLane + LANES_PER_TILE) - 1;
+        for (int laneIndex = firstLane; laneIndex <= lastLane; laneIndex++) {
+            int y = (laneIndex - firstLane) * LANE_HEIGHT + 1;
+            model.getLane(laneIndex).visitSegments(tileStart, tileEnd, msPerPx, now, false,
+                    (start, end, state) -> {
+                        int x1 = (int) ((start - tileStart) / msPerPx);
+                        int x2 = (int) ((end - tileStart) / msPerPx);
+                        g.setColor(STATE_COLORS[state]);
+                        g.fillRect(x1, y, Math.max(1, x2 - x1), LANE_HEIGHT - 2);
+                    });
+        }
+        g.dispose();
+        return tile;
+    }
+    
+    private void drawAxis(Graphics2D g, long viewStart, long msPerPx, int plotWidth) {
+        g.setColor(new Color(51, 51, 51));
+        g.fillRect(0, 0, getWidth(), AXIS_HEIGHT);
+        g.setFont(AXIS_FONT);
+        
+        // Pick a tick spacing of roughly 100 pixels, rounded to a 1-2-5 step
+        long tickMs = niceStep(100 * msPerPx);
+        long startMs = viewStart * msPerPx;
+        long firstTick = (startMs / tickMs + 1) * tickMs;
+        for (long t = firstTick; t < startMs + plotWidth * msPerPx; t += tickMs) {
+            int x = LABEL_WIDTH + (int) (t / msPerPx - viewStart);
+            g.setColor(new Color(68, 68, 68));
+            g.drawLine(x, AXIS_HEIGHT - 4, x, AXIS_HEIGHT);
+            g.setColor(new Color(170, 170, 170));
+            g.drawString(formatTime(t), x + 2, AXIS_HEIGHT - 5);
+        }
+    }
+    
+    private void drawLabels(Graphics2D g, int firstLane, int lastLane) {
+        g.setColor(new Color(51, 51, 51));
+        g.fillRect(0, AXIS_HEIGHT, LABEL_WIDTH, getHeight() - AXIS_HEIGHT);
+        
+        // Labels only fit when lanes are tall enough; otherwise show every few
+        g.setFont(LABEL_FONT);
+        int every = (12 + LANE_HEIGHT - 1) / LANE_HEIGHT;
+        g.setColor(new Color(200, 200, 200));
+        for (int laneIndex = firstLane; laneIndex <= lastLane; laneIndex += every) {
+            int y = AXIS_HEIGHT + laneIndex * LANE_HEIGHT - scrollY + LANE_HEIGHT;
+            g.drawString(model.getLane(laneIndex).getThreadName(), 4, y);
+        }
+    }
+    
+    static long niceStep(long raw) {
+        long magnitude = 1;
+        while (magnitude * 10 <= raw) {
+            magnitude *= 10;
+        }
+        if (raw <= magnitude) return magnitude;
+        if (raw <= magnitude * 2) return magnitude * 2;
+        if (raw <= magnitude * 5) return magnitude * 5;
+        return magnitude * 10;
+    }
+    
+    static String formatTime(long ms) {
+        if (ms < 60_000) {
+            return String.format("%.1fs", ms / 1000.0);
+        }
+        long seconds = ms / 1000;
+        if (seconds < 3600) {
+            return String.format("%dm%02ds", seconds / 60, seconds % 60);
+        }
+        return String.format("%dh%02dm", seconds / 3600, (seconds / 60) % 60);
+    }
+} 
\ No newline at end of file
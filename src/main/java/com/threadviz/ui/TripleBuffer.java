@@ -0,0 +1,71 @@
+package com.threadviz.ui;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hands buffers from one writer thread to one reader thread without locks.
+ * The writer fills the back buffer and publishes it; the reader acquires the
+ * latest published buffer. Each side only ever swaps its own buffer with the
+ * middle one in a single atomic step, so the writer never touches the buffer
+ * being read and the reader never sees a buffer being written. Buffers the
+ * reader did not pick up in time are overwritten by newer ones.
+ */
+public class TripleBuffer<T> {
+    
+    // Set on the middle index while it holds a buffer the reader has not taken yet
+    private static final int FRESH = 4;
+    private static final int INDEX_MASK = 3;
+    
+    private final Object[] buffers;
+    private final AtomicInteger middle;
+    
+    // Writer thread only
+    private int back;
+    
+    // Reader thread only
+    private int front;
+    
+    public TripleBuffer(Supplier<T> factory) {
+        this.buffers = new Object[]{factory.get(), factory.get(), factory.get()};
+        this.front = 0;
+        this.middle = new AtomicInteger(1);
+        this.back = 2;
+    }
+    
+    /**
+     * @return the buffer the writer may fill. Writer thread only.
+     */
+    @SuppressWarnings("unchecked")
+    public T getBack() {
+        return (T) buffers[back];
+    }
+    
+    /**
+     * Make the back buffer the latest one and take a free buffer as the new
+     * back buffer. Writer thread only.
+     */
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+    
+    /**
+     * Take the latest published buffer if there is a new one. The returned
+     * buffer stays unchanged until the next call. Reader thread only.
+     */
+    @SuppressWarnings("unchecked")
+    public T acquire() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX_MASK;
+        }
+        return (T) buffers[front];
+    }
+    
+    /**
+     * @return the buffer returned by the last {@link #acquire()}. Reader thread only.
+     */
+    @SuppressWarnings("unchecked")
+    public T getFront() {
+        return (T) buffers[front];
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,250 @@
+package com.threadviz.agent;
+
+import com.threadviz.models.ThreadEvent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class LockTransformerTest {
+    
+    private static final ThreadEvent.EventType WAITING = ThreadEvent.EventType.LOCK_WAITING;
+    private static final ThreadEvent.EventType ACQUIRED = ThreadEvent.EventType.LOCK_ACQUIRED;
+    private static final ThreadEvent.EventType RELEASED = ThreadEvent.EventType.LOCK_RELEASED;
+    
+    private final List<ThreadEvent> events = new ArrayList<>();
+    private TraceBuffers buffers;
+    
+    @Before
+    public void enableHooks() {
+        buffers = new TraceBuffers(events::add);
+        LockHooks.enable(buffers, 1);
+    }
+    
+    @After
+    public void disableHooks() {
+        LockHooks.disable();
+    }
+    
+    @Test
+    public void reportsNestedReentrantLockOnce() throws Exception {
+        ReentrantLock lock = new ReentrantLock();
+        run(true, "nestedLocks", lock);
+        
+        assertEvents(id(lock), WAITING, ACQUIRED, RELEASED);
+        assertEquals(0, lock.getHoldCount());
+    }
+    
+    @Test
+    public void reportsLockCalledThroughInterface() throws Exception {
+        Lock lock = new ReentrantLock();
+        run(true, "nestedInterfaceLocks", lock);
+        
+        assertEvents(id(lock), WAITING, ACQUIRED, RELEASED);
+    }
+    
+    @Test
+    public void reportsNestedWriteLockOnce() throws Exception {
+        ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        run(true, "nestedWriteLocks", lock);
+        
+        assertEvents(id(lock.writeLock()), WAITING, ACQUIRED, RELEASED);
+    }
+    
+    @Test
+    public void reportsNestedMonitorOnce() throws Exception {
+        Object monitor = new Object();
+        run(true, "nestedMonitors", monitor);
+        
+        assertEvents(id(monitor), WAITING, ACQUIRED, RELEASED);
+    }
+    
+    @Test
+    public void leavesMonitorsAloneWhenDisabledByOption() throws Exception {
+        run(false, "nestedMonitors", new Object());
+        
+        assertTrue(events.isEmpty());
+    }
+    
+    @Test
+    public void reportsConditionAgainstItsLock() throws Exception {
+        ReentrantLock lock = new ReentrantLock();
+        run(true, "awaitAndSignal", lock);
+        
+        assertEvents(id(lock), WAITING, ACQUIRED, ThreadEvent.EventType.CONDITION_WAITING, ACQUIRED,
+                ThreadEvent.EventType.CONDITION_SIGNALED, RELEASED);
+    }
+    
+    @Test
+    public void reportsSuccessfulTryLockOnly() throws Exception {
+        ReentrantLock lock = new ReentrantLock();
+        run(true, "tryLockTwice", lock);
+        
+        assertEvents(id(lock), ACQUIRED, RELEASED);
+    }
+    
+    @Test
+    public void reportsTimedTryLockAsWait() throws Exception {
+        ReentrantLock lock = new ReentrantLock();
+        run(true, "timedTryLock", lock);
+        assertEvents(id(lock), WAITING, ACQUIRED, RELEASED);
+        
+        // Left locked by a thread that is gone, so the wait times out
+        events.clear();
+        Thread holder = new Thread(lock::lock);
+        holder.start();
+        holder.join();
+        run(true, "timedTryLock", lock);
+        assertEvents(id(lock), WAITING, ThreadEvent.EventType.EXECUTION);
+    }
+    
+    @Test
+    public void reportsNothingWhileDisabled() throws Exception {
+        LockHooks.disable();
+        run(true, "nestedLocks", new ReentrantLock());
+        run(true, "nestedMonitors", new Object());
+        
+        assertTrue(events.isEmpty());
+    }
+    
+    /**
+     * Run a fixture method from a rewritten copy of {@link Fixture}, then collect its events
+     */
+    private void run(boolean monitors, String method, Object argument) throws Exception {
+        Class<?> fixture = instrumentedFixture(monitors);
+        for (Method m : fixture.getMethods()) {
+            if (m.getName().equals(method)) {
+                m.invoke(null, argument);
+                buffers.flush();
+                return;
+            }
+        }
+        throw new NoSuchMethodException(method);
+    }
+    
+    private static Class<?> instrumentedFixture(boolean monitors) throws Exception {
+        String name = Fixture.class.getName();
+        byte[] original;
+        try (InputStream in = Fixture.class.getResourceAsStream(name.substring(name.lastIndexOf('.') + 1) + ".class")) {
+            original = in.readAllBytes();
+        }
+        byte[] rewritten = LockTransformer.instrument(original, monitors);
+        assertNotNull(rewritten);
+        
+        // Defines the rewritten fixture itself and leaves everything else, including the hooks, to the parent
+        ClassLoader loader = new ClassLoader(LockTransformerTest.class.getClassLoader()) {
+            @Override
+            protected Class<?> loadClass(String className, boolean resolve) throws ClassNotFoundException {
+                if (!className.equals(name)) {
+                    return super.loadClass(className, resolve);
+                }
+                synchronized (getClassLoadingLock(className)) {
+                    Class<?> loaded = findLoadedClass(className);
+                    return loaded != null ? loaded : defineClass(className, rewritten, 0, rewritten.length);
+                }
+            }
+        };
+        return loader.loadClass(name);
+    }
+    
+    private void assertEvents(String resourceId, ThreadEvent.EventType... expected) {
+        List<ThreadEvent.EventType> types = new ArrayList<>();
+        for (ThreadEvent event : events) {
+            types.add(event.getType());
+            assertEquals(resourceId, event.getResourceId());
+            assertEquals(Thread.currentThread().getName(), event.getThreadName());
+        }
+        assertEquals(Arrays.asList(expected), types);
+    }
+    
+    private static String id(Object lock) {
+        String className = lock.getClass().getName();
+        return className.substring(className.lastIndexOf('.') + 1) + "@" + Integer.toHexString(System.identityHashCode(lock));
+    }
+    
+    /**
+     * Code to rewrite; only ever run from an instrumented copy
+     */
+    public static class Fixture {
+        
+        public static void nestedLocks(ReentrantLock lock) {
+            lock.lock();
+            try {
+                lock.lock();
+                lock.unlock();
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        public static void nestedInterfaceLocks(Lock lock) {
+            lock.lock();
+            try {
+                lock.lock();
+                lock.unlock();
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        public static void nestedWriteLocks(ReentrantReadWriteLock lock) {
+            lock.writeLock().lock();
+            try {
+                lock.writeLock().lock();
+                lock.writeLock().unlock();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        
+        public static void nestedMonitors(Object monitor) {
+            synchronized (monitor) {
+                synchronized (monitor) {
+                    monitor.hashCode();
+                }
+            }
+        }
+        
+        public static void awaitAndSignal(ReentrantLock lock) throws InterruptedException {
+            Condition condition = lock.newCondition();
+            lock.lock();
+            try {
+                condition.awaitNanos(1000);
+                condition.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        public static void timedTryLock(ReentrantLock lock) throws InterruptedException {
+            if (lock.tryLock(1, TimeUnit.MILLISECONDS)) {
+                lock.unlock();
+            }
+        }
+        
+        public static void tryLockTwice(ReentrantLock lock) {
+            if (lock.tryLock()) {
+                try {
+                    lock.tryLock();
+                    lock.unlock();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+} 
\ No newline at end of file
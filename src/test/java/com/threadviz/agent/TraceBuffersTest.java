@@ -0,0 +1,98 @@
+package com.threadviz.agent;
+
+import com.threadviz.models.ThreadEvent;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.SynchronousQueue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TraceBuffersTest {
+    
+    @Test
+    public void mergesThreadsInTimeOrder() throws Exception {
+        List<ThreadEvent> events = new ArrayList<>();
+        TraceBuffers buffers = new TraceBuffers(events::add);
+        SynchronousQueue<Integer> turn = new SynchronousQueue<>();
+        SynchronousQueue<Integer> done = new SynchronousQueue<>();
+        
+        // The other thread records odd steps, this one even steps
+        Thread other = new Thread(() -> {
+            try {
+                for (int i = 0; i < 50; i++) {
+                    int step = turn.take();
+                    buffers.record(ThreadEvent.EventType.EXECUTION, step, Object.class);
+                    done.put(step);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "other");
+        other.start();
+        for (int step = 0; step < 100; step += 2) {
+            buffers.record(ThreadEvent.EventType.EXECUTION, step, Object.class);
+            turn.put(step + 1);
+            done.take();
+        }
+        other.join();
+        buffers.flush();
+        
+        assertEquals(100, events.size());
+        for (int i = 0; i < events.size(); i++) {
+            assertEquals("Object@" + Integer.toHexString(i), events.get(i).getResourceId());
+            assertEquals(i % 2 == 0 ? Thread.currentThread().getName() : "other", events.get(i).getThreadName());
+            if (i > 0) {
+                assertFalse(events.get(i).getTimestamp().isBefore(events.get(i - 1).getTimestamp()));
+            }
+        }
+    }
+    
+    @Test
+    public void dropsAndCountsEventsWhileBufferIsFull() {
+        List<ThreadEvent> events = new ArrayList<>();
+        TraceBuffers buffers = new TraceBuffers(events::add);
+        for (int i = 0; i < TraceBuffers.BUFFER_CAPACITY; i++) {
+            buffers.record(ThreadEvent.EventType.LOCK_ACQUIRED, i, Object.class);
+        }
+        
+        // The recording thread never drains itself
+        buffers.record(ThreadEvent.EventType.LOCK_RELEASED, 1, Object.class);
+        buffers.record(ThreadEvent.EventType.LOCK_RELEASED, 2, Object.class);
+        assertTrue(events.isEmpty());
+        assertEquals(2, buffers.getDroppedCount());
+        
+        buffers.flush();
+        buffers.record(ThreadEvent.EventType.LOCK_RELEASED, 3, Object.class);
+        buffers.flush();
+        assertEquals(TraceBuffers.BUFFER_CAPACITY + 1, events.size());
+        assertEquals("Object@3", events.get(TraceBuffers.BUFFER_CAPACITY).getResourceId());
+        assertEquals(2, buffers.getDroppedCount());
+    }
+    
+    @Test
+    public void fullBufferWakesTheDrainThread() throws Exception {
+        List<ThreadEvent> events = Collections.synchronizedList(new ArrayList<>());
+        TraceBuffers buffers = new TraceBuffers(events::add);
+        buffers.start();
+        try {
+            // The recording thread only hands the full ring over; the drain thread empties it
+            for (int i = 0; i <= TraceBuffers.BUFFER_CAPACITY; i++) {
+                buffers.record(ThreadEvent.EventType.LOCK_ACQUIRED, i, Object.class);
+            }
+            // The periodic drain may have made room before the last event, so it is either passed on or dropped
+            long deadline = System.currentTimeMillis() + 2000;
+            while (events.size() + buffers.getDroppedCount() <= TraceBuffers.BUFFER_CAPACITY
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(TraceBuffers.BUFFER_CAPACITY + 1, events.size() + buffers.getDroppedCount());
+        } finally {
+            buffers.stop();
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.threadviz.instrument;
+
+import com.threadviz.core.EventBus;
+import com.threadviz.models.ThreadEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the events the event bus dispatches for one resource, for tests
+ * of the traced wrappers
+ */
+class EventRecorder implements EventBus.EventListener {
+    private static final long TIMEOUT_MS = 5000;
+    
+    private final String resourceId;
+    private final List<ThreadEvent> events = new ArrayList<>();
+    
+    EventRecorder(String resourceId) {
+        this.resourceId = resourceId;
+        EventBus.getInstance().addEventListener(this);
+    }
+    
+    void close() {
+        EventBus.getInstance().removeEventListener(this);
+    }
+    
+    @Override
+    public synchronized void onEvent(ThreadEvent event) {
+        if (resourceId.equals(event.getResourceId())) {
+            events.add(event);
+            notifyAll();
+        }
+    }
+    
+    /**
+     * Wait for the events of the given thread to reach a count
+     * @return the types of the thread's events, oldest first
+     */
+    synchronized List<ThreadEvent.EventType> await(String thread, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        List<ThreadEvent.EventType> types = types(thread);
+        while (types.size() < count && System.currentTimeMillis() < deadline) {
+            wait(Math.max(1, deadline - System.currentTimeMillis()));
+            types = types(thread);
+        }
+        return types;
+    }
+    
+    private List<ThreadEvent.EventType> types(String thread) {
+        List<ThreadEvent.EventType> types = new ArrayList<>();
+        for (ThreadEvent event : events) {
+            if (event.getThreadName().equals(thread)) {
+                types.add(event.getType());
+            }
+        }
+        return types;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,144 @@
+package com.threadviz.instrument;
+
+import com.threadviz.models.ThreadEvent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TracedBlockingQueueTest {
+    
+    private static final ThreadEvent.EventType WAITING = ThreadEvent.EventType.LOCK_WAITING;
+    private static final ThreadEvent.EventType ACQUIRED = ThreadEvent.EventType.LOCK_ACQUIRED;
+    private static final ThreadEvent.EventType RELEASED = ThreadEvent.EventType.LOCK_RELEASED;
+    
+    private final String self = Thread.currentThread().getName();
+    private String resourceId;
+    private EventRecorder recorder;
+    private TracedBlockingQueue<String> queue;
+    
+    @Before
+    public void createQueue() {
+        resourceId = "test-queue-" + System.nanoTime();
+        recorder = new EventRecorder(resourceId);
+        queue = new TracedBlockingQueue<>(new ArrayBlockingQueue<>(1), resourceId);
+        Tracing.setEnabled(true);
+    }
+    
+    @After
+    public void stopRecording() {
+        Tracing.setEnabled(true);
+        recorder.close();
+    }
+    
+    @Test
+    public void reportsPutIntoFullQueue() throws Exception {
+        queue.put("a");
+        Thread producer = new Thread(() -> {
+            try {
+                queue.put("b");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "producer-" + resourceId);
+        producer.start();
+        awaitBlocked(producer);
+        
+        assertEquals("a", queue.take());
+        producer.join();
+        
+        assertEquals(List.of(WAITING, ACQUIRED, RELEASED), recorder.await(producer.getName(), 3));
+        assertEquals(List.of(WAITING, ACQUIRED, RELEASED, WAITING, ACQUIRED, RELEASED), recorder.await(self, 6));
+        assertEquals(List.of("b"), List.copyOf(queue));
+    }
+    
+    @Test
+    public void reportsTakeFromEmptyQueue() throws Exception {
+        Thread consumer = new Thread(() -> {
+            try {
+                queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "consumer-" + resourceId);
+        consumer.start();
+        awaitBlocked(consumer);
+        
+        queue.put("a");
+        consumer.join();
+        
+        assertEquals(List.of(WAITING, ACQUIRED, RELEASED), recorder.await(consumer.getName(), 3));
+        assertTrue(queue.isEmpty());
+    }
+    
+    @Test
+    public void balancesTakeEndedByInterrupt() throws Exception {
+        Thread consumer = new Thread(() -> {
+            try {
+                queue.take();
+            } catch (InterruptedException e) {
+                // Expected
+            }
+        }, "consumer-" + resourceId);
+        consumer.start();
+        awaitBlocked(consumer);
+        consumer.interrupt();
+        consumer.join();
+        
+        assertEquals(List.of(WAITING, ThreadEvent.EventType.EXECUTION), recorder.await(consumer.getName(), 2));
+    }
+    
+    @Test
+    public void balancesPutEndedByInterrupt() throws Exception {
+        queue.put("a");
+        Thread producer = new Thread(() -> {
+            try {
+                queue.put("b");
+            } catch (InterruptedException e) {
+                // Expected
+            }
+        }, "producer-" + resourceId);
+        producer.start();
+        awaitBlocked(producer);
+        producer.interrupt();
+        producer.join();
+        
+        assertEquals(List.of(WAITING, ThreadEvent.EventType.EXECUTION), recorder.await(producer.getName(), 2));
+    }
+    
+    @Test
+    public void reportsTimedPollAsWait() throws Exception {
+        assertEquals(null, queue.poll(1, TimeUnit.MILLISECONDS));
+        queue.put("a");
+        assertEquals("a", queue.poll(1, TimeUnit.MILLISECONDS));
+        
+        assertEquals(List.of(WAITING, ThreadEvent.EventType.EXECUTION, WAITING, ACQUIRED, RELEASED,
+                WAITING, ACQUIRED, RELEASED), recorder.await(self, 8));
+    }
+    
+    @Test
+    public void reportsNothingWhileDisabled() throws Exception {
+        Tracing.setEnabled(false);
+        queue.put("a");
+        queue.take();
+        assertTrue(queue.offer("b", 1, TimeUnit.MILLISECONDS));
+        queue.poll(1, TimeUnit.MILLISECONDS);
+        
+        // Events are dispatched in order, so once these arrive the ones above would have too
+        Tracing.setEnabled(true);
+        queue.put("c");
+        assertEquals(List.of(WAITING, ACQUIRED, RELEASED), recorder.await(self, 3));
+    }
+    
+    private static void awaitBlocked(Thread thread) throws InterruptedException {
+        while (thread.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,141 @@
+package com.threadviz.instrument;
+
+import com.threadviz.models.ThreadEvent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TracedReentrantLockTest {
+    
+    private static final ThreadEvent.EventType WAITING = ThreadEvent.EventType.LOCK_WAITING;
+    private static final ThreadEvent.EventType ACQUIRED = ThreadEvent.EventType.LOCK_ACQUIRED;
+    private static final ThreadEvent.EventType RELEASED = ThreadEvent.EventType.LOCK_RELEASED;
+    
+    private final String self = Thread.currentThread().getName();
+    private String resourceId;
+    private EventRecorder recorder;
+    private TracedReentrantLock lock;
+    
+    @Before
+    public void createLock() {
+        resourceId = "test-lock-" + System.nanoTime();
+        recorder = new EventRecorder(resourceId);
+        lock = new TracedReentrantLock(resourceId);
+        Tracing.setEnabled(true);
+    }
+    
+    @After
+    public void stopRecording() {
+        Tracing.setEnabled(true);
+        recorder.close();
+    }
+    
+    @Test
+    public void reportsNestedLockOnce() throws Exception {
+        lock.lock();
+        lock.lock();
+        lock.unlock();
+        lock.unlock();
+        
+        assertEquals(List.of(WAITING, ACQUIRED, RELEASED), recorder.await(self, 3));
+    }
+    
+    @Test
+    public void reportsAwaitAndSignal() throws Exception {
+        Condition condition = lock.newCondition();
+        CountDownLatch waiting = new CountDownLatch(1);
+        Thread waiter = new Thread(() -> {
+            lock.lock();
+            try {
+                waiting.countDown();
+                condition.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                lock.unlock();
+            }
+        }, "waiter-" + resourceId);
+        waiter.start();
+        waiting.await();
+        
+        // The waiter only lets go of the lock once it is waiting on the condition
+        lock.lock();
+        try {
+            condition.signal();
+        } finally {
+            lock.unlock();
+        }
+        waiter.join();
+        
+        assertEquals(List.of(WAITING, ACQUIRED, ThreadEvent.EventType.CONDITION_WAITING, ACQUIRED, RELEASED),
+                recorder.await(waiter.getName(), 5));
+        assertEquals(List.of(WAITING, ACQUIRED, ThreadEvent.EventType.CONDITION_SIGNALED, RELEASED),
+                recorder.await(self, 4));
+    }
+    
+    @Test
+    public void balancesWaitEndedByInterrupt() throws Exception {
+        lock.lock();
+        Thread waiter = new Thread(() -> {
+            try {
+                lock.lockInterruptibly();
+                lock.unlock();
+            } catch (InterruptedException e) {
+                // Expected
+            }
+        }, "waiter-" + resourceId);
+        try {
+            waiter.start();
+            while (!lock.hasQueuedThread(waiter)) {
+                Thread.sleep(1);
+            }
+            waiter.interrupt();
+            waiter.join();
+        } finally {
+            lock.unlock();
+        }
+        
+        assertEquals(List.of(WAITING, ThreadEvent.EventType.EXECUTION), recorder.await(waiter.getName(), 2));
+    }
+    
+    @Test
+    public void reportsTimedTryLockAsWait() throws Exception {
+        assertTrue(lock.tryLock(1, TimeUnit.SECONDS));
+        Thread other = new Thread(() -> {
+            try {
+                lock.tryLock(1, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "other-" + resourceId);
+        other.start();
+        other.join();
+        lock.unlock();
+        
+        assertEquals(List.of(WAITING, ACQUIRED, RELEASED), recorder.await(self, 3));
+        assertEquals(List.of(WAITING, ThreadEvent.EventType.EXECUTION), recorder.await(other.getName(), 2));
+    }
+    
+    @Test
+    public void reportsNothingWhileDisabled() throws Exception {
+        Tracing.setEnabled(false);
+        lock.lock();
+        lock.tryLock();
+        lock.unlock();
+        lock.unlock();
+        
+        // Events are dispatched in order, so once this one arrives the ones above would have too
+        Tracing.setEnabled(true);
+        assertTrue(lock.tryLock());
+        lock.unlock();
+        assertEquals(List.of(ACQUIRED, RELEASED), recorder.await(self, 2));
+    }
+} 
\ No newline at end of file
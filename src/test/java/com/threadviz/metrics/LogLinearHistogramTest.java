@@ -0,0 +1,85 @@
+package com.threadviz.metrics;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LogLinearHistogramTest {
+    
+    @Test
+    public void countsSmallValuesExactly() {
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        for (int value = 0; value < 64; value++) {
+            histogram.record(value);
+        }
+        LogLinearHistogram.Snapshot snapshot = histogram.snapshot();
+        
+        assertEquals(64, snapshot.getTotalCount());
+        for (int value = 0; value < 64; value++) {
+            assertEquals(value, snapshot.getValueAtPercentile(100.0 * (value + 1) / 64));
+        }
+    }
+    
+    @Test
+    public void bucketsMeetWithoutGapsOrOverlaps() {
+        int last = LogLinearHistogram.bucketIndex(Long.MAX_VALUE);
+        assertEquals(0, LogLinearHistogram.bucketIndex(0));
+        for (int i = 0; i < last; i++) {
+            long upper = LogLinearHistogram.bucketUpperBound(i);
+            assertEquals("upper bound of bucket " + i, i, LogLinearHistogram.bucketIndex(upper));
+            assertEquals("value after bucket " + i, i + 1, LogLinearHistogram.bucketIndex(upper + 1));
+        }
+    }
+    
+    @Test
+    public void splitsEachPowerOfTwoIntoThirtyTwoBuckets() {
+        assertEquals(64, LogLinearHistogram.bucketIndex(64));
+        assertEquals(65, LogLinearHistogram.bucketUpperBound(64));
+        assertEquals(95, LogLinearHistogram.bucketIndex(127));
+        assertEquals(96, LogLinearHistogram.bucketIndex(128));
+        assertEquals(131, LogLinearHistogram.bucketUpperBound(96));
+        
+        // Every value from 2^40 up shares the last bucket
+        assertEquals(LogLinearHistogram.bucketIndex(1L << 41), LogLinearHistogram.bucketIndex(Long.MAX_VALUE));
+    }
+    
+    @Test
+    public void percentilesStayWithinThreePercent() {
+        Random random = new Random(42);
+        long[] values = new long[100_000];
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        for (int i = 0; i < values.length; i++) {
+            // Spread over microseconds to hours, as lock wait and hold times are
+            values[i] = (long) Math.exp(random.nextDouble() * Math.log(1e10));
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        LogLinearHistogram.Snapshot snapshot = histogram.snapshot();
+        
+        for (double percentile : new double[]{1, 10, 50, 90, 99, 99.9, 99.99}) {
+            long exact = values[(int) Math.ceil(values.length * percentile / 100) - 1];
+            long reported = snapshot.getValueAtPercentile(percentile);
+            assertTrue(percentile + ": " + reported + " below " + exact, reported >= exact);
+            assertTrue(percentile + ": " + reported + " too far above " + exact, reported <= exact * (1 + 1.0 / 32));
+        }
+        assertEquals(values[values.length - 1], snapshot.getValueAtPercentile(100));
+        assertEquals(values[values.length - 1], snapshot.getMax());
+    }
+    
+    @Test
+    public void clampsNegativeValuesAndEmptySnapshots() {
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        assertEquals(0, histogram.snapshot().getValueAtPercentile(50));
+        
+        histogram.record(-5);
+        assertEquals(1, histogram.snapshot().getTotalCount());
+        assertEquals(0, histogram.snapshot().getValueAtPercentile(100));
+        
+        histogram.reset();
+        assertEquals(0, histogram.snapshot().getTotalCount());
+    }
+} 
\ No newline at end of file
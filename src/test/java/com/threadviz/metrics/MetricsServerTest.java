@@ -0,0 +1,55 @@
+package com.threadviz.metrics;
+
+import com.threadviz.models.ResourceRegistry;
+import com.threadviz.models.ThreadEvent;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsServerTest {
+    
+    private static final Instant BASE = Instant.parse("2024-05-01T12:00:00Z");
+    
+    @Test
+    public void reportsLockTimesInSeconds() {
+        ResourceRegistry registry = new ResourceRegistry();
+        ContentionTracker tracker = new ContentionTracker(registry);
+        registry.onEvent(event(ThreadEvent.EventType.LOCK_WAITING, 0));
+        registry.onEvent(event(ThreadEvent.EventType.LOCK_ACQUIRED, 2_000));
+        registry.onEvent(event(ThreadEvent.EventType.LOCK_RELEASED, 252_000));
+        
+        String metrics = new MetricsServer(0, () -> null, tracker, registry).scrape();
+        
+        assertEquals(0.002, value(metrics, "threadviz_lock_wait_seconds{resource=\"lock\",quantile=\"0.5\"}"), 0.0001);
+        assertEquals(0.25, value(metrics, "threadviz_lock_hold_seconds{resource=\"lock\",quantile=\"0.5\"}"), 0.01);
+        assertEquals(1, value(metrics, "threadviz_lock_hold_seconds_count{resource=\"lock\"}"), 0);
+        assertEquals(0.002, value(metrics, "threadviz_lock_wait_seconds_sum{resource=\"lock\"}"), 1e-9);
+        assertEquals(0.25, value(metrics, "threadviz_lock_hold_seconds_sum{resource=\"lock\"}"), 1e-9);
+        assertFalse(metrics.contains("microseconds"));
+    }
+    
+    @Test
+    public void exportsEventCountsAsCounter() {
+        String metrics = new MetricsServer(0, () -> null, null, null).scrape();
+        
+        assertTrue(metrics.contains("# TYPE threadviz_events_total counter\n"));
+        assertTrue(metrics.contains("threadviz_events_total{type=\"LOCK_ACQUIRED\"} "));
+        assertFalse(metrics.contains("per_second"));
+    }
+    
+    private static ThreadEvent event(ThreadEvent.EventType type, long micros) {
+        return new ThreadEvent("t", type, "lock", null, BASE.plusNanos(micros * 1000));
+    }
+    
+    private static double value(String metrics, String series) {
+        Matcher m = Pattern.compile("^" + Pattern.quote(series) + " (\\S+)$", Pattern.MULTILINE).matcher(metrics);
+        assertTrue(series + " missing from\n" + metrics, m.find());
+        return Double.parseDouble(m.group(1));
+    }
+} 
\ No newline at end of file
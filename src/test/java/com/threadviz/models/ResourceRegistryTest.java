@@ -0,0 +1,159 @@
+package com.threadviz.models;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ResourceRegistryTest {
+    
+    private static final Instant BASE = Instant.parse("2024-05-01T12:00:00Z");
+    
+    private ResourceRegistry registry;
+    private List<String> reports;
+    
+    @Before
+    public void createRegistry() {
+        registry = new ResourceRegistry();
+        reports = Collections.synchronizedList(new ArrayList<>());
+        registry.addContentionListener(new ResourceRegistry.ContentionListener() {
+            @Override
+            public void waitEnded(ResourceRegistry.Resource resource, String thread, long micros) {
+                reports.add(thread + " waited " + micros);
+            }
+            
+            @Override
+            public void holdEnded(ResourceRegistry.Resource resource, String thread, long micros) {
+                reports.add(thread + " held " + micros);
+            }
+        });
+    }
+    
+    @Test
+    public void keepsCountsUnderConcurrentAcquireAndRelease() throws Exception {
+        int threads = 8;
+        int cycles = 5000;
+        AtomicLong waited = new AtomicLong();
+        AtomicLong held = new AtomicLong();
+        registry.addContentionListener(new ResourceRegistry.ContentionListener() {
+            @Override
+            public void waitEnded(ResourceRegistry.Resource resource, String thread, long micros) {
+                waited.addAndGet(micros);
+            }
+            
+            @Override
+            public void holdEnded(ResourceRegistry.Resource resource, String thread, long micros) {
+                held.addAndGet(micros);
+            }
+        });
+        
+        // Every thread applies its own events to the same resource at once, so updates race
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String name = "worker-" + t;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < cycles; i++) {
+                    long micros = i * 10L;
+                    apply(name, ThreadEvent.EventType.LOCK_WAITING, "lock", micros);
+                    apply(name, ThreadEvent.EventType.LOCK_ACQUIRED, "lock", micros + 1);
+                    apply(name, ThreadEvent.EventType.LOCK_RELEASED, "lock", micros + 4);
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        
+        ResourceRegistry.State state = registry.get("lock").getState();
+        assertEquals(0, state.getOwnerCount());
+        assertEquals(0, state.getWaiterCount());
+        assertEquals(threads * cycles, state.getAcquisitions());
+        assertEquals(threads * cycles * 3L, state.getHoldMicros());
+        assertEquals(threads * cycles * 1L, waited.get());
+        assertEquals(threads * cycles * 3L, held.get());
+        assertEquals(1, registry.size());
+    }
+    
+    @Test
+    public void sharesReadHoldsBetweenThreads() {
+        apply("a", ThreadEvent.EventType.LOCK_ACQUIRED, "rw-read", 0);
+        apply("b", ThreadEvent.EventType.LOCK_ACQUIRED, "rw-read", 10);
+        ResourceRegistry.State state = registry.get("rw-read").getState();
+        assertEquals(Arrays.asList("a", "b"), state.getOwners());
+        assertEquals(2, state.getAcquisitions());
+        
+        apply("a", ThreadEvent.EventType.LOCK_RELEASED, "rw-read", 30);
+        state = registry.get("rw-read").getState();
+        assertEquals(Arrays.asList("b"), state.getOwners());
+        assertEquals(30, state.getHoldMicros());
+        assertEquals(30 + 40, state.getHoldMicros(BASE.plusNanos(50_000)));
+        assertEquals(Arrays.asList("a held 30"), reports);
+    }
+    
+    @Test
+    public void keepsWaitersInArrivalOrder() {
+        apply("owner", ThreadEvent.EventType.LOCK_ACQUIRED, "lock", 0);
+        apply("a", ThreadEvent.EventType.LOCK_WAITING, "lock", 1);
+        apply("b", ThreadEvent.EventType.LOCK_WAITING, "lock", 2);
+        apply("c", ThreadEvent.EventType.LOCK_WAITING, "lock", 3);
+        assertEquals(Arrays.asList("a", "b", "c"), registry.get("lock").getState().getWaiters());
+        
+        apply("owner", ThreadEvent.EventType.LOCK_RELEASED, "lock", 10);
+        apply("b", ThreadEvent.EventType.LOCK_ACQUIRED, "lock", 11);
+        assertEquals(Arrays.asList("a", "c"), registry.get("lock").getState().getWaiters());
+        assertEquals(Arrays.asList("b"), registry.get("lock").getState().getOwners());
+        
+        // A waiter that terminates or waits elsewhere leaves the queue
+        apply("c", ThreadEvent.EventType.THREAD_TERMINATED, null, 12);
+        apply("a", ThreadEvent.EventType.LOCK_WAITING, "other", 13);
+        assertEquals(Collections.emptyList(), registry.get("lock").getState().getWaiters());
+        assertEquals(Arrays.asList("a"), registry.get("other").getState().getWaiters());
+    }
+    
+    @Test
+    public void accountsHoldTimeUntilReleaseConditionWaitOrTermination() {
+        apply("a", ThreadEvent.EventType.LOCK_ACQUIRED, "lock", 0);
+        apply("a", ThreadEvent.EventType.LOCK_RELEASED, "lock", 100);
+        
+        // Awaiting a condition releases the lock; the wait for it is not lock contention
+        apply("a", ThreadEvent.EventType.LOCK_ACQUIRED, "lock", 200);
+        apply("a", ThreadEvent.EventType.CONDITION_WAITING, "lock", 250);
+        apply("a", ThreadEvent.EventType.LOCK_ACQUIRED, "lock", 400);
+        
+        apply("b", ThreadEvent.EventType.LOCK_WAITING, "lock", 410);
+        apply("a", ThreadEvent.EventType.THREAD_TERMINATED, null, 420);
+        apply("b", ThreadEvent.EventType.LOCK_ACQUIRED, "lock", 430);
+        
+        ResourceRegistry.State state = registry.get("lock").getState();
+        assertEquals(100 + 50 + 20, state.getHoldMicros());
+        assertEquals(4, state.getAcquisitions());
+        assertEquals(Arrays.asList("a held 100", "a held 50", "a held 20", "b waited 20"), reports);
+        
+        // Releasing a lock the thread does not hold changes nothing
+        apply("c", ThreadEvent.EventType.LOCK_RELEASED, "lock", 500);
+        assertEquals(state.getHoldMicros(), registry.get("lock").getState().getHoldMicros());
+        assertTrue(registry.get("lock").getState().isOwner("b"));
+    }
+    
+    private void apply(String thread, ThreadEvent.EventType type, String resource, long micros) {
+        registry.onEvent(new ThreadEvent(thread, type, resource, null, BASE.plusNanos(micros * 1000)));
+    }
+} 
\ No newline at end of file
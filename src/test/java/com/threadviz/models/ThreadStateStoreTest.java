@@ -0,0 +1,53 @@
+package com.threadviz.models;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ThreadStateStoreTest {
+    
+    @Test
+    public void findsThreadsAndResourcesByName() {
+        ThreadStateStore store = new ThreadStateStore();
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, store.add("worker-" + i, i, -i));
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, store.indexOf("worker-" + i));
+        }
+        assertEquals(ThreadStateStore.NO_THREAD, store.indexOf("worker-1000"));
+        assertEquals(ThreadStateStore.NO_THREAD, store.indexOf(null));
+        
+        assertEquals(0, store.internResource("lock"));
+        assertEquals(1, store.internResource("other"));
+        assertEquals(0, store.internResource("lock"));
+        assertEquals(1, store.indexOfResource("other"));
+        assertEquals(ThreadStateStore.NO_RESOURCE, store.indexOfResource("missing"));
+        assertEquals(ThreadStateStore.NO_RESOURCE, store.internResource(null));
+    }
+    
+    @Test
+    public void copiesKeepTheirContentsWhenTheSourceChanges() {
+        ThreadStateStore store = new ThreadStateStore();
+        int a = store.add("a", 1, 2);
+        store.updateFromEvent(a, new ThreadEvent("a", ThreadEvent.EventType.LOCK_ACQUIRED, "lock", null));
+        
+        ThreadStateStore copy = new ThreadStateStore();
+        copy.copyFrom(store);
+        
+        store.setPosition(a, 5, 6);
+        store.updateFromEvent(a, new ThreadEvent("a", ThreadEvent.EventType.LOCK_RELEASED, "lock", null));
+        for (int i = 0; i < 100; i++) {
+            store.add("more-" + i, 0, 0);
+        }
+        store.clear();
+        store.add("b", 0, 0);
+        store.internResource("new");
+        
+        assertEquals(1, copy.size());
+        assertEquals("a", copy.getName(a));
+        assertEquals(1, copy.getX(a), 0);
+        assertEquals(ThreadState.RUNNING, copy.getState(a));
+        assertEquals("lock", copy.getResourceName(copy.getResource(a)));
+    }
+} 
\ No newline at end of file
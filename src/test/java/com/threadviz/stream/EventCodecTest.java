@@ -0,0 +1,181 @@
+package com.threadviz.stream;
+
+import com.threadviz.models.ThreadEvent;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class EventCodecTest {
+    
+    private static final Instant BASE = Instant.parse("2024-05-01T12:00:00.123456Z");
+    
+    @Test
+    public void roundTripsEveryEventType() throws IOException {
+        EventCodec.Encoder encoder = new EventCodec.Encoder(true);
+        List<ThreadEvent> sent = new ArrayList<>();
+        int i = 0;
+        for (ThreadEvent.EventType type : ThreadEvent.EventType.values()) {
+            ThreadEvent event = new ThreadEvent("worker-" + (i % 3), type, "lock-" + (i % 2),
+                    "event " + i, BASE.plusNanos(i * 1_000L));
+            sent.add(event);
+            encoder.encode(event);
+            i++;
+        }
+        
+        List<ThreadEvent> received = decode(new EventCodec.Decoder(), encoder.takeFrame());
+        assertEvents(sent, received);
+    }
+    
+    @Test
+    public void reusesDictionaryAcrossFrames() throws IOException {
+        EventCodec.Encoder encoder = new EventCodec.Encoder(false);
+        EventCodec.Decoder decoder = new EventCodec.Decoder();
+        
+        ThreadEvent first = new ThreadEvent("worker", ThreadEvent.EventType.LOCK_WAITING, "lock", null, BASE);
+        encoder.encode(first);
+        ByteBuffer firstFrame = encoder.takeFrame();
+        
+        ThreadEvent second = new ThreadEvent("worker", ThreadEvent.EventType.LOCK_ACQUIRED, "lock", null,
+                BASE.plusMillis(1));
+        encoder.encode(second);
+        ByteBuffer secondFrame = encoder.takeFrame();
+        
+        // tag, thread index, resource index and a 2-byte time delta; no names
+        assertEquals(EventCodec.FRAME_HEADER_BYTES + 5, secondFrame.remaining());
+        assertTrue(secondFrame.remaining() < firstFrame.remaining());
+        
+        assertEvents(Arrays.asList(first), decode(decoder, firstFrame));
+        assertEvents(Arrays.asList(second), decode(decoder, secondFrame));
+    }
+    
+    @Test
+    public void decodesNegativeTimeDeltas() throws IOException {
+        EventCodec.Encoder encoder = new EventCodec.Encoder(false);
+        List<ThreadEvent> sent = Arrays.asList(
+                new ThreadEvent("a", ThreadEvent.EventType.EXECUTION, null, null, BASE),
+                new ThreadEvent("b", ThreadEvent.EventType.EXECUTION, null, null, BASE.minusMillis(250)),
+                new ThreadEvent("a", ThreadEvent.EventType.EXECUTION, null, null, BASE.minusSeconds(3600)),
+                new ThreadEvent("b", ThreadEvent.EventType.EXECUTION, null, null, BASE.plusSeconds(10)));
+        for (ThreadEvent event : sent) {
+            encoder.encode(event);
+        }
+        
+        assertEvents(sent, decode(new EventCodec.Decoder(), encoder.takeFrame()));
+    }
+    
+    @Test
+    public void decodesNullThreadResourceAndMessage() throws IOException {
+        EventCodec.Encoder encoder = new EventCodec.Encoder(true);
+        encoder.encode(new ThreadEvent(null, ThreadEvent.EventType.EXECUTION, null, null, BASE));
+        
+        List<ThreadEvent> received = decode(new EventCodec.Decoder(), encoder.takeFrame());
+        assertEquals(1, received.size());
+        assertNull(received.get(0).getThreadName());
+        assertNull(received.get(0).getResourceId());
+        assertNull(received.get(0).getMessage());
+        assertEquals(BASE, received.get(0).getTimestamp());
+    }
+    
+    @Test
+    public void roundTripsMultiByteUtf8() throws IOException {
+        EventCodec.Encoder encoder = new EventCodec.Encoder(true);
+        ThreadEvent event = new ThreadEvent("Arbeiter-ä-線程", ThreadEvent.EventType.LOCK_ACQUIRED,
+                "ressource-🔒", "Übernommen — 取得 🚀", BASE);
+        encoder.encode(event);
+        
+        assertEvents(Arrays.asList(event), decode(new EventCodec.Decoder(), encoder.takeFrame()));
+    }
+    
+    @Test
+    public void leavesOutMessagesWhenAsked() throws IOException {
+        EventCodec.Encoder encoder = new EventCodec.Encoder(false);
+        encoder.encode(new ThreadEvent("a", ThreadEvent.EventType.EXECUTION, "r", "text", BASE));
+        
+        assertNull(decode(new EventCodec.Decoder(), encoder.takeFrame()).get(0).getMessage());
+    }
+    
+    @Test
+    public void rejectsTruncatedFrame() {
+        EventCodec.Encoder encoder = new EventCodec.Encoder(true);
+        encoder.encode(new ThreadEvent("worker", ThreadEvent.EventType.LOCK_ACQUIRED, "lock", "message", BASE));
+        ByteBuffer payload = payload(encoder.takeFrame());
+        
+        for (int length = 1; length < payload.remaining(); length++) {
+            ByteBuffer truncated = payload.duplicate();
+            truncated.limit(length);
+            assertRejected(truncated);
+        }
+    }
+    
+    @Test
+    public void rejectsUnknownDictionaryIndex() {
+        // EXECUTION, thread index 3 that was never defined, no resource, zero delta
+        assertRejected(bytes(ThreadEvent.EventType.EXECUTION.ordinal(), 3, 0, 0));
+    }
+    
+    @Test
+    public void rejectsOutOfOrderDictionaryEntry() {
+        // A new thread that claims index 2 while the dictionary is empty
+        assertRejected(bytes(ThreadEvent.EventType.EXECUTION.ordinal() | 0x40, 2, 1, 'x', 0, 0));
+    }
+    
+    @Test
+    public void rejectsOverlongVarint() {
+        // Thread index with eleven continuation bytes
+        assertRejected(bytes(ThreadEvent.EventType.EXECUTION.ordinal(),
+                0x80, 0x80, 0x80, 0x80, 0x80, 0x80, 0x80, 0x80, 0x80, 0x80, 0x80, 0x01, 0, 0));
+    }
+    
+    private static List<ThreadEvent> decode(EventCodec.Decoder decoder, ByteBuffer frame) throws IOException {
+        List<ThreadEvent> events = new ArrayList<>();
+        decoder.decodeFrame(payload(frame), events);
+        return events;
+    }
+    
+    private static ByteBuffer payload(ByteBuffer frame) {
+        ByteBuffer copy = frame.duplicate();
+        int length = copy.getInt();
+        assertEquals(length, copy.remaining());
+        return copy.slice();
+    }
+    
+    private static ByteBuffer bytes(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return ByteBuffer.wrap(bytes);
+    }
+    
+    private static void assertRejected(ByteBuffer payload) {
+        try {
+            new EventCodec.Decoder().decodeFrame(payload, new ArrayList<>());
+            fail("Expected an IOException for " + payload);
+        } catch (IOException expected) {
+            // Malformed input is reported, not thrown as a runtime exception
+        }
+    }
+    
+    private static void assertEvents(List<ThreadEvent> expected, List<ThreadEvent> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            ThreadEvent e = expected.get(i);
+            ThreadEvent a = actual.get(i);
+            assertEquals(e.getThreadName(), a.getThreadName());
+            assertEquals(e.getType(), a.getType());
+            assertEquals(e.getResourceId(), a.getResourceId());
+            assertEquals(e.getMessage(), a.getMessage());
+            assertEquals(e.getTimestamp(), a.getTimestamp());
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,68 @@
+package com.threadviz.stream;
+
+import com.threadviz.core.EventBus;
+import com.threadviz.models.ThreadEvent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class EventCollectorTest {
+    
+    private final String process = "test-" + System.nanoTime();
+    private final List<String> received = new ArrayList<>();
+    private final EventBus.EventListener listener = event -> {
+        if (event.getThreadName() != null && event.getThreadName().startsWith(process + "/")) {
+            synchronized (received) {
+                received.add(event.getThreadName().substring(process.length() + 1) + " " + event.getType());
+                received.notifyAll();
+            }
+        }
+    };
+    private EventCollector collector;
+    
+    @Before
+    public void startCollector() throws Exception {
+        EventBus.getInstance().addEventListener(listener);
+        collector = new EventCollector(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        collector.start();
+    }
+    
+    @After
+    public void stopCollector() {
+        collector.stop();
+        EventBus.getInstance().removeEventListener(listener);
+    }
+    
+    @Test
+    public void terminatesLiveThreadsWhenProcessDisconnects() throws Exception {
+        RemoteEventPublisher publisher = new RemoteEventPublisher(collector.getAddress(), process);
+        publisher.startSending();
+        Instant now = Instant.now();
+        publisher.onEvent(new ThreadEvent("done", ThreadEvent.EventType.THREAD_STARTED, null, null, now));
+        publisher.onEvent(new ThreadEvent("holder", ThreadEvent.EventType.LOCK_ACQUIRED, "lock", null, now.plusNanos(1000)));
+        publisher.onEvent(new ThreadEvent("done", ThreadEvent.EventType.THREAD_TERMINATED, null, null, now.plusNanos(2000)));
+        publisher.stop();
+        
+        // A second termination of "done" would come before the one of "holder", as it was seen first
+        assertEquals(List.of("done THREAD_STARTED", "holder LOCK_ACQUIRED", "done THREAD_TERMINATED",
+                "holder THREAD_TERMINATED"), await(4));
+    }
+    
+    private List<String> await(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        synchronized (received) {
+            while (received.size() < count && System.currentTimeMillis() < deadline) {
+                received.wait(Math.max(1, deadline - System.currentTimeMillis()));
+            }
+            return new ArrayList<>(received);
+        }
+    }
+} 
\ No newline at end of file
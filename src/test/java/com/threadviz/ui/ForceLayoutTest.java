@@ -0,0 +1,47 @@
+package com.threadviz.ui;
+
+import com.threadviz.models.ThreadStateStore;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ForceLayoutTest {
+    
+    private ThreadStateStore threads;
+    private ForceLayout layout;
+    
+    @Before
+    public void createLayout() {
+        threads = new ThreadStateStore();
+        layout = new ForceLayout(threads, new ResourceIndex(threads));
+        // Far more nodes per cell than are sampled
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            layout.add(threads.add("t" + i, random.nextDouble() * 200, random.nextDouble() * 200));
+        }
+    }
+    
+    @Test
+    public void denseStaticGraphSettles() {
+        settle();
+        assertFalse(layout.step());
+    }
+    
+    @Test
+    public void movesAgainAfterNodeIsAdded() {
+        settle();
+        layout.add(threads.add("late", 0, 0));
+        assertTrue(layout.step());
+    }
+    
+    private void settle() {
+        int steps = 0;
+        while (layout.step()) {
+            assertTrue("layout still moving after " + steps + " steps", ++steps < 2000);
+        }
+    }
+} 
\ No newline at end of file
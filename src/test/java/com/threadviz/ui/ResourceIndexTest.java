@@ -0,0 +1,151 @@
+package com.threadviz.ui;
+
+import com.threadviz.models.ThreadEvent;
+import com.threadviz.models.ThreadStateStore;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ResourceIndexTest {
+    
+    private ThreadStateStore threads;
+    private ResourceIndex index;
+    private int a, b, c;
+    
+    @Before
+    public void createThreads() {
+        threads = new ThreadStateStore();
+        index = new ResourceIndex(threads);
+        a = threads.add("a", 0, 0);
+        b = threads.add("b", 100, 0);
+        c = threads.add("c", 0, 100);
+    }
+    
+    @Test
+    public void tracksHoldersAndWaiters() {
+        apply(a, ThreadEvent.EventType.LOCK_ACQUIRED, "lock");
+        apply(b, ThreadEvent.EventType.LOCK_WAITING, "lock");
+        apply(c, ThreadEvent.EventType.LOCK_WAITING, "lock");
+        
+        assertEquals("[a] waiting [b, c]", members().get("lock"));
+        assertEquals(100.0 / 3, index.getCentroid("lock").getX(), 1e-9);
+    }
+    
+    @Test
+    public void movesWaiterToHolder() {
+        apply(a, ThreadEvent.EventType.LOCK_ACQUIRED, "lock");
+        apply(b, ThreadEvent.EventType.LOCK_WAITING, "lock");
+        apply(c, ThreadEvent.EventType.LOCK_WAITING, "lock");
+        apply(a, ThreadEvent.EventType.LOCK_RELEASED, "lock");
+        apply(b, ThreadEvent.EventType.LOCK_ACQUIRED, "lock");
+        
+        assertEquals("[b] waiting [c]", members().get("lock"));
+    }
+    
+    @Test
+    public void conditionWaitReleasesTheLock() {
+        apply(a, ThreadEvent.EventType.LOCK_ACQUIRED, "lock");
+        apply(a, ThreadEvent.EventType.CONDITION_WAITING, "lock");
+        assertEquals("[] waiting [a]", members().get("lock"));
+        
+        apply(b, ThreadEvent.EventType.LOCK_ACQUIRED, "lock");
+        apply(b, ThreadEvent.EventType.CONDITION_SIGNALED, "lock");
+        apply(b, ThreadEvent.EventType.LOCK_RELEASED, "lock");
+        apply(a, ThreadEvent.EventType.LOCK_ACQUIRED, "lock");
+        assertEquals("[a] waiting []", members().get("lock"));
+    }
+    
+    @Test
+    public void locksOnlyTheResourcesTheThreadHolds() {
+        apply(a, ThreadEvent.EventType.LOCK_ACQUIRED, "first");
+        assertTrue(threads.isLocked(a));
+        
+        // Still holding the first, but its own resource is now the one it waits on
+        apply(a, ThreadEvent.EventType.LOCK_WAITING, "second");
+        assertTrue(index.isHolding(a, threads.indexOfResource("first")));
+        assertFalse(threads.isLocked(a));
+        
+        apply(a, ThreadEvent.EventType.LOCK_ACQUIRED, "second");
+        apply(a, ThreadEvent.EventType.CONDITION_WAITING, "second");
+        assertFalse(threads.isLocked(a));
+    }
+    
+    @Test
+    public void dropsResourcesWithoutMembers() {
+        apply(a, ThreadEvent.EventType.LOCK_ACQUIRED, "first");
+        apply(a, ThreadEvent.EventType.LOCK_ACQUIRED, "second");
+        apply(b, ThreadEvent.EventType.LOCK_WAITING, "second");
+        apply(a, ThreadEvent.EventType.LOCK_RELEASED, "first");
+        
+        assertEquals(1, members().size());
+        assertNull(index.getCentroid("first"));
+        assertNotNull(index.getBounds(a));
+        
+        apply(b, ThreadEvent.EventType.EXECUTION, null);
+        apply(a, ThreadEvent.EventType.THREAD_TERMINATED, null);
+        assertTrue(members().isEmpty());
+        assertNull(index.getBounds(a));
+        assertNull(index.getBounds(b));
+    }
+    
+    @Test
+    public void boundsCoverEveryResourceOfTheThread() {
+        apply(a, ThreadEvent.EventType.LOCK_ACQUIRED, "first");
+        apply(b, ThreadEvent.EventType.LOCK_ACQUIRED, "first");
+        apply(a, ThreadEvent.EventType.LOCK_WAITING, "second");
+        apply(c, ThreadEvent.EventType.LOCK_ACQUIRED, "second");
+        
+        assertEquals(0, index.getBounds(a).getMinX(), 1e-9);
+        assertEquals(100, index.getBounds(a).getMaxX(), 1e-9);
+        assertEquals(100, index.getBounds(a).getMaxY(), 1e-9);
+        assertEquals(0, index.getBounds(b).getMaxY(), 1e-9);
+    }
+    
+    @Test
+    public void forgetsEverythingOnClear() {
+        apply(a, ThreadEvent.EventType.LOCK_ACQUIRED, "lock");
+        threads.clear();
+        index.clear();
+        int d = threads.add("d", 0, 0);
+        apply(d, ThreadEvent.EventType.LOCK_WAITING, "other");
+        
+        assertEquals("[] waiting [d]", members().get("other"));
+        assertEquals(1, members().size());
+    }
+    
+    private void apply(int thread, ThreadEvent.EventType type, String resource) {
+        ThreadEvent event = new ThreadEvent(threads.getName(thread), type, resource, null);
+        threads.updateFromEvent(thread, event);
+        index.apply(thread, event);
+        threads.setHolding(thread, index.isHolding(thread, threads.getResource(thread)));
+    }
+    
+    /**
+     * @return each resource's holders and waiters by thread name
+     */
+    private Map<String, String> members() {
+        Map<String, String> members = new HashMap<>();
+        index.forEachResource(resource -> {
+            List<String> holders = new ArrayList<>();
+            for (int i = 0; i < resource.getHolderCount(); i++) {
+                holders.add(threads.getName(resource.getHolder(i)));
+            }
+            List<String> waiters = new ArrayList<>();
+            for (int i = 0; i < resource.getWaiterCount(); i++) {
+                waiters.add(threads.getName(resource.getWaiter(i)));
+            }
+            members.put(resource.getId(), holders + " waiting " + waiters);
+        });
+        return members;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.threadviz.ui;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class SpatialGridTest {
+    
+    @Test
+    public void findsNodesInRectangle() {
+        SpatialGrid grid = new SpatialGrid();
+        grid.rebuild(new int[]{7, 8, 9}, new double[]{0, 100, 1000}, new double[]{0, 100, 1000}, 3, 50);
+        
+        assertEquals(3, grid.size());
+        assertEquals(List.of(7, 8), visit(grid, -10, -10, 200, 200));
+        assertEquals(9, grid.nearest(990, 990, 20));
+        assertEquals(-1, grid.nearest(500, 500, 20));
+    }
+    
+    @Test
+    public void rebuildForgetsPreviousNodes() {
+        SpatialGrid grid = new SpatialGrid();
+        grid.rebuild(new int[]{1, 2, 3, 4}, new double[]{0, 10, 20, 5000}, new double[]{0, 10, 20, 5000}, 4, 50);
+        
+        // Fewer nodes in a smaller area, so the arrays of the first build are reused
+        grid.rebuild(new int[]{5, 6, 0, 0}, new double[]{30, 40, 0, 0}, new double[]{30, 40, 0, 0}, 2, 50);
+        
+        assertEquals(2, grid.size());
+        assertEquals(2, grid.countIn(-1e6, -1e6, 1e6, 1e6));
+        assertEquals(List.of(5, 6), visit(grid, -1e6, -1e6, 1e6, 1e6));
+        assertEquals(-1, grid.nearest(5000, 5000, 100));
+        assertEquals(40, grid.getMaxX(), 0);
+    }
+    
+    private static List<Integer> visit(SpatialGrid grid, double fromX, double fromY, double toX, double toY) {
+        List<Integer> nodes = new ArrayList<>();
+        grid.forEachIn(fromX, fromY, toX, toY, nodes::add);
+        return nodes;
+    }
+} 
\ No newline at end of file
@@ -1,6 +1,7 @@
 import { Thread } from './Thread';
 import { Resource } from './Resource';
 
+export type SimulationSource = 'BROWSER' | 'ENGINE';
 export type SimulationType = 'PRODUCER_CONSUMER' | 'DINING_PHILOSOPHERS' | 'READER_WRITER' | 'BARRIER' | 'SLEEPING_BARBER' | 'CIGARETTE_SMOKERS';
 export type FairnessPolicy = 'FIFO' | 'RANDOM' | 'PRIORITY';
 export type AnimationStyle = 'SMOOTH' | 'STEP' | 'INSTANT' | 'DISCRETE' | 'STATIC' | 'DYNAMIC';
@@ -9,6 +10,8 @@ export type DeadlockDetectionStrategy = 'NONE' | 'TIMEOUT' | 'RESOURCE_ALLOCATIO
 export interface SimulationConfig {
   // Basic settings
   type: SimulationType;
+  source?: SimulationSource; // ENGINE shows the Java engine's event stream instead of simulating here
+  engineStreamUrl?: string;
   numThreads?: number;
   threadCount?: number;
   bufferSize?: number;
@@ -5,6 +5,7 @@ import EventLog from '../components/EventLog';
 import { SimulationConfig, SimulationState } from '../models/Simulation';
 import { simulationService } from '../services/SimulationService';
 import { visualizationService } from '../services/VisualizationService';
+import { DEFAULT_ENGINE_STREAM_URL } from '../services/EngineStreamService';
 
 // Container layout
 const PageContainer = styled.div`
@@ -513,6 +514,8 @@ const SimulationPage: React.FC = () => {
   // Config state
   const [formData, setFormData] = useState<SimulationConfig>({
     type: 'PRODUCER_CONSUMER',
+    source: 'BROWSER',
+    engineStreamUrl: DEFAULT_ENGINE_STREAM_URL,
     threadCount: 3,
     bufferSize: 5,
     animationStyle: 'DYNAMIC',
@@ -604,7 +607,8 @@ const SimulationPage: React.FC = () => {
     // Check if all threads are terminated and automatically stop the simulation
     const checkAndStopSimulation = () => {
       const current = simulationService.getSimulation(simulationId);
-      if (current) {
+      // The engine's stream runs until the user stops it
+      if (current && current.config?.source !== 'ENGINE') {
         const allTerminated = current.threads.every(thread => thread.state === 'TERMINATED');
         const configuredMaxSteps = current.config?.maxSteps || 100;
         const maxStepsReached = current.stepCount && current.stepCount >= configuredMaxSteps;
@@ -1058,46 +1062,74 @@ const SimulationPage: React.FC = () => {
           <FormSectionTitle>Basic Configuration</FormSectionTitle>
           
           <FormField>
-            <FormLabel htmlFor="type">Simulation Type</FormLabel>
+            <FormLabel htmlFor="source">Source</FormLabel>
             <FormSelect 
-              id="type" 
-              name="type" 
-              value={formData.type}
+              id="source" 
+              name="source" 
+              value={formData.source}
               onChange={handleSelectChange}
             >
-              <option value="PRODUCER_CONSUMER">Producer Consumer</option>
-              <option value="DINING_PHILOSOPHERS">Dining Philosophers</option>
-              <option value="READER_WRITER">Reader Writer</option>
-              <option value="BARRIER">Barrier</option>
-              <option value="SLEEPING_BARBER">Sleeping Barber</option>
+              <option value="BROWSER">Simulate in the browser</option>
+              <option value="ENGINE">Stream from the Java engine</option>
             </FormSelect>
           </FormField>
           
-          <FormField>
-            <FormLabel htmlFor="threadCount">Thread Count</FormLabel>
-            <FormInput 
-              id="threadCount" 
-              name="threadCount" 
-              type="number" 
-              min="1"
-              max="10"
-              value={formData.threadCount} 
-              onChange={handleInputChange}
-            />
-          </FormField>
-          
-          <FormField>
-            <FormLabel htmlFor="bufferSize">Buffer Size</FormLabel>
-            <FormInput 
-              id="bufferSize" 
-              name="bufferSize" 
-              type="number" 
-              min="1"
-              max="20"
-              value={formData.bufferSize} 
-              onChange={handleInputChange}
-            />
-          </FormField>
+          {formData.source === 'ENGINE' ? (
+            <FormField>
+              <FormLabel htmlFor="engineStreamUrl">Engine Stream URL</FormLabel>
+              <FormInput 
+                id="engineStreamUrl" 
+                name="engineStreamUrl" 
+                type="url" 
+                value={formData.engineStreamUrl} 
+                onChange={handleInputChange}
+              />
+            </FormField>
+          ) : (
+            <>
+              <FormField>
+                <FormLabel htmlFor="type">Simulation Type</FormLabel>
+                <FormSelect 
+                  id="type" 
+                  name="type" 
+                  value={formData.type}
+                  onChange={handleSelectChange}
+                >
+                  <option value="PRODUCER_CONSUMER">Producer Consumer</option>
+                  <option value="DINING_PHILOSOPHERS">Dining Philosophers</option>
+                  <option value="READER_WRITER">Reader Writer</option>
+                  <option value="BARRIER">Barrier</option>
+                  <option value="SLEEPING_BARBER">Sleeping Barber</option>
+                </FormSelect>
+              </FormField>
+              
+              <FormField>
+                <FormLabel htmlFor="threadCount">Thread Count</FormLabel>
+                <FormInput 
+                  id="threadCount" 
+                  name="threadCount" 
+                  type="number" 
+                  min="1"
+                  max="10"
+                  value={formData.threadCount} 
+                  onChange={handleInputChange}
+                />
+              </FormField>
+              
+              <FormField>
+                <FormLabel htmlFor="bufferSize">Buffer Size</FormLabel>
+                <FormInput 
+                  id="bufferSize" 
+                  name="bufferSize" 
+                  type="number" 
+                  min="1"
+                  max="20"
+                  value={formData.bufferSize} 
+                  onChange={handleInputChange}
+                />
+              </FormField>
+            </>
+          )}
         </FormSection>
         
         <FormSection>
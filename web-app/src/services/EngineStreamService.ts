@@ -0,0 +1,264 @@
+import { SimulationEvent } from "../models/Simulation";
+import { Thread, ThreadState } from "../models/Thread";
+
+// Streams events from the Java engine's event stream server
+// (started with -Dthreadviz.stream.port=<port>) instead of simulating in the browser.
+
+// The engine has no default port, so point REACT_APP_ENGINE_STREAM_URL at the one it was started with
+export const DEFAULT_ENGINE_STREAM_URL =
+  process.env.REACT_APP_ENGINE_STREAM_URL || "http://localhost:8787/events";
+const MAX_EVENTS = 1000; // Keep the same cap as the in-browser simulations
+
+// Event as sent by the engine
+interface EngineEvent {
+  id: string;
+  time: number;
+  type: string;
+  thread: string | null;
+  resource: string | null;
+  message: string | null;
+}
+
+// State of one live thread, sent on connecting and after events were left out
+interface EngineThreadState {
+  thread: string;
+  state: ThreadState;
+  held: string[];
+  waitingFor: string | null;
+}
+
+interface EngineHello {
+  simulation: string | null;
+  threads: EngineThreadState[];
+}
+
+interface EngineBatch {
+  seq: number;
+  dropped: number;
+  threads?: EngineThreadState[]; // Present when events were left out; applies before this batch's events
+  events: EngineEvent[];
+}
+
+export interface EngineStreamUpdate {
+  simulation: string | null;
+  threads: Thread[];
+  events: SimulationEvent[]; // Newest last, at most MAX_EVENTS
+  dropped: number; // Events the engine left out since the last update because the tab fell behind
+}
+
+type UpdateCallback = (update: EngineStreamUpdate) => void;
+
+class EngineStreamService {
+  private source: EventSource | null = null;
+  private callbacks: Set<UpdateCallback> = new Set();
+  private simulation: string | null = null;
+  private threads: Map<string, Thread> = new Map();
+  private events: SimulationEvent[] = [];
+  private dropped: number = 0;
+
+  // Batches arriving between two animation frames are applied together
+  private frameRequested: boolean = false;
+
+  connect(url: string = DEFAULT_ENGINE_STREAM_URL): void {
+    this.disconnect();
+    this.reset();
+
+    const source = new EventSource(url);
+    source.addEventListener("hello", (e) => {
+      const hello: EngineHello = JSON.parse((e as MessageEvent).data);
+      this.simulation = hello.simulation;
+      this.replaceThreads(hello.threads);
+      this.scheduleUpdate();
+    });
+    source.addEventListener("batch", (e) => {
+      this.applyBatch(JSON.parse((e as MessageEvent).data));
+    });
+    source.onerror = () => {
+      // EventSource reconnects by itself; the engine starts a fresh stream
+      console.warn("Engine stream interrupted, reconnecting");
+    };
+    this.source = source;
+  }
+
+  disconnect(): void {
+    if (this.source) {
+      this.source.close();
+      this.source = null;
+    }
+  }
+
+  isConnected(): boolean {
+    return this.source !== null && this.source.readyState === EventSource.OPEN;
+  }
+
+  subscribe(callback: UpdateCallback): () => void {
+    this.callbacks.add(callback);
+    return () => {
+      this.callbacks.delete(callback);
+    };
+  }
+
+  private reset(): void {
+    this.simulation = null;
+    this.threads.clear();
+    this.events = [];
+    this.dropped = 0;
+  }
+
+  private applyBatch(batch: EngineBatch): void {
+    this.dropped += batch.dropped;
+    if (batch.threads) {
+      // Events were left out, so patching the held resources would go wrong
+      this.replaceThreads(batch.threads);
+    }
+    for (const engineEvent of batch.events) {
+      this.applyToThread(engineEvent);
+      this.events.push(toSimulationEvent(engineEvent));
+    }
+    if (this.events.length > MAX_EVENTS) {
+      this.events.splice(0, this.events.length - MAX_EVENTS);
+    }
+    this.scheduleUpdate();
+  }
+
+  private replaceThreads(snapshot: EngineThreadState[]): void {
+    const live = new Set<string>();
+    for (const state of snapshot) {
+      live.add(state.thread);
+      const thread = this.getThread(state.thread);
+      thread.state = state.state;
+      thread.resourcesHeld = state.held;
+      thread.resourcesWaitingFor = state.waitingFor ? [state.waitingFor] : [];
+    }
+    // Threads the engine no longer knows have terminated
+    this.threads.forEach((thread, name) => {
+      if (!live.has(name)) {
+        thread.state = "TERMINATED";
+        thread.resourcesHeld = [];
+        thread.resourcesWaitingFor = [];
+      }
+    });
+  }
+
+  private getThread(name: string): Thread {
+    let thread = this.threads.get(name);
+    if (!thread) {
+      thread = {
+        id: name,
+        name: name,
+        state: "NEW",
+        position: { x: 0, y: 0 },
+        resourcesHeld: [],
+        resourcesWaitingFor: []
+      };
+      this.threads.set(name, thread);
+    }
+    return thread;
+  }
+
+  private applyToThread(event: EngineEvent): void {
+    if (!event.thread) {
+      return;
+    }
+    const thread = this.getThread(event.thread);
+
+    const resource = event.resource;
+    switch (event.type) {
+      case "THREAD_STARTED":
+      case "EXECUTION":
+        thread.state = "RUNNING";
+        thread.resourcesWaitingFor = [];
+        break;
+      case "THREAD_TERMINATED":
+        thread.state = "TERMINATED";
+        thread.resourcesHeld = [];
+        thread.resourcesWaitingFor = [];
+        break;
+      case "LOCK_WAITING":
+        thread.state = "BLOCKED";
+        thread.resourcesWaitingFor = resource ? [resource] : [];
+        break;
+      case "CONDITION_WAITING":
+        // Awaiting a condition releases its lock until the thread reacquires it
+        thread.state = "WAITING";
+        thread.resourcesWaitingFor = resource ? [resource] : [];
+        thread.resourcesHeld = thread.resourcesHeld.filter(r => r !== resource);
+        break;
+      case "LOCK_ACQUIRED":
+        thread.state = "RUNNING";
+        thread.resourcesWaitingFor = [];
+        if (resource && !thread.resourcesHeld.includes(resource)) {
+          thread.resourcesHeld = [...thread.resourcesHeld, resource];
+        }
+        break;
+      case "LOCK_RELEASED":
+        thread.resourcesHeld = thread.resourcesHeld.filter(r => r !== resource);
+        break;
+      default:
+        break;
+    }
+  }
+
+  private scheduleUpdate(): void {
+    if (this.frameRequested) {
+      return;
+    }
+    this.frameRequested = true;
+    requestAnimationFrame(() => {
+      this.frameRequested = false;
+      const update: EngineStreamUpdate = {
+        simulation: this.simulation,
+        threads: Array.from(this.threads.values()),
+        events: this.events.slice(),
+        dropped: this.dropped
+      };
+      this.dropped = 0;
+      this.callbacks.forEach(callback => {
+        try {
+          callback(update);
+        } catch (error) {
+          console.error("Error in engine stream callback:", error);
+        }
+      });
+    });
+  }
+}
+
+function toSimulationEvent(event: EngineEvent): SimulationEvent {
+  return {
+    id: event.id,
+    time: event.time,
+    threadId: event.thread ?? undefined,
+    resourceId: event.resource ?? undefined,
+    type: toSimulationEventType(event.type),
+    description: event.message ?? event.type,
+    details: { engineType: event.type }
+  };
+}
+
+function toSimulationEventType(type: string): SimulationEvent["type"] {
+  switch (type) {
+    case "THREAD_CREATED":
+      return "THREAD_CREATED";
+    case "THREAD_STARTED":
+      return "THREAD_STARTED";
+    case "THREAD_TERMINATED":
+      return "THREAD_TERMINATED";
+    case "LOCK_WAITING":
+      return "THREAD_BLOCKED";
+    case "CONDITION_WAITING":
+      return "THREAD_WAITING";
+    case "CONDITION_SIGNALED":
+      return "THREAD_RESUMED";
+    case "LOCK_ACQUIRED":
+      return "RESOURCE_ACQUIRED";
+    case "LOCK_RELEASED":
+      return "RESOURCE_RELEASED";
+    case "DEADLOCK_DETECTED":
+      return "DEADLOCK_DETECTED";
+    default:
+      return "THREAD_RESUMED";
+  }
+}
+
+export const engineStreamService = new EngineStreamService();
@@ -1,6 +1,7 @@
 import { SimulationConfig, SimulationState, SimulationType, SimulationEvent } from "../models/Simulation";
 import { Thread, ThreadState } from "../models/Thread";
 import { Resource } from "../models/Resource";
+import { engineStreamService, EngineStreamUpdate, DEFAULT_ENGINE_STREAM_URL } from "./EngineStreamService";
 import { v4 as uuidv4 } from 'uuid';
 
 // Canvas dimensions - used for positioning elements
@@ -15,9 +16,17 @@ const EVENT_BATCH_SIZE = 5; // Limit events per update to avoid memory bloat
 const MAX_EVENTS = 1000; // Cap total events to prevent memory issues
 const MAX_SIMULATION_STEPS = 100; // Maximum number of steps before simulation ends
 
+// Simulation names the engine sends, mapped to the matching browser simulation type
+const ENGINE_SIMULATION_TYPES: Record<string, SimulationType> = {
+  "Producer-Consumer": 'PRODUCER_CONSUMER',
+  "Dining Philosophers": 'DINING_PHILOSOPHERS',
+  "Reader-Writer": 'READER_WRITER'
+};
+
 class SimulationService {
   private simulations: Map<string, SimulationState> = new Map();
   private simulationSpeed: number = 1;
+  private engineSubscriptions: Map<string, () => void> = new Map();
   
   private createProducerConsumerSimulation(config: SimulationConfig): SimulationState {
     const { 
@@ -413,28 +422,46 @@ class SimulationService {
     };
   }
   
+  // Threads and resources come from the engine's stream once the simulation starts
+  private createEngineSimulation(config: SimulationConfig): SimulationState {
+    return {
+      id: uuidv4(),
+      type: config.type,
+      threads: [],
+      resources: [],
+      events: [],
+      isRunning: false,
+      isPaused: false,
+      stepCount: 0
+    };
+  }
+  
   createSimulation(config: SimulationConfig): string {
     console.log("Creating simulation with config:", config);
     
     let simulation: SimulationState;
     
-    switch (config.type) {
-      case 'PRODUCER_CONSUMER':
-        simulation = this.createProducerConsumerSimulation(config);
-        break;
-      case 'DINING_PHILOSOPHERS':
-        simulation = this.createDiningPhilosophersSimulation(config);
-        break;
-      case 'READER_WRITER':
-        simulation = this.createReaderWriterSimulation(config);
-        break;
-      default:
-        // Fallback to Producer-Consumer
-        simulation = this.createProducerConsumerSimulation({
-          ...config,
-          type: 'PRODUCER_CONSUMER'
-        });
-        break;
+    if (config.source === 'ENGINE') {
+      simulation = this.createEngineSimulation(config);
+    } else {
+      switch (config.type) {
+        case 'PRODUCER_CONSUMER':
+          simulation = this.createProducerConsumerSimulation(config);
+          break;
+        case 'DINING_PHILOSOPHERS':
+          simulation = this.createDiningPhilosophersSimulation(config);
+          break;
+        case 'READER_WRITER':
+          simulation = this.createReaderWriterSimulation(config);
+          break;
+        default:
+          // Fallback to Producer-Consumer
+          simulation = this.createProducerConsumerSimulation({
+            ...config,
+            type: 'PRODUCER_CONSUMER'
+          });
+          break;
+      }
     }
     
     // Save configuration
@@ -479,6 +506,10 @@ class SimulationService {
     
     // Update simulation
     this.simulations.set(id, { ...simulation });
+    
+    if (simulation.config?.source === 'ENGINE') {
+      this.connectEngine(id, simulation.config.engineStreamUrl || DEFAULT_ENGINE_STREAM_URL);
+    }
   }
   
   pauseSimulation(id: string): void {
@@ -515,6 +546,8 @@ class SimulationService {
     const simulation = this.simulations.get(id);
     if (!simulation) return;
     
+    this.disconnectEngine(id);
+    
     simulation.isRunning = false;
     simulation.isPaused = false;
     simulation.endTime = Date.now();
@@ -561,6 +594,9 @@ class SimulationService {
     const simulation = this.simulations.get(id);
     if (!simulation || !simulation.isRunning || simulation.isPaused) return;
     
+    // Engine-backed simulations are updated by the stream, not stepped here
+    if (simulation.config?.source === 'ENGINE') return;
+    
     // Increment step count
     simulation.stepCount = (simulation.stepCount || 0) + 1;
     
@@ -618,6 +654,82 @@ class SimulationService {
     this.simulations.set(id, { ...simulation });
   }
   
+  private connectEngine(id: string, url: string): void {
+    this.disconnectEngine(id);
+    const unsubscribe = engineStreamService.subscribe(update => this.applyEngineUpdate(id, update));
+    this.engineSubscriptions.set(id, unsubscribe);
+    engineStreamService.connect(url);
+  }
+  
+  private disconnectEngine(id: string): void {
+    const unsubscribe = this.engineSubscriptions.get(id);
+    if (!unsubscribe) return;
+    
+    unsubscribe();
+    this.engineSubscriptions.delete(id);
+    engineStreamService.disconnect();
+  }
+  
+  private applyEngineUpdate(id: string, update: EngineStreamUpdate): void {
+    const simulation = this.simulations.get(id);
+    if (!simulation || !simulation.isRunning || simulation.isPaused) return;
+    
+    if (update.dropped > 0) {
+      console.warn(`Engine left out ${update.dropped} events while the page fell behind`);
+    }
+    
+    // Threads keep their place on the circle so the animation only moves new arrivals
+    const known = new Map(simulation.threads.map(thread => [thread.id, thread]));
+    const threadRadius = Math.min(CENTER_X * 0.7, CENTER_Y * 0.7);
+    const threads = update.threads.map((thread, i): Thread => {
+      const angle = (2 * Math.PI * i) / update.threads.length;
+      const target = {
+        x: CENTER_X + Math.cos(angle) * threadRadius,
+        y: CENTER_Y + Math.sin(angle) * threadRadius
+      };
+      const previous = known.get(thread.id);
+      return {
+        ...thread,
+        position: previous ? previous.position : { ...target },
+        targetPosition: target
+      };
+    });
+    
+    // Resources are whatever the threads hold or wait for; ones seen before stay, freed
+    const resourceIds = simulation.resources.map(resource => resource.id);
+    threads.forEach(thread => {
+      [...thread.resourcesHeld, ...thread.resourcesWaitingFor].forEach(resourceId => {
+        if (!resourceIds.includes(resourceId)) {
+          resourceIds.push(resourceId);
+        }
+      });
+    });
+    const knownResources = new Map(simulation.resources.map(resource => [resource.id, resource]));
+    const resourceRadius = threadRadius * 0.5;
+    const resources = resourceIds.map((resourceId, i): Resource => {
+      const angle = (2 * Math.PI * i) / resourceIds.length;
+      const target = {
+        x: CENTER_X + Math.cos(angle) * resourceRadius,
+        y: CENTER_Y + Math.sin(angle) * resourceRadius
+      };
+      const previous = knownResources.get(resourceId);
+      const heldBy = threads.filter(t => t.resourcesHeld.includes(resourceId)).map(t => t.id);
+      return {
+        id: resourceId,
+        name: resourceId,
+        type: 'LOCK',
+        state: heldBy.length > 0 ? 'LOCKED' : 'FREE',
+        position: previous?.position ? previous.position : { ...target },
+        targetPosition: target,
+        heldBy,
+        waitingThreads: threads.filter(t => t.resourcesWaitingFor.includes(resourceId)).map(t => t.id)
+      };
+    });
+    
+    const type = (update.simulation && ENGINE_SIMULATION_TYPES[update.simulation]) || simulation.type;
+    this.simulations.set(id, { ...simulation, type, threads, resources, events: update.events });
+  }
+  
   // Implementation of the Producer-Consumer simulation update logic
   private updateProducerConsumerSimulation(simulation: SimulationState): void {
     if (!simulation || !simulation.threads || !simulation.resources) return;